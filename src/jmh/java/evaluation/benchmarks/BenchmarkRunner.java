@@ -0,0 +1,48 @@
+package evaluation.benchmarks;
+
+import games.GameType;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Entry point for the benchmarks jar built by the 'benchmark' Maven profile:
+ * <p>
+ * mvn -P benchmark package
+ * java -jar target/Benchmarks-jar-with-dependencies.jar
+ * <p>
+ * This accepts all the usual JMH command line options (e.g. '-p gameType=TicTacToe,Connect4' to run only some
+ * games, or a regexp to pick the benchmarks). The defaults differ from JMH in that we run every playable GameType,
+ * and always write a results file (JSON in benchmarks/results.json, unless -rf or -rff are given), so that results can
+ * be compared between versions of the code.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+
+        if (commandLine.getIncludes().isEmpty())
+            options.include(ForwardModelBenchmark.class.getSimpleName());
+        if (!commandLine.getParameter("gameType").hasValue())
+            options.param("gameType", Arrays.stream(GameType.values())
+                    .filter(g -> g != GameType.GameTemplate)
+                    .map(Enum::name)
+                    .toArray(String[]::new));
+        ResultFormatType format = commandLine.getResultFormat().orElse(ResultFormatType.JSON);
+        options.resultFormat(format);
+        if (!commandLine.getResult().hasValue()) {
+            new File("benchmarks").mkdirs();
+            options.result("benchmarks" + File.separator + "results." + format.name().toLowerCase());
+        }
+
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,140 @@
+package evaluation.benchmarks;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the basic operations that every search agent depends on, for each GameType.
+ * <p>
+ * copy(), computeAvailableActions() and next() are measured on a mid-game state, reached by playing
+ * startActions random actions from the start of the game. randomPlayout measures complete games of random play
+ * from the initial state, so its throughput is in games per second.
+ * <p>
+ * All random choices use fixed seeds so that runs on different versions of the code are comparable.
+ * Run with BenchmarkRunner (or the standard org.openjdk.jmh.Main).
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ForwardModelBenchmark {
+
+    // Every playable GameType (GameTemplate is left out, as it is not a game). BenchmarkRunner passes the same list,
+    // so this only matters when run with org.openjdk.jmh.Main.
+    @Param({"Pandemic", "TicTacToe", "Connect4", "ExplodingKittens", "LoveLetter", "Uno", "Virus", "ColtExpress",
+            "DotsAndBoxes", "Poker", "Blackjack", "Diamant", "Dominion", "DominionSizeDistortion", "DominionImprovements",
+            "Battlelore", "SushiGo", "Catan", "TerraformingMars", "Stratego", "CantStop", "Hanabi", "PuertoRico",
+            "Wonders7", "Resistance", "Hearts", "ChineseCheckers"})
+    public GameType gameType;
+
+    // 0 means the smallest number of players the game supports (but at least 2 if it can be played by 2)
+    @Param({"0"})
+    public int nPlayers;
+
+    @Param({"20"})
+    public int startActions;
+
+    @Param({"4803"})
+    public long seed;
+
+    // a cap on the length of a random playout, for games that can go on for a very long time under random play
+    @Param({"10000"})
+    public int maxPlayoutActions;
+
+    AbstractForwardModel forwardModel;
+    AbstractGameState initialState;
+    AbstractGameState midGameState;
+    Random rnd;
+
+    /**
+     * next() modifies the state, so needs a fresh copy (and action) for each call. This is kept separate so that
+     * the per-invocation setup does not slow down the other benchmarks.
+     * <p>
+     * A call to next() can take less than a microsecond, which is too short to time on its own after a setup per
+     * invocation (see the JMH documentation of Level.Invocation). So each invocation times a batch of BATCH calls,
+     * on states (and actions) all prepared in advance.
+     */
+    @State(Scope.Thread)
+    public static class NextInput {
+        static final int BATCH = 64;
+        final AbstractGameState[] states = new AbstractGameState[BATCH];
+        final AbstractAction[] actions = new AbstractAction[BATCH];
+
+        @Setup(Level.Invocation)
+        public void setup(ForwardModelBenchmark benchmark) {
+            for (int i = 0; i < BATCH; i++) {
+                states[i] = benchmark.midGameState.copy();
+                List<AbstractAction> available = benchmark.forwardModel.computeAvailableActions(states[i]);
+                actions[i] = available.get(benchmark.rnd.nextInt(available.size())).copy();
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        if (gameType == GameType.GameTemplate)
+            throw new IllegalArgumentException("GameTemplate is not a playable game");
+        int players = nPlayers > 0 ? nPlayers : Math.min(gameType.getMaxPlayers(), Math.max(2, gameType.getMinPlayers()));
+        Game game = gameType.createGameInstance(players, seed);
+        forwardModel = game.getForwardModel();
+        initialState = game.getGameState().copy();
+        rnd = new Random(seed);
+
+        // play forward to get a representative state, stopping short of the end of the game
+        midGameState = initialState.copy();
+        for (int i = 0; i < startActions; i++) {
+            AbstractGameState next = midGameState.copy();
+            List<AbstractAction> actions = forwardModel.computeAvailableActions(next);
+            forwardModel.next(next, actions.get(rnd.nextInt(actions.size())));
+            if (!next.isNotTerminal())
+                break;
+            midGameState = next;
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public AbstractGameState copy() {
+        return midGameState.copy();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<AbstractAction> computeAvailableActions() {
+        return forwardModel.computeAvailableActions(midGameState);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @OperationsPerInvocation(NextInput.BATCH)
+    public void next(NextInput input, Blackhole blackhole) {
+        for (int i = 0; i < NextInput.BATCH; i++) {
+            forwardModel.next(input.states[i], input.actions[i]);
+            blackhole.consume(input.states[i]);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public AbstractGameState randomPlayout() {
+        AbstractGameState state = initialState.copy();
+        for (int i = 0; i < maxPlayoutActions && state.isNotTerminal(); i++) {
+            List<AbstractAction> actions = forwardModel.computeAvailableActions(state);
+            forwardModel.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+        return state;
+    }
+}
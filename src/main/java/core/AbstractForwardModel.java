@@ -3,6 +3,7 @@ package core;
 import core.actions.AbstractAction;
 import core.actions.ActionSpace;
 import core.actions.DoNothing;
+import core.interfaces.IReversibleAction;
 import utilities.ActionTreeNode;
 import utilities.ElapsedCpuChessTimer;
 
@@ -132,6 +133,8 @@ public abstract class AbstractForwardModel {
      * @param action       - action requested to be played by a player.
      */
     public final void next(AbstractGameState currentState, AbstractAction action) {
+        if (GameInstrumentation.enabled)
+            GameInstrumentation.countForwardModelCall();
         if (action != null) {
             int player = currentState.getCurrentPlayer();
             currentState.recordAction(action, player);
@@ -145,6 +148,74 @@ public abstract class AbstractForwardModel {
         currentState.advanceGameTick();
     }
 
+    /**
+     * Forward models that can reverse the effect of next() override this to return true. They must also override
+     * _captureUndo() and _undo() if the game state holds anything (outside the components changed by the
+     * actions themselves) that is modified during next().
+     *
+     * @return true if undo() is supported by this forward model
+     */
+    public boolean supportsUndo() {
+        return false;
+    }
+
+    /**
+     * @return true if nextWithUndo() can be used to apply this action to the state
+     */
+    public final boolean canUndo(AbstractGameState state, AbstractAction action) {
+        return supportsUndo() && action instanceof IReversibleAction && !state.isActionInProgress();
+    }
+
+    /**
+     * Applies the given action exactly as next() does, and returns a token that can be passed to undo() to return
+     * the state to exactly what it was beforehand. This allows a search to move forward and back through the game on
+     * the one state instead of copying it.
+     * Tokens must be undone in the reverse order to that in which they were created.
+     * Player timers are not rewound, and any listeners on the state will have seen the events of the action.
+     *
+     * @param currentState - current game state, to be modified by the action.
+     * @param action       - action requested to be played by a player.
+     * @return the token needed to undo the action
+     */
+    public final UndoToken nextWithUndo(AbstractGameState currentState, AbstractAction action) {
+        if (!canUndo(currentState, action))
+            throw new AssertionError("Action cannot be undone in this state : " + action);
+        UndoToken token = new UndoToken(currentState, action,
+                ((IReversibleAction) action).captureUndo(currentState), _captureUndo(currentState, action));
+        next(currentState, action);
+        return token;
+    }
+
+    /**
+     * Reverses the call to nextWithUndo() that returned the token.
+     *
+     * @param currentState - the game state the action was applied to
+     * @param token        - returned by nextWithUndo()
+     */
+    public final void undo(AbstractGameState currentState, UndoToken token) {
+        currentState.rewind(token);
+        _undo(currentState, token.action, token.gameData);
+        ((IReversibleAction) token.action).undo(currentState, token.actionData);
+    }
+
+    /**
+     * Called before the action is applied by nextWithUndo(), to record anything that _undo() will need.
+     *
+     * @return data passed to _undo() (may be null)
+     */
+    protected Object _captureUndo(AbstractGameState currentState, AbstractAction action) {
+        return null;
+    }
+
+    /**
+     * Reverses any changes made by _next() other than those made by the action itself, and those to the core state
+     * (which have already been restored when this is called).
+     *
+     * @param data - the value returned by _captureUndo()
+     */
+    protected void _undo(AbstractGameState currentState, AbstractAction action, Object data) {
+    }
+
     /**
      * Computes the available actions and updates the game state accordingly.
      *
@@ -38,6 +38,9 @@ public abstract class AbstractGameState {
     protected final AbstractParameters gameParameters;
     // Game being played
     protected final GameType gameType = _getGameType();
+    // the components by id, for getComponentById()
+    private ComponentRegistry components;
+    // only used by getAllComponents()
     private Area allComponents;
 
     // Game tick, number of iterations of game loop
@@ -53,8 +56,14 @@ public abstract class AbstractGameState {
     protected ElapsedCpuChessTimer[] playerTimer;
 
     // A record of all actions taken to reach this game state
-    private List<AbstractAction> history = new ArrayList<>();
-    private List<String> historyText = new ArrayList<>();
+    private HistoryLog<AbstractAction> history = new HistoryLog<>();
+    // the player who took each action in history (for the text of any actions for which no text was recorded)
+    private HistoryLog<Integer> historyPlayers = new HistoryLog<>();
+    private HistoryLog<String> historyText = new HistoryLog<>();
+    // Text is only recorded on the state used to run the game, not on copies (see setRecordHistoryText())
+    private boolean recordHistoryText = true;
+    // the index in history of the first action for which no text was recorded, or -1
+    private int unrecordedFrom = -1;
 
     // Status of the game, and status for each player (in cooperative games, the game status is also each player's status)
     protected CoreConstants.GameResult gameStatus;
@@ -84,12 +93,15 @@ public abstract class AbstractGameState {
      * Resets variables initialised for this game state.
      */
     void reset() {
+        components = new ComponentRegistry();
         allComponents = new Area(-1, "All Components");
         gameStatus = GAME_ONGOING;
         playerResults = new CoreConstants.GameResult[getNPlayers()];
         Arrays.fill(playerResults, GAME_ONGOING);
-        history = new ArrayList<>();
-        historyText = new ArrayList<>();
+        history = new HistoryLog<>();
+        historyPlayers = new HistoryLog<>();
+        historyText = new HistoryLog<>();
+        unrecordedFrom = recordHistoryText ? -1 : 0;
         playerTimer = new ElapsedCpuChessTimer[getNPlayers()];
         tick = 0;
         turnOwner = 0;
@@ -157,9 +169,46 @@ public abstract class AbstractGameState {
     /**
      * @return All actions that have been executed on this state since reset()/initialisation
      */
-    public List<AbstractAction> getHistory() { return new ArrayList<>(history);}
+    public List<AbstractAction> getHistory() { return history.toList();}
+
+    /**
+     * If history text is not being recorded on this state (as is the case for copies), then the text recorded up to
+     * that point is followed by a description of each of the actions taken since.
+     * @return The text description of the history of the game.
+     */
     public List<String> getHistoryAsText() {
-        return new ArrayList<>(historyText);
+        List<String> retValue = historyText.toList();
+        if (unrecordedFrom > -1) {
+            for (int i = unrecordedFrom; i < history.size(); i++)
+                retValue.add(unrecordedText(i));
+        }
+        return retValue;
+    }
+
+    /**
+     * Text for the history is recorded on the state created when a game is set up, but not on any copies of it
+     * (as formatting the text for every action taken in a search is expensive, and the text is rarely wanted).
+     * This can be used to switch recording back on (or off) for a state.
+     */
+    public void setRecordHistoryText(boolean record) {
+        if (record && !recordHistoryText && unrecordedFrom > -1) {
+            for (int i = unrecordedFrom; i < history.size(); i++)
+                historyText.add(unrecordedText(i));
+            unrecordedFrom = -1;
+        } else if (!record && recordHistoryText) {
+            unrecordedFrom = history.size();
+        }
+        recordHistoryText = record;
+    }
+
+    // The text for the i-th action in history, in the format used by recordAction(). This uses the action's
+    // toString(), as getString() may need the state the action was taken in.
+    private String unrecordedText(int i) {
+        return "Player " + historyPlayers.get(i) + " : " + history.get(i);
+    }
+
+    public boolean isRecordingHistoryText() {
+        return recordHistoryText;
     }
     public int getGameID() {
         return gameID;
@@ -203,6 +252,14 @@ public abstract class AbstractGameState {
     public Random getRnd() {
         return rnd;
     }
+
+    /**
+     * copy() shares the Random object between a state and its copies. This gives a copy its own Random instead,
+     * which is needed when copies are advanced on different threads and we want reproducible results.
+     */
+    public void setRnd(Random rnd) {
+        this.rnd = rnd;
+    }
     public void addListener(IGameListener listener) {
         if (!listeners.contains(listener))
             listeners.add(listener);
@@ -222,19 +279,68 @@ public abstract class AbstractGameState {
     }
     public final int getGameTick() {return tick;}
     public final Component getComponentById(int id) {
-        Component c = allComponents.getComponent(id);
+        return findComponentById(id, false);
+    }
+
+    /**
+     * As getComponentById(), for read-only access. Unlike getComponentById() this does not take a private copy of a
+     * component held in a CopyOnWrite that is still shared with another state, so nothing obtained from it may be
+     * modified (see CopyOnWrite.peek()).
+     */
+    public final Component peekComponentById(int id) {
+        return findComponentById(id, true);
+    }
+
+    private Component findComponentById(int id, boolean readOnly) {
+        Component c = components.get(id);
+        if (c == null && !components.isFilled()) {
+            // a copy of a state only finds its components when it first needs them, and then only searches where
+            // they were in the state it was copied from
+            c = components.resolve(id, _getAllComponents());
+        }
+        if (c == null) {
+            c = getCopyOnWriteComponentById(id, readOnly);
+        }
         if (c == null) {
+            // the component may be new, or have been moved into a CopyOnWrite holder since it was indexed
             try {
                 addAllComponents();
-                c = allComponents.getComponent(id);
+                c = components.get(id);
             } catch (Exception ignored) {
             }  // Can crash from concurrent modifications if running with GUI TODO: this is an ugly fix
+            if (c == null) {
+                for (CopyOnWrite<?> holder : _getCopyOnWriteComponents())
+                    holder.reindex();
+                c = getCopyOnWriteComponentById(id, readOnly);
+            }
         }
         return c;
     }
 
+    /**
+     * Components held in a CopyOnWrite are not in the registry, as the holder replaces its component with a private
+     * copy the first time it is modified after the state is copied (which may be long after the registry was filled).
+     * So these are always found through the holder, which (unless readOnly) takes our own copy if it is still shared,
+     * as the component may be about to be modified.
+     */
+    private Component getCopyOnWriteComponentById(int id, boolean readOnly) {
+        for (CopyOnWrite<?> holder : _getCopyOnWriteComponents()) {
+            Component c = readOnly ? holder.peekComponentById(id) : holder.getComponentById(id);
+            if (c != null)
+                return c;
+        }
+        return null;
+    }
+
+    /**
+     * The components from CopyOnWrite holders are not copied first (see CopyOnWrite.peek()), so these must only
+     * be read.
+     */
     public final Area getAllComponents() {
-        addAllComponents(); // otherwise the list of allComponents is only ever updated when we copy the state!
+        addAllComponents(); // otherwise the registry may be out of date
+        components.copyInto(allComponents);
+        for (CopyOnWrite<?> holder : _getCopyOnWriteComponents())
+            allComponents.putComponent(holder.peek());
         return allComponents;
     }
 
@@ -246,15 +352,46 @@ public abstract class AbstractGameState {
      * @return Return
      */
     public final List<Component> getAllTopLevelComponents() {
-        return _getAllComponents();
+        List<Component> retValue = _getAllComponents();
+        for (CopyOnWrite<?> holder : _getCopyOnWriteComponents())
+            retValue.add(holder.get());
+        return retValue;
+    }
+
+    /**
+     * A 64-bit key for this state, for use in transposition tables (e.g. by MCGS) in place of a String key.
+     * Equal states have the same key, but the key only distinguishes states that differ in what it covers:
+     * <ul>
+     *     <li>the core game status: current player, game status, phase, round and turn counters, results and the
+     *     actions in progress;</li>
+     *     <li>and _getStateKey(), which by default covers which components (by id) are in each Deck and each cell of
+     *     each GridBoard, and the value of each Counter. It does not cover the order of the cards in a Deck, nor any
+     *     change to a component that stays where it is (e.g. a token whose type is changed in place), nor any fields
+     *     held directly in the game state.</li>
+     * </ul>
+     * States that differ only in anything else share a key, and so are merged by a transposition table. A game for
+     * which that matters (because, say, the order of a visible deck changes the options) should override
+     * _getStateKey() to add it in. Two states that differ in what is covered share a key only by (64-bit) chance.
+     * <p>
+     * Like hashCode() it excludes the history, and as the component hashes are maintained as the components
+     * change (see Zobrist) this is much cheaper to calculate than a key built from features.
+     *
+     * @return - the key
+     */
+    public final long getStateKey() {
+        long key = Zobrist.key(getCurrentPlayer(), gameStatus.ordinal(), String.valueOf(gamePhase).hashCode());
+        key = Zobrist.key(key, roundCounter, turnCounter);
+        key = Zobrist.key(key, Arrays.hashCode(playerResults), actionsInProgress.hashCode());
+        return key + _getStateKey();
     }
 
     /**
-     * Adds all components given by the game to the allComponents map in the correct way, first clearing the map.
+     * Fills the component registry (used by getComponentById()) with all the components given by the game,
+     * first clearing it.
      */
     protected final void addAllComponents() {
-        allComponents.clear();
-        allComponents.putComponents(_getAllComponents());
+        // anything in a CopyOnWrite holder is found through the holder instead (see getCopyOnWriteComponentById)
+        components.fill(_getAllComponents());
     }
 
     /**
@@ -278,6 +415,8 @@ public abstract class AbstractGameState {
     public final AbstractGameState copy(int playerId) {
         AbstractGameState s = _copy(playerId);
         // Copy super class things
+        // the copy's registry finds its components as they are first looked up (see ComponentRegistry.resolve())
+        s.components = components.emptyCopy();
         s.allComponents = allComponents.emptyCopy();
         s.gameStatus = gameStatus;
         s.playerResults = playerResults.clone();
@@ -291,9 +430,14 @@ public abstract class AbstractGameState {
         s.firstPlayer = firstPlayer;
         s.rnd = rnd;
 
+        s.recordHistoryText = false;
+        s.unrecordedFrom = 0;
         if (!coreGameParameters.competitionMode) {
-            s.history = new ArrayList<>(history);
-            s.historyText = new ArrayList<>(historyText);
+            // the copies share everything recorded so far with this state
+            s.history = history.copy();
+            s.historyPlayers = historyPlayers.copy();
+            s.historyText = historyText.copy();
+            s.unrecordedFrom = recordHistoryText ? history.size() : unrecordedFrom;
             // we do not copy individual actions in history, as these are now dead and should not change
             // History is for debugging and spectation of games. There is a risk that History might contain information
             // formally hidden to some participants. For this reason, in COMPETITION_MODE we explicitly do not copy
@@ -311,9 +455,6 @@ public abstract class AbstractGameState {
         for (int i = 0; i < getNPlayers(); i++) {
             s.playerTimer[i] = playerTimer[i].copy();
         }
-
-        // Update the list of components for ID matching in actions.
-        s.addAllComponents();
         return s;
     }
 
@@ -324,14 +465,16 @@ public abstract class AbstractGameState {
      */
     protected final void recordAction(AbstractAction action, int player) {
         history.add(action);
-        historyText.add("Player " + player + " : " + action.getString(this));
+        historyPlayers.add(player);
+        if (recordHistoryText)
+            historyText.add("Player " + player + " : " + action.getString(this));
     }
 
 
     // helper function to avoid time-consuming string manipulations if the message is not actually
     // going to be logged anywhere
     public void logEvent(IGameEvent event, Supplier<String> eventText) {
-        if (listeners.isEmpty() && !getCoreGameParameters().recordEventHistory)
+        if (listeners.isEmpty() && (!getCoreGameParameters().recordEventHistory || !recordHistoryText))
             return; // to avoid expensive string manipulations
         logEvent(event, eventText.get());
     }
@@ -351,7 +494,35 @@ public abstract class AbstractGameState {
     }
 
     public void recordHistory(String history) {
-        historyText.add(history);
+        if (recordHistoryText)
+            historyText.add(history);
+    }
+
+    int historyLength() {
+        return history.size();
+    }
+
+    int historyTextLength() {
+        return historyText.size();
+    }
+
+    /**
+     * Restores the core state recorded in the token. Used by AbstractForwardModel.undo()
+     */
+    void rewind(UndoToken token) {
+        tick = token.tick;
+        roundCounter = token.roundCounter;
+        turnCounter = token.turnCounter;
+        turnOwner = token.turnOwner;
+        firstPlayer = token.firstPlayer;
+        gameStatus = token.gameStatus;
+        System.arraycopy(token.playerResults, 0, playerResults, 0, playerResults.length);
+        gamePhase = token.gamePhase;
+        // undo is only available when no action was in progress, so anything here was started by the action undone
+        actionsInProgress.clear();
+        history.truncate(token.historyLength);
+        historyPlayers.truncate(token.historyLength);
+        historyText.truncate(token.historyTextLength);
     }
 
     /* Methods dealing with ExtendedActions and the actionStack */
@@ -398,6 +569,34 @@ public abstract class AbstractGameState {
      */
     protected abstract List<Component> _getAllComponents();
 
+    /**
+     * Games that share components between copies of the state (and only copy them when they are first modified)
+     * return the CopyOnWrite holders for these components here. They must not also be returned by
+     * _getAllComponents().
+     *
+     * @return - the CopyOnWrite holders in this state; none by default
+     */
+    protected List<CopyOnWrite<?>> _getCopyOnWriteComponents() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * The game-specific part of getStateKey(). By default this sums the Zobrist hashes (see Zobrist.hashOf()) of
+     * all the components in the state, which covers GridBoards, Decks and Counters (and anything that contains them).
+     * Games with other important state (such as fields held directly in the game state) should override this to add
+     * it in, and games that know which few components change can override it to only look at these.
+     *
+     * @return - the key for the game-specific part of the state
+     */
+    protected long _getStateKey() {
+        long retValue = 0;
+        for (Component c : _getAllComponents())
+            retValue += Zobrist.hashOf(c);
+        for (CopyOnWrite<?> holder : _getCopyOnWriteComponents())
+            retValue += Zobrist.hashOf(holder.peek());
+        return retValue;
+    }
+
     /**
      * Create a copy of the game state containing only those components the given player can observe (if partial
      * observable).
@@ -0,0 +1,228 @@
+package core;
+
+import core.components.Area;
+import core.components.Component;
+import core.interfaces.IComponentContainer;
+
+import java.util.*;
+
+/**
+ * The components of a game state by their component ids, used by AbstractGameState.getComponentById().
+ * <p>
+ * Component ids come from a single counter for the whole JVM, so they are not dense. But nearly all of the
+ * components in a game are created during setup, and have ids in a narrow range. That range is fixed when the
+ * registry is first filled (at setup), and is shared with all copies of the state: a component's index in the array
+ * is just its id less the start of the range. Components with ids outside the range (those created later in the
+ * game, or shared by all games) are kept in a small map.
+ * <p>
+ * Copying a state does not fill the registry of the copy. Instead the copy shares a record of which top-level
+ * component (by its position in the list given to fill()) each id was found in. A copy of a state has the copies of
+ * the same top-level components in the same order, so a lookup in the copy only needs to search the one top-level
+ * component that the id came from (see resolve()), and each slot is pointed at the copy's own component as it is
+ * first looked up. Only if that fails (the component may be new, or have moved) is the registry filled from scratch,
+ * which also replaces the record for any later copies. Components held in a CopyOnWrite are never in the registry,
+ * as the holder may replace them with a copy at any time.
+ * <p>
+ * Filling the registry builds new arrays, and only then replaces the old ones, so a state that is only read by
+ * several threads at once (as in a parallel evaluation by RHEA) may be filled by any of them.
+ */
+final class ComponentRegistry {
+
+    private static final int MAX_SPAN_PER_COMPONENT = 4;  // how sparse the range of ids in the array may be
+
+    // the range of ids kept in the array; span is -1 until this is first filled
+    private int base, span = -1;
+    private Component[] slots;
+    private Map<Integer, Component> others = new HashMap<>();
+    // the position of the top-level component that each id was found in at the last fill, or -1 for none. These are
+    // shared with copies, and never changed once built.
+    private int[] owners;
+    private Map<Integer, Integer> otherOwners = Collections.emptyMap();
+    private volatile boolean filled;
+    private int size;
+
+    /**
+     * @return a new (unfilled) registry for a copy of the state, which uses the same range of ids, and finds its
+     * components in the same top-level components
+     */
+    ComponentRegistry emptyCopy() {
+        ComponentRegistry retValue = new ComponentRegistry();
+        retValue.base = base;
+        retValue.span = span;
+        retValue.owners = owners;
+        retValue.otherOwners = otherOwners;
+        return retValue;
+    }
+
+    boolean isFilled() {
+        return filled;
+    }
+
+    /**
+     * Replaces the contents with the components, and all the components that they contain
+     */
+    void fill(List<? extends Component> topLevel) {
+        List<Component> all = new ArrayList<>();
+        List<Integer> allOwners = new ArrayList<>();
+        for (int i = 0; i < topLevel.size(); i++)
+            flatten(topLevel.get(i), i, all, allOwners);
+        if (span == -1)
+            setRange(all);
+        Component[] newSlots = new Component[span];
+        Map<Integer, Component> newOthers = new HashMap<>();
+        int[] newOwners = new int[span];
+        Arrays.fill(newOwners, -1);
+        Map<Integer, Integer> newOtherOwners = new HashMap<>();
+        int newSize = 0;
+        for (int i = 0; i < all.size(); i++) {
+            // as for the component itself, the last top-level component an id is found in is the one recorded
+            Component c = all.get(i);
+            newSize += put(c, newSlots, newOthers);
+            int index = c.getComponentID() - base;
+            if (index >= 0 && index < span)
+                newOwners[index] = allOwners.get(i);
+            else
+                newOtherOwners.put(c.getComponentID(), allOwners.get(i));
+        }
+        slots = newSlots;
+        others = newOthers;
+        owners = newOwners;
+        otherOwners = newOtherOwners;
+        size = newSize;
+        filled = true;
+    }
+
+    private static void flatten(Component component, int owner, List<Component> all, List<Integer> allOwners) {
+        all.add(component);
+        allOwners.add(owner);
+        if (component instanceof IComponentContainer) {
+            for (Component nested : ((IComponentContainer<?>) component).getComponents()) {
+                if (nested != null)
+                    flatten(nested, owner, all, allOwners);
+            }
+        }
+    }
+
+    /**
+     * Finds a component in a registry that is not yet filled (that of a copy), by searching only the top-level
+     * component that the id was found in when the registry it was copied from was filled. The component found is
+     * kept for the next lookup if its id is in the range of the array. (Writing to the array is safe if other threads
+     * are reading the state at the same time, while the map of the others is not.)
+     *
+     * @param topLevel the top-level components of the state, in the same order as given to fill()
+     * @return the component, or null if it was not found this way (in which case the registry should be filled)
+     */
+    Component resolve(int id, List<? extends Component> topLevel) {
+        int owner = ownerOf(id);
+        if (owner < 0 || owner >= topLevel.size())
+            return null;
+        Component retValue = find(topLevel.get(owner), id);
+        int index = id - base;
+        if (retValue != null && index >= 0 && index < span) {
+            Component[] current = slots;
+            if (current == null) {
+                current = new Component[span];
+                slots = current;
+            }
+            current[index] = retValue;
+        }
+        return retValue;
+    }
+
+    /**
+     * @return the position of the top-level component that the id was found in at the last fill, or -1 if none
+     */
+    int ownerOf(int id) {
+        int index = id - base;
+        if (owners != null && index >= 0 && index < span)
+            return owners[index];
+        return otherOwners.getOrDefault(id, -1);
+    }
+
+    private static Component find(Component c, int id) {
+        if (c.getComponentID() == id)
+            return c;
+        if (c instanceof IComponentContainer) {
+            for (Component nested : ((IComponentContainer<?>) c).getComponents()) {
+                Component found = nested == null ? null : find(nested, id);
+                if (found != null)
+                    return found;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Picks the range of ids (of at most MAX_SPAN_PER_COMPONENT per component) that covers the most components.
+     */
+    private void setRange(List<Component> components) {
+        int[] ids = new int[components.size()];
+        for (int i = 0; i < ids.length; i++)
+            ids[i] = components.get(i).getComponentID();
+        Arrays.sort(ids);
+        int maxSpan = MAX_SPAN_PER_COMPONENT * ids.length + 16;
+        int bestStart = 0, bestCount = 0;
+        for (int lo = 0, hi = 0; hi < ids.length; hi++) {
+            while (ids[hi] - ids[lo] >= maxSpan)
+                lo++;
+            if (hi - lo + 1 > bestCount) {
+                bestCount = hi - lo + 1;
+                bestStart = lo;
+            }
+        }
+        base = ids.length == 0 ? 0 : ids[bestStart];
+        span = ids.length == 0 ? 0 : Math.min(maxSpan, ids[ids.length - 1] - base + 1);
+    }
+
+    /**
+     * Adds (or replaces) the component. Any components it contains are not added.
+     */
+    void put(Component component) {
+        if (slots == null)
+            slots = new Component[Math.max(span, 0)];
+        size += put(component, slots, others);
+    }
+
+    // returns 1 if the component is new
+    private int put(Component component, Component[] slots, Map<Integer, Component> others) {
+        int index = component.getComponentID() - base;
+        Component old;
+        if (index >= 0 && index < span) {
+            old = slots[index];
+            slots[index] = component;
+        } else {
+            old = others.put(component.getComponentID(), component);
+        }
+        return old == null ? 1 : 0;
+    }
+
+    /**
+     * @return the component, or null if there is none with the id
+     */
+    Component get(int id) {
+        int index = id - base;
+        if (index >= 0 && index < span)
+            return slots == null ? null : slots[index];
+        return others.isEmpty() ? null : others.get(id);
+    }
+
+    /**
+     * @return the number of components added by the last fill, and by put() since (but not those found by resolve())
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Replaces the contents of the area with the components in the registry
+     */
+    void copyInto(Area area) {
+        area.clear();
+        if (slots != null)
+            for (Component c : slots)
+                if (c != null)
+                    area.putComponent(c.getComponentID(), c);
+        for (Component c : others.values())
+            area.putComponent(c.getComponentID(), c);
+    }
+}
@@ -0,0 +1,170 @@
+package core;
+
+import core.components.Component;
+import core.interfaces.IComponentContainer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds a Component that may be shared between a game state and its copies, so that copying a state does not
+ * need to copy every component in it.
+ * <p>
+ * When a state is copied, share() is used in place of a deep copy of the component. This marks the component as
+ * shared in both the original and the copy, and whichever of them then calls get() first takes its own private
+ * copy at that point. A component that is never written to in either state is never copied at all.
+ * <p>
+ * get() must be used for any access that may modify the component (and is the safe default), while peek() can be
+ * used where the component is only read. Nothing obtained from peek() may be modified, nor held on to
+ * after the state is next copied.
+ * <p>
+ * Game states that use this return their holders from AbstractGameState._getCopyOnWriteComponents(), so that
+ * getComponentById() can find their components. These are always found through the holder (see getComponentById()
+ * and peekComponentById() here), and never kept in the component registry of the state, as the component held may be
+ * replaced by a copy at any time. Each holder keeps its own index of the components it holds by id, which is shared
+ * with the holders made by share() until the component is copied.
+ */
+public final class CopyOnWrite<T extends Component> {
+
+    private T value;
+    private boolean shared;
+    private final UnaryOperator<T> copier;
+    // the component and everything it contains, by id; null until first needed, and again once the component is
+    // replaced. The map is never changed once built, so it can be shared with the holders made by share().
+    private volatile Map<Integer, Component> index;
+
+    /**
+     * @param value  - the component
+     * @param copier - makes a deep copy of the component. This only needs to be specified if the copy() method
+     *               of the component does not copy all of its contents (as is the case for GridBoard, for example)
+     */
+    public CopyOnWrite(T value, UnaryOperator<T> copier) {
+        this.value = value;
+        this.copier = copier;
+    }
+
+    @SuppressWarnings("unchecked")
+    public CopyOnWrite(T value) {
+        this(value, c -> (T) c.copy());
+    }
+
+    /**
+     * @return the component, which may be modified. If it is shared with another state we first take a private copy.
+     */
+    public T get() {
+        if (shared) {
+            value = copier.apply(value);
+            shared = false;
+            index = null;  // the copy is made of new components
+        }
+        return value;
+    }
+
+    /**
+     * @return the component for read-only access. This never copies.
+     */
+    public T peek() {
+        return value;
+    }
+
+    public void set(T value) {
+        this.value = value;
+        shared = false;
+        index = null;
+    }
+
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * This is used in place of copying the component when a game state is copied.
+     *
+     * @return a new holder for the same component. Both this and the new holder will copy the component
+     * on their next get().
+     */
+    public CopyOnWrite<T> share() {
+        shared = true;
+        CopyOnWrite<T> retValue = new CopyOnWrite<>(value, copier);
+        retValue.shared = true;
+        retValue.index = index;
+        return retValue;
+    }
+
+    /**
+     * @return true if the component, or anything it contains, has the specified component id
+     */
+    public boolean contains(int componentId) {
+        return index().containsKey(componentId);
+    }
+
+    /**
+     * As get(), this takes a private copy first if the component is shared, as the result may be modified.
+     *
+     * @return the component, or the component it contains, with the specified component id; or null if there is none
+     */
+    public Component getComponentById(int componentId) {
+        if (!contains(componentId))
+            return null;
+        if (shared)
+            get();  // and the index is then rebuilt from the new copy
+        return index().get(componentId);
+    }
+
+    /**
+     * As peek(), this never copies, so the result must only be read.
+     *
+     * @return the component, or the component it contains, with the specified component id; or null if there is none
+     */
+    public Component peekComponentById(int componentId) {
+        return index().get(componentId);
+    }
+
+    /**
+     * The index is built when first needed after the component is replaced, and is not updated when components are
+     * moved into or out of the component. So a lookup that misses should call this, and try again (as
+     * AbstractGameState.getComponentById() does).
+     */
+    void reindex() {
+        index = null;
+    }
+
+    private Map<Integer, Component> index() {
+        Map<Integer, Component> retValue = index;
+        if (retValue == null) {
+            retValue = new HashMap<>();
+            addToIndex(value, retValue);
+            index = retValue;
+        }
+        return retValue;
+    }
+
+    private static void addToIndex(Component c, Map<Integer, Component> index) {
+        index.putIfAbsent(c.getComponentID(), c);
+        if (c instanceof IComponentContainer) {
+            for (Component nested : ((IComponentContainer<?>) c).getComponents()) {
+                if (nested != null)
+                    addToIndex(nested, index);
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CopyOnWrite)) return false;
+        return Objects.equals(value, ((CopyOnWrite<?>) o).value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(value);
+    }
+}
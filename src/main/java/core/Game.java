@@ -12,6 +12,7 @@ import games.GameType;
 import gui.AbstractGUIManager;
 import gui.GUI;
 import gui.GamePanel;
+import players.IPonderingPlayer;
 import players.basicMCTS.BasicMCTSPlayer;
 import players.human.ActionController;
 import players.human.HumanConsolePlayer;
@@ -23,6 +24,7 @@ import players.rmhc.RMHCPlayer;
 import players.simple.FirstActionPlayer;
 import players.simple.OSLAPlayer;
 import players.simple.RandomPlayer;
+import utilities.LatencyHistogram;
 import utilities.Pair;
 import utilities.Utils;
 
@@ -55,6 +57,8 @@ public class Game {
     private JFrame frame;
     // Timers for various function calls
     private double nextTime, copyTime, agentTime, actionComputeTime;
+    // The GameInstrumentation histograms for this game, fetched when first needed (see recordInstrumentation())
+    private LatencyHistogram[][] instrumentationHistograms;
     // Keeps track of action spaces for each game tick, pairs of (player ID, #actions)
     private ArrayList<Pair<Integer, Integer>> actionSpaceSize;
     // Number of times an agent is asked for decisions
@@ -518,12 +522,21 @@ public class Game {
         AbstractPlayer currentPlayer = players.get(activePlayer);
         if (debug) System.out.printf("Starting oneAction for player %s%n", activePlayer);
 
+        // A player that has been pondering stops now, and in competition mode the time it used is charged to it
+        if (currentPlayer instanceof IPonderingPlayer) {
+            long ponderTime = ((IPonderingPlayer) currentPlayer).stopPondering();
+            if (gameState.coreGameParameters.competitionMode)
+                gameState.playerTimer[activePlayer].consume(ponderTime);
+        }
+
         // Get player observation, and time how long it takes
         double s = System.nanoTime();
         // copying the gamestate also copies the game parameters and resets the random seed (so agents cannot use this
         // to reconstruct the starting hands etc.)
         AbstractGameState observation = gameState.copy(activePlayer);
         copyTime = (System.nanoTime() - s);
+        if (GameInstrumentation.enabled)
+            recordInstrumentation(GameInstrumentation.Phase.COPY, activePlayer, (long) copyTime);
         //      System.out.printf("Total copyTime in ms = %.2f at tick %d (Avg %.3f) %n", copyTime / 1e6, tick, copyTime / (tick +1.0) / 1e6);
 
         // Get actions for the player
@@ -546,6 +559,8 @@ public class Game {
 
         }
         actionComputeTime = (System.nanoTime() - s);
+        if (GameInstrumentation.enabled)
+            recordInstrumentation(GameInstrumentation.Phase.COMPUTE_ACTIONS, activePlayer, (long) actionComputeTime);
         actionSpaceSize.add(new Pair<>(activePlayer, observedActions.size()));
 
         if (gameState.coreGameParameters.verbose) {
@@ -575,7 +590,10 @@ public class Game {
                 if (debug)
                     System.out.printf("Game: %2d Tick: %3d\t%s%n", gameState.getGameID(), getTick(), action.getString(gameState));
 
-                agentTime += (System.nanoTime() - s);
+                long decisionTime = System.nanoTime() - (long) s;
+                agentTime += decisionTime;
+                if (GameInstrumentation.enabled)
+                    recordInstrumentation(GameInstrumentation.Phase.AGENT, activePlayer, decisionTime);
                 nDecisions++;
             }
             if (gameState.coreGameParameters.competitionMode && action != null && !observedActions.contains(action)) {
@@ -608,6 +626,8 @@ public class Game {
             s = System.nanoTime();
             forwardModel.next(gameState, action);
             nextTime = (System.nanoTime() - s);
+            if (GameInstrumentation.enabled)
+                recordInstrumentation(GameInstrumentation.Phase.NEXT, activePlayer, (long) nextTime);
         }
 
         lastPlayer = activePlayer;
@@ -617,14 +637,61 @@ public class Game {
         AbstractAction finalAction1 = action;
         listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.ACTION_TAKEN, gameState, finalAction1.copy(), activePlayer)));
 
+        startPondering();
+
         if (debug) System.out.printf("Finishing oneAction for player %s%n", activePlayer);
         return action;
     }
 
+    /**
+     * Records the time taken by a phase of an action in GameInstrumentation, against both the player and all players
+     */
+    private void recordInstrumentation(GameInstrumentation.Phase phase, int player, long nanos) {
+        if (instrumentationHistograms == null || instrumentationHistograms[0].length <= player + 1)
+            instrumentationHistograms = GameInstrumentation.getInstance().getHistograms(gameType, gameState.getNPlayers());
+        LatencyHistogram[] histograms = instrumentationHistograms[phase.ordinal()];
+        histograms[0].record(nanos);
+        histograms[player + 1].record(nanos);
+    }
+
+    /**
+     * Lets each player that ponders (see IPonderingPlayer) search in the background from the new state while the
+     * next player decides. Each gets its own observation of the state. In competition mode a player may spend at
+     * most half of the time it has left on pondering, so that it always has time left for its own decision, and
+     * players that need the history to use their pondering do not ponder at all (see pondersFromHistory()).
+     */
+    private void startPondering() {
+        if (!gameState.isNotTerminal())
+            return;
+        int nextPlayer = gameState.getCurrentPlayer();
+        for (AbstractPlayer player : players) {
+            int id = player.getPlayerID();
+            if (id == nextPlayer || !(player instanceof IPonderingPlayer) || !gameState.isNotTerminalForPlayer(id))
+                continue;
+            IPonderingPlayer ponderer = (IPonderingPlayer) player;
+            if (!ponderer.ponders() || (gameState.coreGameParameters.competitionMode && ponderer.pondersFromHistory()))
+                continue;
+            long cpuLimit = gameState.coreGameParameters.competitionMode ? gameState.playerTimer[id].remainingTime() / 2 : Long.MAX_VALUE;
+            if (cpuLimit > 0)
+                ponderer.startPondering(gameState.copy(id), cpuLimit);
+        }
+    }
+
+    /**
+     * Stops any players that are still pondering
+     */
+    private void stopPondering() {
+        for (AbstractPlayer player : players) {
+            if (player instanceof IPonderingPlayer)
+                ((IPonderingPlayer) player).stopPondering();
+        }
+    }
+
     /**
      * Called at the end of game loop execution, when the game is over.
      */
     private void terminate() {
+        stopPondering();
         // Print last state
         if (gameState instanceof IPrintable && gameState.coreGameParameters.verbose) {
             ((IPrintable) gameState).printToConsole();
@@ -633,6 +700,8 @@ public class Game {
         // Perform any end of game computations as required by the game
         forwardModel.endGame(gameState);
         listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, gameState)));
+        if (GameInstrumentation.enabled)
+            GameInstrumentation.getInstance().gameCompleted(gameType);
         if (gameState.coreGameParameters.recordEventHistory) {
             gameState.recordHistory(Event.GameEvent.GAME_OVER.name());
             for (int i = 0; i < gameState.getNPlayers(); i++) {
@@ -0,0 +1,225 @@
+package core;
+
+import games.GameType;
+import utilities.LatencyHistogram;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and throughput counters for the games run in this JVM. Game records the time taken by each
+ * phase of every action (copying the state for the player, computing the available actions, the player's decision,
+ * and applying the action) against the GameType, both overall and for the player making the decision. It also counts
+ * the games completed, and every call to AbstractForwardModel.next() is counted (including those made by the
+ * players' own searches), so that games/second and forward model calls/second can be reported.
+ * <p>
+ * Unlike the timings on Game (which are for the last action only), these accumulate over all games until reset()
+ * is called, so the tail of the distribution (e.g. the 99.9th percentile of decision times) can be seen.
+ * Everything here is thread-safe, and shared by games run in parallel.
+ * <p>
+ * Nothing is recorded (or counted) unless enabled is set to true, which RunGames does when an instrumentation file
+ * is given.
+ * <p>
+ * The data can be read directly (getHistogram() etc.), written out with report(), or written to a file
+ * periodically with startPeriodicDump().
+ */
+public final class GameInstrumentation {
+
+    public enum Phase {
+        COPY, COMPUTE_ACTIONS, AGENT, NEXT
+    }
+
+    // Set to true to turn on the recording done by Game and the counting of forward model calls
+    public static volatile boolean enabled = false;
+
+    private static final GameInstrumentation instance = new GameInstrumentation();
+
+    public static GameInstrumentation getInstance() {
+        return instance;
+    }
+
+    private static final LongAdder forwardModelCalls = new LongAdder();
+
+    /**
+     * Called by AbstractForwardModel.next(), when enabled
+     */
+    static void countForwardModelCall() {
+        forwardModelCalls.increment();
+    }
+
+    private static final class Key {
+        final GameType gameType;
+        final Phase phase;
+        final int player;  // -1 for all players
+
+        Key(GameType gameType, Phase phase, int player) {
+            this.gameType = gameType;
+            this.phase = phase;
+            this.player = player;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return gameType == other.gameType && phase == other.phase && player == other.player;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(gameType, phase, player);
+        }
+    }
+
+    // histograms are never removed (reset() clears them instead), so the arrays handed out by getHistograms() stay valid
+    private final Map<Key, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final Map<GameType, LongAdder> gamesCompleted = new ConcurrentHashMap<>();
+    private volatile long startTime = System.nanoTime();
+    private volatile long startForwardModelCalls = 0;
+    private ScheduledExecutorService dumpExecutor;
+    private String dumpFile;
+
+    private GameInstrumentation() {
+    }
+
+    /**
+     * Returns the histograms for a game, for Game to keep and record each phase of an action in directly. These are
+     * indexed by Phase.ordinal(), and then by player + 1, with index 0 for all players; a time should be recorded
+     * against both the player and all players.
+     */
+    public LatencyHistogram[][] getHistograms(GameType gameType, int nPlayers) {
+        Phase[] phases = Phase.values();
+        LatencyHistogram[][] retValue = new LatencyHistogram[phases.length][nPlayers + 1];
+        for (Phase phase : phases) {
+            for (int player = -1; player < nPlayers; player++) {
+                retValue[phase.ordinal()][player + 1] = histograms.computeIfAbsent(new Key(gameType, phase, player), k -> new LatencyHistogram());
+            }
+        }
+        return retValue;
+    }
+
+    public void gameCompleted(GameType gameType) {
+        gamesCompleted.computeIfAbsent(gameType, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * @return the histogram of times in nanoseconds for all players, or null if there are none
+     */
+    public LatencyHistogram getHistogram(GameType gameType, Phase phase) {
+        return getHistogram(gameType, phase, -1);
+    }
+
+    /**
+     * @return the histogram of times in nanoseconds for the player, or null if there are none
+     */
+    public LatencyHistogram getHistogram(GameType gameType, Phase phase, int player) {
+        LatencyHistogram h = histograms.get(new Key(gameType, phase, player));
+        return h == null || h.getCount() == 0 ? null : h;
+    }
+
+    public long getGamesCompleted(GameType gameType) {
+        LongAdder games = gamesCompleted.get(gameType);
+        return games == null ? 0 : games.sum();
+    }
+
+    public long getGamesCompleted() {
+        return gamesCompleted.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public long getForwardModelCalls() {
+        return forwardModelCalls.sum() - startForwardModelCalls;
+    }
+
+    public double getElapsedSeconds() {
+        return (System.nanoTime() - startTime) / 1e9;
+    }
+
+    public double getGamesPerSecond() {
+        return getGamesCompleted() / getElapsedSeconds();
+    }
+
+    public double getForwardModelCallsPerSecond() {
+        return getForwardModelCalls() / getElapsedSeconds();
+    }
+
+    /**
+     * Clears all the histograms and counters, and restarts the clock for the rates
+     */
+    public void reset() {
+        for (LatencyHistogram h : histograms.values())
+            h.reset();
+        gamesCompleted.clear();
+        startForwardModelCalls = forwardModelCalls.sum();
+        startTime = System.nanoTime();
+    }
+
+    /**
+     * @return a tab-separated summary: the throughput, and then one line per histogram with the count and the
+     * mean, percentiles and maximum in microseconds
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Elapsed (s)\t%.1f%nGames\t%d%nGames/s\t%.3f%nFM calls\t%d%nFM calls/s\t%.0f%n",
+                getElapsedSeconds(), getGamesCompleted(), getGamesPerSecond(), getForwardModelCalls(), getForwardModelCallsPerSecond()));
+        sb.append("GameType\tPhase\tPlayer\tCount\tMean (us)\tP50 (us)\tP90 (us)\tP99 (us)\tP99.9 (us)\tMax (us)\n");
+        List<Key> keys = new ArrayList<>(histograms.keySet());
+        keys.sort(Comparator.comparing((Key k) -> k.gameType.name()).thenComparing(k -> k.phase).thenComparingInt(k -> k.player));
+        for (Key key : keys) {
+            LatencyHistogram h = histograms.get(key);
+            if (h.getCount() == 0)
+                continue;
+            sb.append(String.format("%s\t%s\t%s\t%d\t%.1f\t%.1f\t%.1f\t%.1f\t%.1f\t%.1f%n", key.gameType.name(), key.phase,
+                    key.player == -1 ? "All" : String.valueOf(key.player), h.getCount(), h.getMean() / 1e3,
+                    h.getValueAtPercentile(50) / 1e3, h.getValueAtPercentile(90) / 1e3, h.getValueAtPercentile(99) / 1e3,
+                    h.getValueAtPercentile(99.9) / 1e3, h.getMax() / 1e3));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes report() to the file (replacing its contents)
+     */
+    public void dump(String fileName) {
+        try (FileWriter writer = new FileWriter(fileName)) {
+            writer.write(report());
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem writing to file " + fileName + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts writing report() to the file every periodSeconds on a background thread (replacing any previous
+     * periodic dump). stopPeriodicDump() writes the file one last time.
+     */
+    public synchronized void startPeriodicDump(String fileName, long periodSeconds) {
+        stopPeriodicDump();
+        dumpExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Instrumentation dump");
+            t.setDaemon(true);
+            return t;
+        });
+        dumpExecutor.scheduleAtFixedRate(() -> {
+            try {
+                dump(fileName);
+            } catch (AssertionError e) {
+                // already reported; we try again next time
+            }
+        }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+        dumpFile = fileName;
+    }
+
+    public synchronized void stopPeriodicDump() {
+        if (dumpExecutor == null)
+            return;
+        dumpExecutor.shutdownNow();
+        dumpExecutor = null;
+        dump(dumpFile);
+    }
+}
@@ -0,0 +1,87 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An append-only list used for the history in AbstractGameState, which can be copied in constant time.
+ * <p>
+ * A copy shares the backing array (and hence all the entries so far) with the original, and after that either of
+ * them can add entries independently. The first list to add an entry at a given position claims that slot in the
+ * shared array and writes it in place, while any other list that later adds at the same position first moves to a
+ * private copy of its own entries. The claim is a compare-and-set, so states that share a history can safely be
+ * used on different threads (as they are by the parallel search modes in MCTS).
+ */
+final class HistoryLog<T> {
+
+    private static final Object[] EMPTY = new Object[0];
+
+    private Object[] entries = EMPTY;
+    private int size;
+    // the number of slots in entries that have been written, by this or any other list sharing the array
+    private AtomicInteger claimed = new AtomicInteger();
+    // true once a copy has been taken that may still be using the array
+    private boolean shared;
+
+    HistoryLog() {
+    }
+
+    private HistoryLog(HistoryLog<T> other) {
+        entries = other.entries;
+        size = other.size;
+        claimed = other.claimed;
+        shared = true;
+    }
+
+    HistoryLog<T> copy() {
+        shared = true;
+        return new HistoryLog<>(this);
+    }
+
+    void add(T entry) {
+        if (size == entries.length || !claimed.compareAndSet(size, size + 1)) {
+            // either the array is full, or another list has already written to the next slot
+            Object[] newEntries = new Object[Math.max(16, size * 2)];
+            System.arraycopy(entries, 0, newEntries, 0, size);
+            entries = newEntries;
+            claimed = new AtomicInteger(size + 1);
+            shared = false;
+        }
+        entries[size++] = entry;
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " with size " + size);
+        return (T) entries[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes all entries from newSize onwards
+     */
+    void truncate(int newSize) {
+        if (newSize > size)
+            throw new AssertionError("Cannot truncate history of length " + size + " to " + newSize);
+        if (!shared) {
+            // no other list can see these slots, so we can release them and write in place again
+            Arrays.fill(entries, newSize, size, null);
+            claimed.set(newSize);
+        }
+        size = newSize;
+    }
+
+    @SuppressWarnings("unchecked")
+    List<T> toList() {
+        List<T> retValue = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            retValue.add((T) entries[i]);
+        return retValue;
+    }
+}
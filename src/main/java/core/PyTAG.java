@@ -190,9 +190,23 @@ public class PyTAG {
 
     // Gets the action mask as a boolean array
     public int[] getActionMask() {
-        return leaves.stream()
-                .mapToInt(ActionTreeNode::getValue)
-                .toArray();
+        return root.getLeafMaskBuffer().clone();
+    }
+
+    // Writes the observation vector of the current player into buffer, from offset (used by VectorPyTAG).
+    // As in getObservationVector(), the features come from the current player's copy of the state: any information
+    // hidden from them is redeterminised in the copy, so none of it can leak into the observation.
+    void writeObservationVector(double[] buffer, int offset) throws Exception {
+        if (stateVectoriser == null)
+            throw new Exception("Observation vectoriser function is not implemented");
+        int player = gameState.getCurrentPlayer();
+        stateVectoriser.writeFeatureVector(gameState.copy(player), player, buffer, offset);
+    }
+
+    // Writes the action mask into buffer, from offset (used by VectorPyTAG)
+    void writeActionMask(int[] buffer, int offset) {
+        int[] mask = root.getLeafMaskBuffer();
+        System.arraycopy(mask, 0, buffer, offset, mask.length);
     }
 
     // gets the whole action tree as an array (tree can be reconstructed using the getTreeShape() function)
@@ -228,7 +242,6 @@ public class PyTAG {
         this.lastSeed = seedRandom.nextLong();
         gameState.gameParameters.setRandomSeed(this.lastSeed);
         this.forwardModel = game.getForwardModel();
-        this.availableActions = forwardModel.computeAvailableActions(gameState);
 
         // execute the game if needed until Python agent is required to make a decision
         boolean isTerminal = nextDecision();
@@ -238,9 +251,8 @@ public class PyTAG {
             this.root = ((ITreeActionSpace)this.forwardModel).initActionTree(this.gameState);
         }
         // update with initial actions
-        // Compute the updated available actions and the action tree
-        AbstractGameState observation = gameState.copy(gameState.getCurrentPlayer());
-        this.availableActions = forwardModel.computeAvailableActions(observation);
+        // Compute the action tree (the available actions are only computed if asked for)
+        this.availableActions = null;
         this.root = ((ITreeActionSpace)this.forwardModel).updateActionTree(this.root, this.gameState);
         this.leaves = root.getLeafNodes();
     }
@@ -257,7 +269,15 @@ public class PyTAG {
         return gameState.getGameScore(gameState.getCurrentPlayer());
     }
 
+    double getReward(int playerId){
+        return gameState.getGameScore(playerId);
+    }
+
     public List<AbstractAction> getActions(){
+        if (availableActions == null) {
+            AbstractGameState observation = gameState.copy(gameState.getCurrentPlayer());
+            availableActions = forwardModel.computeAvailableActions(observation);
+        }
         return availableActions;
     }
 
@@ -316,36 +336,39 @@ public class PyTAG {
 
 
     public AbstractGameState step(int actionId) throws Exception{
+        advance(actionId);
+        return gameState.copy(gameState.getCurrentPlayer());
+    }
+
+    // As step(), but does not make a copy of the state to return (used by VectorPyTAG)
+    // returns true if game is over
+    boolean advance(int actionId) throws Exception{
         // execute action and loop until an RL agent is required to make a decision
-        if (isDone()){
-            throw new Exception("Need to reset the environment after each finished episode");
-        } else if (this.gameState == null){
+        if (this.gameState == null){
             throw new Exception("Need to reset the environment before calling step");
+        } else if (isDone()){
+            throw new Exception("Need to reset the environment after each finished episode");
         }
         // executes the seleted actions
         executeAction(actionId);
         if (isDone()){
             // check if the game has just ended
             // game is over
-            return gameState.copy(gameState.getCurrentPlayer());
+            return true;
         }
 
         // update game until RL agent is required to make a decision - if game is over in the mean time returns isTerminal
         boolean isTerminal = nextDecision();
         if (isTerminal){
             // game is over
-            return gameState.copy(gameState.getCurrentPlayer());
+            return true;
         }
 
-        int activePlayer = gameState.getCurrentPlayer();
-        AbstractGameState observation = gameState.copy(activePlayer);
-
-        // Compute the updated available actions and the action tree
-        this.availableActions = forwardModel.computeAvailableActions(observation);
+        // Compute the updated action tree (the available actions are only computed if asked for)
+        this.availableActions = null;
         this.root = ((ITreeActionSpace)this.forwardModel).updateActionTree(this.root, this.gameState);
         this.leaves = root.getLeafNodes();
-
-        return observation;
+        return false;
     }
 
     public int getTick(){
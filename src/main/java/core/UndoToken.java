@@ -0,0 +1,48 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.interfaces.IGamePhase;
+
+/**
+ * Everything needed to reverse one call of AbstractForwardModel.next(), as returned by
+ * AbstractForwardModel.nextWithUndo() and then passed to AbstractForwardModel.undo().
+ * <p>
+ * This records the core state maintained by AbstractGameState (game tick, turn and round counters, game status,
+ * phase and the length of the history), together with whatever the action (via IReversibleAction.captureUndo())
+ * and the forward model (via _captureUndo()) need to reverse their own changes.
+ * <p>
+ * A token is only valid for the state it was created on, and only while every later token for that state has been
+ * undone first.
+ */
+public final class UndoToken {
+
+    final AbstractAction action;
+    final Object actionData;
+    final Object gameData;
+
+    final int tick, roundCounter, turnCounter, turnOwner, firstPlayer;
+    final CoreConstants.GameResult gameStatus;
+    final CoreConstants.GameResult[] playerResults;
+    final IGamePhase gamePhase;
+    final int historyLength, historyTextLength;
+
+    UndoToken(AbstractGameState state, AbstractAction action, Object actionData, Object gameData) {
+        this.action = action;
+        this.actionData = actionData;
+        this.gameData = gameData;
+        tick = state.getGameTick();
+        roundCounter = state.roundCounter;
+        turnCounter = state.turnCounter;
+        turnOwner = state.turnOwner;
+        firstPlayer = state.firstPlayer;
+        gameStatus = state.gameStatus;
+        playerResults = state.playerResults.clone();
+        gamePhase = state.gamePhase;
+        historyLength = state.historyLength();
+        historyTextLength = state.historyTextLength();
+    }
+
+    public AbstractAction getAction() {
+        return action;
+    }
+}
@@ -0,0 +1,141 @@
+package core;
+
+import games.GameType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A set of PyTAG environments that are all stepped by one call, so that an RL trainer pays for one round trip from
+ * Python per step of all the environments, rather than one per environment.
+ * <p>
+ * The observations, action masks, rewards and so on are written into arrays that are allocated once, with the values
+ * for environment i at index i (or, for the observations and masks, in the i-th block of getObservationSpace() or
+ * getActionSpace() values). An environment whose game is over after a step is reset straight away: its done flag and
+ * reward are for the step that ended the game, and its observation and mask are for the first decision of the next
+ * game.
+ * <p>
+ * Only games with a state feature vector (see FeatureExtractors) are supported.
+ */
+public class VectorPyTAG {
+
+    private final PyTAG[] envs;
+    private final int observationSpace;
+    private int actionSpace = -1;
+
+    private final double[] observations;
+    private int[] actionMasks;
+    private final double[] rewards;
+    private final boolean[] dones;
+    private final int[] playerIDs;
+
+    /**
+     * @param players the players for the first environment; each of the others gets copies of them
+     */
+    public VectorPyTAG(GameType gameToPlay, String parameterConfigFile, List<AbstractPlayer> players, long seed,
+                       int nEnvs, boolean isNormalized) throws Exception {
+        if (nEnvs < 1)
+            throw new IllegalArgumentException("There must be at least one environment");
+        envs = new PyTAG[nEnvs];
+        for (int i = 0; i < nEnvs; i++) {
+            List<AbstractPlayer> envPlayers = players;
+            if (i > 0) {
+                envPlayers = new ArrayList<>();
+                for (AbstractPlayer player : players)
+                    envPlayers.add(player.copy());
+            }
+            envs[i] = new PyTAG(gameToPlay, parameterConfigFile, envPlayers, seed + i, isNormalized);
+        }
+        observationSpace = envs[0].getObservationSpace();
+        if (observationSpace == 0)
+            throw new Exception("Game does not implement the state feature vector interface");
+        observations = new double[nEnvs * observationSpace];
+        rewards = new double[nEnvs];
+        dones = new boolean[nEnvs];
+        playerIDs = new int[nEnvs];
+    }
+
+    /**
+     * Starts a new game in every environment
+     */
+    public void reset() throws Exception {
+        for (int i = 0; i < envs.length; i++) {
+            envs[i].reset();
+            rewards[i] = 0;
+            dones[i] = false;
+            record(i);
+        }
+    }
+
+    /**
+     * Takes one action in each environment, and then lets the other players act until each one needs a decision from
+     * the Python agent again (or the game is over, in which case the environment is reset).
+     *
+     * @param actions the id of the action to take in each environment (an index into its action mask)
+     */
+    public void step(int[] actions) throws Exception {
+        if (actions.length != envs.length)
+            throw new IllegalArgumentException("Expected " + envs.length + " actions, but got " + actions.length);
+        if (actionMasks == null)
+            throw new Exception("Need to reset the environments before calling step");
+        for (int i = 0; i < envs.length; i++) {
+            PyTAG env = envs[i];
+            dones[i] = env.advance(actions[i]);
+            rewards[i] = env.getReward(playerIDs[i]);
+            if (dones[i])
+                env.reset();
+            record(i);
+        }
+    }
+
+    // Writes the observation and action mask of environment i into the buffers
+    private void record(int i) throws Exception {
+        PyTAG env = envs[i];
+        if (actionMasks == null) {
+            actionSpace = env.getActionSpace();
+            actionMasks = new int[envs.length * actionSpace];
+        }
+        playerIDs[i] = env.getPlayerID();
+        env.writeObservationVector(observations, i * observationSpace);
+        env.writeActionMask(actionMasks, i * actionSpace);
+    }
+
+    public int getNumEnvs() {
+        return envs.length;
+    }
+
+    public PyTAG getEnv(int i) {
+        return envs[i];
+    }
+
+    public int getObservationSpace() {
+        return observationSpace;
+    }
+
+    // The number of actions in each action mask (only known after reset)
+    public int getActionSpace() {
+        return actionSpace;
+    }
+
+    public double[] getObservations() {
+        return observations;
+    }
+
+    public int[] getActionMasks() {
+        return actionMasks;
+    }
+
+    // The score of the player that acted in each environment, after the last step
+    public double[] getRewards() {
+        return rewards;
+    }
+
+    public boolean[] getDones() {
+        return dones;
+    }
+
+    // The player who is to make the next decision in each environment
+    public int[] getPlayerIDs() {
+        return playerIDs;
+    }
+}
@@ -0,0 +1,87 @@
+package core;
+
+import core.components.Component;
+import core.interfaces.IComponentContainer;
+import core.interfaces.IZobristHashed;
+
+/**
+ * Helpers for the 64-bit state keys used by transposition tables (see AbstractGameState.getStateKey()).
+ * <p>
+ * This follows Zobrist hashing: each (component, position, value) has a fixed pseudo-random 64-bit key, and the
+ * hash of a component is the sum of the keys of everything in it. So when one thing changes, the hash is updated
+ * by subtracting the old key and adding the new one, rather than being recalculated. Instead of a table of random
+ * numbers (which would need to be sized in advance for every component) the keys are derived with the SplitMix64
+ * finaliser, which gives the same result on every run.
+ * <p>
+ * We add keys rather than XOR them, so that a component that appears twice does not cancel itself out.
+ */
+public final class Zobrist {
+
+    private Zobrist() {
+    }
+
+    /**
+     * The SplitMix64 finaliser; a bijection on longs that scatters similar inputs across all 64 bits
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    public static long key(long a) {
+        return mix(a + 0x9e3779b97f4a7c15L);
+    }
+
+    public static long key(long a, long b) {
+        return mix(key(a) + b);
+    }
+
+    public static long key(long a, long b, long c) {
+        return mix(key(a, b) + c);
+    }
+
+    public static long hash(double[] values) {
+        long retValue = key(values.length);
+        for (double v : values)
+            retValue = mix(retValue + Double.doubleToLongBits(v));
+        return retValue;
+    }
+
+    public static long hash(int[] values) {
+        long retValue = key(values.length);
+        for (int v : values)
+            retValue = mix(retValue + v);
+        return retValue;
+    }
+
+    /**
+     * A 64-bit FNV-1a hash, for state keys that are only available as Strings
+     */
+    public static long hash(String s) {
+        long retValue = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            retValue ^= s.charAt(i);
+            retValue *= 0x100000001b3L;
+        }
+        return retValue;
+    }
+
+    /**
+     * @return the hash of the component if it maintains one, otherwise the sum of the hashes of anything it contains
+     * (so that, for example, Counters in an Area are included). Components that neither maintain a hash nor contain
+     * anything that does contribute zero.
+     */
+    public static long hashOf(Component c) {
+        if (c instanceof IZobristHashed)
+            return ((IZobristHashed) c).getZobristHash();
+        long retValue = 0;
+        if (c instanceof IComponentContainer) {
+            for (Component nested : ((IComponentContainer<?>) c).getComponents()) {
+                if (nested != null)
+                    retValue += hashOf(nested);
+            }
+        }
+        return retValue;
+    }
+}
@@ -3,11 +3,13 @@ package core.actions;
 import core.components.Card;
 import core.components.Component;
 import core.components.Deck;
+import core.components.PartialObservableDeck;
+import core.interfaces.IReversibleAction;
 import core.AbstractGameState;
 
 import java.util.Objects;
 
-public class DrawCard extends AbstractAction {
+public class DrawCard extends AbstractAction implements IReversibleAction {
 
     protected int deckFrom;
     protected int deckTo;
@@ -64,6 +66,37 @@ public class DrawCard extends AbstractAction {
         return false;
     }
 
+    private static final boolean[] NO_VISIBILITY = new boolean[0];
+
+    /**
+     * @return null if no card will be moved, otherwise the visibility of the card in the origin deck (if
+     * that is a PartialObservableDeck) so that this can be restored by undo()
+     */
+    @Override
+    public Object captureUndo(AbstractGameState gs) {
+        Deck<Card> from = (Deck<Card>) gs.getComponentById(deckFrom);
+        Deck<Card> to = (Deck<Card>) gs.getComponentById(deckTo);
+        if (from == null || to == null || fromIndex < 0 || fromIndex >= from.getSize())
+            return null;
+        if (from instanceof PartialObservableDeck)
+            return ((PartialObservableDeck<Card>) from).getVisibilityOfComponent(fromIndex).clone();
+        return NO_VISIBILITY;
+    }
+
+    @Override
+    public void undo(AbstractGameState gs, Object undoData) {
+        if (undoData == null)
+            return;  // nothing was moved
+        Deck<Card> from = (Deck<Card>) gs.getComponentById(deckFrom);
+        Deck<Card> to = (Deck<Card>) gs.getComponentById(deckTo);
+        Card card = to.pick(toIndex);
+        if (from instanceof PartialObservableDeck)
+            ((PartialObservableDeck<Card>) from).add(card, fromIndex, (boolean[]) undoData);
+        else
+            from.add(card, fromIndex);
+        executed = false;
+    }
+
     public Card getCard(AbstractGameState gs) {
         if (!executed) {
             if (fromIndex == -1) return null;
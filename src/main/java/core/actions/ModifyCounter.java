@@ -2,10 +2,11 @@ package core.actions;
 
 import core.AbstractGameState;
 import core.components.Counter;
+import core.interfaces.IReversibleAction;
 
 import java.util.Objects;
 
-public class ModifyCounter extends AbstractAction {
+public class ModifyCounter extends AbstractAction implements IReversibleAction {
     public int counterID;
     protected final int change;
 
@@ -27,6 +28,16 @@ public class ModifyCounter extends AbstractAction {
         return false;
     }
 
+    @Override
+    public Object captureUndo(AbstractGameState gs) {
+        return ((Counter) gs.getComponentById(counterID)).getValueIdx();
+    }
+
+    @Override
+    public void undo(AbstractGameState gs, Object undoData) {
+        ((Counter) gs.getComponentById(counterID)).setValue((Integer) undoData);
+    }
+
     @Override
     public AbstractAction copy() {
         return new ModifyCounter(counterID, change);
@@ -3,11 +3,13 @@ package core.actions;
 import core.AbstractGameState;
 import core.components.Card;
 import core.components.Deck;
+import core.components.PartialObservableDeck;
+import core.interfaces.IReversibleAction;
 
 import java.util.Objects;
 
 @SuppressWarnings("unchecked")
-public class MoveCardById extends AbstractAction{
+public class MoveCardById extends AbstractAction implements IReversibleAction {
 
     final protected int deckFromId;
     final protected int deckToId;
@@ -32,6 +34,48 @@ public class MoveCardById extends AbstractAction{
         return true;
     }
 
+    /**
+     * Where the card was in the origin deck, and its visibility there if that is a PartialObservableDeck
+     */
+    private static class Origin {
+        final int index;
+        final boolean[] visibility;
+
+        Origin(int index, boolean[] visibility) {
+            this.index = index;
+            this.visibility = visibility;
+        }
+    }
+
+    @Override
+    public Object captureUndo(AbstractGameState gs) {
+        Deck<Card> from = (Deck<Card>) gs.getComponentById(deckFromId);
+        Card c = (Card) gs.getComponentById(cardId);
+        if (from == null || c == null)
+            return null;
+        int index = from.getComponents().indexOf(c);
+        boolean[] visibility = index > -1 && from instanceof PartialObservableDeck ?
+                ((PartialObservableDeck<Card>) from).getVisibilityOfComponent(index).clone() : null;
+        return new Origin(index, visibility);
+    }
+
+    @Override
+    public void undo(AbstractGameState gs, Object undoData) {
+        if (undoData == null)
+            return;  // nothing was moved
+        Origin origin = (Origin) undoData;
+        Deck<Card> from = (Deck<Card>) gs.getComponentById(deckFromId);
+        Deck<Card> to = (Deck<Card>) gs.getComponentById(deckToId);
+        Card c = (Card) gs.getComponentById(cardId);
+        to.remove(c);
+        if (origin.index == -1)
+            return;  // the card was not in the origin deck to start with
+        if (origin.visibility != null)
+            ((PartialObservableDeck<Card>) from).add(c, origin.index, origin.visibility);
+        else
+            from.add(c, origin.index);
+    }
+
     @Override
     public AbstractAction copy() {
         return this;
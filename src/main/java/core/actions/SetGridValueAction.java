@@ -3,11 +3,12 @@ package core.actions;
 import core.AbstractGameState;
 import core.components.Component;
 import core.interfaces.IPrintable;
+import core.interfaces.IReversibleAction;
 import core.components.GridBoard;
 
 import java.util.Objects;
 
-public class SetGridValueAction<T extends Component> extends AbstractAction implements IPrintable {
+public class SetGridValueAction<T extends Component> extends AbstractAction implements IPrintable, IReversibleAction {
 
     private final int gridBoard;
     private final int x;
@@ -31,6 +32,16 @@ public class SetGridValueAction<T extends Component> extends AbstractAction impl
         return ((GridBoard<T>)gs.getComponentById(gridBoard)).setElement(x, y, value);
     }
 
+    @Override
+    public Object captureUndo(AbstractGameState gs) {
+        return ((GridBoard<T>) gs.getComponentById(gridBoard)).getElement(x, y);
+    }
+
+    @Override
+    public void undo(AbstractGameState gs, Object undoData) {
+        ((GridBoard<T>) gs.getComponentById(gridBoard)).setElement(x, y, (T) undoData);
+    }
+
     @Override
     public AbstractAction copy() {
         return this;
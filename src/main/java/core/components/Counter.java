@@ -1,6 +1,8 @@
 package core.components;
 
 import core.CoreConstants;
+import core.Zobrist;
+import core.interfaces.IZobristHashed;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
@@ -13,7 +15,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
-public class Counter extends Component {
+public class Counter extends Component implements IZobristHashed {
     protected int[] values;
 
     protected int valueIdx;  // Current value of this counter
@@ -170,6 +172,12 @@ public class Counter extends Component {
         this.valueIdx = i;
     }
 
+    @Override
+    public long getZobristHash() {
+        // valueIdx is the only thing that changes, so this is already O(1)
+        return Zobrist.key(componentID, valueIdx);
+    }
+
     /**
      * Loads all counter from a JSON file.
      * @param filename - path to file.
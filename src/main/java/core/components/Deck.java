@@ -1,7 +1,9 @@
 package core.components;
 
 import core.CoreConstants;
+import core.Zobrist;
 import core.interfaces.IComponentContainer;
+import core.interfaces.IZobristHashed;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
@@ -21,7 +23,7 @@ import static core.CoreConstants.VisibilityMode;
  * * components played on the player's area
  * * Discomponent pile
  */
-public class Deck<T extends Component> extends Component implements IComponentContainer<T> {
+public class Deck<T extends Component> extends Component implements IComponentContainer<T>, IZobristHashed {
 
     protected int capacity;  // Capacity of the deck (maximum number of elements)
     protected List<T> components;  // List of components in this deck
@@ -33,7 +35,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
 
     public Deck(String name, int ownerId, VisibilityMode visibility) {
         super(CoreConstants.ComponentType.DECK, name);
-        this.components = new ArrayList<>();
+        this.components = new ZobristList<>();
         this.ownerId = ownerId;
         this.capacity = -1;
         this.visibility = visibility;
@@ -41,7 +43,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
 
     protected Deck(String name, int ownerId, int ID, VisibilityMode visibility) {
         super(CoreConstants.ComponentType.DECK, name, ID);
-        this.components = new ArrayList<>();
+        this.components = new ZobristList<>();
         this.capacity = -1;
         this.ownerId = ownerId;
         this.visibility = visibility;
@@ -341,7 +343,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @param components - new components for the deck, overrides old content.
      */
     public void setComponents(ArrayList<T> components) {
-        this.components = components;
+        this.components = new ZobristList<>(components);
         for (T comp : components) {
             comp.setOwnerId(ownerId);
         }
@@ -412,7 +414,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     }
 
     protected void copyTo(Deck<T> deck) {
-        List<T> newComponents = new ArrayList<>();
+        List<T> newComponents = new ZobristList<>();
         for (T c : components) {
             newComponents.add((T) c.copy());
         }
@@ -425,7 +427,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
 
 
     protected void copyTo(Deck<T> deck, int playerId) {
-        List<T> newComponents = new ArrayList<>();
+        List<T> newComponents = new ZobristList<>();
         for (T c : components) {
             newComponents.add((T) c.copy(playerId));
         }
@@ -436,6 +438,24 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         copyComponentTo(deck);
     }
 
+    /**
+     * The hash covers which components are in the deck (by id), but not their order. Nor does it cover
+     * any changes to the components themselves while they are in the deck.
+     */
+    @Override
+    public long getZobristHash() {
+        long contents;
+        if (components instanceof ZobristList) {
+            contents = ((ZobristList<T>) components).getHash();
+        } else {
+            // a subclass has set its own list
+            contents = 0;
+            for (T c : components)
+                contents += ZobristList.keyOf(c);
+        }
+        return Zobrist.key(componentID, contents);
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -1,7 +1,9 @@
 package core.components;
 
 import core.CoreConstants;
+import core.Zobrist;
 import core.interfaces.IComponentContainer;
+import core.interfaces.IZobristHashed;
 import core.properties.PropertyString;
 import core.properties.PropertyVector2D;
 import org.json.simple.JSONArray;
@@ -19,12 +21,13 @@ import java.util.stream.Collectors;
 import static core.CoreConstants.imgHash;
 import static utilities.Utils.getNeighbourhood;
 
-public class GridBoard<T extends Component> extends Component implements IComponentContainer<T> {
+public class GridBoard<T extends Component> extends Component implements IComponentContainer<T>, IZobristHashed {
 
     private int width;  // Width of the board
     private int height;  // Height of the board
 
     private Component[][] grid;  // 2D grid representation of this board
+    private long cellHash;  // Sum of the Zobrist keys of the (position, component id) of every cell, kept up to date by setElement
 
     protected GridBoard() {
         super(CoreConstants.ComponentType.BOARD);
@@ -41,6 +44,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         this(width, height);
         for (int y = 0; y < height; y++)
             Arrays.fill(grid[y], defaultValue);
+        recalculateHash();
     }
 
     public GridBoard(Component[][] grid) {
@@ -48,13 +52,20 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         this.width = grid[0].length;
         this.height = grid.length;
         this.grid = grid;
+        recalculateHash();
     }
 
     protected GridBoard(Component[][] grid, int ID) {
+        this(grid, ID, 0);
+        recalculateHash();
+    }
+
+    private GridBoard(Component[][] grid, int ID, long cellHash) {
         super(CoreConstants.ComponentType.BOARD, ID);
         this.width = grid[0].length;
         this.height = grid.length;
         this.grid = grid;
+        this.cellHash = cellHash;
     }
 
     protected GridBoard(int width, int height, int ID) {
@@ -69,6 +80,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         this.width = orig.getWidth();
         this.height = orig.getHeight();
         this.grid = orig.grid.clone();
+        recalculateHash();
     }
 
     /**
@@ -122,6 +134,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
             if (w >= 0) System.arraycopy(this.grid[i], 0, grid[i + offsetY], offsetX, w);
         }
         this.grid = grid;
+        recalculateHash();
     }
 
     /**
@@ -134,6 +147,8 @@ public class GridBoard<T extends Component> extends Component implements ICompon
      */
     public boolean setElement(int x, int y, T value) {
         if (x >= 0 && x < width && y >= 0 && y < height) {
+            int cell = y * width + x;
+            cellHash += cellKey(cell, value) - cellKey(cell, grid[y][x]);
             grid[y][x] = value;
             return true;
         } else
@@ -235,11 +250,31 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         for (int i = 0; i < height; i++) {
             if (width >= 0) System.arraycopy(grid[i], 0, gridCopy[i], 0, width);
         }
-        GridBoard<T> g = new GridBoard<>(gridCopy, componentID);
+        GridBoard<T> g = new GridBoard<>(gridCopy, componentID, cellHash);
         copyComponentTo(g);
         return g;
     }
 
+    private static long cellKey(int cell, Component c) {
+        return c == null ? 0 : Zobrist.key(cell, c.getComponentID());
+    }
+
+    private void recalculateHash() {
+        cellHash = 0;
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                cellHash += cellKey(y * width + x, grid[y][x]);
+    }
+
+    /**
+     * The hash covers the id of the component in each cell (so changes to a component that stays in the same cell
+     * are not included).
+     */
+    @Override
+    public long getZobristHash() {
+        return Zobrist.key(componentID, cellHash);
+    }
+
     public GridBoard<T> emptyCopy() {
         GridBoard<T> g = new GridBoard<>(getWidth(), getHeight(), componentID);
         copyComponentTo(g);
@@ -302,6 +337,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         }
 
         this.grid = new Component[height][width];
+        cellHash = 0;
 
         JSONArray grids = (JSONArray) board.get("grid");
         int y = 0;
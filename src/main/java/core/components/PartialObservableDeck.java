@@ -291,7 +291,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @return - both lists shuffled, keeping the mapping from component to visibility at the same index.
      */
     private Pair<List<T>, List<boolean[]>> shuffleLists(List<T> comps, List<boolean[]> vis, Random rnd) {
-        List<T> tmp_components = new ArrayList<>();
+        List<T> tmp_components = new ZobristList<>();
         List<boolean[]> tmp_visibility = new ArrayList<>();
 
         List<Integer> indexList = new ArrayList<>();
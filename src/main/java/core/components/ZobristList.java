@@ -0,0 +1,135 @@
+package core.components;
+
+import core.Zobrist;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * The list of components in a Deck, which keeps a running Zobrist hash of which components it holds (by id).
+ * The hash does not depend on the order of the components, so reordering (sorting, shuffling) does not change it.
+ * <p>
+ * Every method that adds, removes or replaces elements updates the hash, including those on the iterators. The
+ * one exception is sub-lists, which write to the array directly; these should only be used to reorder elements
+ * (as in Deck.shuffle()).
+ */
+final class ZobristList<T extends Component> extends ArrayList<T> {
+
+    private long hash;
+
+    ZobristList() {
+    }
+
+    ZobristList(Collection<? extends T> c) {
+        super(c);
+        recalculate();
+    }
+
+    long getHash() {
+        return hash;
+    }
+
+    static long keyOf(Component c) {
+        return c == null ? 0 : Zobrist.key(c.getComponentID());
+    }
+
+    private void recalculate() {
+        hash = 0;
+        for (T t : this)
+            hash += keyOf(t);
+    }
+
+    @Override
+    public boolean add(T t) {
+        hash += keyOf(t);
+        return super.add(t);
+    }
+
+    @Override
+    public void add(int index, T element) {
+        super.add(index, element);
+        hash += keyOf(element);
+    }
+
+    @Override
+    public T set(int index, T element) {
+        T old = super.set(index, element);
+        hash += keyOf(element) - keyOf(old);
+        return old;
+    }
+
+    @Override
+    public T remove(int index) {
+        T old = super.remove(index);
+        hash -= keyOf(old);
+        return old;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        // ArrayList.remove(Object) does not go through remove(int)
+        int index = indexOf(o);
+        if (index < 0)
+            return false;
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        hash = 0;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        for (T t : c)
+            hash += keyOf(t);
+        return super.addAll(c);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends T> c) {
+        for (T t : c)
+            hash += keyOf(t);
+        return super.addAll(index, c);
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++)
+            hash -= keyOf(get(i));
+        super.removeRange(fromIndex, toIndex);
+    }
+
+    // The bulk operations below are O(n) anyway, so we just recalculate afterwards
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        boolean retValue = super.removeAll(c);
+        recalculate();
+        return retValue;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        boolean retValue = super.retainAll(c);
+        recalculate();
+        return retValue;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        boolean retValue = super.removeIf(filter);
+        recalculate();
+        return retValue;
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        super.replaceAll(operator);
+        recalculate();
+    }
+}
@@ -17,6 +17,14 @@ public interface IActionHeuristic {
      */
     double evaluateAction(AbstractAction action, AbstractGameState state);
 
+    /**
+     * Returns the score of each action, as evaluateAction() would give it.
+     *
+     * @param actions - actions to evaluate, all available to the current player in the state.
+     * @param state   - game state to evaluate and score.
+     * @return - value of each action, in the same order as the list. This must be a new array on each call, as
+     * callers are free to modify it.
+     */
     default double[] evaluateAllActions(List<AbstractAction> actions, AbstractGameState state) {
         double[] scores = new double[actions.size()];
         for (int i = 0; i < actions.size(); i++) {
@@ -0,0 +1,31 @@
+package core.interfaces;
+
+import core.AbstractGameState;
+
+/**
+ * An Action whose effect on the game state can be reversed, so that a search algorithm can apply it and then undo it
+ * on the same state rather than copying the state first (see AbstractForwardModel.nextWithUndo() and undo()).
+ * <p>
+ * The Action only needs to reverse what its own execute() method changes. The core state (turn, round, game status
+ * and so on) is restored by the framework, and anything that the forward model changes after the action has been
+ * executed is restored by the forward model itself.
+ */
+public interface IReversibleAction {
+
+    /**
+     * Called just before the action is executed.
+     *
+     * @param state the state the action is about to be executed on
+     * @return whatever undo() will need to restore the state. This may be null.
+     */
+    Object captureUndo(AbstractGameState state);
+
+    /**
+     * Reverses the effect of execute(). When this is called the core state (current player, turn and round) is as
+     * it was when the action was executed.
+     *
+     * @param state    the state the action was executed on
+     * @param undoData the value returned by captureUndo() just before the action was executed
+     */
+    void undo(AbstractGameState state, Object undoData);
+}
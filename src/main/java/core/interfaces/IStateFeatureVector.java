@@ -8,6 +8,16 @@ public interface IStateFeatureVector {
 
     double[] featureVector(AbstractGameState state, int playerID);
 
+    /**
+     * Writes the feature vector into buffer, starting at offset. By default this copies the array from
+     * featureVector(); a vectoriser that is used to fill a shared buffer on every step (as by VectorPyTAG) can
+     * override it to write the values directly.
+     */
+    default void writeFeatureVector(AbstractGameState state, int playerID, double[] buffer, int offset) {
+        double[] phi = featureVector(state, playerID);
+        System.arraycopy(phi, 0, buffer, offset, phi.length);
+    }
+
     String[] names();
 
 }
@@ -13,4 +13,21 @@ public interface IStateHeuristic {
      * @return - value of given state.
      */
     double evaluateState(AbstractGameState gs, int playerId);
+
+    /**
+     * Returns the score of the state from the perspective of every player, as evaluateState() would for each.
+     * Search algorithms that need the value for all players (for example at the start and end of an MCTS iteration)
+     * should call this once rather than evaluateState() in a loop, so that implementations which can share work
+     * between players (a single feature buffer, one check for a terminal state) are able to do so.
+     * @param gs - game state to evaluate and score.
+     * @return - value of given state for each player, indexed by player id. This must be a new array on each call,
+     * as callers are free to modify it (MCTS adjusts the values in place when backing them up).
+     */
+    default double[] evaluateAllPlayers(AbstractGameState gs) {
+        double[] scores = new double[gs.getNPlayers()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = evaluateState(gs, i);
+        }
+        return scores;
+    }
 }
\ No newline at end of file
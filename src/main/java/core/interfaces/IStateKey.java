@@ -1,8 +1,18 @@
 package core.interfaces;
 
 import core.AbstractGameState;
+import core.Zobrist;
 
 public interface IStateKey {
 
     String getKey(AbstractGameState state);
+
+    /**
+     * The key as a primitive long, for use in transposition tables that avoid boxing (see MCGSNode).
+     * By default this hashes the String from getKey(); implementations that can calculate the key directly
+     * should override this to avoid building the String at all.
+     */
+    default long getLongKey(AbstractGameState state) {
+        return Zobrist.hash(getKey(state));
+    }
 }
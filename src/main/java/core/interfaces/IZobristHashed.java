@@ -0,0 +1,14 @@
+package core.interfaces;
+
+/**
+ * Implemented by components that keep an up-to-date 64-bit hash of their contents, for use in the state keys of
+ * transposition tables (see core.Zobrist and AbstractGameState.getStateKey()).
+ */
+public interface IZobristHashed {
+
+    /**
+     * Two components with the same id and contents have the same hash. This must be cheap to call, so it
+     * should be maintained as the component changes rather than calculated here.
+     */
+    long getZobristHash();
+}
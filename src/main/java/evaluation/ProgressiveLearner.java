@@ -4,6 +4,7 @@ import core.AbstractParameters;
 import core.AbstractPlayer;
 import core.interfaces.*;
 import evaluation.listeners.*;
+import evaluation.loggers.FeatureDataWriter;
 import evaluation.loggers.FileStatsLogger;
 import evaluation.metrics.Event;
 import evaluation.tournaments.RandomRRTournament;
@@ -45,6 +46,7 @@ public class ProgressiveLearner {
     String prefix;
     int elite;
     boolean verbose;
+    boolean tsvData;
     List<Integer> currentElite = new ArrayList<>();
 
     public ProgressiveLearner(String[] args) {
@@ -63,6 +65,7 @@ public class ProgressiveLearner {
         iterations = getArg(args, "iterations", 100);
         maxExplore = getArg(args, "explore", 0.0);
         verbose = getArg(args, "verbose", false);
+        tsvData = getArg(args, "tsvData", false);
         elite = getArg(args, "elite", iterations + 1);
         agentsPerGeneration = new AbstractPlayer[iterations];
         dataFilesByIteration = new String[iterations];
@@ -112,7 +115,9 @@ public class ProgressiveLearner {
                             "\tmatchups=      Defaults to 1. The number of games to play before the learning process is called.\n" +
                             "\titerations=    Stop after this number of learning iterations. Defaults to 100.\n" +
                             "\tfinalMatchups= The number of games to run in a final tournament between all agents. Defaults to 1000.\n" +
-                            "\telite=         The number of agents to keep in the tournament. Defaults to iterations.\n"
+                            "\telite=         The number of agents to keep in the tournament. Defaults to iterations.\n" +
+                            "\ttsvData=       If true, the training data is written as tab-separated text rather than in the binary\n" +
+                            "\t               format of FeatureDataWriter (which FeatureDataReader can export as text). Defaults to false.\n"
             );
             return;
         }
@@ -242,7 +247,7 @@ public class ProgressiveLearner {
 
         String fileName = String.format("%s_%d.data", prefix, iter);
         dataFilesByIteration[iter] = fileName;
-        listener.setLogger(new FileStatsLogger(fileName, "\t", false));
+        listener.setLogger(tsvData ? new FileStatsLogger(fileName, "\t", false) : new FeatureDataWriter(fileName));
         tournament.setListeners(Collections.singletonList(listener));
         tournament.run();
 
@@ -22,6 +22,10 @@ public enum RunArg {
             "\t This may be useful if you want to use the same destDir for multiple experiments.",
             false,
             new Usage[]{Usage.RunGames}),
+    asyncMetrics("(Optional) If true (default is false), then the data recorded by a MetricsGameListener is written\n" +
+            "\t to its tables on a background thread rather than on the thread playing the game.",
+            false,
+            new Usage[]{Usage.RunGames}),
     byTeam("If true (the default) and the game supports teams, then one player type will be assigned to all players on a team.\n" +
             "\t If false, then each player will be assigned a player type independently.",
             true,
@@ -59,6 +63,14 @@ public enum RunArg {
     gameParams("(Optional) A JSON file from which the game parameters will be initialised.",
             "",
             new Usage[]{Usage.RunGames, Usage.ParameterSearch}),
+    instrumentation("(Optional) If specified, then latency percentiles for each phase of each action (state copy,\n" +
+            "\t action computation, agent decision and forward model), and the games/second and forward model calls/second,\n" +
+            "\t are written to this file every instrumentationPeriod seconds and at the end of the run.",
+            "",
+            new Usage[]{Usage.RunGames}),
+    instrumentationPeriod("The number of seconds between writes of the instrumentation file (default is 60).",
+            60,
+            new Usage[]{Usage.RunGames}),
     iterations("The number of iterations of NTBEA to run (default is 1000)",
             1000,
             new Usage[]{Usage.ParameterSearch}),
@@ -96,6 +108,10 @@ public enum RunArg {
     nPlayers("The number of players in each game. Overrides playerRange.",
             -1,
             new Usage[]{Usage.ParameterSearch, Usage.RunGames}),
+    nThreads("The number of threads on which to run games in parallel. Defaults to 1.\n" +
+            "\t With more than one thread each game is played with its own copies of the agents.",
+            1,
+            new Usage[]{Usage.RunGames, Usage.ParameterSearch}),
     neighbourhood("The size of neighbourhood to look at in NTBEA. Default is min(50, |searchSpace|/100) ",
             50,
             new Usage[]{Usage.ParameterSearch}),
@@ -2,8 +2,10 @@ package evaluation;
 
 import core.AbstractParameters;
 import core.AbstractPlayer;
+import core.GameInstrumentation;
 import core.interfaces.IGameRunner;
 import evaluation.listeners.IGameListener;
+import evaluation.listeners.MetricsGameListener;
 import evaluation.tournaments.AbstractTournament;
 import evaluation.tournaments.RandomRRTournament;
 import evaluation.tournaments.RoundRobinTournament;
@@ -116,6 +118,12 @@ public class RunGames implements IGameRunner {
 
     @Override
     public void run() {
+        String instrumentationFile = (String) config.get(instrumentation);
+        if (!instrumentationFile.equals("")) {
+            GameInstrumentation.enabled = true;
+            GameInstrumentation.getInstance().reset();
+            GameInstrumentation.getInstance().startPeriodicDump(instrumentationFile, (int) config.get(instrumentationPeriod));
+        }
         // Now we loop over each game and player count combination
         for (GameType gameType : gamesAndPlayerCounts.keySet()) {
             String gameName = gameType.name();
@@ -135,6 +143,8 @@ public class RunGames implements IGameRunner {
                 //noinspection unchecked
                 for (String listenerClass : ((List<String>) config.get(listener))) {
                     IGameListener gameTracker = IGameListener.createListener(listenerClass, (String) config.get(metrics));
+                    if (gameTracker instanceof MetricsGameListener && (boolean) config.get(asyncMetrics))
+                        ((MetricsGameListener) gameTracker).setAsync(true);
                     tournament.addListener(gameTracker);
                     String outputDir = (String) config.get(destDir);
                     List<String> directories = new ArrayList<>(Arrays.asList(outputDir.split(Pattern.quote(File.separator))));
@@ -155,6 +165,10 @@ public class RunGames implements IGameRunner {
                 tournament.run();
             }
         }
+        if (!instrumentationFile.equals("")) {
+            GameInstrumentation.getInstance().stopPeriodicDump();  // this writes the final results
+            GameInstrumentation.enabled = false;
+        }
     }
 
     private void initialiseGamesAndPlayerCount() {
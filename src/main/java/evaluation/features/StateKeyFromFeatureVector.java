@@ -1,6 +1,7 @@
 package evaluation.features;
 
 import core.AbstractGameState;
+import core.Zobrist;
 import core.interfaces.IStateFeatureVector;
 import core.interfaces.IStateKey;
 
@@ -19,4 +20,9 @@ public class StateKeyFromFeatureVector  implements IStateKey {
         double[] retValue = featureVector.featureVector(state, state.getCurrentPlayer());
         return String.format("%d-%s", state.getCurrentPlayer(), Arrays.toString(retValue));
     }
+
+    @Override
+    public long getLongKey(AbstractGameState state) {
+        return Zobrist.key(state.getCurrentPlayer(), Zobrist.hash(featureVector.featureVector(state, state.getCurrentPlayer())));
+    }
 }
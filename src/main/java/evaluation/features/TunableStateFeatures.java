@@ -1,6 +1,7 @@
 package evaluation.features;
 
 import core.AbstractGameState;
+import core.Zobrist;
 import core.interfaces.IStateFeatureVector;
 import core.interfaces.IStateKey;
 import evaluation.optimisation.TunableParameters;
@@ -89,4 +90,9 @@ public abstract class TunableStateFeatures extends TunableParameters implements
         double[] retValue = featureVector(state, state.getCurrentPlayer());
         return String.format("%d-%s", state.getCurrentPlayer(), Arrays.toString(retValue));
     }
+
+    @Override
+    public long getLongKey(AbstractGameState state) {
+        return Zobrist.key(state.getCurrentPlayer(), Zobrist.hash(featureVector(state, state.getCurrentPlayer())));
+    }
 }
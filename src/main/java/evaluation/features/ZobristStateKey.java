@@ -0,0 +1,21 @@
+package evaluation.features;
+
+import core.AbstractGameState;
+import core.interfaces.IStateKey;
+
+/**
+ * Uses the full state (via AbstractGameState.getStateKey()) as the key, rather than a set of features.
+ * Two nodes in an MCGS graph then share a node only if they have exactly the same state.
+ */
+public class ZobristStateKey implements IStateKey {
+
+    @Override
+    public String getKey(AbstractGameState state) {
+        return Long.toHexString(state.getStateKey());
+    }
+
+    @Override
+    public long getLongKey(AbstractGameState state) {
+        return state.getStateKey();
+    }
+}
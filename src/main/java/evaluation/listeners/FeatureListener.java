@@ -3,6 +3,7 @@ package evaluation.listeners;
 import core.*;
 import core.actions.AbstractAction;
 import core.interfaces.IStatisticLogger;
+import evaluation.loggers.FeatureDataWriter;
 import evaluation.metrics.Event;
 
 import java.util.*;
@@ -16,7 +17,8 @@ import java.util.stream.IntStream;
  */
 public abstract class FeatureListener implements IGameListener {
 
-    List<StateFeatureListener.LocalDataWrapper> currentData = new ArrayList<>();
+    // the data for each game not yet over; in a parallel tournament, the events of several games are interleaved
+    Map<Game, List<StateFeatureListener.LocalDataWrapper>> dataByGame = new HashMap<>();
     Event.GameEvent frequency;
     boolean currentPlayerOnly;
     IStatisticLogger logger;
@@ -64,28 +66,74 @@ public abstract class FeatureListener implements IGameListener {
         }).toArray();
         double[] ordinal = IntStream.range(0, totP).mapToDouble(state::getOrdinalPosition).toArray();
         double finalRound = state.getRoundCounter();
-        for (StateFeatureListener.LocalDataWrapper record : currentData) {
-            // we use a LinkedHashMap so that the order of the keys is preserved, and hence the
-            // data is written to file in a sensible order for human viewing
-            Map<String, Double> data = new LinkedHashMap<>();
-            data.put("GameID", (double) state.getGameID());
-            data.put("Player", (double) record.player);
-            data.put("Round", (double) record.gameRound);
-            data.put("Turn", (double) record.gameTurn);
-            data.put("CurrentScore", record.currentScore);
-            for (int i = 0; i < record.array.length; i++) {
-                data.put(names()[i], record.array[i]);
+        String[] featureNames = names();
+        String[] columns = standardColumns(featureNames);
+        FeatureDataWriter binaryWriter = logger instanceof FeatureDataWriter ? (FeatureDataWriter) logger : null;
+        if (binaryWriter != null)
+            binaryWriter.setColumns(columns, standardColumnTypes(featureNames));
+        double[] row = new double[columns.length];
+        for (StateFeatureListener.LocalDataWrapper record : currentData()) {
+            // the values must be in the same order as standardColumns()
+            int i = 0;
+            row[i++] = state.getGameID();
+            row[i++] = record.player;
+            row[i++] = record.gameRound;
+            row[i++] = record.gameTurn;
+            row[i++] = record.currentScore;
+            for (int j = 0; j < record.array.length; j++) {
+                row[i++] = record.array[j];
+            }
+            row[i++] = getGame().getPlayers().size();
+            row[i++] = finalRound;
+            row[i++] = record.actionScore;
+            row[i++] = winLoss[record.player];
+            row[i++] = ordinal[record.player];
+            row[i] = finalScores[record.player];
+            if (binaryWriter != null) {
+                // this copies the row, so we can reuse it
+                binaryWriter.write(row);
+            } else {
+                // we use a LinkedHashMap so that the order of the keys is preserved, and hence the
+                // data is written to file in a sensible order for human viewing
+                Map<String, Double> data = new LinkedHashMap<>();
+                for (int j = 0; j < columns.length; j++) {
+                    data.put(columns[j], row[j]);
+                }
+                logger.record(data);
             }
-            data.put("PlayerCount", (double) getGame().getPlayers().size());
-            data.put("TotalRounds", finalRound);
-            data.put("ActionScore", record.actionScore);
-            data.put("Win", winLoss[record.player]);
-            data.put("Ordinal", ordinal[record.player]);
-            data.put("FinalScore", finalScores[record.player]);
-            logger.record(data);
         }
         logger.processDataAndNotFinish();
-        currentData = new ArrayList<>();
+        dataByGame.remove(game);
+    }
+
+    /**
+     * @return the data recorded so far for the game this listener is currently pointed at
+     */
+    protected List<StateFeatureListener.LocalDataWrapper> currentData() {
+        return dataByGame.computeIfAbsent(game, g -> new ArrayList<>());
+    }
+
+    /**
+     * The columns of the data written by writeDataWithStandardHeaders(). AbstractLearner relies on the
+     * five columns before and the six after the features.
+     */
+    protected static String[] standardColumns(String[] featureNames) {
+        String[] retValue = new String[featureNames.length + 11];
+        String[] before = {"GameID", "Player", "Round", "Turn", "CurrentScore"};
+        String[] after = {"PlayerCount", "TotalRounds", "ActionScore", "Win", "Ordinal", "FinalScore"};
+        System.arraycopy(before, 0, retValue, 0, before.length);
+        System.arraycopy(featureNames, 0, retValue, before.length, featureNames.length);
+        System.arraycopy(after, 0, retValue, before.length + featureNames.length, after.length);
+        return retValue;
+    }
+
+    protected static FeatureDataWriter.ColumnType[] standardColumnTypes(String[] featureNames) {
+        FeatureDataWriter.ColumnType[] retValue = new FeatureDataWriter.ColumnType[featureNames.length + 11];
+        Arrays.fill(retValue, FeatureDataWriter.ColumnType.DOUBLE);
+        // GameID, Player, Round, Turn, and then PlayerCount and TotalRounds
+        for (int i : new int[]{0, 1, 2, 3, featureNames.length + 5, featureNames.length + 6})
+            retValue[i] = FeatureDataWriter.ColumnType.INT;
+        return retValue;
     }
 
     @Override
@@ -124,11 +172,11 @@ public abstract class FeatureListener implements IGameListener {
         if (currentPlayerOnly && state.isNotTerminal()) {
             int p = state.getCurrentPlayer();
             double[] phi = extractFeatureVector(action, state, p);
-            currentData.add(new StateFeatureListener.LocalDataWrapper(p, phi, state, 0.0));
+            currentData().add(new StateFeatureListener.LocalDataWrapper(p, phi, state, 0.0));
         } else {
             for (int p = 0; p < state.getNPlayers(); p++) {
                 double[] phi = extractFeatureVector(action, state, p);
-                currentData.add(new StateFeatureListener.LocalDataWrapper(p, phi, state, 0.0));
+                currentData().add(new StateFeatureListener.LocalDataWrapper(p, phi, state, 0.0));
             }
         }
     }
@@ -3,9 +3,11 @@ package evaluation.listeners;
 import core.Game;
 import core.interfaces.IGameEvent;
 import evaluation.metrics.AbstractMetric;
+import evaluation.metrics.AsyncMetricsWriter;
 import evaluation.metrics.Event;
 import evaluation.metrics.IDataLogger;
 import evaluation.metrics.IMetricsCollection;
+import evaluation.metrics.MetricRecord;
 import evaluation.metrics.tablessaw.DataTableSaw;
 import utilities.Utils;
 
@@ -45,6 +47,9 @@ public class MetricsGameListener implements IGameListener {
     // Destination directory for the reports
     String destDir = "metrics/out/"; //by default
 
+    // If not null, then metric data is written to the data loggers on a background thread (see setAsync())
+    protected AsyncMetricsWriter asyncWriter;
+
     public MetricsGameListener() {
     }
 
@@ -68,6 +73,33 @@ public class MetricsGameListener implements IGameListener {
         eventsOfInterest.add(Event.GameEvent.GAME_OVER);
     }
 
+    public MetricsGameListener(IDataLogger.ReportDestination logTo, IDataLogger.ReportType[] dataTypes, AbstractMetric[] metrics, boolean async) {
+        this(logTo, dataTypes, metrics);
+        setAsync(async);
+    }
+
+    /**
+     * If async is true, then the metrics are still run on the game thread at each event, but the data they record
+     * is added to the data loggers in batches on a background thread (see AsyncMetricsWriter). This is all written
+     * before report(), reset() or init() does anything with the data loggers.
+     */
+    public void setAsync(boolean async) {
+        if (async && asyncWriter == null) {
+            asyncWriter = new AsyncMetricsWriter();
+        } else if (!async && asyncWriter != null) {
+            asyncWriter.close();
+            asyncWriter = null;
+        }
+    }
+
+    /**
+     * Waits for any metric data recorded so far to be written to the data loggers. This does nothing unless async.
+     */
+    public void flush() {
+        if (asyncWriter != null)
+            asyncWriter.flush();
+    }
+
     /**
      * Manages all events.
      *
@@ -84,7 +116,13 @@ public class MetricsGameListener implements IGameListener {
             AbstractMetric metric = metrics.get(attrStr);
             if (metric.listens(event.type)) {
                 // Apply metric
-                metric.run(this, event);
+                if (asyncWriter == null) {
+                    metric.run(this, event);
+                } else {
+                    MetricRecord record = metric.capture(this, event);
+                    if (record != null)
+                        asyncWriter.add(record);
+                }
             }
 
             if (event.type == GAME_OVER)
@@ -110,8 +148,12 @@ public class MetricsGameListener implements IGameListener {
      * As such, no state is provided.
      * <p>
      * This is useful for Listeners that are just interested in aggregate data across many runs
+     * <p>
+     * If async, this writes any outstanding metric data and stops the background writer; any later events are then
+     * recorded on the game thread.
      */
     public void report() {
+        setAsync(false);
         boolean success = true;
 
         if (reportDestinations.contains(ToFile) || reportDestinations.contains(ToBoth)) {
@@ -172,6 +214,7 @@ public class MetricsGameListener implements IGameListener {
     }
 
     public void reset() {
+        flush();
         for (AbstractMetric metric : metrics.values()) {
             metric.reset();
         }
@@ -180,6 +223,7 @@ public class MetricsGameListener implements IGameListener {
     @Override
     public void init(Game game, int nPlayersPerGame, Set<String> playerNames) {
         this.game = game;
+        flush();
 
         for (AbstractMetric metric : metrics.values()) {
             metric.init(game, nPlayersPerGame, playerNames);
@@ -0,0 +1,229 @@
+package evaluation.loggers;
+
+import evaluation.loggers.FeatureDataWriter.ColumnType;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file written by FeatureDataWriter one chunk at a time, so that only one chunk of data is in memory.
+ * The data can be read either by column (nextChunk() and then column()) or by row (next()).
+ * <p>
+ * The file is either read through a buffer or (if memoryMapped is true, and the file is smaller than 2GB)
+ * memory-mapped; the latter avoids a copy of each chunk, and is faster for large files on most platforms.
+ * <p>
+ * This can also be run from the command line to export a file as tab-separated text, as FileStatsLogger would
+ * have written it: {@code FeatureDataReader <binary file> <tsv file>}
+ */
+public class FeatureDataReader implements Closeable {
+
+    private final String fileName;
+    private final FileChannel channel;
+    private final ByteBuffer mapped;  // null if we read through buffer
+    private ByteBuffer buffer;
+    private final ByteBuffer rowCount = ByteBuffer.allocate(4);
+    private final String[] columns;
+    private final ColumnType[] types;
+    private final int rowBytes;
+    private final double[][] data;  // [column][row] for the current chunk
+    private int rows, row;
+
+    public FeatureDataReader(String fileName) {
+        this(fileName, false);
+    }
+
+    public FeatureDataReader(String fileName, boolean memoryMapped) {
+        this.fileName = fileName;
+        try {
+            channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+            // the header is small, so we read it directly from the channel (this must not be buffered, as
+            // we then carry on reading from the channel's position)
+            DataInputStream header = new DataInputStream(Channels.newInputStream(channel));
+            if (header.readInt() != FeatureDataWriter.MAGIC)
+                throw new AssertionError("Not a feature data file : " + fileName);
+            int version = header.readInt();
+            if (version != FeatureDataWriter.VERSION)
+                throw new AssertionError("Unsupported feature data version " + version + " in " + fileName);
+            int nColumns = header.readInt();
+            columns = new String[nColumns];
+            types = new ColumnType[nColumns];
+            int bytes = 0;
+            for (int c = 0; c < nColumns; c++) {
+                columns[c] = header.readUTF();
+                types[c] = ColumnType.values()[header.readByte()];
+                bytes += types[c].bytes;
+            }
+            rowBytes = bytes;
+            data = new double[nColumns][0];
+            long start = channel.position();
+            if (memoryMapped && channel.size() - start <= Integer.MAX_VALUE) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, channel.size() - start);
+            } else {
+                mapped = null;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem reading file " + fileName + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return true if the file starts with the FeatureDataWriter header (rather than, say, being tab-separated text)
+     */
+    public static boolean isFeatureDataFile(String fileName) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(fileName))) {
+            return in.readInt() == FeatureDataWriter.MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    public ColumnType[] getColumnTypes() {
+        return types.clone();
+    }
+
+    /**
+     * Moves on to the next chunk of data
+     *
+     * @return false if there is no more data
+     */
+    public boolean nextChunk() {
+        try {
+            ByteBuffer source;
+            if (mapped != null) {
+                if (!mapped.hasRemaining())
+                    return false;
+                rows = mapped.getInt();
+                source = mapped.slice();
+                source.limit(rows * rowBytes);
+                mapped.position(mapped.position() + rows * rowBytes);
+            } else {
+                rowCount.clear();
+                if (!readFully(rowCount))
+                    return false;
+                rows = rowCount.getInt(0);
+                int bytes = rows * rowBytes;
+                if (buffer == null || buffer.capacity() < bytes)
+                    buffer = ByteBuffer.allocate(bytes);
+                buffer.clear();
+                buffer.limit(bytes);
+                if (!readFully(buffer))
+                    throw new AssertionError("Incomplete chunk at end of " + fileName);
+                buffer.flip();
+                source = buffer;
+            }
+            for (int c = 0; c < columns.length; c++) {
+                if (data[c].length < rows)
+                    data[c] = new double[Math.max(rows, 2 * data[c].length)];
+                double[] column = data[c];
+                if (types[c] == ColumnType.INT) {
+                    for (int r = 0; r < rows; r++)
+                        column[r] = source.getInt();
+                } else {
+                    source.asDoubleBuffer().get(column, 0, rows);
+                    source.position(source.position() + 8 * rows);
+                }
+            }
+            row = 0;
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem reading file " + fileName + " : " + e.getMessage());
+        }
+    }
+
+    // returns false if we are at the end of the file before reading anything
+    private boolean readFully(ByteBuffer target) throws IOException {
+        boolean started = false;
+        while (target.hasRemaining()) {
+            if (channel.read(target) < 0) {
+                if (started)
+                    throw new AssertionError("Unexpected end of file " + fileName);
+                return false;
+            }
+            started = true;
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of rows in the current chunk
+     */
+    public int chunkRows() {
+        return rows;
+    }
+
+    /**
+     * The values of one column for the current chunk. Only the first chunkRows() entries are valid, and the array
+     * is reused (and overwritten) by the next chunk.
+     */
+    public double[] column(int index) {
+        return data[index];
+    }
+
+    /**
+     * Reads the next row of data into the array provided (which must have one entry per column)
+     *
+     * @return false if there are no more rows
+     */
+    public boolean next(double[] values) {
+        while (row >= rows) {
+            if (!nextChunk())
+                return false;
+        }
+        for (int c = 0; c < columns.length; c++)
+            values[c] = data[c][row];
+        row++;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Writes the whole of a feature data file as tab-separated text, with a header line of the column names
+     */
+    public static void exportTSV(String fileName, String tsvFileName) {
+        try (FeatureDataReader reader = new FeatureDataReader(fileName);
+             BufferedWriter writer = new BufferedWriter(new FileWriter(tsvFileName))) {
+            writer.write(String.join("\t", reader.columns));
+            writer.write("\n");
+            double[] values = new double[reader.columns.length];
+            StringBuilder line = new StringBuilder();
+            while (reader.next(values)) {
+                line.setLength(0);
+                for (int c = 0; c < values.length; c++) {
+                    if (c > 0)
+                        line.append('\t');
+                    if (reader.types[c] == ColumnType.INT)
+                        line.append((long) values[c]);
+                    else
+                        line.append(values[c]);
+                }
+                line.append('\n');
+                writer.write(line.toString());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem exporting " + fileName + " to " + tsvFileName + " : " + e.getMessage());
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: FeatureDataReader <feature data file> <output tsv file>");
+            return;
+        }
+        exportTSV(args[0], args[1]);
+    }
+}
@@ -0,0 +1,223 @@
+package evaluation.loggers;
+
+import core.interfaces.IStatisticLogger;
+import evaluation.summarisers.TAGStatSummary;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Writes numeric training data (as recorded by FeatureListener) to a compact binary file, to be read back with
+ * FeatureDataReader. Compared to the tab-separated text of FileStatsLogger this avoids formatting and parsing every
+ * number, and does not lose precision.
+ * <p>
+ * The file is a header followed by any number of chunks:
+ * <ul>
+ *     <li>Header: int MAGIC, int VERSION, int nColumns, then for each column its name (writeUTF) and type (one byte,
+ *     the ordinal of ColumnType)</li>
+ *     <li>Chunk: int nRows, then for each column in turn its nRows values (4 bytes for INT, 8 for DOUBLE)</li>
+ * </ul>
+ * All values are big-endian (as DataOutputStream and ByteBuffer use by default). The data within a chunk is stored
+ * by column, so that a reader can pull a whole column into an array in one operation.
+ * <p>
+ * Rows are buffered, and a chunk is written whenever chunkRows rows are buffered or processDataAndNotFinish() is
+ * called (which FeatureListener does at the end of each game), so the file is always complete up to the last game.
+ * processDataAndFinish() must be called to close the file.
+ */
+public class FeatureDataWriter implements IStatisticLogger {
+
+    public static final int MAGIC = 0x54414744;  // 'TAGD'
+    public static final int VERSION = 1;
+    public static final int DEFAULT_CHUNK_ROWS = 4096;
+
+    public enum ColumnType {
+        INT(4), DOUBLE(8);
+
+        public final int bytes;
+
+        ColumnType(int bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private final String fileName;
+    private final int chunkRows;
+    private DataOutputStream out;
+    private String[] columns;
+    private ColumnType[] types;
+    private Map<String, Integer> columnIndex;
+    private double[][] chunk;  // [column][row]
+    private int rows;
+    private ByteBuffer buffer;
+
+    public FeatureDataWriter(String fileName) {
+        this(fileName, DEFAULT_CHUNK_ROWS);
+    }
+
+    public FeatureDataWriter(String fileName, int chunkRows) {
+        if (chunkRows < 1)
+            throw new IllegalArgumentException("chunkRows must be positive");
+        this.fileName = fileName;
+        this.chunkRows = chunkRows;
+    }
+
+    /**
+     * Defines the columns of the file. This must be called before any data is written (or else the columns are
+     * taken from the first call to record(Map)), and cannot then be changed.
+     */
+    public void setColumns(String[] columns, ColumnType[] types) {
+        if (columns.length != types.length)
+            throw new IllegalArgumentException("Need one type per column");
+        if (this.columns != null) {
+            if (Arrays.equals(this.columns, columns) && Arrays.equals(this.types, types))
+                return;
+            throw new IllegalStateException("Columns of " + fileName + " have already been set");
+        }
+        this.columns = columns.clone();
+        this.types = types.clone();
+        columnIndex = new HashMap<>();
+        for (int i = 0; i < columns.length; i++)
+            columnIndex.put(columns[i], i);
+        chunk = new double[columns.length][chunkRows];
+    }
+
+    public String[] getColumns() {
+        return columns == null ? null : columns.clone();
+    }
+
+    /**
+     * Adds a row of data, with one value per column (in the order given to setColumns). INT columns are truncated.
+     */
+    public void write(double[] row) {
+        if (columns == null)
+            throw new IllegalStateException("setColumns() must be called before write()");
+        if (row.length != columns.length)
+            throw new IllegalArgumentException("Expected " + columns.length + " values but got " + row.length);
+        for (int c = 0; c < row.length; c++)
+            chunk[c][rows] = row[c];
+        rows++;
+        if (rows == chunkRows)
+            writeChunk();
+    }
+
+    /**
+     * Records one row. Numbers (and Booleans, as 0/1) are stored, anything else is stored as NaN, as is
+     * any column that is missing. Keys for unknown columns are ignored (as in FileStatsLogger).
+     * On the first call, if setColumns() has not been called, the keys of the map define the columns, with
+     * integral values giving INT columns.
+     */
+    @Override
+    public void record(Map<String, ?> data) {
+        if (columns == null) {
+            String[] names = data.keySet().toArray(new String[0]);
+            ColumnType[] columnTypes = new ColumnType[names.length];
+            for (int i = 0; i < names.length; i++) {
+                Object value = data.get(names[i]);
+                boolean integral = value instanceof Integer || value instanceof Long || value instanceof Short
+                        || value instanceof Byte || value instanceof Boolean;
+                columnTypes[i] = integral ? ColumnType.INT : ColumnType.DOUBLE;
+            }
+            setColumns(names, columnTypes);
+        }
+        double[] row = new double[columns.length];
+        Arrays.fill(row, Double.NaN);
+        for (Map.Entry<String, ?> entry : data.entrySet()) {
+            Integer index = columnIndex.get(entry.getKey());
+            if (index == null)
+                continue;
+            Object value = entry.getValue();
+            if (value instanceof Number)
+                row[index] = ((Number) value).doubleValue();
+            else if (value instanceof Boolean)
+                row[index] = (Boolean) value ? 1.0 : 0.0;
+        }
+        write(row);
+    }
+
+    @Override
+    public void record(String key, Object datum) {
+        // only whole rows are supported
+    }
+
+    private void writeChunk() {
+        if (rows == 0)
+            return;
+        try {
+            if (out == null) {
+                out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName), 1 << 16));
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(columns.length);
+                for (int c = 0; c < columns.length; c++) {
+                    out.writeUTF(columns[c]);
+                    out.writeByte(types[c].ordinal());
+                }
+            }
+            int bytes = 0;
+            for (ColumnType type : types)
+                bytes += type.bytes * rows;
+            if (buffer == null || buffer.capacity() < bytes)
+                buffer = ByteBuffer.allocate(bytes);
+            buffer.clear();
+            for (int c = 0; c < columns.length; c++) {
+                double[] column = chunk[c];
+                if (types[c] == ColumnType.INT) {
+                    for (int r = 0; r < rows; r++)
+                        buffer.putInt((int) column[r]);
+                } else {
+                    buffer.asDoubleBuffer().put(column, 0, rows);
+                    buffer.position(buffer.position() + 8 * rows);
+                }
+            }
+            out.writeInt(rows);
+            out.write(buffer.array(), 0, buffer.position());
+            rows = 0;
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem writing to file " + fileName + " : " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void processDataAndNotFinish() {
+        writeChunk();
+        if (out == null) return;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem flushing file " + fileName + " : " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void processDataAndFinish() {
+        writeChunk();
+        if (out == null) return;
+        try {
+            out.close();
+            out = null;
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new AssertionError("Problem closing file " + fileName + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * This always returns an empty Map
+     */
+    @Override
+    public Map<String, TAGStatSummary> summary() {
+        return new HashMap<>();
+    }
+
+    @Override
+    public FeatureDataWriter emptyCopy(String id) {
+        String[] fileParts = fileName.split(Pattern.quote("."));
+        if (fileParts.length != 2)
+            throw new AssertionError("Filename does not conform to expected <stem>.<type>");
+        return new FeatureDataWriter(fileParts[0] + "_" + id + "." + fileParts[1], chunkRows);
+    }
+}
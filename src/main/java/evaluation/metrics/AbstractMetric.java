@@ -89,6 +89,21 @@ public abstract class AbstractMetric {
      * @param e        - event, which includes game event type, state, action and player ID
      */
     public final void run(MetricsGameListener listener, Event e) {
+        MetricRecord record = capture(listener, e);
+        if (record != null)
+            record.write();
+    }
+
+    /**
+     * Runs this metric as run() does, but instead of adding the data to the data logger straight away, returns it
+     * as a MetricRecord to be written later (possibly on another thread). The metric itself is always run on the
+     * calling thread, as it needs the game state as it is at the event.
+     *
+     * @param listener - game listener object, with access to the game itself
+     * @param e        - event, which includes game event type, state, action and player ID
+     * @return the data to be recorded, or null if the metric did not record anything for this event
+     */
+    public final MetricRecord capture(MetricsGameListener listener, Event e) {
         // Ask for custom records from the metric and record these too
         Map<String, Object> records = new HashMap<>();
 
@@ -98,17 +113,11 @@ public abstract class AbstractMetric {
         }
 
         // Run the metric and fill in the map with recorded data
-        boolean record = _run(listener, e, records);
-
-        if (record) {
-            // Record default column data first, custom data for each default column
-            addDefaultData(e);
+        if (!_run(listener, e, records))
+            return null;
 
-            // Add the recorded data to the table
-            for (Map.Entry<String, Object> entry : records.entrySet()) {
-                dataLogger.addData(entry.getKey(), entry.getValue());
-            }
-        }
+        // Default column data first, then the custom data
+        return new MetricRecord(dataLogger, defaultColumnNames, getDefaultData(e), records);
     }
 
     /**
@@ -142,20 +151,25 @@ public abstract class AbstractMetric {
     }
 
 
+    // The names of the columns in getDefaultData(), in the same order
+    private static final String[] defaultColumnNames = {"GameID", "GameName", "PlayerCount", "GameSeed", "Tick", "Turn", "Round", "Event"};
+
     /**
-     * Records data for the default columns. It must match the column names and types in getDefaultColumns().
-     *
      * @param e event for which the data is recorded
+     * @return the values of the default columns for the event, in the order GameID, GameName, PlayerCount,
+     * GameSeed, Tick, Turn, Round, Event
      */
-    public void addDefaultData(Event e) {
-        dataLogger.addData("GameID", String.valueOf(e.state.getGameID()));
-        dataLogger.addData("GameName", e.state.getGameType().name());
-        dataLogger.addData("PlayerCount", String.valueOf(e.state.getNPlayers()));
-        dataLogger.addData("GameSeed", String.valueOf(e.state.getGameParameters().getRandomSeed()));
-        dataLogger.addData("Tick", e.state.getGameTick());
-        dataLogger.addData("Turn", e.state.getTurnCounter());
-        dataLogger.addData("Round", e.state.getRoundCounter());
-        dataLogger.addData("Event", e.type.name());
+    protected Object[] getDefaultData(Event e) {
+        return new Object[]{
+                String.valueOf(e.state.getGameID()),
+                e.state.getGameType().name(),
+                String.valueOf(e.state.getNPlayers()),
+                String.valueOf(e.state.getGameParameters().getRandomSeed()),
+                e.state.getGameTick(),
+                e.state.getTurnCounter(),
+                e.state.getRoundCounter(),
+                e.type.name()
+        };
     }
 
     /**
@@ -0,0 +1,127 @@
+package evaluation.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes MetricRecords to their data loggers on a background thread, so that the game thread only has to run the
+ * metrics and not also add the data to the (comparatively slow) tables.
+ * <p>
+ * Records are collected into batches of batchSize, and each full batch is put on a queue for the writer thread.
+ * The queue holds at most maxQueuedBatches batches, so memory use is bounded: if the writer falls that far behind then
+ * add() blocks until it catches up. flush() hands over any part batch and waits until everything has been written;
+ * this must be called before the data loggers are read (or reset).
+ * <p>
+ * Records are written in the order they were added. add() and flush() may be called from different threads (for
+ * example when games are run in parallel), but the data loggers must then only be accessed after a flush().
+ * If writing a record throws an exception, this is re-thrown (wrapped) by the next call to add() or flush().
+ */
+public class AsyncMetricsWriter {
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    public static final int DEFAULT_MAX_QUEUED_BATCHES = 64;
+
+    private final int batchSize;
+    private final BlockingQueue<List<MetricRecord>> queue;
+    private final Thread writerThread;
+    private List<MetricRecord> batch;
+    private long batchesSubmitted;
+    // the writer thread must never need the lock on this, as add() holds that while it waits for space on the queue
+    private final Object writtenLock = new Object();
+    private long batchesWritten;  // guarded by writtenLock
+    private volatile Throwable error;
+
+    public AsyncMetricsWriter() {
+        this(DEFAULT_BATCH_SIZE, DEFAULT_MAX_QUEUED_BATCHES);
+    }
+
+    public AsyncMetricsWriter(int batchSize, int maxQueuedBatches) {
+        if (batchSize < 1 || maxQueuedBatches < 1)
+            throw new IllegalArgumentException("batchSize and maxQueuedBatches must be positive");
+        this.batchSize = batchSize;
+        queue = new ArrayBlockingQueue<>(maxQueuedBatches);
+        batch = new ArrayList<>(batchSize);
+        writerThread = new Thread(this::writeBatches, "Metrics writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public synchronized void add(MetricRecord record) {
+        checkError();
+        batch.add(record);
+        if (batch.size() >= batchSize)
+            submitBatch();
+    }
+
+    // must be called holding the lock on this
+    private void submitBatch() {
+        if (batch.isEmpty())
+            return;
+        try {
+            // this blocks if the queue is full, which is the back-pressure on the game thread
+            queue.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while queueing metrics", e);
+        }
+        batchesSubmitted++;
+        batch = new ArrayList<>(batchSize);
+    }
+
+    /**
+     * Waits until all the records added so far have been written to their data loggers
+     */
+    public void flush() {
+        long target;
+        synchronized (this) {
+            submitBatch();
+            target = batchesSubmitted;
+        }
+        try {
+            synchronized (writtenLock) {
+                while (batchesWritten < target && error == null)
+                    writtenLock.wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while flushing metrics", e);
+        }
+        checkError();
+    }
+
+    private void checkError() {
+        if (error != null)
+            throw new RuntimeException("Error in metrics writer", error);
+    }
+
+    private void writeBatches() {
+        while (true) {
+            List<MetricRecord> records;
+            try {
+                records = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                for (MetricRecord record : records)
+                    record.write();
+            } catch (Throwable t) {
+                error = t;
+            }
+            synchronized (writtenLock) {
+                batchesWritten++;
+                writtenLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Flushes any remaining records, and then stops the writer thread. No more records can be added after this.
+     */
+    public void close() {
+        flush();
+        writerThread.interrupt();
+    }
+}
@@ -0,0 +1,46 @@
+package evaluation.metrics;
+
+import java.util.Map;
+
+/**
+ * The data recorded by one metric for one event: the values of the default columns and of the metric's own columns,
+ * along with the data logger they are to be added to. This is created on the game thread by AbstractMetric.capture(),
+ * and is not changed afterwards, so it can be written to the data logger later, on another thread.
+ * <p>
+ * The values are those put into the records by the metric's _run(), and so must not be changed by the metric
+ * once it has returned (in practice they are almost always boxed primitives or Strings).
+ */
+public final class MetricRecord {
+
+    private final IDataLogger dataLogger;
+    private final String[] columns;
+    private final Object[] values;
+
+    MetricRecord(IDataLogger dataLogger, String[] defaultColumns, Object[] defaultValues, Map<String, Object> records) {
+        this.dataLogger = dataLogger;
+        int n = defaultColumns.length + records.size();
+        columns = new String[n];
+        values = new Object[n];
+        System.arraycopy(defaultColumns, 0, columns, 0, defaultColumns.length);
+        System.arraycopy(defaultValues, 0, values, 0, defaultValues.length);
+        int i = defaultColumns.length;
+        for (Map.Entry<String, Object> entry : records.entrySet()) {
+            columns[i] = entry.getKey();
+            values[i] = entry.getValue();
+            i++;
+        }
+    }
+
+    /**
+     * Adds the data to the data logger (one value to each column)
+     */
+    public void write() {
+        for (int i = 0; i < columns.length; i++) {
+            dataLogger.addData(columns[i], values[i]);
+        }
+    }
+
+    public IDataLogger getDataLogger() {
+        return dataLogger;
+    }
+}
@@ -12,6 +12,9 @@ import evodef.SolutionEvaluator;
 import games.GameType;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.IntStream;
 
 import static java.util.stream.Collectors.toList;
@@ -38,6 +41,21 @@ public class GameEvaluator implements SolutionEvaluator {
     IGameHeuristic gameHeuristic;
     List<IGameListener> listeners = new ArrayList<>();
 
+    /**
+     * One game set up for evaluation, ready to be run
+     */
+    static class Trial {
+        final Game game;
+        final int playerIndex;
+        final boolean tuningGame;
+
+        Trial(Game game, int playerIndex, boolean tuningGame) {
+            this.game = game;
+            this.playerIndex = playerIndex;
+            this.tuningGame = tuningGame;
+        }
+    }
+
     /**
      * GameEvaluator
      *
@@ -94,6 +112,35 @@ public class GameEvaluator implements SolutionEvaluator {
      */
     @Override
     public double evaluate(int[] settings) {
+        return play(prepare(settings));
+    }
+
+    /**
+     * Evaluates a batch of settings, with the games played in parallel on the executor.
+     * All the games are set up (and their random seeds drawn) on the calling thread in order, and each has its own
+     * players and forward model, so the results are the same as if the settings had been evaluated one at a time.
+     *
+     * @param settings the settings to evaluate, as in evaluate(int[])
+     * @param executor the threads to play the games on
+     * @return the score for each of the settings, in the same order
+     */
+    public double[] evaluate(List<int[]> settings, ExecutorService executor) {
+        List<Future<Double>> results = new ArrayList<>(settings.size());
+        for (int[] setting : settings) {
+            Trial trial = prepare(setting);
+            results.add(executor.submit(() -> play(trial)));
+        }
+        double[] retValue = new double[settings.size()];
+        try {
+            for (int i = 0; i < retValue.length; i++)
+                retValue[i] = results.get(i).get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error in NTBEA evaluation game", e);
+        }
+        return retValue;
+    }
+
+    private Trial prepare(int[] settings) {
         if (debug)
             System.out.printf("Starting evaluation %d of %s at %tT%n", nEvals,
                     Arrays.toString(settings), System.currentTimeMillis());
@@ -128,7 +175,13 @@ public class GameEvaluator implements SolutionEvaluator {
 
         // always reset the random seed for each new game
         newGame.reset(allPlayers, rnd.nextLong());
+        nEvals++;
+        return new Trial(newGame, playerIndex, tuningGame);
+    }
 
+    private double play(Trial trial) {
+        Game newGame = trial.game;
+        int playerIndex = trial.playerIndex;
         newGame.run();
         int playerOnTeam = -1;
         for (int p = 0; p < newGame.getGameState().getNPlayers(); p++) {
@@ -138,11 +191,10 @@ public class GameEvaluator implements SolutionEvaluator {
         }
         if (playerOnTeam == -1)
             throw new AssertionError("No Player found on team " + playerIndex);
-        double retValue = tuningGame ? gameHeuristic.evaluateGame(newGame) : stateHeuristic.evaluateState(newGame.getGameState(), playerOnTeam);
+        double retValue = trial.tuningGame ? gameHeuristic.evaluateGame(newGame) : stateHeuristic.evaluateState(newGame.getGameState(), playerOnTeam);
 
     //    System.out.println("GameEvaluator: " + retValue);
 
-        nEvals++;
         return retValue;
     }
 
@@ -5,7 +5,11 @@ import games.GameType;
 import ntbea.MultiNTupleBanditEA;
 import ntbea.NTupleSystem;
 
+import utilities.Pair;
+
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.stream.IntStream;
 
 import static java.util.stream.Collectors.toMap;
@@ -15,7 +19,11 @@ public class MultiNTBEA extends NTBEA {
     GameMultiPlayerEvaluator multiPlayerEvaluator;
 
     public MultiNTBEA(NTBEAParameters parameters, GameType game, int nPlayers) {
-        super(parameters, game, nPlayers);
+        this(parameters, game, nPlayers, parameters.seed);
+    }
+
+    private MultiNTBEA(NTBEAParameters parameters, GameType game, int nPlayers, long seed) {
+        super(parameters, game, nPlayers, seed);
         params.evalGames = 0;  // these are not used in the multi-player case (yet)
 
         searchFramework = new MultiNTupleBanditEA(landscapeModel, params.kExplore, params.neighbourhoodSize, nPlayers);
@@ -26,7 +34,7 @@ public class MultiNTBEA extends NTBEA {
                 params.searchSpace,
                 nPlayers,
                 stateHeuristic,
-                params.seed
+                seed
         );
     }
 
@@ -36,6 +44,45 @@ public class MultiNTBEA extends NTBEA {
         printDiversityResults(landscapeModel, params.kExplore);
     }
 
+    /**
+     * With more than one thread the repeats are independent of each other, so we run them concurrently, each on a
+     * separate MultiNTBEA with its own landscape model and evaluator. The seed for each is drawn in order here, and
+     * the results are merged in order of repeat, so they do not depend on which finishes first. Any threads a repeat
+     * creates itself are shut down when it finishes.
+     */
+    @Override
+    protected void runAllIterations() {
+        if (params.nThreads <= 1 || params.repeats <= 1) {
+            super.runAllIterations();
+            return;
+        }
+        List<Future<MultiNTBEA>> repeats = new ArrayList<>(params.repeats);
+        for (currentIteration = 0; currentIteration < params.repeats; currentIteration++) {
+            MultiNTBEA repeat = new MultiNTBEA(params, game, nPlayers, rnd.nextLong());
+            repeat.currentIteration = currentIteration;
+            repeats.add(workerThreads().submit(() -> {
+                try {
+                    repeat.runIteration();
+                    return repeat;
+                } finally {
+                    repeat.shutdownWorkerThreads();
+                }
+            }));
+        }
+        try {
+            for (Future<MultiNTBEA> future : repeats) {
+                MultiNTBEA repeat = future.get();
+                winnersPerRun.addAll(repeat.winnersPerRun);
+                winnerSettings.addAll(repeat.winnerSettings);
+                Pair<Pair<Double, Double>, int[]> result = repeat.bestResult;
+                if (result.a.a > bestResult.a.a)
+                    bestResult = result;
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error in MultiNTBEA repeat", e);
+        }
+    }
+
     @Override
     protected void runTrials() {
         multiPlayerEvaluator.reset();
@@ -25,6 +25,8 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.IntToDoubleFunction;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -50,8 +52,19 @@ public class NTBEA {
     int currentIteration = 0;
     IStateHeuristic stateHeuristic;
     IGameHeuristic gameHeuristic;
+    // only used when params.nThreads > 1
+    Random rnd;
+    private ExecutorService workerThreads;
 
     public NTBEA(NTBEAParameters parameters, GameType game, int nPlayers) {
+        this(parameters, game, nPlayers, parameters.seed);
+    }
+
+    /**
+     * @param seed - used in place of parameters.seed (so that the repeats run in parallel by MultiNTBEA each have
+     *             their own seed)
+     */
+    protected NTBEA(NTBEAParameters parameters, GameType game, int nPlayers, long seed) {
         // Now initialise the other bits and pieces needed for the NTBEA package
         this.params = parameters;
         landscapeModel = new NTupleSystem(params.searchSpace);
@@ -61,6 +74,7 @@ public class NTBEA {
         searchFramework = new NTupleBanditEA(landscapeModel, params.kExplore, params.neighbourhoodSize);
         this.game = game;
         this.nPlayers = nPlayers;
+        rnd = new Random(seed);
         // Set up opponents
         // if we are in coop mode, then we have no opponents. This is indicated by leaving the list empty.
         List<AbstractPlayer> opponents = params.mode == NTBEAParameters.Mode.CoopNTBEA ? new ArrayList<>()
@@ -105,7 +119,7 @@ public class NTBEA {
                 params.gameParams,
                 nPlayers,
                 opponents,
-                params.seed,
+                seed,
                 stateHeuristic,
                 gameHeuristic,
                 true
@@ -127,10 +141,23 @@ public class NTBEA {
      * @return
      */
     public Pair<Object, int[]> run() {
+        try {
+            return runAndRecommend();
+        } finally {
+            shutdownWorkerThreads();
+        }
+    }
 
-        for (currentIteration = 0; currentIteration < params.repeats; currentIteration++) {
-            runIteration();
+    protected void shutdownWorkerThreads() {
+        if (workerThreads != null) {
+            workerThreads.shutdownNow();
+            workerThreads = null;
         }
+    }
+
+    private Pair<Object, int[]> runAndRecommend() {
+
+        runAllIterations();
 
         // After all runs are complete, if tournamentGames are specified, then we allow all the
         // winners from each iteration to play in a tournament and pick the winner of this tournament
@@ -217,9 +244,101 @@ public class NTBEA {
         return new Pair<>(params.searchSpace.getAgent(bestResult.b), bestResult.b);
     }
 
+    protected void runAllIterations() {
+        for (currentIteration = 0; currentIteration < params.repeats; currentIteration++) {
+            runIteration();
+        }
+    }
+
     protected void runTrials() {
         evaluator.reset();
-        searchFramework.runTrial(evaluator, params.iterationsPerRun);
+        if (params.nThreads > 1)
+            runBatchedTrials();
+        else
+            searchFramework.runTrial(evaluator, params.iterationsPerRun);
+    }
+
+    /**
+     * The multi-threaded equivalent of NTupleBanditEA.runTrial(). That evaluates one point at a time, so instead
+     * each round here proposes nThreads distinct points from the neighbourhood of the current point (those with the
+     * highest upper confidence bound on the landscape model), plays the games for all of them in parallel, and then
+     * adds all the results to the model before moving to the best of them (by mean estimate).
+     */
+    protected void runBatchedTrials() {
+        ITPSearchSpace ss = params.searchSpace;
+        int[] current = new int[ss.nDims()];
+        for (int i = 0; i < current.length; i++)
+            current[i] = rnd.nextInt(ss.nValues(i));
+        List<int[]> batch = new ArrayList<>();
+        batch.add(current);
+        for (int i = 1; i < params.nThreads; i++)
+            batch.add(mutate(current));
+
+        int evaluations = 0;
+        while (evaluations < params.iterationsPerRun) {
+            if (batch.size() > params.iterationsPerRun - evaluations)
+                batch = batch.subList(0, params.iterationsPerRun - evaluations);
+            double[] results = evaluator.evaluate(batch, workerThreads());
+            for (int i = 0; i < results.length; i++)
+                landscapeModel.addPoint(batch.get(i), results[i]);
+            evaluations += results.length;
+
+            current = batch.stream()
+                    .max(Comparator.comparingDouble(p -> landscapeModel.getMeanEstimate(p)))
+                    .orElseThrow(() -> new AssertionError("Empty batch"));
+            batch = proposeBatch(current);
+        }
+    }
+
+    private List<int[]> proposeBatch(int[] current) {
+        List<int[]> neighbours = new ArrayList<>(params.neighbourhoodSize + 1);
+        neighbours.add(current);
+        for (int i = 0; i < params.neighbourhoodSize; i++)
+            neighbours.add(mutate(current));
+        Map<int[], Double> ucb = new HashMap<>();
+        for (int[] p : neighbours) {
+            double value = landscapeModel.getMeanEstimate(p) + params.kExplore * landscapeModel.getExplorationEstimate(p);
+            // points the model knows nothing about are the most promising
+            ucb.put(p, Double.isNaN(value) ? Double.POSITIVE_INFINITY : value);
+        }
+        neighbours.sort(Comparator.comparingDouble(p -> -ucb.get(p)));
+
+        List<int[]> retValue = new ArrayList<>(params.nThreads);
+        for (int[] p : neighbours) {
+            if (retValue.stream().noneMatch(q -> Arrays.equals(p, q)))
+                retValue.add(p);
+            if (retValue.size() == params.nThreads)
+                return retValue;
+        }
+        // a small search space (or neighbourhood) may not have enough distinct points, so we repeat the best ones
+        for (int i = 0; retValue.size() < params.nThreads; i++)
+            retValue.add(retValue.get(i));
+        return retValue;
+    }
+
+    private int[] mutate(int[] point) {
+        ITPSearchSpace ss = params.searchSpace;
+        int[] retValue = point.clone();
+        // always change one dimension, and then each of the others with probability 1/nDims
+        int forced = rnd.nextInt(ss.nDims());
+        for (int i = 0; i < retValue.length; i++) {
+            if (ss.nValues(i) > 1 && (i == forced || rnd.nextDouble() < 1.0 / ss.nDims())) {
+                int newValue = rnd.nextInt(ss.nValues(i) - 1);
+                retValue[i] = newValue >= point[i] ? newValue + 1 : newValue;
+            }
+        }
+        return retValue;
+    }
+
+    protected ExecutorService workerThreads() {
+        if (workerThreads == null) {
+            workerThreads = Executors.newFixedThreadPool(params.nThreads, r -> {
+                Thread t = new Thread(r, "NTBEA worker");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return workerThreads;
     }
 
     protected void runIteration() {
@@ -258,8 +377,9 @@ public class NTBEA {
 
     protected Pair<Double, Double> evaluateWinner(int[] winnerSettings) {
 
-        double[] results = IntStream.range(0, params.evalGames)
-                .mapToDouble(answer -> evaluator.evaluate(winnerSettings)).toArray();
+        double[] results = params.nThreads > 1
+                ? evaluator.evaluate(Collections.nCopies(params.evalGames, winnerSettings), workerThreads())
+                : IntStream.range(0, params.evalGames).mapToDouble(answer -> evaluator.evaluate(winnerSettings)).toArray();
 
         double avg = Arrays.stream(results).average().orElse(0.0);
         double stdErr = Math.sqrt(Arrays.stream(results)
@@ -335,7 +455,7 @@ public class NTBEA {
         }
     }
 
-    private static void logSummary(Pair<Pair<Double, Double>, int[]> data, NTBEAParameters params) {
+    private static synchronized void logSummary(Pair<Pair<Double, Double>, int[]> data, NTBEAParameters params) {
         try {
             Utils.createDirectory(params.destDir);
             File log = new File(params.destDir.isEmpty() ? params.logFile : params.destDir + File.separator + params.logFile);
@@ -44,6 +44,7 @@ public class NTBEAParameters {
     public ITPSearchSpace searchSpace;
     public AbstractParameters gameParams;
     public boolean byTeam;
+    public int nThreads;
 
     public NTBEAParameters(Map<RunArg, Object> args) {
         this(args, Function.identity());
@@ -64,6 +65,7 @@ public class NTBEAParameters {
         verbose = (boolean) args.get(RunArg.verbose);
         seed = args.get(RunArg.seed) instanceof Long ? ((Long)args.get(RunArg.seed)).intValue() : (int) args.get(RunArg.seed)  ;
         byTeam = (boolean) args.get(RunArg.byTeam);
+        nThreads = (int) args.getOrDefault(RunArg.nThreads, 1);
         GameType game = GameType.valueOf(args.get(RunArg.game).toString());
         gameParams = args.get(RunArg.gameParams).equals("") ? null :
                 AbstractParameters.createFromFile(game, (String) args.get(RunArg.gameParams));
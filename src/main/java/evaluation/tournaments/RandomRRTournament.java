@@ -32,6 +32,13 @@ public class RandomRRTournament extends RoundRobinTournament {
         idStream = new PermutationCycler(agents.size(), seedRnd, playersPerGame);
     }
 
+    @Override
+    public void setRandomSeed(Number randomSeed) {
+        super.setRandomSeed(randomSeed);
+        // the matchups must also be drawn from the new seed, or they will not be reproducible
+        idStream = new PermutationCycler(agents.size(), seedRnd, nPlayers);
+    }
+
     /**
      * Instead of recursively constructing all possible combinations of players for the game (as in the super-class)
      * here we create random matchups. This is designed for large numbers of players, for which an exhaustive
@@ -1,10 +1,13 @@
 package evaluation.tournaments;
 
+import core.AbstractGameState;
 import core.AbstractParameters;
 import core.AbstractPlayer;
+import core.Game;
 import evaluation.RunArg;
 import evaluation.listeners.IGameListener;
 import evaluation.listeners.TournamentMetricsGameListener;
+import evaluation.metrics.Event;
 import evaluation.tournaments.AbstractTournament.TournamentMode;
 import games.GameType;
 import utilities.LinearRegression;
@@ -13,6 +16,10 @@ import utilities.Pair;
 import java.io.File;
 import java.io.FileWriter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -47,6 +54,42 @@ public class RoundRobinTournament extends AbstractTournament {
     String seedFile;
     Random seedRnd = new Random(randomSeed);
 
+    // If this is more than 1, then games are played in parallel on this many threads (see evaluateMatchUp)
+    protected int nThreads;
+    private ExecutorService workerThreads;
+    private ThreadLocal<Game> workerGame;
+    // games submitted to the worker threads, in the order they were submitted
+    private final List<PendingGame> pendingGames = new ArrayList<>();
+
+    /**
+     * The results of one game, in a form that does not depend on the Game object (which is re-used)
+     */
+    static class GameOutcome {
+        final GameResult[] results;
+        final int[] ordinalPositions;
+        final int[] teams;
+
+        GameOutcome(AbstractGameState state) {
+            results = state.getPlayerResults().clone();
+            ordinalPositions = new int[state.getNPlayers()];
+            teams = new int[state.getNPlayers()];
+            for (int p = 0; p < state.getNPlayers(); p++) {
+                ordinalPositions[p] = state.getOrdinalPosition(p);
+                teams[p] = state.getTeam(p);
+            }
+        }
+    }
+
+    static class PendingGame {
+        final List<Integer> agentIDs;
+        final Future<GameOutcome> outcome;
+
+        PendingGame(List<Integer> agentIDs, Future<GameOutcome> outcome) {
+            this.agentIDs = agentIDs;
+            this.outcome = outcome;
+        }
+    }
+
 
     /**
      * Create a round robin tournament, which plays all agents against all others.
@@ -87,6 +130,7 @@ public class RoundRobinTournament extends AbstractTournament {
         this.byTeam = (boolean) config.getOrDefault(RunArg.byTeam, false);
         this.tournamentSeeds = (int) config.getOrDefault(RunArg.distinctRandomSeeds, 0);
         this.seedFile = (String) config.getOrDefault(RunArg.seedFile, "");
+        this.nThreads = (int) config.getOrDefault(RunArg.nThreads, 1);
         if (!seedFile.isEmpty()) {
             this.gameSeeds = loadSeedsFromFile();
             if (gameSeeds.isEmpty()) {
@@ -132,6 +176,10 @@ public class RoundRobinTournament extends AbstractTournament {
             createAndRunMatchUp(matchUp);
         }
         reportResults();
+        if (workerThreads != null) {
+            workerThreads.shutdown();
+            workerThreads = null;
+        }
 
         for (IGameListener listener : listeners)
             listener.report();
@@ -255,6 +303,8 @@ public class RoundRobinTournament extends AbstractTournament {
         Set<String> agentNames = agents.stream().map(AbstractPlayer::toString).collect(Collectors.toSet());
         for (IGameListener listener : listeners) {
             if (listener instanceof TournamentMetricsGameListener) {
+                // this records metrics against the current matchup, so any games still running must finish first
+                waitForPendingGames();
                 ((TournamentMetricsGameListener) listener).tournamentInit(game, nPlayers, agentNames, new HashSet<>(matchUpPlayers));
             }
         }
@@ -263,70 +313,121 @@ public class RoundRobinTournament extends AbstractTournament {
         for (int i = 0; i < nGames; i++) {
             // if tournamentSeeds > 0, then we are running this many tournaments, each with a different random seed fixed for the whole tournament
             // so we override the standard random seeds
-            game.reset(matchUpPlayers, seeds.get(i));
-
-            // Randomize parameters
-            if (randomGameParams) {
-                game.getGameState().getGameParameters().randomize();
-                System.out.println("Game parameters: " + game.getGameState().getGameParameters());
+            long seed = seeds.get(i);
+            if (nThreads > 1) {
+                // Each game gets its own copies of the players, so that the result depends only on the seed, and not
+                // on which thread plays it or on what else that thread has played
+                List<AbstractPlayer> gamePlayers = matchUpPlayers.stream().map(AbstractPlayer::copy).collect(toList());
+                Future<GameOutcome> outcome = workerThreads().submit(() -> playGame(workerGame.get(), gamePlayers, seed));
+                pendingGames.add(new PendingGame(new ArrayList<>(agentIDsInThisGame), outcome));
+            } else {
+                recordResult(agentIDsInThisGame, playGame(game, matchUpPlayers, seed));
             }
+        }
+    }
 
-            game.run();  // Always running tournaments without visuals
-            GameResult[] results = game.getGameState().getPlayerResults();
+    private GameOutcome playGame(Game gameToRun, List<AbstractPlayer> players, long seed) {
+        gameToRun.reset(players, seed);
 
-            int numDraws = 0;
-            for (int j = 0; j < matchUpPlayers.size(); j++) {
-                nGamesPlayed[agentIDsInThisGame.get(j)] += 1;
-                for (int k = 0; k < matchUpPlayers.size(); k++) {
-                    if (k != j) {
-                        nGamesPlayedPerOpponent[agentIDsInThisGame.get(j)][agentIDsInThisGame.get(k)] += 1;
-                    }
+        // Randomize parameters
+        if (randomGameParams) {
+            gameToRun.getGameState().getGameParameters().randomize();
+            System.out.println("Game parameters: " + gameToRun.getGameState().getGameParameters());
+        }
+
+        gameToRun.run();  // Always running tournaments without visuals
+        return new GameOutcome(gameToRun.getGameState());
+    }
+
+    private ExecutorService workerThreads() {
+        if (workerThreads == null) {
+            workerThreads = Executors.newFixedThreadPool(nThreads, r -> {
+                Thread t = new Thread(r, "Tournament worker");
+                t.setDaemon(true);  // so that we never prevent the JVM from exiting
+                return t;
+            });
+            // each thread has its own Game (and hence forward model and game state), with a copy of the parameters
+            workerGame = ThreadLocal.withInitial(() -> {
+                Game g = game.getGameType().createGameInstance(nPlayers, game.getGameState().getGameParameters().copy());
+                for (IGameListener listener : listeners)
+                    g.addListener(new WorkerListener(listener));
+                return g;
+            });
+        }
+        return workerThreads;
+    }
+
+    /**
+     * Waits for all games submitted to the worker threads, and records their results in the order in which they were
+     * submitted (so that the totals are the same whatever order the games finish in).
+     */
+    protected void waitForPendingGames() {
+        try {
+            for (PendingGame pending : pendingGames)
+                recordResult(pending.agentIDs, pending.outcome.get());
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error in tournament game", e);
+        } finally {
+            pendingGames.clear();
+        }
+    }
+
+    private void recordResult(List<Integer> agentIDsInThisGame, GameOutcome outcome) {
+        GameResult[] results = outcome.results;
+        int nAgents = agentIDsInThisGame.size();
+
+        int numDraws = 0;
+        for (int j = 0; j < nAgents; j++) {
+            nGamesPlayed[agentIDsInThisGame.get(j)] += 1;
+            for (int k = 0; k < nAgents; k++) {
+                if (k != j) {
+                    nGamesPlayedPerOpponent[agentIDsInThisGame.get(j)][agentIDsInThisGame.get(k)] += 1;
                 }
+            }
 
-                // now we need to be careful if we have a team game, as the agents are indexed by Team, not player
-                if (byTeam) {
-                    for (int player = 0; player < game.getGameState().getNPlayers(); player++) {
-                        if (game.getGameState().getTeam(player) == j) {
-                            numDraws += updatePoints(results, agentIDsInThisGame, agentIDsInThisGame.get(j), player);
-                            break; // we stop after one player on the team to avoid double counting
-                        }
+            // now we need to be careful if we have a team game, as the agents are indexed by Team, not player
+            if (byTeam) {
+                for (int player = 0; player < results.length; player++) {
+                    if (outcome.teams[player] == j) {
+                        numDraws += updatePoints(outcome, agentIDsInThisGame, agentIDsInThisGame.get(j), player);
+                        break; // we stop after one player on the team to avoid double counting
                     }
-                } else {
-                    numDraws += updatePoints(results, agentIDsInThisGame, agentIDsInThisGame.get(j), j);
                 }
+            } else {
+                numDraws += updatePoints(outcome, agentIDsInThisGame, agentIDsInThisGame.get(j), j);
             }
+        }
 
-            if (numDraws > 0) {
-                double pointsPerDraw = 1.0 / numDraws;
-                for (int j = 0; j < matchUpPlayers.size(); j++) {
-                    if (results[j] == GameResult.DRAW_GAME) pointsPerPlayer[agentIDsInThisGame.get(j)] += pointsPerDraw;
-                    if (results[j] == GameResult.DRAW_GAME)
-                        pointsPerPlayerSquared[agentIDsInThisGame.get(j)] += pointsPerDraw * pointsPerDraw;
-                }
+        if (numDraws > 0) {
+            double pointsPerDraw = 1.0 / numDraws;
+            for (int j = 0; j < nAgents; j++) {
+                if (results[j] == GameResult.DRAW_GAME) pointsPerPlayer[agentIDsInThisGame.get(j)] += pointsPerDraw;
+                if (results[j] == GameResult.DRAW_GAME)
+                    pointsPerPlayerSquared[agentIDsInThisGame.get(j)] += pointsPerDraw * pointsPerDraw;
             }
+        }
 
-            if (verbose) {
-                StringBuffer sb = new StringBuffer();
-                sb.append("[");
-                for (int j = 0; j < matchUpPlayers.size(); j++) {
-                    for (int player = 0; player < game.getGameState().getNPlayers(); player++) {
-                        if (game.getGameState().getTeam(player) == j) {
-                            sb.append(results[player]).append(",");
-                            break; // we stop after one player on the team to avoid double counting
-                        }
+        if (verbose) {
+            StringBuffer sb = new StringBuffer();
+            sb.append("[");
+            for (int j = 0; j < nAgents; j++) {
+                for (int player = 0; player < results.length; player++) {
+                    if (outcome.teams[player] == j) {
+                        sb.append(results[player]).append(",");
+                        break; // we stop after one player on the team to avoid double counting
                     }
                 }
-                sb.setCharAt(sb.length() - 1, ']');
-                System.out.println(sb);
             }
-
+            sb.setCharAt(sb.length() - 1, ']');
+            System.out.println(sb);
         }
-        totalGamesRun += nGames;
+        totalGamesRun++;
     }
 
-    private int updatePoints(GameResult[] results, List<Integer> matchUpPlayers, int j, int player) {
+    private int updatePoints(GameOutcome outcome, List<Integer> matchUpPlayers, int j, int player) {
         // j is the index of the agent in the matchup; player is the corresponding player number in the game
-        int ordinalPos = game.getGameState().getOrdinalPosition(player);
+        GameResult[] results = outcome.results;
+        int ordinalPos = outcome.ordinalPositions[player];
         rankPerPlayer[j] += ordinalPos;
         rankPerPlayerSquared[j] += ordinalPos * ordinalPos;
 
@@ -370,6 +471,7 @@ public class RoundRobinTournament extends AbstractTournament {
     }
 
     protected void reportResults() {
+        waitForPendingGames();
         calculateFinalResults();
         boolean toFile = resultsFile != null && !resultsFile.equals("");
         ArrayList<String> dataDump = new ArrayList<>();
@@ -433,6 +535,47 @@ public class RoundRobinTournament extends AbstractTournament {
         }
     }
 
+    /**
+     * Passes the events from a worker thread's Game on to one of the tournament's listeners, as they happen.
+     * Each event is handled while holding the listener's lock, with the listener pointed at the Game the event came
+     * from, so that anything the listener reads from the Game (e.g. the time taken by the last action) is for that
+     * event. Listeners that keep data across the events of a game must keep it per Game, as the events of games on
+     * different worker threads are interleaved (see FeatureListener).
+     * Reporting is left to the tournament, which reports the listener itself.
+     */
+    static class WorkerListener implements IGameListener {
+        final IGameListener listener;
+        Game game;
+
+        WorkerListener(IGameListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void onEvent(Event event) {
+            synchronized (listener) {
+                Game previous = listener.getGame();
+                listener.setGame(game);
+                listener.onEvent(event);
+                listener.setGame(previous);
+            }
+        }
+
+        @Override
+        public void report() {
+        }
+
+        @Override
+        public void setGame(Game game) {
+            this.game = game;
+        }
+
+        @Override
+        public Game getGame() {
+            return game;
+        }
+    }
+
     public double getWinRate(int agentID) {
         return finalWinRanking.get(agentID).a;
     }
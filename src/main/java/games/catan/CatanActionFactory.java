@@ -42,7 +42,7 @@ public class CatanActionFactory {
                 if (!(tile.getTileType().equals(CatanTile.TileType.SEA) ||
                     tile.getTileType().equals(CatanTile.TileType.DESERT))) {
                     for (int i = 0; i < HEX_SIDES; i++) {
-                        Building settlement = gs.getBuilding(tile, i);
+                        Building settlement = gs.peekBuilding(tile, i);
                         if (!settlementsAdded.contains(settlement.getComponentID()) && settlement.getOwnerId() == -1) {
                             if (gs.checkSettlementPlacement(settlement, gs.getCurrentPlayer())) {
                                 settlementsAdded.add(settlement.getComponentID());
@@ -57,7 +57,7 @@ public class CatanActionFactory {
                                             int vertex = (i + 2*(k+1)) % HEX_SIDES;
                                             edge = (HEX_SIDES+vertex-1)%HEX_SIDES;
                                             CatanTile nTile = board[neighbour[0]][neighbour[1]];
-                                            edgeObj = gs.getRoad(nTile, vertex, edge);
+                                            edgeObj = gs.peekRoad(nTile, vertex, edge);
                                             if (edgeObj != null && edgeObj.getOwnerId() == -1) {
                                                 actions.add(new PlaceSettlementWithRoad(neighbour[0], neighbour[1], vertex, edge, player));
                                             }
@@ -240,7 +240,7 @@ public class CatanActionFactory {
                 if (!(tile.getTileType().equals(CatanTile.TileType.SEA))) {
                     if (actionSpace.structure != ActionSpace.Structure.Deep) { // Flat is default
                         Set<Integer> targets = new LinkedHashSet<>();
-                        Building[] settlements = gs.getBuildings(tile);
+                        Building[] settlements = gs.peekBuildings(tile);
                         for (Building settlement : settlements) {
                             if (settlement.getOwnerId() != -1 && settlement.getOwnerId() != gs.getCurrentPlayer()) {
                                 targets.add(settlement.getOwnerId());
@@ -316,7 +316,7 @@ public class CatanActionFactory {
                 for (int y = 0; y < board[x].length; y++) {
                     CatanTile tile = board[x][y];
                     for (int i = 0; i < HEX_SIDES; i++) {
-                        Building settlement = gs.getBuilding(tile, i);
+                        Building settlement = gs.peekBuilding(tile, i);
                         // Roads
                         Edge edge = gs.getRoad(settlement, tile, i);
                         if (edge == null || roadsAdded.contains(edge.getComponentID())) continue;
@@ -344,7 +344,7 @@ public class CatanActionFactory {
                 for (int y = 0; y < board[x].length; y++) {
                     CatanTile tile = board[x][y];
                     for (int i = 0; i < HEX_SIDES; i++) {
-                        Building settlement = gs.getBuilding(tile, i);
+                        Building settlement = gs.peekBuilding(tile, i);
                         if (settlementsAdded.contains(settlement.getComponentID())) continue;
                         settlementsAdded.add(settlement.getComponentID());
 
@@ -371,7 +371,7 @@ public class CatanActionFactory {
                 for (int y = 0; y < board[x].length; y++) {
                     CatanTile tile = board[x][y];
                     for (int i = 0; i < HEX_SIDES; i++) {
-                        Building settlement = gs.getBuilding(tile, i);
+                        Building settlement = gs.peekBuilding(tile, i);
                         if (settlementsAdded.contains(settlement.getComponentID())) continue;
                         settlementsAdded.add(settlement.getComponentID());
                         if (settlement.getOwnerId() == player && settlement.getBuildingType() == Settlement) {
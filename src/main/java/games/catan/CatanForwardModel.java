@@ -218,7 +218,7 @@ public class CatanForwardModel extends StandardForwardModel {
                 for (CatanTile tile : catanTiles) {
                     if (tile.getNumber() == rollValue && !tile.hasRobber()) {
                         // Allocate resource for each settlement/city on this tile to their owner
-                        for (Building settl : gs.getBuildings(tile)) {
+                        for (Building settl : gs.peekBuildings(tile)) {
                             int who = settl.getOwnerId();
                             if (who != -1) {
                                 // Move the card from the resource deck and give it to the player
@@ -2,6 +2,7 @@ package games.catan;
 
 import core.AbstractGameState;
 import core.AbstractParameters;
+import core.CopyOnWrite;
 import core.actions.AbstractAction;
 import core.components.*;
 import core.interfaces.IGamePhase;
@@ -19,7 +20,7 @@ import static games.catan.stats.CatanMetrics.CatanEvent.LargestArmySteal;
 
 public class CatanGameState extends AbstractGameState {
     protected CatanTile[][] board;
-    protected GraphBoardWithEdges catanGraph;
+    protected CopyOnWrite<GraphBoardWithEdges> catanGraph;  // shared between copies of the state until it is modified
     protected int[] scores; // score for each player
     protected int[] victoryPoints; // secret points from victory cards
     protected int[] knights, roadLengths; // knight count and road length for each player
@@ -86,7 +87,6 @@ public class CatanGameState extends AbstractGameState {
     @Override
     protected List<Component> _getAllComponents() {
         return new ArrayList<Component>() {{
-            add(catanGraph);
             for (int i = 0; i < nPlayers; i++) {
                 addAll(exchangeRates.get(i).values());
                 addAll(playerResources.get(i).values());
@@ -101,6 +101,11 @@ public class CatanGameState extends AbstractGameState {
         }};
     }
 
+    @Override
+    protected List<CopyOnWrite<?>> _getCopyOnWriteComponents() {
+        return catanGraph == null ? Collections.emptyList() : Collections.singletonList(catanGraph);
+    }
+
     @Override
     public boolean _equals(Object o) {
         if (this == o) return true;
@@ -130,11 +135,19 @@ public class CatanGameState extends AbstractGameState {
     }
 
     public void setGraph(GraphBoardWithEdges graph) {
-        this.catanGraph = graph;
+        this.catanGraph = new CopyOnWrite<>(graph);
     }
 
     public GraphBoardWithEdges getGraph() {
-        return catanGraph;
+        return catanGraph.get();
+    }
+
+    /**
+     * Read-only access to the graph of settlements and roads. Unlike getGraph() this does not take a private copy
+     * of the graph if it is still shared with another state, so nothing in it may be modified.
+     */
+    public GraphBoardWithEdges peekGraph() {
+        return catanGraph.peek();
     }
 
     public void setRollValue(int rollValue) {
@@ -244,8 +257,8 @@ public class CatanGameState extends AbstractGameState {
 
         ArrayList<Building> dir1 = new ArrayList<>();
         ArrayList<Building> dir2 = new ArrayList<>();
-        Building settl1 = (Building) catanGraph.getNodeByID(board[x][y].getVerticesBoardNodeIDs()[edgeIdx]);
-        Building settl2 = (Building) catanGraph.getNodeByID(board[x][y].getVerticesBoardNodeIDs()[(edgeIdx + 1) % 6]);
+        Building settl1 = (Building) peekGraph().getNodeByID(board[x][y].getVerticesBoardNodeIDs()[edgeIdx]);
+        Building settl2 = (Building) peekGraph().getNodeByID(board[x][y].getVerticesBoardNodeIDs()[(edgeIdx + 1) % 6]);
 
         dir1.add(settl1);
         dir2.add(settl2);
@@ -327,8 +340,8 @@ public class CatanGameState extends AbstractGameState {
     }
 
     public ArrayList<BoardNodeWithEdges> getSettlements() {
-        // Function that returns all the settlements from the board
-        return new ArrayList<>(catanGraph.getBoardNodes());
+        // Function that returns all the settlements from the board (these are for reading only)
+        return new ArrayList<>(peekGraph().getBoardNodes());
     }
 
     public int getLongestRoadOwner() {
@@ -398,7 +411,7 @@ public class CatanGameState extends AbstractGameState {
         CatanGameState copy = new CatanGameState(getGameParameters().copy(), getNPlayers());
         copy.gamePhase = gamePhase;
         copy.board = copyBoard();
-        copy.catanGraph = catanGraph.copy();
+        copy.catanGraph = catanGraph.share();  // copied when first modified
 
         copy.gameStatus = gameStatus;
         copy.playerResults = playerResults.clone();
@@ -561,7 +574,14 @@ public class CatanGameState extends AbstractGameState {
     }
 
     public Building getBuilding(CatanTile tile, int vertex) {
-        return (Building) catanGraph.getNodeByID(tile.getVerticesBoardNodeIDs()[vertex]);
+        return (Building) getGraph().getNodeByID(tile.getVerticesBoardNodeIDs()[vertex]);
+    }
+
+    /**
+     * As getBuilding(), but for read-only access (see peekGraph())
+     */
+    public Building peekBuilding(CatanTile tile, int vertex) {
+        return (Building) peekGraph().getNodeByID(tile.getVerticesBoardNodeIDs()[vertex]);
     }
     public Building[] getBuildings(CatanTile tile) {
         Building[] buildings = new Building[HEX_SIDES];
@@ -570,12 +590,26 @@ public class CatanGameState extends AbstractGameState {
         }
         return buildings;
     }
+
+    /**
+     * As getBuildings(), but for read-only access (see peekGraph())
+     */
+    public Building[] peekBuildings(CatanTile tile) {
+        Building[] buildings = new Building[HEX_SIDES];
+        for (int i = 0; i < HEX_SIDES; i++) {
+            buildings[i] = peekBuilding(tile, i);
+        }
+        return buildings;
+    }
     public Edge getRoad(Building building, CatanTile tile, int edge) {
         return building.getEdgeByID(tile.getEdgeIDs()[edge]);
     }
     public Edge getRoad(CatanTile tile, int vertex, int edge) {
         return getBuilding(tile, vertex).getEdgeByID(tile.getEdgeIDs()[edge]);
     }
+    public Edge peekRoad(CatanTile tile, int vertex, int edge) {
+        return peekBuilding(tile, vertex).getEdgeByID(tile.getEdgeIDs()[edge]);
+    }
     public Edge[] getRoads(CatanTile tile) {
         Edge[] roads = new Edge[HEX_SIDES];
         for (int i = 0; i < HEX_SIDES; i++) {
@@ -584,6 +618,17 @@ public class CatanGameState extends AbstractGameState {
         return roads;
     }
 
+    /**
+     * As getRoads(), but for read-only access (see peekGraph())
+     */
+    public Edge[] peekRoads(CatanTile tile) {
+        Edge[] roads = new Edge[HEX_SIDES];
+        for (int i = 0; i < HEX_SIDES; i++) {
+            roads[i] = peekRoad(tile, i, i);
+        }
+        return roads;
+    }
+
     /**
      * Check if can place road on edge of tile
      * @param edgeIdx- index of the edge on tile
@@ -592,7 +637,7 @@ public class CatanGameState extends AbstractGameState {
      * @return true if can place road on given edge, false otherwise
      */
     public boolean checkRoadPlacement(int edgeIdx, CatanTile tile, int player) {
-        GraphBoardWithEdges graph = getGraph();
+        GraphBoardWithEdges graph = peekGraph();
         BoardNodeWithEdges origin = graph.getNodeByID(tile.getVerticesBoardNodeIDs()[edgeIdx]);  // this is one node connected with this edge
         Edge edge = origin.getEdgeByID(tile.getEdgeIDs()[edgeIdx]);
         BoardNodeWithEdges end = origin.getNeighbour(edge);  // this is one node connected with this edge
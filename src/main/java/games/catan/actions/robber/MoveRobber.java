@@ -59,7 +59,7 @@ public class MoveRobber extends AbstractAction implements IExtendedSequence {
         CatanTile[][] board = gs.getBoard();
         CatanTile tile = board[x][y];
         Set<Integer> targets = new LinkedHashSet<>();
-        Building[] settlements = gs.getBuildings(tile);
+        Building[] settlements = gs.peekBuildings(tile);
         for (Building settlement : settlements) {
             if (settlement.getOwnerId() != -1 && settlement.getOwnerId() != gs.getCurrentPlayer()) {
                 targets.add(settlement.getOwnerId());
@@ -194,7 +194,7 @@ public class CatanBoardView extends JComponent implements IScreenHighlight {
         HashSet<Integer> harboursDrawn = new HashSet<>();  // avoid overlap
         for (CatanTile[] catanTiles : board) {
             for (CatanTile tile : catanTiles) {
-                Building[] settlements = gs.getBuildings(tile);
+                Building[] settlements = gs.peekBuildings(tile);
                 for (int i = 0; i < settlements.length; i++) {
                     if (settlements[i].getHarbour() != null && tile.getTileType() == CatanTile.TileType.SEA &&
                             !harboursDrawn.contains(settlements[i].getComponentID()) &&
@@ -213,7 +213,7 @@ public class CatanBoardView extends JComponent implements IScreenHighlight {
         for (CatanTile[] catanTiles : board) {
             for (CatanTile tile : catanTiles) {
                 // draw roads
-                Edge[] roads = gs.getRoads(tile);
+                Edge[] roads = gs.peekRoads(tile);
                 for (int i = 0; i < roads.length; i++) {
                     Point[] p = tile.getEdgeCoords(i, tileRadius);
 
@@ -250,7 +250,7 @@ public class CatanBoardView extends JComponent implements IScreenHighlight {
         for (CatanTile[] catanTiles : board) {
             for (CatanTile tile : catanTiles) {
                 // draw settlements
-                Building[] settlements = gs.getBuildings(tile);
+                Building[] settlements = gs.peekBuildings(tile);
                 for (int i = 0; i < settlements.length; i++) {
                     Point p = tile.getVerticesCoords(i, tileRadius);
 
@@ -81,7 +81,7 @@ public class CatanMetrics implements IMetricsCollection {
             for (CatanTile[] catanTiles : gs.getBoard()) {
                 for (CatanTile tile : catanTiles) {
                     if (tile.getTileType() != CatanTile.TileType.DESERT && tile.getTileType() != CatanTile.TileType.SEA) {
-                        for (Building settl : gs.getBuildings(tile)) {
+                        for (Building settl : gs.peekBuildings(tile)) {
                             int who = settl.getOwnerId();
                             if (who != -1) {
                                 initResources.get(who).add(cp.productMapping.get(tile.getTileType()));
@@ -378,7 +378,7 @@ public class CatanMetrics implements IMetricsCollection {
             for (CatanTile[] row: gs.getBoard()) {
                 for (CatanTile tile: row) {
                     for (int v = 0; v < HEX_SIDES; v++) {
-                        Building settlement = gs.getBuilding(tile, v);
+                        Building settlement = gs.peekBuilding(tile, v);
                         List<Integer> owners = new ArrayList<>();
                         for (Edge edge: settlement.getEdges()) {
                             if (edge.getOwnerId() != -1) {
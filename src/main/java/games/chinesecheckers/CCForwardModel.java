@@ -39,6 +39,11 @@ public class CCForwardModel extends StandardForwardModel {
         }
     }
 
+    @Override
+    public boolean supportsUndo() {
+        return true;
+    }
+
     @Override
     protected List<AbstractAction> _computeAvailableActions(AbstractGameState gameState) {
         CCGameState state = (CCGameState) gameState;
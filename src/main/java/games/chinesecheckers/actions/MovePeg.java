@@ -2,6 +2,7 @@ package games.chinesecheckers.actions;
 
 import core.AbstractGameState;
 import core.actions.AbstractAction;
+import core.interfaces.IReversibleAction;
 import games.chinesecheckers.CCGameState;
 import games.chinesecheckers.CCParameters;
 import games.chinesecheckers.components.CCNode;
@@ -9,7 +10,7 @@ import games.chinesecheckers.components.Peg;
 
 import java.util.Objects;
 
-public class MovePeg extends AbstractAction {
+public class MovePeg extends AbstractAction implements IReversibleAction {
 
     final int from;
     final int to;
@@ -45,6 +46,23 @@ public class MovePeg extends AbstractAction {
         return true;
     }
 
+    @Override
+    public Object captureUndo(AbstractGameState gs) {
+        CCGameState state = (CCGameState) gs;
+        return state.getStarBoard().getBoardNodes().get(from).getOccupiedPeg().getInDestination();
+    }
+
+    @Override
+    public void undo(AbstractGameState gs, Object undoData) {
+        CCGameState state = (CCGameState) gs;
+        CCNode nodeStart = state.getStarBoard().getBoardNodes().get(from);
+        CCNode nodeDestination = state.getStarBoard().getBoardNodes().get(to);
+        Peg peg = nodeDestination.getOccupiedPeg();
+        nodeDestination.setOccupiedPeg(null);
+        nodeStart.setOccupiedPeg(peg);
+        peg.setInDestination((Boolean) undoData);
+    }
+
     public int getFrom(){
         return from;
     }
@@ -25,6 +25,23 @@ public class Connect4ForwardModel extends SequentialActionForwardModel {
         state.winnerCells = new LinkedList<>();
     }
 
+    @Override
+    public boolean supportsUndo() {
+        return true;
+    }
+
+    @Override
+    protected Object _captureUndo(AbstractGameState currentState, AbstractAction action) {
+        // the winning cells are replaced (not modified) when the game ends
+        return ((Connect4GameState) currentState).winnerCells;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void _undo(AbstractGameState currentState, AbstractAction action, Object data) {
+        ((Connect4GameState) currentState).registerWinningCells((LinkedList<Pair<Integer, Integer>>) data);
+    }
+
     @Override
     protected List<AbstractAction> _computeAvailableActions(AbstractGameState gameState) {
         Connect4GameState c4gs = (Connect4GameState) gameState;
@@ -1,5 +1,6 @@
 package games.connect4;
 import core.AbstractGameState;
+import core.Zobrist;
 import core.components.Token;
 import core.interfaces.IStateFeatureVector;
 import core.interfaces.IStateKey;
@@ -41,4 +42,9 @@ public class Connect4StateVector implements IStateFeatureVector, IStateKey {
         double[] retValue = featureVector(state, state.getCurrentPlayer());
         return String.format("%d-%s", state.getCurrentPlayer(), Arrays.toString(retValue));
     }
+
+    @Override
+    public long getLongKey(AbstractGameState state) {
+        return Zobrist.key(state.getCurrentPlayer(), Zobrist.hash(featureVector(state, state.getCurrentPlayer())));
+    }
 }
@@ -2,11 +2,12 @@ package games.dotsboxes;
 
 import core.AbstractGameState;
 import core.actions.AbstractAction;
+import core.interfaces.IReversibleAction;
 
 import java.util.HashSet;
 import java.util.Objects;
 
-public class AddGridCellEdge extends AbstractAction {
+public class AddGridCellEdge extends AbstractAction implements IReversibleAction {
     DBEdge edge;  // Normally not good practice to keep references, as they wouldn't match the copies. But our equals should match.
 
     public AddGridCellEdge(DBEdge edge) {
@@ -36,6 +37,24 @@ public class AddGridCellEdge extends AbstractAction {
         return true;  // Always able to execute
     }
 
+    @Override
+    public Object captureUndo(AbstractGameState gs) {
+        return ((DBGameState) gs).lastActionDidNotScore;
+    }
+
+    @Override
+    public void undo(AbstractGameState gs, Object undoData) {
+        DBGameState dbgs = (DBGameState) gs;
+        dbgs.edgeToOwnerMap.remove(edge);
+        // any cell next to this edge that is now complete must have been completed by it
+        for (DBCell c : dbgs.edgeToCellMap.get(edge)) {
+            Integer owner = dbgs.cellToOwnerMap.remove(c);
+            if (owner != null)
+                dbgs.nCellsPerPlayer[owner]--;
+        }
+        dbgs.setLastActionDidNotScore((Boolean) undoData);
+    }
+
     @Override
     public AbstractAction copy() {
         return new AddGridCellEdge(edge.copy());
@@ -1,6 +1,7 @@
 package games.dotsboxes;
 
 import core.AbstractGameState;
+import core.Zobrist;
 import core.interfaces.IStateKey;
 
 import java.util.Arrays;
@@ -18,4 +19,14 @@ public class DBEdgeAndScoreKey implements IStateKey {
         String scoreString = "Scores: " + Arrays.toString(dbgs.nCellsPerPlayer);
         return state.getCurrentPlayer() + " " + edgeString + scoreString;
     }
+
+    @Override
+    public long getLongKey(AbstractGameState state) {
+        DBGameState dbgs = (DBGameState) state;
+        // the same information as getKey(); the sum over edges does not depend on their order, so there is no need to sort
+        long edges = 0;
+        for (DBEdge e : dbgs.edgeToOwnerMap.keySet())
+            edges += Zobrist.key(e.from.getX() + e.to.getX(), e.from.getY() + e.to.getY());
+        return Zobrist.key(state.getCurrentPlayer(), edges, Zobrist.hash(dbgs.nCellsPerPlayer));
+    }
 }
@@ -62,6 +62,11 @@ public class DBForwardModel extends StandardForwardModel {
         }
     }
 
+    @Override
+    public boolean supportsUndo() {
+        return true;
+    }
+
     @Override
     protected List<AbstractAction> _computeAvailableActions(AbstractGameState gameState) {
 
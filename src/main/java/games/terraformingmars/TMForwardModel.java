@@ -2,6 +2,7 @@ package games.terraformingmars;
 
 import core.AbstractGameState;
 import core.CoreConstants;
+import core.CopyOnWrite;
 import core.StandardForwardModelWithTurnOrder;
 import core.actions.AbstractAction;
 import core.components.Counter;
@@ -63,12 +64,15 @@ public class TMForwardModel extends StandardForwardModelWithTurnOrder {
             gs.playerDiscountEffects[i] = new HashMap<>();
         }
 
-        gs.projectCards = new Deck<>("Projects", CoreConstants.VisibilityMode.HIDDEN_TO_ALL);
-        gs.corpCards = new Deck<>("Corporations", CoreConstants.VisibilityMode.HIDDEN_TO_ALL);
-        gs.discardCards = new Deck<>("Discard", CoreConstants.VisibilityMode.HIDDEN_TO_ALL);
+        Deck<TMCard> projectCards = new Deck<>("Projects", CoreConstants.VisibilityMode.HIDDEN_TO_ALL);
+        Deck<TMCard> corpCards = new Deck<>("Corporations", CoreConstants.VisibilityMode.HIDDEN_TO_ALL);
+        gs.projectCards = new CopyOnWrite<>(projectCards);
+        gs.corpCards = new CopyOnWrite<>(corpCards);
+        gs.discardCards = new CopyOnWrite<>(new Deck<>("Discard", CoreConstants.VisibilityMode.HIDDEN_TO_ALL));
 
         // Load info from expansions (includes base)
-        gs.board = new GridBoard<>(params.boardSize, params.boardSize);
+        GridBoard<TMMapTile> board = new GridBoard<>(params.boardSize, params.boardSize);
+        gs.board = new CopyOnWrite<>(board, TMGameState::copyBoard);
         gs.extraTiles = new HashSet<>();
         gs.bonuses = new HashSet<>();
         gs.milestones = new HashSet<>();
@@ -76,9 +80,9 @@ public class TMForwardModel extends StandardForwardModelWithTurnOrder {
         gs.globalParameters = new HashMap<>();
 
         // Load base
-        TMTypes.Expansion.Base.loadProjectCards(gs.projectCards);
-        TMTypes.Expansion.Base.loadCorpCards(gs.corpCards);
-        TMTypes.Expansion.Base.loadBoard(gs.board, gs.extraTiles, gs.bonuses, gs.milestones, gs.awards, gs.globalParameters);
+        TMTypes.Expansion.Base.loadProjectCards(projectCards);
+        TMTypes.Expansion.Base.loadCorpCards(corpCards);
+        TMTypes.Expansion.Base.loadBoard(board, gs.extraTiles, gs.bonuses, gs.milestones, gs.awards, gs.globalParameters);
 
         if (params.expansions.contains(TMTypes.Expansion.Hellas) || params.expansions.contains(TMTypes.Expansion.Elysium)) {
             // Clear milestones and awards, they'll be replaced by these expansions
@@ -89,10 +93,10 @@ public class TMForwardModel extends StandardForwardModelWithTurnOrder {
         for (TMTypes.Expansion e : params.expansions) {
             if (e != TMTypes.Expansion.Hellas && e != TMTypes.Expansion.Elysium) {
                 // Hellas and Elysium don't have project or corporation cards
-                e.loadProjectCards(gs.projectCards);
-                e.loadCorpCards(gs.corpCards);
+                e.loadProjectCards(projectCards);
+                e.loadCorpCards(corpCards);
             }
-            e.loadBoard(gs.board, gs.extraTiles, gs.bonuses, gs.milestones, gs.awards, gs.globalParameters);
+            e.loadBoard(board, gs.extraTiles, gs.bonuses, gs.milestones, gs.awards, gs.globalParameters);
         }
 
 //        TMCard cccc = null;
@@ -132,8 +136,8 @@ public class TMForwardModel extends StandardForwardModelWithTurnOrder {
         }
 
         // Shuffle dekcs
-        gs.projectCards.shuffle(gs.getRnd());
-        gs.corpCards.shuffle(gs.getRnd());
+        projectCards.shuffle(gs.getRnd());
+        corpCards.shuffle(gs.getRnd());
 
         HashMap<TMTypes.Tag, Counter>[] playerCardsPlayedTags;
         HashSet<AbstractAction>[] playerCardsPlayedEffects;
@@ -144,14 +148,14 @@ public class TMForwardModel extends StandardForwardModelWithTurnOrder {
         gs.playerCorporations = new TMCard[gs.getNPlayers()];
         gs.playerCardChoice = new Deck[gs.getNPlayers()];
         gs.playerHands = new Deck[gs.getNPlayers()];
-        gs.playerComplicatedPointCards = new Deck[gs.getNPlayers()];
-        gs.playedCards = new Deck[gs.getNPlayers()];
+        gs.playerComplicatedPointCards = new CopyOnWrite[gs.getNPlayers()];
+        gs.playedCards = new CopyOnWrite[gs.getNPlayers()];
         gs.playerCardPoints = new Counter[gs.getNPlayers()];
         for (int i = 0; i < gs.getNPlayers(); i++) {
             gs.playerHands[i] = new Deck<>("Hand of p" + i, i, CoreConstants.VisibilityMode.VISIBLE_TO_OWNER);
             gs.playerCardChoice[i] = new Deck<>("Card Choice for p" + i, i, CoreConstants.VisibilityMode.VISIBLE_TO_OWNER);
-            gs.playerComplicatedPointCards[i] = new Deck<>("Resource or Points Cards Played by p" + i, i, CoreConstants.VisibilityMode.VISIBLE_TO_ALL);
-            gs.playedCards[i] = new Deck<>("Other Cards Played by p" + i, i, CoreConstants.VisibilityMode.VISIBLE_TO_ALL);
+            gs.playerComplicatedPointCards[i] = new CopyOnWrite<>(new Deck<>("Resource or Points Cards Played by p" + i, i, CoreConstants.VisibilityMode.VISIBLE_TO_ALL));
+            gs.playedCards[i] = new CopyOnWrite<>(new Deck<>("Other Cards Played by p" + i, i, CoreConstants.VisibilityMode.VISIBLE_TO_ALL));
             gs.playerCardPoints[i] = new Counter(0, 0, params.maxPoints, "Points of p" + i);
         }
 
@@ -190,14 +194,14 @@ public class TMForwardModel extends StandardForwardModelWithTurnOrder {
 //                }
 //            }
             for (int j = 0; j < params.nCorpChoiceStart; j++) {
-                gs.playerCardChoice[i].add(gs.corpCards.pick(0));
+                gs.playerCardChoice[i].add(gs.corpCards.get().pick(0));
             }
         }
 
         // Solo setup: place X cities randomly, with 1 greenery adjacent each (no oxygen increase)
         if (gs.getNPlayers() == 1) {
-            int boardH = gs.board.getHeight();
-            int boardW = gs.board.getWidth();
+            int boardH = gs.getBoard().getHeight();
+            int boardW = gs.getBoard().getWidth();
             gs.getTurnOrder().setTurnOwner(1);
             for (int i = 0; i < params.soloCities; i++) {
                 // Place city + greenery adjacent
@@ -210,7 +214,7 @@ public class TMForwardModel extends StandardForwardModelWithTurnOrder {
                 boolean placed = false;
                 while (!placed) {
                     Vector2D v = neighbours.get(gs.getRnd().nextInt(neighbours.size()));
-                    TMMapTile mtn = gs.board.getElement(v.getX(), v.getY());
+                    TMMapTile mtn = gs.getBoard().getElement(v.getX(), v.getY());
                     if (mtn != null && mtn.getOwnerId() == -1 && mtn.getTileType() == TMTypes.MapTileType.Ground) {
                         mtn.setTilePlaced(TMTypes.Tile.Greenery, gs);
                         placed = true;
@@ -317,7 +321,7 @@ public class TMForwardModel extends StandardForwardModelWithTurnOrder {
                 }
                 for (int i = 0; i < gs.getNPlayers(); i++) {
                     // Mark player actions unused
-                    for (TMCard c : gs.playerComplicatedPointCards[i].getComponents()) {
+                    for (TMCard c : gs.playerComplicatedPointCards[i].get().getComponents()) {
                         c.actionPlayed = false;
                     }
                     // Reset resource increase
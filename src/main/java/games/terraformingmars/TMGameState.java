@@ -2,6 +2,7 @@ package games.terraformingmars;
 
 import core.AbstractGameStateWithTurnOrder;
 import core.AbstractParameters;
+import core.CopyOnWrite;
 import core.components.*;
 import core.interfaces.IGamePhase;
 import core.turnorders.TurnOrder;
@@ -34,11 +35,12 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
 
     // General state info
     int generation;
-    GridBoard<TMMapTile> board;
+    // The board and the larger decks are shared between copies of the state until they are modified
+    CopyOnWrite<GridBoard<TMMapTile>> board;
     HashSet<TMMapTile> extraTiles;
     HashMap<TMTypes.GlobalParameter, GlobalParameter> globalParameters;
     HashSet<Bonus> bonuses;
-    Deck<TMCard> projectCards, corpCards, discardCards;  // Face-down decks
+    CopyOnWrite<Deck<TMCard>> projectCards, corpCards, discardCards;  // Face-down decks
 
     // Effects and actions played
     HashSet<TMAction>[] playerExtraActions;
@@ -57,8 +59,8 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
 
     // Player cards
     Deck<TMCard>[] playerHands;
-    Deck<TMCard>[] playerComplicatedPointCards;  // Cards played that can gather resources
-    Deck<TMCard>[] playedCards;  // Cards played that can gather resources
+    CopyOnWrite<Deck<TMCard>>[] playerComplicatedPointCards;  // Cards played that can gather resources
+    CopyOnWrite<Deck<TMCard>>[] playedCards;  // Cards played that can gather resources
     Deck<TMCard>[] playerCardChoice;
     TMCard[] playerCorporations;
 
@@ -89,10 +91,6 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
     @Override
     protected List<Component> _getAllComponents() {
         return new ArrayList<Component>() {{
-            add(board);
-            add(projectCards);
-            add(corpCards);
-            add(discardCards);
             add(nAwardsFunded);
             add(nMilestonesClaimed);
             addAll(extraTiles);
@@ -101,8 +99,6 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
             addAll(globalParameters.values());
             addAll(Arrays.asList(playerHands));
             addAll(Arrays.asList(playerCardChoice));
-            addAll(Arrays.asList(playerComplicatedPointCards));
-            addAll(Arrays.asList(playedCards));
             addAll(Arrays.asList(playerCardPoints));
             for (int i = 0; i < getNPlayers(); i++) {
                 addAll(playerResources[i].values());
@@ -118,21 +114,42 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
     }
 
     @Override
-    protected AbstractGameStateWithTurnOrder __copy(int playerId) {
-        TMGameState copy = new TMGameState(gameParameters, getNPlayers());
+    protected List<CopyOnWrite<?>> _getCopyOnWriteComponents() {
+        List<CopyOnWrite<?>> retValue = new ArrayList<>();
+        if (board == null) return retValue;  // not yet set up
+        retValue.add(board);
+        retValue.add(projectCards);
+        retValue.add(corpCards);
+        retValue.add(discardCards);
+        retValue.addAll(Arrays.asList(playerComplicatedPointCards));
+        retValue.addAll(Arrays.asList(playedCards));
+        return retValue;
+    }
 
-        // General public info
-        copy.generation = generation;
-        copy.board = board.emptyCopy();  // Deep copy of board
+    /**
+     * GridBoard.copy() does not copy the tiles on the board, so we use this to take a private copy of the board
+     */
+    static GridBoard<TMMapTile> copyBoard(GridBoard<TMMapTile> board) {
+        GridBoard<TMMapTile> copy = board.emptyCopy();
         for (int i = 0; i < board.getHeight(); i++) {
             for (int j = 0; j < board.getWidth(); j++) {
                 if (board.getElement(j, i) != null) {
-                    copy.board.setElement(j, i, board.getElement(j, i).copy());
+                    copy.setElement(j, i, board.getElement(j, i).copy());
                 } else {
-                    copy.board.setElement(j, i, null);
+                    copy.setElement(j, i, null);
                 }
             }
         }
+        return copy;
+    }
+
+    @Override
+    protected AbstractGameStateWithTurnOrder __copy(int playerId) {
+        TMGameState copy = new TMGameState(gameParameters, getNPlayers());
+
+        // General public info
+        copy.generation = generation;
+        copy.board = board.share();  // copied when first modified
         copy.extraTiles = new HashSet<>();
         for (TMMapTile mt : extraTiles) {
             copy.extraTiles.add(mt.copy());
@@ -157,9 +174,9 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
         copy.nAwardsFunded = nAwardsFunded.copy();
 
         // Face-down decks
-        copy.projectCards = projectCards.copy();
-        copy.corpCards = corpCards.copy();
-        copy.discardCards = discardCards.copy(); // TODO: some of these are unknown
+        copy.projectCards = projectCards.share();
+        copy.corpCards = corpCards.share();
+        copy.discardCards = discardCards.share(); // TODO: some of these are unknown
 
         // Player-specific public info
         copy.playerExtraActions = new HashSet[getNPlayers()];
@@ -173,8 +190,8 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
         copy.playerCardsPlayedTypes = new HashMap[getNPlayers()];
         copy.playerTilesPlaced = new HashMap[getNPlayers()];
         copy.playerCardPoints = new Counter[getNPlayers()];
-        copy.playerComplicatedPointCards = new Deck[getNPlayers()];
-        copy.playedCards = new Deck[getNPlayers()];
+        copy.playerComplicatedPointCards = new CopyOnWrite[getNPlayers()];
+        copy.playedCards = new CopyOnWrite[getNPlayers()];
         copy.playerCorporations = new TMCard[getNPlayers()];
         for (int i = 0; i < getNPlayers(); i++) {
             copy.playerExtraActions[i] = new HashSet<>();
@@ -188,8 +205,8 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
             copy.playerCardsPlayedTypes[i] = new HashMap<>();
             copy.playerTilesPlaced[i] = new HashMap<>();
             copy.playerCardPoints[i] = playerCardPoints[i].copy();
-            copy.playerComplicatedPointCards[i] = playerComplicatedPointCards[i].copy();
-            copy.playedCards[i] = playedCards[i].copy();
+            copy.playerComplicatedPointCards[i] = playerComplicatedPointCards[i].share();
+            copy.playedCards[i] = playedCards[i].share();
             if (playerCorporations[i] != null) {
                 copy.playerCorporations[i] = playerCorporations[i].copy();
             }
@@ -231,16 +248,16 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
                 copy.playerHands[i] = playerHands[i].copy();
                 copy.playerCardChoice[i] = playerCardChoice[i].copy();
                 if (i != playerId) {  // Player knows what cards they have, but shuffle for opponents, all project cards together and deal new
-                    copy.projectCards.add(copy.playerHands[i]);
+                    copy.projectCards.get().add(copy.playerHands[i]);
                     if (gamePhase != CorporationSelect) {  // corporation selection is public info, card choice only hidden afterwards
-                        copy.projectCards.add(copy.playerCardChoice[i]);
+                        copy.projectCards.get().add(copy.playerCardChoice[i]);
                         copy.playerCardChoice[i].clear();
                     }
                     copy.playerHands[i].clear();
                 }
             }
-            copy.corpCards.shuffle(rnd);
-            copy.projectCards.shuffle(rnd);
+            copy.corpCards.get().shuffle(rnd);
+            copy.projectCards.get().shuffle(rnd);
             for (int i = 0; i < getNPlayers(); i++) {
                 if (i != playerId) {
                     for (int j = 0; j < playerHands[i].getSize(); j++) {
@@ -265,7 +282,9 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
 
     public TMCard drawCard() {
         // Reshuffle discards into draw pile if empty
+        Deck<TMCard> projectCards = this.projectCards.get();
         if (projectCards.getSize() == 0) {
+            Deck<TMCard> discardCards = this.discardCards.get();
             projectCards.add(discardCards);
             discardCards.clear();
             projectCards.shuffle(rnd);
@@ -420,7 +439,15 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
     }
 
     public GridBoard<TMMapTile> getBoard() {
-        return board;
+        return board.get();
+    }
+
+    /**
+     * Read-only access to the board. Unlike getBoard() this does not take a private copy of the board
+     * if it is still shared with another state, so nothing on it may be modified.
+     */
+    public GridBoard<TMMapTile> peekBoard() {
+        return board.peek();
     }
 
     public HashSet<Bonus> getBonuses() {
@@ -479,15 +506,15 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
     }
 
     public Deck<TMCard> getDiscardCards() {
-        return discardCards;
+        return discardCards.get();
     }
 
     public Deck<TMCard> getCorpCards() {
-        return corpCards;
+        return corpCards.get();
     }
 
     public Deck<TMCard> getProjectCards() {
-        return projectCards;
+        return projectCards.get();
     }
 
     public HashSet<ResourceMapping>[] getPlayerResourceMap() {
@@ -519,7 +546,22 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
     }
 
     public Deck<TMCard>[] getPlayerComplicatedPointCards() {
-        return playerComplicatedPointCards;
+        Deck<TMCard>[] retValue = new Deck[getNPlayers()];
+        for (int i = 0; i < retValue.length; i++)
+            retValue[i] = playerComplicatedPointCards[i].get();
+        return retValue;
+    }
+
+    public Deck<TMCard> getPlayerComplicatedPointCards(int player) {
+        return playerComplicatedPointCards[player].get();
+    }
+
+    /**
+     * Read-only access to the player's cards that can gather resources. As for peekBoard(), nothing in the deck
+     * may be modified.
+     */
+    public Deck<TMCard> peekPlayerComplicatedPointCards(int player) {
+        return playerComplicatedPointCards[player].peek();
     }
 
     public Counter[] getPlayerCardPoints() {
@@ -527,7 +569,21 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
     }
 
     public Deck<TMCard>[] getPlayedCards() {
-        return playedCards;
+        Deck<TMCard>[] retValue = new Deck[getNPlayers()];
+        for (int i = 0; i < retValue.length; i++)
+            retValue[i] = playedCards[i].get();
+        return retValue;
+    }
+
+    public Deck<TMCard> getPlayedCards(int player) {
+        return playedCards[player].get();
+    }
+
+    /**
+     * Read-only access to the cards the player has played. As for peekBoard(), nothing in the deck may be modified.
+     */
+    public Deck<TMCard> peekPlayedCards(int player) {
+        return playedCards[player].peek();
     }
 
     public int discountActionTypeCost(TMAction action, int player) {
@@ -826,6 +882,7 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
         // Greeneries
         points += playerTilesPlaced[player].get(TMTypes.Tile.Greenery).getValue();
         // Add cities on board
+        GridBoard<TMMapTile> board = this.board.peek();
         for (int i = 0; i < board.getHeight(); i++) {
             for (int j = 0; j < board.getWidth(); j++) {
                 TMMapTile mt = board.getElement(j, i);
@@ -844,7 +901,7 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
         // Normal points
         points += playerCardPoints[player].getValue();
         // Complicated points
-        for (TMCard card : playerComplicatedPointCards[player].getComponents()) {
+        for (TMCard card : playerComplicatedPointCards[player].peek().getComponents()) {
             if (card == null) {
                 continue;
             }
@@ -862,10 +919,10 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
                 } else if (card.pointsTile != null) {
                     if (card.pointsTileAdjacent && card.mapTileIDTilePlaced >= 0) {  // TODO: mapTileIDPlaced should have been set in this case, bug
                         // only adjacent tiles count
-                        TMMapTile mt = (TMMapTile) getComponentById(card.mapTileIDTilePlaced);
+                        TMMapTile mt = (TMMapTile) peekComponentById(card.mapTileIDTilePlaced);
                         List<Vector2D> neighbours = PlaceTile.getNeighbours(new Vector2D(mt.getX(), mt.getY()));
                         for (Vector2D n : neighbours) {
-                            TMMapTile e = board.getElement(n.getX(), n.getY());
+                            TMMapTile e = board.peek().getElement(n.getX(), n.getY());
                             if (e != null && e.getTilePlaced() == card.pointsTile) {
                                 points += card.nPoints;
                             }
@@ -876,7 +933,7 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
                 } else if (card.getComponentName().equalsIgnoreCase("capital")) {
                     // x VP per Ocean adjacent
                     int position = card.mapTileIDTilePlaced;
-                    TMMapTile mt = (TMMapTile) getComponentById(position);
+                    TMMapTile mt = (TMMapTile) peekComponentById(position);
                     points += card.nPoints * PlaceTile.nAdjacentTiles(this, mt, TMTypes.Tile.Ocean);
                 }
             }
@@ -160,7 +160,7 @@ public class TMHeuristic extends TunableParameters implements IStateHeuristic {
             int nPoints = gs.playerCardPoints[playerId].getValue();
 
             int nPointCards = 0;
-            for (TMCard c: gs.getPlayerComplicatedPointCards()[playerId].getComponents()) {
+            for (TMCard c: gs.peekPlayerComplicatedPointCards(playerId).getComponents()) {
                 if (c.pointsResource != null || c.pointsTag != null || c.pointsTile != null) nPointCards++;
             }
 
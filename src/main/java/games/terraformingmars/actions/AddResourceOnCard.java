@@ -90,7 +90,7 @@ public class AddResourceOnCard extends TMAction implements IExtendedSequence {
     }
 
     private void addDeckActions(List<AbstractAction> actions, TMGameState gs, int player) {
-        for (TMCard card: gs.getPlayerComplicatedPointCards()[player].getComponents()) {
+        for (TMCard card: gs.peekPlayerComplicatedPointCards(player).getComponents()) {
             if (card.resourceOnCard != null) {
                 if (resource != null && card.resourceOnCard == resource ||
                     resource == null && card.nResourcesOnCard > minResRequirement) {
@@ -165,7 +165,7 @@ public class AddResourceOnCard extends TMAction implements IExtendedSequence {
     @Override
     public String getString(AbstractGameState gameState) {
         if (getCardID() != -1) {
-            TMCard card = (TMCard) gameState.getComponentById(getCardID());
+            TMCard card = (TMCard) gameState.peekComponentById(getCardID());
             if(card == null)
             {
                 int a = 0;
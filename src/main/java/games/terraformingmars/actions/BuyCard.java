@@ -70,7 +70,7 @@ public class BuyCard extends TMAction {
 
     @Override
     public String getString(AbstractGameState gameState) {
-        Component c = gameState.getComponentById(getCardID());
+        Component c = gameState.peekComponentById(getCardID());
         return "Buy " + c.getComponentName();
     }
 
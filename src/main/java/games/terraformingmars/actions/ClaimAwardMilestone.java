@@ -67,7 +67,7 @@ public class ClaimAwardMilestone extends TMAction {
 
     @Override
     public String getString(AbstractGameState gameState) {
-        Award toClaim = (Award) gameState.getComponentById(toClaimID);
+        Award toClaim = (Award) gameState.peekComponentById(toClaimID);
         return (toClaim instanceof Milestone? "Claim milestone " + toClaim.getComponentName() : "Fund award " + toClaim.getComponentName());
     }
 
@@ -93,7 +93,7 @@ public class DiscardCard extends TMAction implements IExtendedSequence {
 
     @Override
     public String getString(AbstractGameState gameState) {
-        Component c = gameState.getComponentById(getCardID());
+        Component c = gameState.peekComponentById(getCardID());
         if (c == null) return "Discard a card";
         return "Discard " + c.getComponentName();
     }
@@ -42,7 +42,7 @@ public class DuplicateImmediateEffect extends TMAction implements IExtendedSeque
         if (getCardID() == -1) {
             // Put viable cards in card choice deck
             boolean found = false;
-            for (TMCard card : gameState.getPlayedCards()[player].getComponents()) {
+            for (TMCard card : gameState.getPlayedCards(player).getComponents()) {
                 for (TMTypes.Tag t : card.tags) {
                     if (t == tagRequirement) {
                         for (TMAction action : card.immediateEffects) {
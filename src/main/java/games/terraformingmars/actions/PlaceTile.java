@@ -2,6 +2,7 @@ package games.terraformingmars.actions;
 
 import core.AbstractGameState;
 import core.actions.AbstractAction;
+import core.components.GridBoard;
 import core.interfaces.IExtendedSequence;
 import games.terraformingmars.TMGameParameters;
 import games.terraformingmars.TMGameState;
@@ -212,7 +213,7 @@ public class PlaceTile extends TMAction implements IExtendedSequence {
             TMGameState gs = (TMGameState) state;
             if (legalPositions != null) {
                 for (Integer pos : legalPositions) {
-                    TMMapTile mt = (TMMapTile) gs.getComponentById(pos);
+                    TMMapTile mt = (TMMapTile) gs.peekComponentById(pos);
                     if (mt != null && mt.getTilePlaced() == null) {
                         actions.add(new PlaceTile(player, pos, tile, respectingAdjacency, onMars, tileName, mapType,
                                 legalPositions, resourcesGainedRestriction, volcanicRestriction, adjacencyRequirement, true));
@@ -220,9 +221,11 @@ public class PlaceTile extends TMAction implements IExtendedSequence {
                 }
             } else {
                 if (onMars) {
-                    for (int i = 0; i < gs.getBoard().getHeight(); i++) {
-                        for (int j = 0; j < gs.getBoard().getWidth(); j++) {
-                            TMMapTile mt = gs.getBoard().getElement(j, i);
+                    // we only read the board here, so we do not need our own copy of it
+                    GridBoard<TMMapTile> board = gs.peekBoard();
+                    for (int i = 0; i < board.getHeight(); i++) {
+                        for (int j = 0; j < board.getWidth(); j++) {
+                            TMMapTile mt = board.getElement(j, i);
 
                             // Check if we can place tile here
                             if (mt == null || mt.getTilePlaced() != null) continue;
@@ -301,7 +304,7 @@ public class PlaceTile extends TMAction implements IExtendedSequence {
 
     @Override
     public String getString(AbstractGameState gameState) {
-        TMMapTile mt = (TMMapTile) gameState.getComponentById(mapTileID);
+        TMMapTile mt = (TMMapTile) gameState.peekComponentById(mapTileID);
         if (mt != null) {
             return "Place " + (tileName != null? tileName : (tile.name() + " on " + mt.getTileType()));  // TODO restrictions and stuff
         } else {
@@ -320,7 +323,7 @@ public class PlaceTile extends TMAction implements IExtendedSequence {
             boolean playerTileNeighbour = false;
             List<Vector2D> neighbours = getNeighbours(new Vector2D(mt.getX(), mt.getY()));
             for (Vector2D n : neighbours) {
-                TMMapTile other = gs.getBoard().getElement(n.getX(), n.getY());
+                TMMapTile other = gs.peekBoard().getElement(n.getX(), n.getY());
                 if (other != null && other.getOwnerId() == player) {
                     playerTileNeighbour = true;
                     break;
@@ -337,7 +340,7 @@ public class PlaceTile extends TMAction implements IExtendedSequence {
             List<Vector2D> neighbours = getNeighbours(new Vector2D(mt.getX(), mt.getY()));
             int count = 0;
             for (Vector2D n : neighbours) {
-                TMMapTile other = gs.getBoard().getElement(n.getX(), n.getY());
+                TMMapTile other = gs.peekBoard().getElement(n.getX(), n.getY());
                 if (other != null && other.getTilePlaced() != null) {
                     return true;
                 }
@@ -353,7 +356,7 @@ public class PlaceTile extends TMAction implements IExtendedSequence {
         if (placedAnyTiles) {
             List<Vector2D> neighbours = getNeighbours(new Vector2D(mt.getX(), mt.getY()));
             for (Vector2D n : neighbours) {
-                TMMapTile other = gs.getBoard().getElement(n.getX(), n.getY());
+                TMMapTile other = gs.peekBoard().getElement(n.getX(), n.getY());
                 if (other != null && other.getTilePlaced() != null) {
                     count++;
                 }
@@ -368,7 +371,7 @@ public class PlaceTile extends TMAction implements IExtendedSequence {
             List<Vector2D> neighbours = getNeighbours(new Vector2D(mt.getX(), mt.getY()));
             int count = 0;
             for (Vector2D n : neighbours) {
-                TMMapTile other = gs.getBoard().getElement(n.getX(), n.getY());
+                TMMapTile other = gs.peekBoard().getElement(n.getX(), n.getY());
                 if (other != null && other.getTilePlaced() == t) {
                     return true;
                 }
@@ -384,7 +387,7 @@ public class PlaceTile extends TMAction implements IExtendedSequence {
         if (placedAnyTiles) {
             List<Vector2D> neighbours = getNeighbours(new Vector2D(mt.getX(), mt.getY()));
             for (Vector2D n : neighbours) {
-                TMMapTile other = gs.getBoard().getElement(n.getX(), n.getY());
+                TMMapTile other = gs.peekBoard().getElement(n.getX(), n.getY());
                 if (other != null && other.getTilePlaced() == t) {
                     count++;
                 }
@@ -51,10 +51,10 @@ public class PlayCard extends TMAction {
 
         gs.getPlayerCardsPlayedTypes()[player].get(card.cardType).increment(1);
         if (card.shouldSaveCard()) {
-            gs.getPlayerComplicatedPointCards()[player].add(card);
-            gs.getPlayedCards()[player].add(card);
+            gs.getPlayerComplicatedPointCards(player).add(card);
+            gs.getPlayedCards(player).add(card);
         } else {
-            gs.getPlayedCards()[player].add(card);
+            gs.getPlayedCards(player).add(card);
             if (card.nPoints != 0) {
                 gs.getPlayerCardPoints()[player].increment((int) card.nPoints);
             }
@@ -89,7 +89,7 @@ public class PlayCard extends TMAction {
 
     @Override
     public String getString(AbstractGameState gameState) {
-        TMCard card = (TMCard) gameState.getComponentById(getPlayCardID());
+        TMCard card = (TMCard) gameState.peekComponentById(getPlayCardID());
         return "Play card " + card.getComponentName();
     }
 
@@ -98,7 +98,7 @@ public class SellProjects extends TMAction implements IExtendedSequence {
     @Override
     public String getString(AbstractGameState gameState) {
         if (getCardID() == -1) return "Sell projects";
-        Component c = gameState.getComponentById(getCardID());
+        Component c = gameState.peekComponentById(getCardID());
         return "Sell " + c.getComponentName();
     }
 
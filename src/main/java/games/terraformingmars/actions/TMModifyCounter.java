@@ -63,7 +63,7 @@ public class TMModifyCounter extends TMAction {
 
     @Override
     public String getString(AbstractGameState gameState) {
-        return "Modify counter " + gameState.getComponentById(counterID).getComponentName() + " by " + change;
+        return "Modify counter " + gameState.peekComponentById(counterID).getComponentName() + " by " + change;
     }
 
     @Override
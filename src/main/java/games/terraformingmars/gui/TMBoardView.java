@@ -42,7 +42,7 @@ public class TMBoardView extends ComponentView implements IScreenHighlight {
     private boolean adjustedSize;
 
     public TMBoardView(TMGUI gui, TMGameState gs) {
-        super(gs.getBoard(), 0, 0);
+        super(gs.peekBoard(), 0, 0);
         this.gs = gs;
 
         width = 500;
@@ -352,6 +352,8 @@ public class TMBoardView extends ComponentView implements IScreenHighlight {
 
     public void update(TMGameState gs) {
         this.gs = gs;
+        // the state may have swapped in its own copy of the board since we last drew it
+        updateComponent(gs.peekBoard());
     }
 
     @Override
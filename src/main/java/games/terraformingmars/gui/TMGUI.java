@@ -149,7 +149,7 @@ public class TMGUI extends AbstractGUIManager {
         wrap.add(lastCardPlayed);
         wrap.setPreferredSize(new Dimension(TMDeckDisplay.cardWidth, TMDeckDisplay.cardHeight + 50));
 
-        playerCardsPlayed = new TMDeckDisplay(this, gameState, gameState.getPlayerComplicatedPointCards()[focusPlayer], false);
+        playerCardsPlayed = new TMDeckDisplay(this, gameState, gameState.getPlayerComplicatedPointCards(focusPlayer), false);
         paneCardsPlayed = new JScrollPane(playerCardsPlayed);
         paneCardsPlayed.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS);
         paneCardsPlayed.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
@@ -445,7 +445,7 @@ public class TMGUI extends AbstractGUIManager {
                         if (a instanceof PlaceTile) {
                             TMAction fullLegalAction = getFullLegalAction(a, legalActions);
 
-                            TMMapTile mt = (TMMapTile) gs.getComponentById(((PlaceTile) a).mapTileID);
+                            TMMapTile mt = (TMMapTile) gs.peekComponentById(((PlaceTile) a).mapTileID);
                             if (mt != null && code.contains("grid")) {
                                 // a grid location, trim actions to place tile here
                                 int x = Integer.parseInt(code.split("-")[1]);
@@ -559,12 +559,12 @@ public class TMGUI extends AbstractGUIManager {
             playerCardChoice.update(deck, gs.allCorpChosen() && deck.getSize() > 0);
 
             // Display points and resource cards, + most recent card played
-            if (gs.getPlayedCards()[focusPlayer].getSize() > 0) {
-                lastCardPlayed.update(gs, gs.getPlayedCards()[focusPlayer].get(0).copy(), -1);
+            if (gs.peekPlayedCards(focusPlayer).getSize() > 0) {
+                lastCardPlayed.update(gs, gs.peekPlayedCards(focusPlayer).get(0).copy(), -1);
             } else {
                 lastCardPlayed.update(gs, null, -1);
             }
-            playerCardsPlayed.update(gs.getPlayerComplicatedPointCards()[focusPlayer].copy(), false);
+            playerCardsPlayed.update(gs.peekPlayerComplicatedPointCards(focusPlayer).copy(), false);
 
             TMCard corp = gs.getPlayerCorporations()[focusPlayer];
             playerCorporation.update(gs, corp, -1);  // TODO do it once
@@ -37,7 +37,7 @@ public class PlaceTileEffect extends Effect {
 
         HashSet<TMTypes.Resource> gained = new HashSet<>();
         if (action.mapTileID != -1 && action.onMars) {
-            TMMapTile mt = (TMMapTile) gameState.getComponentById(action.mapTileID);
+            TMMapTile mt = (TMMapTile) gameState.peekComponentById(action.mapTileID);
             gained.addAll(Arrays.asList(mt.getResources()));
         }
         boolean resourceTypeCondition = resourceTypeGained == null;
@@ -23,7 +23,7 @@ public class ClaimableAwardMilestoneRequirement implements Requirement<TMGameSta
         if (p == -1) {
             p = gs.getCurrentPlayer();
         }
-        Award am = (Award) gs.getComponentById(awardMilestoneID);
+        Award am = (Award) gs.peekComponentById(awardMilestoneID);
         return am.canClaim(gs, p);
     }
 
@@ -44,7 +44,7 @@ public class ClaimableAwardMilestoneRequirement implements Requirement<TMGameSta
 
     @Override
     public String getReasonForFailure(TMGameState gs) {
-        Award am = (Award) gs.getComponentById(awardMilestoneID);
+        Award am = (Award) gs.peekComponentById(awardMilestoneID);
         String reasons = "";
         if (am.isClaimed()) reasons += "Already claimed. ";
         else if ((am instanceof Milestone && gs.getnMilestonesClaimed().isMaximum()) || (!(am instanceof Milestone) && gs.getnAwardsFunded().isMaximum())) {
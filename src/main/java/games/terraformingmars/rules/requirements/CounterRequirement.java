@@ -105,7 +105,7 @@ public class CounterRequirement implements Requirement<TMGameState> {
             }
         } else {
             gs.getAllComponents();
-            which = (Counter) gs.getComponentById(counterID);
+            which = (Counter) gs.peekComponentById(counterID);
         }
 
         if (max && thresholdIdx == -1) {
@@ -30,7 +30,7 @@ public class ResourceRequirement implements Requirement<TMGameState> {
 
         TMCard card = null;
         if (cardID != -1) {
-            card = (TMCard) gs.getComponentById(cardID);
+            card = (TMCard) gs.peekComponentById(cardID);
         }
         int p = player;
         if (p == -1) {
@@ -32,7 +32,7 @@ public class ResourcesOnCardsRequirement implements Requirement<TMGameState> {
         for (int i = 0; i < nMin.length; i++) {
             TMTypes.Resource res = resources[i];
             int nRes = 0;
-            for (TMCard c: gs.getPlayerComplicatedPointCards()[gs.getCurrentPlayer()].getComponents()) {
+            for (TMCard c: gs.peekPlayerComplicatedPointCards(gs.getCurrentPlayer()).getComponents()) {
                 if (c.resourceOnCard == res) nRes += c.nResourcesOnCard;
             }
             if (nRes < nMin[i]) return false;
@@ -62,7 +62,7 @@ public class ResourcesOnCardsRequirement implements Requirement<TMGameState> {
         for (int i = 0; i < nMin.length; i++) {
             TMTypes.Resource res = resources[i];
             int nRes = 0;
-            for (TMCard c: gs.getPlayerComplicatedPointCards()[gs.getCurrentPlayer()].getComponents()) {
+            for (TMCard c: gs.peekPlayerComplicatedPointCards(gs.getCurrentPlayer()).getComponents()) {
                 if (c.resourceOnCard == res) nRes += c.nResourcesOnCard;
             }
             if (nRes < nMin[i]) {
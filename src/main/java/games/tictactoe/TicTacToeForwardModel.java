@@ -26,6 +26,14 @@ public class TicTacToeForwardModel extends StandardForwardModel implements ITree
         state.gridBoard = new GridBoard<>(gridSize, gridSize, new Token(TicTacToeConstants.emptyCell));
     }
 
+    /**
+     * All the actions in this game are reversible, and they are the only thing that changes the state
+     * (other than the core turn and game status)
+     */
+    @Override
+    public boolean supportsUndo() {
+        return true;
+    }
 
     @Override
     protected List<AbstractAction> _computeAvailableActions(AbstractGameState gameState) {
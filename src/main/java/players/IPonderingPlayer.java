@@ -0,0 +1,46 @@
+package players;
+
+import core.AbstractGameState;
+
+/**
+ * A player that can carry on searching in the background while the other players decide (pondering), so that its
+ * own decision starts from a search that is already warmed up.
+ * <p>
+ * If ponders() is true, then after each action Game calls startPondering() with the player's observation of the new
+ * state (when it is not the player's turn), and calls stopPondering() before it next asks the player for an action.
+ * startPondering() must return at once, and stopPondering() must not return until the background search has stopped
+ * (a Ponderer does both). In competition mode the CPU time returned by stopPondering() is charged to the
+ * player's ElapsedCpuChessTimer.
+ */
+public interface IPonderingPlayer extends IAnyTimePlayer {
+
+    /**
+     * @return true if the player is set up to ponder
+     */
+    boolean ponders();
+
+    /**
+     * In competition mode the observations have no history, so a player whose pondering is only of use through the
+     * history (for example to find the part of its search that is still relevant) is not asked to ponder.
+     *
+     * @return true if the pondering is of no use without the history of actions in the observation
+     */
+    default boolean pondersFromHistory() {
+        return false;
+    }
+
+    /**
+     * Starts (or restarts) the background search from the observation, replacing any search already running.
+     *
+     * @param observation   - the player's own copy of the state, which it may keep
+     * @param cpuLimitNanos - the CPU time the background search may use in total until stopPondering() is called
+     */
+    void startPondering(AbstractGameState observation, long cpuLimitNanos);
+
+    /**
+     * Stops the background search, and waits for it to finish.
+     *
+     * @return the CPU time in nanoseconds used since the last call to stopPondering()
+     */
+    long stopPondering();
+}
@@ -0,0 +1,114 @@
+package players;
+
+import utilities.ElapsedCpuTimer;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the background search of an IPonderingPlayer on a thread of its own (one per player, created on first use).
+ * Only one search runs at a time: starting another stops the current one first.
+ * <p>
+ * The search must call shouldStop() regularly (e.g. after each iteration), and return when it is true. This is the
+ * case once stop() has been called, or once the search has used the CPU time it was allowed. The CPU time used by
+ * all the searches since the last stop() is returned by stop(), so that the caller can charge it to the player.
+ */
+public class Ponderer {
+
+    private final String threadName;
+    private ExecutorService thread;
+    private Future<?> task;
+    private volatile boolean stopRequested;
+    // CPU time used by the searches since the last stop(). This is only written by the ponder thread before its
+    // task finishes, and only read once the task has finished (via Future.get()).
+    private long cpuUsed;
+    // these are only used on the ponder thread
+    private ElapsedCpuTimer timer;
+    private long cpuLimit;
+
+    public Ponderer(String threadName) {
+        this.threadName = threadName;
+    }
+
+    /**
+     * Starts the search on the ponder thread (stopping any search already running).
+     *
+     * @param search        - the search, which must return once shouldStop() is true
+     * @param cpuLimitNanos - the CPU time (in nanoseconds) that the searches may use in total until stop() is called
+     */
+    public void start(Runnable search, long cpuLimitNanos) {
+        finishTask();
+        stopRequested = false;
+        long limit = cpuLimitNanos - cpuUsed;
+        if (limit <= 0)
+            return;
+        if (thread == null) {
+            thread = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, threadName);
+                t.setDaemon(true);  // so that we never prevent the JVM from exiting
+                return t;
+            });
+        }
+        task = thread.submit(() -> {
+            timer = new ElapsedCpuTimer();  // this measures the CPU time of the thread that creates it
+            cpuLimit = limit;
+            try {
+                search.run();
+            } finally {
+                cpuUsed += timer.elapsed();
+            }
+        });
+    }
+
+    /**
+     * @return true once the search should return. This must only be called from the search itself.
+     */
+    public boolean shouldStop() {
+        return stopRequested || timer.elapsed() >= cpuLimit;
+    }
+
+    /**
+     * @return true if a search has been started, and stop() has not been called since
+     */
+    public boolean isRunning() {
+        return task != null;
+    }
+
+    /**
+     * Stops the search (if there is one), and waits for it to return.
+     *
+     * @return the CPU time in nanoseconds used by the searches since the last call to stop()
+     */
+    public long stop() {
+        finishTask();
+        long retValue = cpuUsed;
+        cpuUsed = 0;
+        return retValue;
+    }
+
+    private void finishTask() {
+        if (task == null)
+            return;
+        stopRequested = true;
+        try {
+            task.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error in pondering", e);
+        } finally {
+            task = null;
+        }
+    }
+
+    /**
+     * Stops any search, and ends the ponder thread (a new one is created if start() is called again)
+     */
+    public void shutdown() {
+        stop();
+        if (thread != null) {
+            thread.shutdown();
+            thread = null;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package players;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A fixed set of daemon threads on which a player can run independent pieces of its search (such as the evaluation
+ * of the individuals in a population) in parallel. The threads are created on first use.
+ */
+public class WorkerPool {
+
+    private final String threadName;
+    private final int nWorkers;
+    private ExecutorService threads;
+
+    public WorkerPool(String threadName, int nWorkers) {
+        if (nWorkers < 1)
+            throw new IllegalArgumentException("There must be at least one worker");
+        this.threadName = threadName;
+        this.nWorkers = nWorkers;
+    }
+
+    public int size() {
+        return nWorkers;
+    }
+
+    /**
+     * Runs the tasks on the worker threads, and waits for all of them to finish
+     */
+    public void run(List<Runnable> tasks) {
+        if (threads == null) {
+            threads = Executors.newFixedThreadPool(nWorkers, r -> {
+                Thread t = new Thread(r, threadName);
+                t.setDaemon(true);  // so that we never prevent the JVM from exiting
+                return t;
+            });
+        }
+        List<Future<?>> results = new ArrayList<>();
+        for (Runnable task : tasks)
+            results.add(threads.submit(task));
+        try {
+            for (Future<?> result : results)
+                result.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error in parallel worker", e);
+        }
+    }
+
+    public void shutdown() {
+        if (threads != null) {
+            threads.shutdown();
+            threads = null;
+        }
+    }
+}
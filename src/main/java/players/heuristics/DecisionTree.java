@@ -0,0 +1,276 @@
+package players.heuristics;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import utilities.JSONUtils;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A compiled regression tree, held as flat arrays indexed by node (the root is node 0) so that a prediction is
+ * just a loop down the tree with no allocation. This replaces loading the Spark model (and starting a SparkSession)
+ * whenever a heuristic uses a tree; Spark is now only needed to learn one (see DecisionTreeLearner).
+ * <p>
+ * A tree is loaded from a model directory with load(). This reads the compiled tree from DecisionTree.json if it is
+ * there; otherwise (for directories written before this existed) the tree is parsed from the Description.txt
+ * that DecisionTreeLearner writes alongside the Spark model, which is the Spark debug string of the tree.
+ */
+public final class DecisionTree {
+
+    public static final String TREE_FILE = "DecisionTree.json";
+    public static final String DESCRIPTION_FILE = "Description.txt";
+
+    // for each node, the feature it splits on (or -1 for a leaf)
+    private final int[] feature;
+    // go left if the feature is <= threshold, or, if categories[node] is not null, if it is one of those categories
+    private final double[] threshold;
+    private final double[][] categories;
+    private final int[] left;
+    private final int[] right;
+    // the prediction at each leaf
+    private final double[] value;
+
+    public DecisionTree(int[] feature, double[] threshold, double[][] categories, int[] left, int[] right, double[] value) {
+        int n = feature.length;
+        if (n == 0 || threshold.length != n || categories.length != n || left.length != n || right.length != n || value.length != n)
+            throw new IllegalArgumentException("All node arrays must have the same (non-zero) length");
+        for (int i = 0; i < n; i++) {
+            if (feature[i] >= 0 && (left[i] <= i || right[i] <= i || left[i] >= n || right[i] >= n))
+                throw new IllegalArgumentException("Children of node " + i + " must come after it in the tree");
+        }
+        this.feature = feature;
+        this.threshold = threshold;
+        this.categories = categories;
+        this.left = left;
+        this.right = right;
+        this.value = value;
+    }
+
+    public double predict(double[] features) {
+        int node = 0;
+        while (feature[node] >= 0) {
+            double x = features[feature[node]];
+            boolean goLeft;
+            if (categories[node] == null) {
+                goLeft = x <= threshold[node];
+            } else {
+                goLeft = false;
+                for (double c : categories[node])
+                    if (c == x) {
+                        goLeft = true;
+                        break;
+                    }
+            }
+            node = goLeft ? left[node] : right[node];
+        }
+        return value[node];
+    }
+
+    public int nNodes() {
+        return feature.length;
+    }
+
+    public int depth() {
+        return depth(0);
+    }
+
+    private int depth(int node) {
+        return feature[node] < 0 ? 0 : 1 + Math.max(depth(left[node]), depth(right[node]));
+    }
+
+    /**
+     * Loads the tree from a model directory (see the class comment).
+     *
+     * @param directory    - the directory the model was saved to by DecisionTreeLearner
+     * @param featureNames - the names of the features, in the order of the feature vector. These are only needed
+     *                     to parse a Description.txt, as this refers to features by name.
+     */
+    public static DecisionTree load(String directory, String[] featureNames) {
+        File treeFile = new File(directory, TREE_FILE);
+        if (treeFile.exists())
+            return fromJSON(JSONUtils.loadJSONFile(treeFile.getPath()));
+        File descriptionFile = new File(directory, DESCRIPTION_FILE);
+        if (descriptionFile.exists()) {
+            try {
+                return parse(new String(Files.readAllBytes(descriptionFile.toPath())), featureNames);
+            } catch (IOException e) {
+                throw new AssertionError("Error reading " + descriptionFile + " : " + e.getMessage());
+            }
+        }
+        throw new AssertionError("No " + TREE_FILE + " or " + DESCRIPTION_FILE + " found in " + directory);
+    }
+
+    public void save(String directory) {
+        File file = new File(directory, TREE_FILE);
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write(toJSON().toJSONString());
+        } catch (IOException e) {
+            throw new AssertionError("Error writing " + file + " : " + e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public JSONObject toJSON() {
+        JSONArray nodes = new JSONArray();
+        for (int i = 0; i < feature.length; i++) {
+            JSONObject node = new JSONObject();
+            if (feature[i] < 0) {
+                node.put("value", value[i]);
+            } else {
+                node.put("feature", feature[i]);
+                if (categories[i] == null) {
+                    node.put("threshold", threshold[i]);
+                } else {
+                    JSONArray cats = new JSONArray();
+                    for (double c : categories[i])
+                        cats.add(c);
+                    node.put("categories", cats);
+                }
+                node.put("left", left[i]);
+                node.put("right", right[i]);
+            }
+            nodes.add(node);
+        }
+        JSONObject json = new JSONObject();
+        json.put("nodes", nodes);
+        return json;
+    }
+
+    public static DecisionTree fromJSON(JSONObject json) {
+        JSONArray nodes = (JSONArray) json.get("nodes");
+        int n = nodes.size();
+        int[] feature = new int[n], left = new int[n], right = new int[n];
+        double[] threshold = new double[n], value = new double[n];
+        double[][] categories = new double[n][];
+        for (int i = 0; i < n; i++) {
+            JSONObject node = (JSONObject) nodes.get(i);
+            if (node.containsKey("feature")) {
+                feature[i] = ((Number) node.get("feature")).intValue();
+                left[i] = ((Number) node.get("left")).intValue();
+                right[i] = ((Number) node.get("right")).intValue();
+                if (node.containsKey("categories")) {
+                    JSONArray cats = (JSONArray) node.get("categories");
+                    categories[i] = new double[cats.size()];
+                    for (int j = 0; j < cats.size(); j++)
+                        categories[i][j] = ((Number) cats.get(j)).doubleValue();
+                } else {
+                    threshold[i] = ((Number) node.get("threshold")).doubleValue();
+                }
+            } else {
+                feature[i] = -1;
+                value[i] = ((Number) node.get("value")).doubleValue();
+            }
+        }
+        return new DecisionTree(feature, threshold, categories, left, right, value);
+    }
+
+    private static final Pattern CONTINUOUS = Pattern.compile("If \\((.+) <= (\\S+)\\)");
+    private static final Pattern CATEGORICAL = Pattern.compile("If \\((.+) in \\{(.*)}\\)");
+    private static final Pattern INDEXED = Pattern.compile("feature (\\d+)");
+
+    /**
+     * Parses the debug string of a Spark DecisionTreeRegressionModel, either as it comes from the model (with
+     * features referred to as 'feature nn') or after it has had the feature names substituted in
+     * (as in DecisionTreeLearner.prettifyDecisionTreeDescription()).
+     */
+    public static DecisionTree parse(String debugString, String[] featureNames) {
+        Map<String, Integer> featureIndex = new HashMap<>();
+        if (featureNames != null)
+            for (int i = 0; i < featureNames.length; i++)
+                featureIndex.put(featureNames[i], i);
+        List<String> lines = new ArrayList<>();
+        for (String line : debugString.split("\\R")) {
+            line = line.trim();
+            // skip the header line (and anything else that is not part of the tree)
+            if (line.startsWith("If (") || line.startsWith("Else (") || line.startsWith("Predict: "))
+                lines.add(line);
+        }
+        if (lines.isEmpty())
+            throw new IllegalArgumentException("No tree found in the description");
+
+        Parser parser = new Parser(lines, featureIndex);
+        parser.parseNode();
+        if (parser.position != lines.size())
+            throw new IllegalArgumentException("Unexpected line in description: " + lines.get(parser.position));
+        int n = parser.feature.size();
+        int[] feature = new int[n], left = new int[n], right = new int[n];
+        double[] threshold = new double[n], value = new double[n];
+        for (int i = 0; i < n; i++) {
+            feature[i] = parser.feature.get(i);
+            left[i] = parser.left.get(i);
+            right[i] = parser.right.get(i);
+            threshold[i] = parser.threshold.get(i);
+            value[i] = parser.value.get(i);
+        }
+        return new DecisionTree(feature, threshold, parser.categories.toArray(new double[0][]), left, right, value);
+    }
+
+    private static class Parser {
+        final List<String> lines;
+        final Map<String, Integer> featureIndex;
+        int position;
+        final List<Integer> feature = new ArrayList<>(), left = new ArrayList<>(), right = new ArrayList<>();
+        final List<Double> threshold = new ArrayList<>(), value = new ArrayList<>();
+        final List<double[]> categories = new ArrayList<>();
+
+        Parser(List<String> lines, Map<String, Integer> featureIndex) {
+            this.lines = lines;
+            this.featureIndex = featureIndex;
+        }
+
+        // adds the node starting at the current line (and its sub-tree) in pre-order, and returns its index
+        int parseNode() {
+            if (position >= lines.size())
+                throw new IllegalArgumentException("Description ends part way through the tree");
+            String line = lines.get(position++);
+            int node = feature.size();
+            feature.add(-1);
+            left.add(-1);
+            right.add(-1);
+            threshold.add(0.0);
+            value.add(0.0);
+            categories.add(null);
+            if (line.startsWith("Predict: ")) {
+                value.set(node, Double.parseDouble(line.substring("Predict: ".length()).trim()));
+                return node;
+            }
+            Matcher m = CONTINUOUS.matcher(line);
+            if (m.matches()) {
+                feature.set(node, featureFor(m.group(1)));
+                threshold.set(node, Double.parseDouble(m.group(2)));
+            } else {
+                m = CATEGORICAL.matcher(line);
+                if (!m.matches())
+                    throw new IllegalArgumentException("Unrecognised split in description: " + line);
+                feature.set(node, featureFor(m.group(1)));
+                String[] cats = m.group(2).trim().isEmpty() ? new String[0] : m.group(2).split(",");
+                double[] values = new double[cats.length];
+                for (int i = 0; i < cats.length; i++)
+                    values[i] = Double.parseDouble(cats[i].trim());
+                categories.set(node, values);
+            }
+            left.set(node, parseNode());
+            if (position >= lines.size() || !lines.get(position).startsWith("Else ("))
+                throw new IllegalArgumentException("Missing Else branch for: " + line);
+            position++;
+            right.set(node, parseNode());
+            return node;
+        }
+
+        int featureFor(String name) {
+            Integer index = featureIndex.get(name);
+            if (index != null)
+                return index;
+            Matcher m = INDEXED.matcher(name);
+            if (m.matches())
+                return Integer.parseInt(m.group(1));
+            throw new IllegalArgumentException("Unknown feature in description: " + name);
+        }
+    }
+}
@@ -5,7 +5,6 @@ import core.actions.AbstractAction;
 import core.interfaces.IActionFeatureVector;
 import core.interfaces.IActionHeuristic;
 import core.interfaces.IStateFeatureVector;
-import org.apache.spark.ml.linalg.Vectors;
 
 import java.util.List;
 
@@ -14,10 +13,20 @@ public class DecisionTreeActionHeuristic extends AbstractDecisionTreeHeuristic i
     IStateFeatureVector stateFeatures;
     IActionFeatureVector actionFeatures;
     public DecisionTreeActionHeuristic(IStateFeatureVector stateFeatures, IActionFeatureVector actionFeatures, String directory) {
-        super(directory);
+        super(directory, featureNames(stateFeatures, actionFeatures));
         this.stateFeatures = stateFeatures;
         this.actionFeatures = actionFeatures;
     }
+
+    private static String[] featureNames(IStateFeatureVector stateFeatures, IActionFeatureVector actionFeatures) {
+        String[] stateNames = stateFeatures.names();
+        String[] actionNames = actionFeatures.names();
+        String[] names = new String[stateNames.length + actionNames.length];
+        System.arraycopy(stateNames, 0, names, 0, stateNames.length);
+        System.arraycopy(actionNames, 0, names, stateNames.length, actionNames.length);
+        return names;
+    }
+
     @Override
     public double evaluateAction(AbstractAction action, AbstractGameState state) {
         if (drModel == null) return 0;  // no model, no prediction (this is fine
@@ -31,7 +40,7 @@ public class DecisionTreeActionHeuristic extends AbstractDecisionTreeHeuristic i
         System.arraycopy(actionFeatures, 0, features, stateFeatures.length, actionFeatures.length);
         // return the prediction from the model
 
-        return drModel.predict(Vectors.dense(features));
+        return drModel.predict(features);
     }
 
     @Override
@@ -40,21 +49,15 @@ public class DecisionTreeActionHeuristic extends AbstractDecisionTreeHeuristic i
         // First we get the state features once
         int playerId = state.getCurrentPlayer();
         double[] stateFeatures = this.stateFeatures.featureVector(state, playerId);
-        // Then we get the action features for each action
-        double[][] actionFeatures = new double[actions.size()][];
-        for (int i = 0; i < actions.size(); i++) {
-            actionFeatures[i] = this.actionFeatures.featureVector(actions.get(i), state, playerId);
-        }
-        // Then we combine the features
-        double[][] features = new double[actions.size()][stateFeatures.length + actionFeatures[0].length];
-        for (int i = 0; i < actions.size(); i++) {
-            System.arraycopy(stateFeatures, 0, features[i], 0, stateFeatures.length);
-            System.arraycopy(actionFeatures[i], 0, features[i], stateFeatures.length, actionFeatures[i].length);
-        }
-        // Then we return the predictions from the model
+        // and a single buffer for the combined features, in which only the action features change
+        double[] features = new double[stateFeatures.length + this.actionFeatures.names().length];
+        System.arraycopy(stateFeatures, 0, features, 0, stateFeatures.length);
+        // Then for each action we add its features and get the prediction from the model
         double[] predictions = new double[actions.size()];
         for (int i = 0; i < actions.size(); i++) {
-            predictions[i] = drModel.predict(Vectors.dense(features[i]));
+            double[] actionFeatures = this.actionFeatures.featureVector(actions.get(i), state, playerId);
+            System.arraycopy(actionFeatures, 0, features, stateFeatures.length, actionFeatures.length);
+            predictions[i] = drModel.predict(features);
         }
         return predictions;
     }
@@ -3,14 +3,13 @@ package players.heuristics;
 import core.AbstractGameState;
 import core.interfaces.IStateFeatureVector;
 import core.interfaces.IStateHeuristic;
-import org.apache.spark.ml.linalg.Vectors;
 
 public class DecisionTreeStateHeuristic extends AbstractDecisionTreeHeuristic implements IStateHeuristic {
 
     IStateFeatureVector stateFeatures;
     IStateHeuristic defaultHeuristic;
     public DecisionTreeStateHeuristic(IStateFeatureVector stateFeatures, String directory, IStateHeuristic defaultHeuristic) {
-        super(directory);
+        super(directory, stateFeatures.names());
         this.stateFeatures = stateFeatures;
         this.defaultHeuristic = defaultHeuristic;
     }
@@ -28,6 +27,6 @@ public class DecisionTreeStateHeuristic extends AbstractDecisionTreeHeuristic im
         double[] features = this.stateFeatures.featureVector(state, playerId);
 
         // return the prediction from the model
-        return drModel.predict(Vectors.dense(features));
+        return drModel.predict(features);
     }
 }
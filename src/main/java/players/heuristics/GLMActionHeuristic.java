@@ -15,6 +15,8 @@ public abstract class GLMActionHeuristic implements IActionHeuristic {
     protected IStateFeatureVector features;
     protected IActionFeatureVector actionFeatures;
     protected double[] coefficients;
+    // the number of state features (the action coefficients start after the bias and these)
+    protected int phiLength;
 
     /**
      * The coefficientsFile is a tab separated file with the first line being the names of the features
@@ -29,6 +31,7 @@ public abstract class GLMActionHeuristic implements IActionHeuristic {
     public GLMActionHeuristic(IStateFeatureVector featureVector, IActionFeatureVector actionFeatureVector, String coefficientsFile) {
         this.features = featureVector;
         this.actionFeatures = actionFeatureVector;
+        this.phiLength = featureVector.names().length;
         loadModel(coefficientsFile);
     }
 
@@ -6,6 +6,8 @@ import core.interfaces.IActionFeatureVector;
 import core.interfaces.IStateFeatureVector;
 import utilities.Utils;
 
+import java.util.List;
+
 
 public class LinearActionHeuristic extends GLMActionHeuristic {
 
@@ -29,9 +31,27 @@ public class LinearActionHeuristic extends GLMActionHeuristic {
         // and this is a linear approximator (if this were non-linear, then this would not be possible)
         // we also ignore the BIAS term (the first coefficient) for the same reason
         // (these are still potentially useful to learn if they reduce bias/variance in the psi coefficients)
+        return actionValue(actionFeatures.featureVector(action, state, state.getCurrentPlayer()));
+    }
+
+    /**
+     * The state features are the same for every action, and do not change the ranking of the actions, so (as for
+     * evaluateAction()) only the action features are needed, with one dot product per action.
+     */
+    @Override
+    public double[] evaluateAllActions(List<AbstractAction> actions, AbstractGameState state) {
+        if (coefficients == null)
+            throw new AssertionError("No coefficients found");
+        int playerId = state.getCurrentPlayer();
+        double[] retValue = new double[actions.size()];
+        for (int i = 0; i < retValue.length; i++) {
+            retValue[i] = actionValue(actionFeatures.featureVector(actions.get(i), state, playerId));
+        }
+        return retValue;
+    }
+
+    private double actionValue(double[] psi) {
         double retValue = 0;
-        int phiLength = features.names().length;
-        double[] psi = actionFeatures.featureVector(action, state, state.getCurrentPlayer());
         for (int i = 0; i < psi.length; i++) {
             retValue += psi[i] * coefficients[i + 1 + phiLength];
         }
@@ -25,15 +25,34 @@ public class LinearStateHeuristic extends AbstractStateHeuristic {
     public double evaluateState(AbstractGameState state, int playerId) {
         // default heuristic is used if the state is terminal (or no coefficients are provided)
         if (coefficients != null && (defaultHeuristic == null || state.isNotTerminal())) {
-            double[] phi = features.featureVector(state, playerId);
-            double retValue = coefficients[0]; // the bias term
-            for (int i = 0; i < phi.length; i++) {
-                retValue += phi[i] * coefficients[i+1];
-            }
-            return Utils.clamp(retValue, minValue, maxValue);
+            return linearValue(features.featureVector(state, playerId));
         }
         if (defaultHeuristic != null)
             return defaultHeuristic.evaluateState(state, playerId);
         return 0;
     }
+
+    /**
+     * Gives the same values as evaluateState() for each player. Subclasses only change the value for a player whose
+     * game is over, so for the others the model is applied here directly; evaluateState() is called for the rest.
+     */
+    @Override
+    public double[] evaluateAllPlayers(AbstractGameState state) {
+        double[] retValue = new double[state.getNPlayers()];
+        for (int playerId = 0; playerId < retValue.length; playerId++) {
+            if (coefficients != null && state.isNotTerminalForPlayer(playerId))
+                retValue[playerId] = linearValue(features.featureVector(state, playerId));
+            else
+                retValue[playerId] = evaluateState(state, playerId);
+        }
+        return retValue;
+    }
+
+    protected double linearValue(double[] phi) {
+        double retValue = coefficients[0]; // the bias term
+        for (int i = 0; i < phi.length; i++) {
+            retValue += phi[i] * coefficients[i+1];
+        }
+        return Utils.clamp(retValue, minValue, maxValue);
+    }
 }
@@ -28,4 +28,11 @@ public class LinearStateOrdHeuristic extends LinearStateHeuristic {
 
         return -state.getOrdinalPosition(playerId);
     }
+
+    @Override
+    public double[] evaluateAllPlayers(AbstractGameState state) {
+        minValue = -state.getNPlayers();
+        maxValue = -1.0;
+        return super.evaluateAllPlayers(state);
+    }
 }
@@ -7,6 +7,11 @@ import core.interfaces.IStateHeuristic;
 
 public class LinearStateWinHeuristic extends LinearStateHeuristic {
 
+    {
+        minValue = 0.0;
+        maxValue = 1.0;
+    }
+
     public LinearStateWinHeuristic(String featureVectorClassName, String coefficientsFile, String defaultHeuristicClass) {
         super(featureVectorClassName, coefficientsFile, defaultHeuristicClass);
     }
@@ -19,8 +24,6 @@ public class LinearStateWinHeuristic extends LinearStateHeuristic {
 
     @Override
     public double evaluateState(AbstractGameState state, int playerId) {
-        minValue = 0.0;
-        maxValue = 1.0;
         if (state.isNotTerminalForPlayer(playerId)) {
             return super.evaluateState(state, playerId);
         }
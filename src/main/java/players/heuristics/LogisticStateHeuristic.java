@@ -21,7 +21,26 @@ public class LogisticStateHeuristic extends AbstractStateHeuristic {
     public double evaluateState(AbstractGameState state, int playerId) {
         if (coefficients == null)
             return defaultHeuristic.evaluateState(state, playerId);
-        double[] phi = features.featureVector(state, playerId);
+        return logisticValue(features.featureVector(state, playerId));
+    }
+
+    /**
+     * As for LinearStateHeuristic, the model is applied directly for each player still in the game, and
+     * evaluateState() is called for the others.
+     */
+    @Override
+    public double[] evaluateAllPlayers(AbstractGameState state) {
+        double[] retValue = new double[state.getNPlayers()];
+        for (int playerId = 0; playerId < retValue.length; playerId++) {
+            if (coefficients != null && state.isNotTerminalForPlayer(playerId))
+                retValue[playerId] = logisticValue(features.featureVector(state, playerId));
+            else
+                retValue[playerId] = evaluateState(state, playerId);
+        }
+        return retValue;
+    }
+
+    protected double logisticValue(double[] phi) {
         double retValue = coefficients[0];  // the bias term
         for (int i = 0; i < phi.length; i++) {
             retValue += phi[i] * coefficients[i+1];
@@ -1,6 +1,7 @@
 package players.learners;
 
 import core.interfaces.ILearner;
+import evaluation.loggers.FeatureDataReader;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
@@ -60,6 +61,23 @@ public abstract class AbstractLearner implements ILearner {
     protected void loadData(String... files) {
         List<double[]> data = new ArrayList<>();
         for (String file : files) {
+            if (FeatureDataReader.isFeatureDataFile(file)) {
+                // the binary format written by FeatureDataWriter
+                try (FeatureDataReader reader = new FeatureDataReader(file)) {
+                    header = reader.getColumns();
+                    descriptions = new String[header.length - 11];
+                    System.arraycopy(header, 5, descriptions, 0, descriptions.length);
+                    double[] datum = new double[header.length];
+                    while (reader.next(datum)) {
+                        data.add(datum);
+                        datum = new double[header.length];
+                    }
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    throw new AssertionError("Problem reading file " + file);
+                }
+                continue;
+            }
             try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
                 header = reader.readLine().split("\\t");
                 descriptions = new String[header.length - 11];
@@ -3,13 +3,18 @@ package players.learners;
 import org.apache.spark.ml.feature.RFormula;
 import org.apache.spark.ml.regression.DecisionTreeRegressionModel;
 import org.apache.spark.ml.regression.DecisionTreeRegressor;
+import org.apache.spark.ml.tree.*;
 import org.apache.spark.sql.Dataset;
 import org.apache.spark.sql.Row;
-import players.heuristics.DecisionTreeActionHeuristic;
+import players.heuristics.DecisionTree;
 
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class DecisionTreeLearner extends ApacheLearner {
 
@@ -59,7 +64,7 @@ public class DecisionTreeLearner extends ApacheLearner {
         drModel = dr.fit(training);
 
         if (debug)
-            System.out.println(DecisionTreeActionHeuristic.prettifyDecisionTreeDescription(drModel, descriptions));
+            System.out.println(prettifyDecisionTreeDescription(drModel, descriptions));
 
     }
 
@@ -67,8 +72,10 @@ public class DecisionTreeLearner extends ApacheLearner {
     public void writeToFile(String file) {
         try {
             drModel.write().overwrite().save(file);
+            // and the compiled tree used by the heuristics, so that they do not need Spark to load it
+            compile(drModel).save(file);
             BufferedWriter writer = new BufferedWriter(new java.io.FileWriter(file + File.separator + "Description.txt"));
-            writer.write(DecisionTreeActionHeuristic.prettifyDecisionTreeDescription(drModel, descriptions));
+            writer.write(prettifyDecisionTreeDescription(drModel, descriptions));
             writer.close();
         } catch (IOException e) {
             e.printStackTrace();
@@ -78,6 +85,58 @@ public class DecisionTreeLearner extends ApacheLearner {
 
     }
 
+    public static String prettifyDecisionTreeDescription(DecisionTreeRegressionModel model, String[] featureNames) {
+        // the debug string of model contains labels of the form 'feature nn', where nn is the index of the feature
+        // We want to replace these with the actual feature names
+        // we go in reverse to stop replacing 'feature 10' with 'nameOfFeature0' etc.
+        String debugString = model.toDebugString();
+        for (int i = featureNames.length-1; i >= 0; i--) {
+            debugString = debugString.replace("feature " + i, featureNames[i]);
+        }
+        return debugString;
+    }
+
+    /**
+     * Converts the Spark model to a DecisionTree, with the nodes in pre-order
+     */
+    public static DecisionTree compile(DecisionTreeRegressionModel model) {
+        List<Node> nodes = new ArrayList<>();
+        addNodes(model.rootNode(), nodes);
+        int n = nodes.size();
+        Map<Node, Integer> index = new IdentityHashMap<>();
+        for (int i = 0; i < n; i++)
+            index.put(nodes.get(i), i);
+        int[] feature = new int[n], left = new int[n], right = new int[n];
+        double[] threshold = new double[n], value = new double[n];
+        double[][] categories = new double[n][];
+        for (int i = 0; i < n; i++) {
+            Node node = nodes.get(i);
+            value[i] = node.prediction();
+            if (node instanceof InternalNode) {
+                InternalNode internal = (InternalNode) node;
+                Split split = internal.split();
+                feature[i] = split.featureIndex();
+                if (split instanceof ContinuousSplit)
+                    threshold[i] = ((ContinuousSplit) split).threshold();
+                else
+                    categories[i] = ((CategoricalSplit) split).leftCategories();
+                left[i] = index.get(internal.leftChild());
+                right[i] = index.get(internal.rightChild());
+            } else {
+                feature[i] = -1;
+            }
+        }
+        return new DecisionTree(feature, threshold, categories, left, right, value);
+    }
+
+    private static void addNodes(Node node, List<Node> nodes) {
+        nodes.add(node);
+        if (node instanceof InternalNode) {
+            addNodes(((InternalNode) node).leftChild(), nodes);
+            addNodes(((InternalNode) node).rightChild(), nodes);
+        }
+    }
+
     @Override
     public String name() {
         return "DecisionTree";
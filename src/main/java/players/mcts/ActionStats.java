@@ -18,6 +18,16 @@ public class ActionStats {
         nVisits = 0;
     }
 
+    /**
+     * Clears the statistics (used when the ActionStats is recycled by a NodePool)
+     */
+    void reset() {
+        Arrays.fill(totValue, 0.0);
+        Arrays.fill(squaredTotValue, 0.0);
+        nVisits = 0;
+        validVisits = 0;
+    }
+
     public void update(double[] results) {
         for (int i = 0; i < results.length; i++) {
             totValue[i] += results[i];
@@ -26,4 +36,16 @@ public class ActionStats {
         nVisits++;
     }
 
+    /**
+     * Adds the statistics from another tree into these (used to combine the trees in root-parallel search)
+     */
+    public void merge(ActionStats other) {
+        for (int i = 0; i < totValue.length; i++) {
+            totValue[i] += other.totValue[i];
+            squaredTotValue[i] += other.squaredTotValue[i];
+        }
+        nVisits += other.nVisits;
+        validVisits += other.validVisits;
+    }
+
 }
@@ -0,0 +1,306 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+import utilities.Utils;
+
+import java.util.*;
+
+import static players.mcts.MCTSEnums.Information.Closed_Loop;
+import static players.mcts.MCTSEnums.Strategies.MAST;
+import static utilities.Utils.noise;
+
+/**
+ * ArrayTreeNode keeps the statistics for the actions at a node in primitive arrays (a struct-of-arrays layout)
+ * rather than in a Map of ActionStats objects. This is used if MCTSParams.arrayNodes is true.
+ * <p>
+ * Each action is given a dense index the first time it is seen at the node, and the statistics for that action
+ * are held at that index (or at index * nPlayers + player for the per-player values). The indices of the actions
+ * currently available (actionsFromOpenLoopState) are computed once when they are set, so that the UCB calculation
+ * and backup then work through the arrays with no Map lookups, boxing or per-action objects.
+ * <p>
+ * actionValues still holds an ActionStats for each action, but these are only brought up to date once the search
+ * has finished (in searchComplete()). Anything that looks at the statistics during the search must use the
+ * accessor methods (actionVisits(), actionTotValue() and so on).
+ */
+public class ArrayTreeNode extends SingleTreeNode {
+
+    // the dense index for each action seen at this node, and the reverse mapping
+    Map<AbstractAction, Integer> actionIndex = new HashMap<>();
+    AbstractAction[] indexedActions = new AbstractAction[8];
+    int nActions;
+    int nPlayers;
+
+    int[] visits = new int[8];
+    int[] validVisits = new int[8];
+    double[] totValue;          // indexed by action * nPlayers + player
+    double[] squaredTotValue;   // indexed by action * nPlayers + player
+
+    // the index (and advantage) of each action in actionsFromOpenLoopState, in the same order
+    int[] olsIndex = new int[8];
+    double[] olsAdvantage = new double[8];
+    // the list that olsIndex was calculated from
+    List<AbstractAction> indexedList;
+    // the action last chosen by ucb(), and its index, so that backup does not need to look the index up again
+    AbstractAction chosenAction;
+    int chosenIndex;
+
+    protected ArrayTreeNode() {
+    }
+
+    @Override
+    protected void registerActions(List<AbstractAction> actions, int nPlayers) {
+        if (totValue == null || this.nPlayers != nPlayers) {
+            this.nPlayers = nPlayers;
+            totValue = new double[visits.length * nPlayers];
+            squaredTotValue = new double[visits.length * nPlayers];
+        }
+        if (olsIndex.length < actions.size()) {
+            olsIndex = new int[actions.size()];
+            olsAdvantage = new double[actions.size()];
+        }
+        boolean hasAdvantages = !advantagesOfActionsFromOLS.isEmpty();
+        for (int i = 0; i < actions.size(); i++) {
+            AbstractAction action = actions.get(i);
+            Integer index = actionIndex.get(action);
+            if (index == null) {
+                addNewAction(action, nPlayers);
+                index = addIndex(action);
+            }
+            olsIndex[i] = index;
+            olsAdvantage[i] = hasAdvantages ? advantagesOfActionsFromOLS.getOrDefault(action, 0.0) : 0.0;
+        }
+        indexedList = actions;
+    }
+
+    @Override
+    protected void recycle(NodePool pool) {
+        super.recycle(pool);
+        // the arrays are kept, and only the part that was used needs to be cleared
+        Arrays.fill(indexedActions, 0, nActions, null);
+        Arrays.fill(visits, 0, nActions, 0);
+        Arrays.fill(validVisits, 0, nActions, 0);
+        if (totValue != null) {
+            Arrays.fill(totValue, 0, nActions * nPlayers, 0.0);
+            Arrays.fill(squaredTotValue, 0, nActions * nPlayers, 0.0);
+        }
+        actionIndex.clear();
+        nActions = 0;
+        indexedList = null;
+        chosenAction = null;
+    }
+
+    private int addIndex(AbstractAction action) {
+        if (nActions == visits.length) {
+            int newLength = nActions * 2;
+            indexedActions = Arrays.copyOf(indexedActions, newLength);
+            visits = Arrays.copyOf(visits, newLength);
+            validVisits = Arrays.copyOf(validVisits, newLength);
+            totValue = Arrays.copyOf(totValue, newLength * nPlayers);
+            squaredTotValue = Arrays.copyOf(squaredTotValue, newLength * nPlayers);
+        }
+        indexedActions[nActions] = action;
+        actionIndex.put(action, nActions);
+        return nActions++;
+    }
+
+    /**
+     * olsIndex is in step with actionsFromOpenLoopState unless the list has been replaced (for example when
+     * tree-parallel search restores the list for a path), or re-ordered by progressive widening.
+     */
+    private void checkIndices() {
+        if (totValue == null)
+            return; // no actions have been registered yet
+        if (indexedList != actionsFromOpenLoopState || params.progressiveWideningConstant >= 1.0)
+            registerActions(actionsFromOpenLoopState, nPlayers);
+    }
+
+    private int indexOf(AbstractAction action) {
+        Integer index = actionIndex.get(action);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * The index of an action taken from this node. This is normally the one just chosen by ucb(); the Map is only
+     * needed if the action was chosen some other way (there was only one, or another tree policy is used), or if
+     * another worker in tree-parallel search has since selected from this node.
+     */
+    private int takenIndex(AbstractAction actionTaken) {
+        return actionTaken == chosenAction ? chosenIndex : indexOf(actionTaken);
+    }
+
+    @Override
+    public int actionVisits(AbstractAction action) {
+        int index = indexOf(action);
+        return index == -1 ? 0 : visits[index];
+    }
+
+    @Override
+    protected int validVisitsFor(AbstractAction action) {
+        if (params.information == Closed_Loop)
+            return nVisits;
+        int index = indexOf(action);
+        return index == -1 ? 1 : validVisits[index];
+    }
+
+    @Override
+    public double actionTotValue(AbstractAction action, int playerId) {
+        int index = indexOf(action);
+        return index == -1 ? 0.0 : totValue[index * nPlayers + playerId];
+    }
+
+    @Override
+    protected double actionSquaredValue(AbstractAction action, int playerId) {
+        int index = indexOf(action);
+        return index == -1 ? 0.0 : squaredTotValue[index * nPlayers + playerId];
+    }
+
+    @Override
+    public double nodeValue(int playerId) {
+        double total = 0.0;
+        for (int a = 0; a < nActions; a++)
+            total += totValue[a * nPlayers + playerId];
+        return total / nVisits;
+    }
+
+    @Override
+    int[] actionVisits() {
+        return Arrays.copyOf(visits, nActions);
+    }
+
+    @Override
+    protected AbstractAction ucb(List<AbstractAction> availableActions) {
+        // Progressive Widening gives us a subset of the actions, for which we need to look up the indices
+        boolean subset = availableActions != actionsFromOpenLoopState;
+        checkIndices();
+
+        int bestIndex = -1, bestA = -1;
+        double bestValue = -Double.MAX_VALUE;
+        int ties = 0;
+        double nodeValue = params.biasVisits > 0 ? nodeValue(decisionPlayer) : 0.0;
+        for (int i = 0, n = availableActions.size(); i < n; i++) {
+            int a = subset ? indexOf(availableActions.get(i)) : olsIndex[i];
+            double advantage = subset ? advantagesOfActionsFromOLS.getOrDefault(availableActions.get(i), 0.0) : olsAdvantage[i];
+            int actionVisits = visits[a];
+            double uctValue;
+            if (actionVisits == 0) {
+                uctValue = params.firstPlayUrgency;
+                if (params.expansionPolicy != MAST)
+                    uctValue += advantage;
+                else if (MASTFunction != null)
+                    uctValue += MASTFunction.applyAsDouble(availableActions.get(i), openLoopState);
+            } else {
+                int offset = a * nPlayers + decisionPlayer;
+                double childValue = totValue[offset] / (actionVisits + params.noiseEpsilon);
+
+                // consider any progressive bias term
+                if (params.biasVisits > 0) {
+                    double beta = Math.sqrt(params.biasVisits / (double) (params.biasVisits + 3 * actionVisits));
+                    childValue = (1.0 - beta) * childValue + beta * (advantage + nodeValue);
+                }
+
+                if (params.normaliseRewards) {
+                    childValue = Utils.normalise(childValue, root.lowReward, root.highReward);
+                }
+
+                int effectiveTotalVisits = (params.information == Closed_Loop ? nVisits : validVisits[a]) + 1;
+                double explorationTerm;
+                switch (params.treePolicy) {
+                    case AlphaGo:
+                        explorationTerm = params.K * Math.sqrt(effectiveTotalVisits) / (actionVisits + 1.0);
+                        break;
+                    case UCB_Tuned:
+                        double range = root.highReward - root.lowReward;
+                        if (range < 1e-6) range = 1e-6;
+                        double meanSq = squaredTotValue[offset] / (actionVisits + params.noiseEpsilon);
+                        double standardVar = 0.25;
+                        if (params.normaliseRewards) {
+                            meanSq = (meanSq
+                                    + root.lowReward * root.lowReward
+                                    - 2 * root.lowReward * totValue[offset] / (actionVisits + params.noiseEpsilon)
+                            ) / (range * range);
+                        } else {
+                            standardVar = Math.sqrt(range / 2.0);
+                        }
+                        double variance = Math.max(0.0, meanSq - childValue * childValue);
+                        double minTerm = Math.min(standardVar, variance + Math.sqrt(2 * Math.log(effectiveTotalVisits) / (actionVisits + params.noiseEpsilon)));
+                        explorationTerm = params.K * Math.sqrt(Math.log(effectiveTotalVisits) / (actionVisits + params.noiseEpsilon) * minTerm);
+                        break;
+                    default:
+                        explorationTerm = params.K * Math.sqrt(Math.log(effectiveTotalVisits) / (actionVisits + params.noiseEpsilon));
+                }
+                uctValue = childValue + explorationTerm;
+                if (Double.isNaN(uctValue))
+                    throw new AssertionError("Numeric error calculating uctValue");
+            }
+            uctValue = noise(uctValue, params.noiseEpsilon, rnd.nextDouble());
+            if (uctValue > bestValue) {
+                bestIndex = i;
+                bestA = a;
+                bestValue = uctValue;
+                ties = 1;
+            } else if (uctValue == bestValue && rnd.nextInt(++ties) == 0) {
+                bestIndex = i;
+                bestA = a;
+            }
+        }
+
+        if (bestIndex == -1)
+            throw new AssertionError("We have a null value in UCT : shouldn't really happen!");
+
+        chosenAction = availableActions.get(bestIndex);
+        chosenIndex = bestA;
+        return chosenAction;
+    }
+
+    @Override
+    protected void backUpSingleNode(AbstractAction actionTaken, double[] result) {
+        if (params.discardStateAfterEachIteration) {
+            if (depth > 0)
+                openLoopState = null; // releases for Garbage Collection
+            if (depth > 0 && !params.maintainMasterState)
+                state = null;
+        }
+        nVisits++;
+        checkIndices();
+        for (int i = 0; i < actionsFromOpenLoopState.size(); i++)
+            validVisits[olsIndex[i]]++;
+
+        int a = takenIndex(actionTaken);
+        if (a == -1)
+            throw new AssertionError("We have somehow failed to find the action taken in the list of actions");
+        visits[a]++;
+        int offset = a * nPlayers;
+        for (int p = 0; p < result.length; p++) {
+            totValue[offset + p] += result[p];
+            squaredTotValue[offset + p] += result[p] * result[p];
+        }
+    }
+
+    @Override
+    protected void addVirtualLoss(AbstractAction actionTaken, int visits, double value) {
+        int a = takenIndex(actionTaken);
+        this.visits[a] += visits;
+        totValue[a * nPlayers + decisionPlayer] += visits * value;
+        nVisits += visits;
+    }
+
+    /**
+     * Copies the array statistics for every node in the tree into the ActionStats in actionValues, so that
+     * everything that reads the tree after the search (bestAction(), TreeStatistics, listeners) sees them.
+     */
+    @Override
+    protected void searchComplete() {
+        for (SingleTreeNode node : allNodesInTree())
+            ((ArrayTreeNode) node).copyToActionStats();
+    }
+
+    void copyToActionStats() {
+        for (int a = 0; a < nActions; a++) {
+            ActionStats stats = actionValues.get(indexedActions[a]);
+            stats.nVisits = visits[a];
+            stats.validVisits = validVisits[a];
+            System.arraycopy(totValue, a * nPlayers, stats.totValue, 0, nPlayers);
+            System.arraycopy(squaredTotValue, a * nPlayers, stats.squaredTotValue, 0, nPlayers);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package players.mcts;
+
+import core.Zobrist;
+import core.actions.AbstractAction;
+import core.interfaces.IActionKey;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The MAST (Move-Average Sampling Technique) statistics: for each player, the number of times each action has
+ * been used and the total value of the games in which it was.
+ * <p>
+ * Actions are identified by a 64-bit hash (see keyOf()), which is the same for equal actions on different moves
+ * of a game, so one table can be kept for the whole game (and decayed between moves) rather than rebuilt for each
+ * search. Two different actions whose hashes collide share statistics, which is harmless given how approximate MAST is.
+ * <p>
+ * Each player has a fixed-size open-addressing table held in an AtomicLongArray, and all updates are made in place
+ * with compare-and-set, so the statistics can be shared by parallel searches without locks. (The visits and value
+ * of an action are updated separately, so a reader may very occasionally see one update without the other.)
+ * If a player's table fills up then updates for further new actions are dropped.
+ */
+public class MASTTable {
+
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+    private static final int MAX_PROBES = 64;
+
+    // each slot is three longs: the key (0 for an empty slot), the visits, and the bits of the total value
+    private final AtomicLongArray[] tables;
+    private final int mask;
+
+    public MASTTable(int nPlayers) {
+        this(nPlayers, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param nPlayers - the number of players in the game
+     * @param capacity - the maximum number of distinct actions per player (rounded up to a power of two)
+     */
+    public MASTTable(int nPlayers, int capacity) {
+        int slots = Integer.highestOneBit(Math.max(16, capacity - 1)) << 1;
+        tables = new AtomicLongArray[nPlayers];
+        for (int p = 0; p < nPlayers; p++)
+            tables[p] = new AtomicLongArray(slots * 3);
+        mask = slots - 1;
+    }
+
+    /**
+     * @param action    - the action
+     * @param actionKey - used to group similar actions together; if null then equal actions are grouped
+     * @return the key for the action in this table
+     */
+    public static long keyOf(AbstractAction action, IActionKey actionKey) {
+        long key = Zobrist.key(actionKey == null ? action.hashCode() : actionKey.hash(action));
+        return key == 0 ? 1 : key;  // 0 marks an empty slot
+    }
+
+    public int nPlayers() {
+        return tables.length;
+    }
+
+    /**
+     * @return the index in the table of the slot for the key, or -1 if the key is absent (and create is false)
+     * or the table is full
+     */
+    private int find(AtomicLongArray table, long key, boolean create) {
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int index = 3 * slot;
+            long current = table.get(index);
+            if (current == key)
+                return index;
+            if (current == 0) {
+                if (!create)
+                    return -1;
+                if (table.compareAndSet(index, 0, key))
+                    return index;
+                // another thread has just claimed this slot; it may have been for the same key
+                if (table.get(index) == key)
+                    return index;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public void update(int player, long key, double value) {
+        AtomicLongArray table = tables[player];
+        int index = find(table, key, true);
+        if (index < 0)
+            return;
+        table.incrementAndGet(index + 1);
+        long oldBits, newBits;
+        do {
+            oldBits = table.get(index + 2);
+            newBits = Double.doubleToRawLongBits(Double.longBitsToDouble(oldBits) + value);
+        } while (!table.compareAndSet(index + 2, oldBits, newBits));
+    }
+
+    public int getVisits(int player, long key) {
+        int index = find(tables[player], key, false);
+        return index < 0 ? 0 : (int) tables[player].get(index + 1);
+    }
+
+    public double getTotalValue(int player, long key) {
+        int index = find(tables[player], key, false);
+        return index < 0 ? 0.0 : Double.longBitsToDouble(tables[player].get(index + 2));
+    }
+
+    /**
+     * @return the mean value of the action, or defaultValue if it has no visits
+     */
+    public double getMean(int player, long key, double defaultValue) {
+        AtomicLongArray table = tables[player];
+        int index = find(table, key, false);
+        if (index < 0)
+            return defaultValue;
+        long visits = table.get(index + 1);
+        return visits > 0 ? Double.longBitsToDouble(table.get(index + 2)) / visits : defaultValue;
+    }
+
+    /**
+     * Reduces the visits for every action by a factor of gamma (as Utils.decay() does), keeping the same mean.
+     * This is used between moves, and should not be called while a search is updating the table.
+     */
+    public void decay(double gamma) {
+        if (gamma >= 1.0 || gamma < 0.0)
+            return;
+        for (AtomicLongArray table : tables) {
+            for (int index = 0; index < table.length(); index += 3) {
+                long oldCount = table.get(index + 1);
+                if (oldCount == 0)
+                    continue;
+                long newCount = (long) (oldCount * gamma);
+                double newValue = Double.longBitsToDouble(table.get(index + 2)) * newCount / oldCount;
+                table.set(index + 1, newCount);
+                table.set(index + 2, Double.doubleToRawLongBits(newValue));
+            }
+        }
+    }
+
+    public void clear() {
+        for (AtomicLongArray table : tables)
+            for (int i = 0; i < table.length(); i++)
+                table.set(i, 0);
+    }
+}
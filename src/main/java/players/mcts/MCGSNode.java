@@ -2,13 +2,17 @@ package players.mcts;
 
 import core.AbstractGameState;
 import core.actions.AbstractAction;
+import utilities.LongHashMap;
 
 import java.util.*;
 
 public class MCGSNode extends SingleTreeNode {
 
-    private final Map<String, MCGSNode> transpositionMap = new HashMap<>();
-    public List<String> trajectory = new ArrayList<>();
+    // keyed on params.MCGSStateKey.getLongKey(), so that we do not need to box keys (or build Strings) on each step
+    private final LongHashMap<MCGSNode> transpositionMap = new LongHashMap<>();
+    // the keys of the states passed through in the tree on this iteration
+    private long[] trajectory = new long[16];
+    private int trajectoryLength;
 
     protected MCGSNode() {
     }
@@ -21,7 +25,7 @@ public class MCGSNode extends SingleTreeNode {
     }
 
     private void addToTranspositionTable(MCGSNode node, AbstractGameState keyState) {
-        String key = params.MCGSStateKey.getKey(keyState);
+        long key = params.MCGSStateKey.getLongKey(keyState);
         MCGSNode graphRoot = (MCGSNode) root;
         if (graphRoot.transpositionMap.containsKey(key)) {
             throw new AssertionError("Unexpected?");
@@ -42,7 +46,7 @@ public class MCGSNode extends SingleTreeNode {
         // we create the new node here; so that the backup does not create new nodes (which is in line with the main MCTS algorithm).
         // this enforces (for the moment) the rule that each iteration adds one new node.
         MCGSNode graphRoot = (MCGSNode) root;
-        String key = params.MCGSStateKey.getKey(nextState);
+        long key = params.MCGSStateKey.getLongKey(nextState);
         if (graphRoot.transpositionMap.containsKey(key)) {
             if (params.MCGSExpandAfterClash) {
                 throw new AssertionError("Unexpected?");
@@ -58,7 +62,7 @@ public class MCGSNode extends SingleTreeNode {
     @Override
     protected SingleTreeNode nextNodeInTree(AbstractAction actionChosen) {
         // we look up the node in the transposition table using the feature vector for the openLoopState
-        String key = params.MCGSStateKey.getKey(openLoopState);
+        long key = params.MCGSStateKey.getLongKey(openLoopState);
         MCGSNode nextNode = ((MCGSNode) root).transpositionMap.get(key);
 
         if (nextNode != null) {
@@ -82,8 +86,10 @@ public class MCGSNode extends SingleTreeNode {
             // We only track this while in the tree (we could do the rollout as well, but at the overhead
             // of featureVector calculations
             MCGSNode mcgsRoot = (MCGSNode) root;
-            String key = params.MCGSStateKey.getKey(gs);
-            mcgsRoot.trajectory.add(key);
+            long key = params.MCGSStateKey.getLongKey(gs);
+            if (mcgsRoot.trajectoryLength == mcgsRoot.trajectory.length)
+                mcgsRoot.trajectory = Arrays.copyOf(mcgsRoot.trajectory, mcgsRoot.trajectoryLength * 2);
+            mcgsRoot.trajectory[mcgsRoot.trajectoryLength++] = key;
 //            System.out.println("Adding to trajectory: " + key);
         }
         super.advanceState(gs, act, inRollout);
@@ -100,13 +106,13 @@ public class MCGSNode extends SingleTreeNode {
         double[] result = processResultsForParanoidOrSelfOnly(delta);
         MCGSNode nRoot = (MCGSNode) root;
         // trajectory is the sequence of state representations that we have passed through
-        if (nRoot.trajectory.size() != nRoot.actionsInTree.size()) {
+        if (nRoot.trajectoryLength != nRoot.actionsInTree.size()) {
             throw new AssertionError("Trajectory and actionsInTree should be the same size " +
-                    nRoot.trajectory.size() + " != " + nRoot.actionsInTree.size());
+                    nRoot.trajectoryLength + " != " + nRoot.actionsInTree.size());
         }
 
-        for (int i = 0; i < nRoot.trajectory.size(); i++) {
-            String key = nRoot.trajectory.get(i);
+        for (int i = 0; i < nRoot.trajectoryLength; i++) {
+            long key = nRoot.trajectory[i];
             MCGSNode node = nRoot.transpositionMap.get(key);
             AbstractAction action = nRoot.actionsInTree.get(i).b;
             if (node == null) {
@@ -114,11 +120,14 @@ public class MCGSNode extends SingleTreeNode {
             }
             node.backUpSingleNode(action, result);
         }
-        nRoot.trajectory.clear();
+        nRoot.trajectoryLength = 0;
     }
 
-    public Map<String, MCGSNode> getTranspositionMap() {
-        return new HashMap<>(transpositionMap);
+    public Map<Long, MCGSNode> getTranspositionMap() {
+        Map<Long, MCGSNode> retValue = new HashMap<>();
+        for (long key : transpositionMap.keys())
+            retValue.put(key, transpositionMap.get(key));
+        return retValue;
     }
 
 }
@@ -28,6 +28,12 @@ public class MCTSEnums {
         DEFAULT, END_TURN, START_TURN, END_ROUND;
     }
 
+    public enum ParallelMode {
+        NONE, ROOT, TREE
+        // ROOT builds one independent tree per worker, and merges the root statistics
+        // TREE has all workers share one tree, using virtual loss to spread them across it
+    }
+
     public enum OpponentTreePolicy {
         SelfOnly(true), OneTree(false),
         MultiTree(true),
@@ -27,7 +27,8 @@ public class MCTSMetrics implements IMetricsCollection {
                             .findFirst().orElse(null);
                 }
                 if (root == null) return false;
-                TreeStatistics treeStats = new TreeStatistics(root);
+                // for root-parallel search the shape of the first worker's tree is representative of them all
+                TreeStatistics treeStats = new TreeStatistics(root instanceof RootParallelNode ? ((RootParallelNode) root).getRoot(0) : root);
                 int visits = root.getVisits();
                 if (visits == 0) visits = 1;
                 records.put("PlayerType", mctsPlayer.toString());
@@ -83,6 +84,111 @@ public class MCTSMetrics implements IMetricsCollection {
     }
 
 
+    /**
+     * The cost of each phase of a search iteration (see SearchProfile), for players with a profileInterval set.
+     * Times are the mean per iteration in microseconds, and Share is the proportion of the iteration time.
+     */
+    public static class SearchProfileStats extends AbstractMetric {
+
+        @Override
+        protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
+            AbstractPlayer player = listener.getGame().getPlayers().get(e.state.getCurrentPlayer());
+            if (player instanceof MCTSPlayer) {
+                MCTSPlayer mctsPlayer = (MCTSPlayer) player;
+                if (mctsPlayer.root == null || mctsPlayer.root.profile == null || mctsPlayer.root.profile.getSamples() == 0)
+                    return false;
+                SearchProfile profile = mctsPlayer.root.profile;
+                records.put("PlayerType", mctsPlayer.toString());
+                records.put("PlayerID", e.state.getCurrentPlayer());
+                records.put("Iterations", profile.getIterations());
+                records.put("Samples", profile.getSamples());
+                for (SearchProfile.Phase phase : SearchProfile.Phase.values()) {
+                    String name = columnName(phase);
+                    records.put(name + "Time", profile.getMeanNanos(phase) / 1e3);
+                    records.put(name + "Share", profile.getTimeShare(phase));
+                    records.put(name + "Bytes", profile.getMeanBytes(phase));
+                    records.put(name + "FMCalls", profile.getMeanFMCalls(phase));
+                    records.put(name + "Copies", profile.getMeanCopies(phase));
+                }
+                return true;
+            }
+            return false;
+        }
+
+        private static String columnName(SearchProfile.Phase phase) {
+            return phase.name().charAt(0) + phase.name().substring(1).toLowerCase();
+        }
+
+        @Override
+        public Set<IGameEvent> getDefaultEventTypes() {
+            return new HashSet<>(Collections.singletonList(Event.GameEvent.ACTION_CHOSEN));
+        }
+
+        @Override
+        public Map<String, Class<?>> getColumns(int nPlayersPerGame, Set<String> playerNames) {
+            Map<String, Class<?>> cols = new HashMap<>();
+            cols.put("PlayerType", String.class);
+            cols.put("PlayerID", Integer.class);
+            cols.put("Iterations", Integer.class);
+            cols.put("Samples", Integer.class);
+            for (SearchProfile.Phase phase : SearchProfile.Phase.values()) {
+                String name = columnName(phase);
+                cols.put(name + "Time", Double.class);
+                cols.put(name + "Share", Double.class);
+                cols.put(name + "Bytes", Double.class);
+                cols.put(name + "FMCalls", Double.class);
+                cols.put(name + "Copies", Double.class);
+            }
+            return cols;
+        }
+    }
+
+
+    /**
+     * The use of the NodePool, for players with poolNodes set: the nodes in the tree and free in the pool,
+     * the occupancy of the pool (the proportion of its nodes in the tree), and how many of the nodes created
+     * in the last search were recycled from the pool.
+     */
+    public static class NodePoolStats extends AbstractMetric {
+
+        @Override
+        protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
+            AbstractPlayer player = listener.getGame().getPlayers().get(e.state.getCurrentPlayer());
+            if (player instanceof MCTSPlayer && ((MCTSPlayer) player).nodePool != null) {
+                MCTSPlayer mctsPlayer = (MCTSPlayer) player;
+                NodePool pool = mctsPlayer.nodePool;
+                records.put("PlayerType", mctsPlayer.toString());
+                records.put("PlayerID", e.state.getCurrentPlayer());
+                records.put("NodesInUse", pool.getNodesInUse());
+                records.put("FreeNodes", pool.getFreeNodes());
+                records.put("Occupancy", pool.getOccupancy());
+                records.put("NodesFromPool", pool.getNodesFromPool());
+                records.put("NewNodes", pool.getNewNodes());
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Set<IGameEvent> getDefaultEventTypes() {
+            return new HashSet<>(Collections.singletonList(Event.GameEvent.ACTION_CHOSEN));
+        }
+
+        @Override
+        public Map<String, Class<?>> getColumns(int nPlayersPerGame, Set<String> playerNames) {
+            Map<String, Class<?>> cols = new HashMap<>();
+            cols.put("PlayerType", String.class);
+            cols.put("PlayerID", Integer.class);
+            cols.put("NodesInUse", Integer.class);
+            cols.put("FreeNodes", Integer.class);
+            cols.put("Occupancy", Double.class);
+            cols.put("NodesFromPool", Integer.class);
+            cols.put("NewNodes", Integer.class);
+            return cols;
+        }
+    }
+
+
     public static class MultiTreeStats extends AbstractMetric {
 
         @Override
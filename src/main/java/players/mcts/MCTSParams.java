@@ -22,7 +22,7 @@ import static players.mcts.MCTSEnums.SelectionPolicy.SIMPLE;
 import static players.mcts.MCTSEnums.Strategies.*;
 import static players.mcts.MCTSEnums.TreePolicy.*;
 
-public class MCTSParams extends PlayerParameters {
+public class MCTSParams extends PlayerParameters implements Cloneable {
 
     public double K = Math.sqrt(2);
     public int rolloutLength = 10; // assuming we have a good heuristic
@@ -63,6 +63,16 @@ public class MCTSParams extends PlayerParameters {
     public boolean MCGSExpandAfterClash = true;
     public double MASTDefaultValue = 0.0;
     public double firstPlayUrgency = 1000000000.0;
+    public MCTSEnums.ParallelMode parallelMode = MCTSEnums.ParallelMode.NONE;
+    public int parallelWorkers = 1;
+    public int virtualLoss = 1;  // the number of losing visits added to each node on a path while a TREE worker is using it
+    public boolean arrayNodes = false;  // keep the action statistics in each node in primitive arrays (see ArrayTreeNode)
+    public boolean undoRollouts = false;  // in Closed_Loop, roll out on the node state and undo afterwards instead of copying it
+    public boolean reuseTree = false;  // start each search from the subtree reached by the actions taken since the last one
+    public boolean poolNodes = false;  // recycle the nodes of each tree for the next search (see NodePool)
+    public boolean ponder = false;  // search in the background while the other players decide (implies reuseTree)
+    public double ponderTopUp = 0.1;  // the fraction of the budget for a decision that starts from a pondered subtree
+    public int profileInterval = 0;  // profile one search iteration in every profileInterval (see SearchProfile); 0 is off
 
     public MCTSParams() {
         addTunableParameter("K", Math.sqrt(2), Arrays.asList(0.0, 0.1, 1.0, Math.sqrt(2), 3.0, 10.0));
@@ -106,6 +116,16 @@ public class MCTSParams extends PlayerParameters {
         addTunableParameter("MCGSStateKey", IStateKey.class);
         addTunableParameter("MCGSExpandAfterClash", true);
         addTunableParameter("FPU", 1000000000.0);
+        addTunableParameter("parallelMode", MCTSEnums.ParallelMode.NONE, Arrays.asList(MCTSEnums.ParallelMode.values()));
+        addTunableParameter("parallelWorkers", 1);
+        addTunableParameter("virtualLoss", 1, Arrays.asList(0, 1, 3, 10));
+        addTunableParameter("arrayNodes", false);
+        addTunableParameter("undoRollouts", false);
+        addTunableParameter("reuseTree", false);
+        addTunableParameter("poolNodes", false);
+        addTunableParameter("ponder", false);
+        addTunableParameter("ponderTopUp", 0.1, Arrays.asList(0.0, 0.1, 0.3, 1.0));
+        addTunableParameter("profileInterval", 0);
     }
 
     @Override
@@ -164,6 +184,16 @@ public class MCTSParams extends PlayerParameters {
         opponentModelParams = (TunableParameters) getParameterValue("opponentModelParams");
         // we then null those elements of params which are constructed (lazily) from the above
         firstPlayUrgency = (double) getParameterValue("FPU");
+        parallelMode = (MCTSEnums.ParallelMode) getParameterValue("parallelMode");
+        parallelWorkers = (int) getParameterValue("parallelWorkers");
+        virtualLoss = (int) getParameterValue("virtualLoss");
+        arrayNodes = (boolean) getParameterValue("arrayNodes");
+        undoRollouts = (boolean) getParameterValue("undoRollouts");
+        reuseTree = (boolean) getParameterValue("reuseTree");
+        poolNodes = (boolean) getParameterValue("poolNodes");
+        ponder = (boolean) getParameterValue("ponder");
+        ponderTopUp = (double) getParameterValue("ponderTopUp");
+        profileInterval = (int) getParameterValue("profileInterval");
         opponentModel = null;
         rolloutPolicy = null;
     }
@@ -176,6 +206,28 @@ public class MCTSParams extends PlayerParameters {
         return new MCTSParams();
     }
 
+    /**
+     * Each worker in a parallel search needs its own rollout policy and opponent model, as these hold a Random
+     * (and possibly other state). Unlike copy(), this keeps every other setting exactly as it is on this object,
+     * including any that have been set directly on the fields rather than via setParameterValue().
+     *
+     * @param seed the random seed for the worker
+     * @return parameters for a worker that runs a single-threaded search
+     */
+    public MCTSParams workerCopy(long seed) {
+        try {
+            MCTSParams retValue = (MCTSParams) clone();
+            retValue.setRandomSeed(seed);
+            retValue.parallelMode = MCTSEnums.ParallelMode.NONE;
+            retValue.parallelWorkers = 1;
+            retValue.rolloutPolicy = null;
+            retValue.opponentModel = null;
+            return retValue;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError("MCTSParams should be Cloneable", e);
+        }
+    }
+
     public AbstractPlayer getOpponentModel() {
         if (opponentModel == null) {
             if (oppModelType == PARAMS)
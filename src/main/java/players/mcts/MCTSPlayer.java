@@ -8,27 +8,44 @@ import core.interfaces.IActionHeuristic;
 import evaluation.listeners.IGameListener;
 import core.interfaces.IStateHeuristic;
 import evaluation.metrics.Event;
-import players.IAnyTimePlayer;
-import utilities.Pair;
-import utilities.Utils;
+import players.IPonderingPlayer;
+import players.Ponderer;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 import static players.mcts.MCTSEnums.OpponentTreePolicy.*;
 import static players.mcts.MCTSEnums.OpponentTreePolicy.MultiTree;
+import static players.mcts.MCTSEnums.ParallelMode.ROOT;
+import static players.mcts.MCTSEnums.ParallelMode.TREE;
 
-public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
+public class MCTSPlayer extends AbstractPlayer implements IPonderingPlayer {
 
     // Random object for this player
     protected Random rnd;
     // Heuristics used for the agent
     protected boolean debug = false;
     protected SingleTreeNode root;
-    List<Map<Object, Pair<Integer, Double>>> MASTStats;
+    MASTTable MASTStats;
+    // Single-threaded copies of this player used to run a parallel search, and the threads they run on
+    MCTSPlayer[] workers;
+    ExecutorService workerThreads;
+    // For tree reuse: the root of the last search, and the length of the game history when it was made
+    SingleTreeNode lastSearchRoot;
+    int lastSearchHistory;
+    boolean rootReused;
+    // if params.poolNodes is true, the nodes of each tree are recycled for the next
+    NodePool nodePool;
+    // runs the search while other players decide, if params.ponder is true
+    private final Ponderer ponderer = new Ponderer("MCTS ponder");
+    // true if lastSearchRoot was built by pondering since our last decision
+    private boolean pondered;
 
     public MCTSPlayer() {
         this(new MCTSParams());
@@ -60,7 +77,11 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
         }
         if (getParameters().advantageFunction instanceof AbstractPlayer)
             ((AbstractPlayer) getParameters().advantageFunction).initializePlayer(state);
+        ponderer.stop();
+        pondered = false;
         MASTStats = null;
+        workers = null;
+        lastSearchRoot = null;
         getParameters().getRolloutStrategy().initializePlayer(state);
         getParameters().getOpponentModel().initializePlayer(state);
     }
@@ -76,6 +97,8 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
                 return new OMATreeNode();
             else if (getParameters().opponentTreePolicy == MCGS || getParameters().opponentTreePolicy == MCGSSelfOnly)
                 return new MCGSNode();
+            else if (getParameters().arrayNodes)
+                return new ArrayTreeNode();
             else
                 return new SingleTreeNode();
         };
@@ -89,16 +112,39 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
     }
 
 
-    private void createRootNode(AbstractGameState gameState) {
-        if (getParameters().opponentTreePolicy == MultiTree)
-            root = new MultiTreeNode(this, gameState, rnd);
-        else
-            root = SingleTreeNode.createRootNode(this, gameState, rnd, getFactory());
+    /**
+     * The MAST statistics are kept for the whole of a game, rather than recreated for each decision
+     * (they are decayed by MASTGamma once for each of our decisions, but not when pondering starts).
+     */
+    MASTTable getMASTStatistics(int nPlayers) {
+        if (MASTStats == null || MASTStats.nPlayers() != nPlayers)
+            MASTStats = new MASTTable(nPlayers);
+        return MASTStats;
+    }
 
-        if (MASTStats != null)
-            root.MASTStatistics = MASTStats.stream()
-                    .map(m -> Utils.decay(m, getParameters().MASTGamma))
-                    .collect(Collectors.toList());
+    void createRootNode(AbstractGameState gameState) {
+        SingleTreeNode reusable = getParameters().reuseTree || getParameters().ponder ? reusableNode(gameState) : null;
+        rootReused = reusable != null;
+        if (rootReused)
+            reusable.reRoot(gameState, lastSearchRoot);
+        if (usePool()) {
+            if (nodePool == null)
+                nodePool = new NodePool();
+            // the tree from our last decision is finished with, apart from any subtree we are reusing
+            nodePool.release(lastSearchRoot != null ? lastSearchRoot : root, reusable);
+            lastSearchRoot = null;
+        } else {
+            nodePool = null;
+        }
+        if (rootReused)
+            root = reusable;
+        else if (getParameters().opponentTreePolicy == MultiTree)
+            root = new MultiTreeNode(this, gameState, rnd);
+        else if (getParameters().parallelMode == ROOT && getParameters().parallelWorkers > 1) {
+            MCTSPlayer[] rootWorkers = getWorkers(gameState);
+            root = SingleTreeNode.createRootNode(this, gameState, rnd, () -> new RootParallelNode(this, rootWorkers));
+        } else
+            root = SingleTreeNode.createRootNode(this, gameState, rnd, nodePool == null ? getFactory() : nodePool.factory(getFactory()));
 
         if (getParameters().getRolloutStrategy() instanceof IMASTUser) {
             ((IMASTUser) getParameters().getRolloutStrategy()).setStats(root.MASTStatistics);
@@ -108,11 +154,96 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
         }
     }
 
+    /**
+     * Nodes are pooled only for a single-threaded search of a single tree (so not for MultiTree or MCGS, where nodes
+     * are shared between trees or paths). Each worker in a root-parallel search has its own pool.
+     */
+    private boolean usePool() {
+        MCTSParams params = getParameters();
+        return params.poolNodes && params.opponentTreePolicy != MultiTree && params.opponentTreePolicy != MCGS
+                && params.opponentTreePolicy != MCGSSelfOnly && (params.parallelMode == MCTSEnums.ParallelMode.NONE || params.parallelWorkers <= 1);
+    }
+
+    /**
+     * For tree reuse, this finds the node in the tree from our last search that is reached by the actions taken
+     * since then (ours, and those of the other players), so that its statistics can be kept.
+     * This returns null if there is no such node, and a new tree is then started. This is always the case for
+     * MultiTree, MCGS, OMA, SelfOnly and root-parallel searches; in competition mode (when there is no history);
+     * and in Closed_Loop unless the state in the node is the same as the actual state (it will not be if
+     * the game is stochastic and the dice fell differently, or if there is hidden information).
+     */
+    private SingleTreeNode reusableNode(AbstractGameState gameState) {
+        MCTSParams params = getParameters();
+        if (lastSearchRoot == null || params.opponentTreePolicy != OneTree
+                || (params.parallelMode == ROOT && params.parallelWorkers > 1))
+            return null;
+        List<AbstractAction> history = gameState.getHistory();
+        if (history.size() <= lastSearchHistory)
+            return null;
+        SingleTreeNode node = lastSearchRoot.descendant(history.subList(lastSearchHistory, history.size()), gameState.getCurrentPlayer());
+        if (node == null || node.decisionPlayer != gameState.getCurrentPlayer())
+            return null;
+        if (params.information == MCTSEnums.Information.Closed_Loop && !gameState.equals(node.state))
+            return null;
+        return node;
+    }
+
+    /**
+     * Pondering needs tree reuse (the decision starts from the subtree that the pondering has built), so it is
+     * available in the same cases.
+     */
+    @Override
+    public boolean ponders() {
+        MCTSParams params = getParameters();
+        return params.ponder && params.opponentTreePolicy == OneTree
+                && !(params.parallelMode == ROOT && params.parallelWorkers > 1);
+    }
+
+    /**
+     * The subtree to reuse is found from the actions in the history, so in competition mode (where there is no
+     * history) nothing could be reused, and Game does not ask us to ponder.
+     */
+    @Override
+    public boolean pondersFromHistory() {
+        return true;
+    }
+
+    /**
+     * Searches from the observation on the ponder thread until stopped (or out of CPU time), with no budget, so that
+     * the search carries on for as long as the other players take. The tree is then used as the last search for tree
+     * reuse, so that the next search (pondering, or our decision) starts from the relevant subtree; a decision that
+     * does so only tops up the search, with ponderTopUp of the budget.
+     */
+    @Override
+    public void startPondering(AbstractGameState observation, long cpuLimitNanos) {
+        ponderer.start(() -> {
+            createRootNode(observation);
+            root.observingPlayer = getPlayerID();
+            root.mctsSearch(ponderer::shouldStop);
+            lastSearchRoot = root;
+            lastSearchHistory = observation.getHistory().size();
+            root = null;
+            pondered = true;
+        }, cpuLimitNanos);
+    }
+
+    @Override
+    public long stopPondering() {
+        return ponderer.stop();
+    }
+
     @Override
     public AbstractAction _getAction(AbstractGameState gameState, List<AbstractAction> actions) {
+        if (MASTStats != null)
+            MASTStats.decay(getParameters().MASTGamma);
         // Search for best action from the root
         createRootNode(gameState);
-        root.mctsSearch();
+        root.budgetFraction = pondered && rootReused ? getParameters().ponderTopUp : 1.0;
+        pondered = false;
+        if (getParameters().parallelMode == TREE && getParameters().parallelWorkers > 1 && !(root instanceof MultiTreeNode))
+            new TreeParallelSearch(this, root, getWorkers(gameState)).run();
+        else
+            root.mctsSearch();
 
         if (getParameters().advantageFunction instanceof ITreeProcessor)
             ((ITreeProcessor) getParameters().advantageFunction).process(root);
@@ -126,13 +257,56 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
         if (debug)
             System.out.println(root.toString());
 
-        MASTStats = root.MASTStatistics;
-
-        if (!(root instanceof MCGSNode) && root.children.size() > 2 * actions.size() && !getParameters().actionSpace.equals(gameState.getCoreGameParameters().actionSpace))
+        // (a reused root will have seen all the actions available in the determinisations of the last search)
+        if (!(root instanceof MCGSNode) && !rootReused && root.children.size() > 2 * actions.size() && !getParameters().actionSpace.equals(gameState.getCoreGameParameters().actionSpace))
             throw new AssertionError(String.format("Unexpectedly large number of children: %d with action size of %d", root.children.size(), actions.size()));
+        lastSearchRoot = root;
+        lastSearchHistory = gameState.getHistory().size();
         return root.bestAction();
     }
 
+    /**
+     * The workers are created once per game (and on first use). Each has its own seed, and hence its own rollout
+     * policy and opponent model, but otherwise uses exactly the same parameters as this player.
+     */
+    MCTSPlayer[] getWorkers(AbstractGameState state) {
+        if (workers == null || workers.length != getParameters().parallelWorkers) {
+            workers = new MCTSPlayer[getParameters().parallelWorkers];
+            for (int i = 0; i < workers.length; i++) {
+                MCTSPlayer worker = new MCTSPlayer(getParameters().workerCopy(getParameters().getRandomSeed() + i + 1), toString() + "_" + i);
+                // our forward model already has any decorators applied (for the correct player id), so the
+                // worker must not wrap it again. Forward models should be stateless, so we can share it.
+                worker.clearDecorators();
+                worker.setForwardModel(getForwardModel());
+                worker.initializePlayer(state);
+                workers[i] = worker;
+            }
+        }
+        return workers;
+    }
+
+    /**
+     * Runs the tasks on the worker threads, and waits for all of them to finish
+     */
+    void runOnWorkers(List<Runnable> tasks) {
+        if (workerThreads == null) {
+            workerThreads = Executors.newFixedThreadPool(getParameters().parallelWorkers, r -> {
+                Thread t = new Thread(r, "MCTS worker");
+                t.setDaemon(true);  // so that we never prevent the JVM from exiting
+                return t;
+            });
+        }
+        List<Future<?>> results = new ArrayList<>();
+        for (Runnable task : tasks)
+            results.add(workerThreads.submit(task));
+        try {
+            for (Future<?> result : results)
+                result.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error in parallel MCTS worker", e);
+        }
+    }
+
     @Override
     public void finalizePlayer(AbstractGameState state) {
         getParameters().getRolloutStrategy().onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
@@ -141,7 +315,12 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
             ((IGameListener) getParameters().heuristic).onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
         if (getParameters().advantageFunction instanceof IGameListener)
             ((IGameListener) getParameters().advantageFunction).onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
-
+        // a new pool is created if we are used for another game (tournaments use a new copy of the player for each)
+        if (workerThreads != null) {
+            workerThreads.shutdown();
+            workerThreads = null;
+        }
+        ponderer.shutdown();
     }
 
     @Override
@@ -155,6 +334,7 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
     @Override
     public void setForwardModel(AbstractForwardModel model) {
         super.setForwardModel(model);
+        workers = null;
         if (getParameters().getRolloutStrategy() != null)
             getParameters().getRolloutStrategy().setForwardModel(model);
         if (getParameters().getOpponentModel() != null)
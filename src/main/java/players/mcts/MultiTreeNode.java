@@ -3,12 +3,9 @@ package players.mcts;
 import core.AbstractGameState;
 import core.AbstractPlayer;
 import core.actions.AbstractAction;
-import utilities.Pair;
-import utilities.Utils;
 
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * MultiTreeNode is really a wrapper for SingleTreeNode when we are using MultiTree MCTS.
@@ -39,16 +36,11 @@ public class MultiTreeNode extends SingleTreeNode {
         this.rnd = rnd;
         mctsPlayer = player;
         // only root node maintains MAST statistics
-        MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < state.getNPlayers(); i++)
-            MASTStatistics.add(new HashMap<>());
+        MASTStatistics = player.getMASTStatistics(state.getNPlayers());
         MASTFunction = (a, s) -> {
-            Map<Object, Pair<Integer, Double>> MAST = MASTStatistics.get(decisionPlayer);
-            if (MAST.containsKey(a)) {
-                Pair<Integer, Double> stats = MAST.get(a);
-                return stats.b / (stats.a + params.noiseEpsilon);
-            }
-            return 0.0;
+            long key = MASTTable.keyOf(a, params.MASTActionKey);
+            int visits = MASTStatistics.getVisits(decisionPlayer, key);
+            return visits > 0 ? MASTStatistics.getTotalValue(decisionPlayer, key) / (visits + params.noiseEpsilon) : 0.0;
         };
         instantiate(null, null, state);
 
@@ -72,8 +64,7 @@ public class MultiTreeNode extends SingleTreeNode {
         AbstractGameState currentState = this.openLoopState;  // this will have been set correctly before calling this method
         SingleTreeNode currentNode;
 
-        double[] startingValues = IntStream.range(0, openLoopState.getNPlayers())
-                .mapToDouble(i -> params.heuristic.evaluateState(currentState, i)).toArray();
+        double[] startingValues = params.heuristic.evaluateAllPlayers(currentState);
 
         if (!currentState.isNotTerminal())
             return;
@@ -139,10 +130,12 @@ public class MultiTreeNode extends SingleTreeNode {
                         (maxDepthReached[decisionPlayer] || nodeExpanded[decisionPlayer] || !currentState.isNotTerminalForPlayer(decisionPlayer))));
 
         // Evaluate final state and return normalised score
-        double[] finalValues = new double[state.getNPlayers()];
+        double[] finalValues = params.heuristic.evaluateAllPlayers(currentState);
 
-        for (int i = 0; i < finalValues.length; i++) {
-            finalValues[i] = params.heuristic.evaluateState(currentState, i) - (params.nodesStoreScoreDelta ? startingValues[i] : 0);
+        if (params.nodesStoreScoreDelta) {
+            for (int i = 0; i < finalValues.length; i++) {
+                finalValues[i] -= startingValues[i];
+            }
         }
         for (int p = 0; p < roots.length; p++) {
             if (currentLocation[p] != null) { // the currentLocation will be null if the player has not acted at all (if, say they have been eliminated)
@@ -184,6 +177,13 @@ public class MultiTreeNode extends SingleTreeNode {
 
     }
 
+    @Override
+    protected void searchComplete() {
+        for (SingleTreeNode playerRoot : roots)
+            if (playerRoot != null)
+                playerRoot.searchComplete();
+    }
+
     @Override
     public AbstractAction bestAction() {
         return roots[decisionPlayer].bestAction();
@@ -0,0 +1,134 @@
+package players.mcts;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.function.Supplier;
+
+/**
+ * A pool of tree nodes, and of the ActionStats and child arrays that they hold, kept by an MCTSPlayer for the whole
+ * of a game when MCTSParams.poolNodes is true. When a search starts, every node of the previous tree (other than a
+ * subtree that is being reused) is recycled into the pool, and nodes are then taken from the pool rather than
+ * allocated. Once the pool has grown to the size of the largest tree, a search allocates very little for the tree
+ * itself, and the nodes (which live for the length of a search, and so tend to be promoted out of the young
+ * generation) are no longer garbage.
+ * <p>
+ * The entries of the HashMaps in each node, and the action copies used as keys, are still allocated as before.
+ * Only nodes of class SingleTreeNode or ArrayTreeNode are recycled (they know how to reset themselves); any others
+ * are simply left for the garbage collector. The pool is not thread-safe, so is only used by a single-threaded search
+ * (each worker in a root-parallel search has its own).
+ * <p>
+ * The tree from the last decision is valid until the next search starts. Nothing may keep a reference to a node
+ * after that.
+ */
+public class NodePool {
+
+    private final ArrayDeque<SingleTreeNode> freeNodes = new ArrayDeque<>();
+    private final ArrayDeque<ActionStats> freeStats = new ArrayDeque<>();
+    private final ArrayDeque<SingleTreeNode[]> freeArrays = new ArrayDeque<>();
+    private Class<?> nodeClass;  // the class of the nodes made by the factory
+    private int nodesInUse, nodesFromPool, newNodes;
+
+    /**
+     * @return a factory that takes nodes from the pool, and uses the underlying factory when the pool is empty
+     */
+    Supplier<SingleTreeNode> factory(Supplier<? extends SingleTreeNode> underlying) {
+        return () -> {
+            nodesInUse++;
+            SingleTreeNode node = freeNodes.pollLast();
+            if (node != null) {
+                nodesFromPool++;
+                return node;
+            }
+            newNodes++;
+            node = underlying.get();
+            if (nodeClass == null)
+                nodeClass = node.getClass();
+            return node;
+        };
+    }
+
+    ActionStats actionStats(int nPlayers) {
+        ActionStats stats = freeStats.pollLast();
+        if (stats == null || stats.totValue.length != nPlayers)
+            return new ActionStats(nPlayers);
+        stats.reset();
+        return stats;
+    }
+
+    SingleTreeNode[] nodeArray(int nPlayers) {
+        SingleTreeNode[] array = freeArrays.pollLast();
+        return array == null || array.length != nPlayers ? new SingleTreeNode[nPlayers] : array;
+    }
+
+    void release(ActionStats stats) {
+        freeStats.add(stats);
+    }
+
+    void release(SingleTreeNode[] array) {
+        Arrays.fill(array, null);
+        freeArrays.add(array);
+    }
+
+    /**
+     * Recycles all the nodes in the tree from root, except for those in the subtree from keep (which may be null),
+     * and resets the counts for the new search.
+     */
+    void release(SingleTreeNode root, SingleTreeNode keep) {
+        nodesFromPool = 0;
+        newNodes = 0;
+        if (root == null || root == keep)
+            return;
+        boolean recyclable = nodeClass == SingleTreeNode.class || nodeClass == ArrayTreeNode.class;
+        Queue<SingleTreeNode> queue = new ArrayDeque<>();
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            SingleTreeNode node = queue.poll();
+            for (SingleTreeNode[] children : node.children.values()) {
+                if (children == null)
+                    continue;
+                for (SingleTreeNode child : children)
+                    if (child != null && child != keep)
+                        queue.add(child);
+            }
+            nodesInUse--;
+            if (recyclable && node.getClass() == nodeClass) {
+                node.recycle(this);
+                freeNodes.add(node);
+            }
+        }
+    }
+
+    /**
+     * @return the number of nodes in the current tree (that came from this pool)
+     */
+    public int getNodesInUse() {
+        return nodesInUse;
+    }
+
+    public int getFreeNodes() {
+        return freeNodes.size();
+    }
+
+    /**
+     * @return the proportion of the nodes held by the pool that are in the current tree
+     */
+    public double getOccupancy() {
+        int total = nodesInUse + freeNodes.size();
+        return total == 0 ? 0.0 : nodesInUse / (double) total;
+    }
+
+    /**
+     * @return the number of nodes in the current search that were taken from the pool
+     */
+    public int getNodesFromPool() {
+        return nodesFromPool;
+    }
+
+    /**
+     * @return the number of nodes in the current search that had to be newly allocated
+     */
+    public int getNewNodes() {
+        return newNodes;
+    }
+}
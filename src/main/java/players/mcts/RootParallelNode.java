@@ -0,0 +1,95 @@
+package players.mcts;
+
+import core.AbstractGameState;
+import core.actions.AbstractAction;
+import utilities.ElapsedWallTimer;
+
+import java.util.*;
+
+import static players.PlayerConstants.BUDGET_TIME;
+
+/**
+ * RootParallelNode is a wrapper for SingleTreeNode when we are using root-parallel MCTS.
+ * Each worker builds its own independent tree from a copy of the root state (on its own thread), and once they
+ * have all finished the statistics of the actions at each of their roots are summed into this node.
+ * bestAction() then works on these merged statistics exactly as it would on a single tree.
+ * <p>
+ * The budget is split evenly between the workers (except for a time budget, where each worker has the same deadline).
+ * Each worker has its own Random, so for a fixed seed and number of workers the result is reproducible.
+ * <p>
+ * Only the root node will be a RootParallelNode
+ */
+public class RootParallelNode extends SingleTreeNode {
+
+    MCTSPlayer mctsPlayer;
+    MCTSPlayer[] workers;
+
+    protected RootParallelNode(MCTSPlayer player, MCTSPlayer[] workers) {
+        this.mctsPlayer = player;
+        this.workers = workers;
+    }
+
+    @Override
+    public void mctsSearch() {
+        initialiseRoot();
+        ElapsedWallTimer elapsedTimer = new ElapsedWallTimer();
+        Random seeds = new Random(rnd.nextLong());
+
+        List<Runnable> searches = new ArrayList<>();
+        for (int w = 0; w < workers.length; w++) {
+            MCTSPlayer worker = workers[w];
+            MCTSParams workerParams = worker.getParameters();
+            workerParams.budget = budgetShare(w);
+            worker.rnd = new Random(seeds.nextLong());
+            // each worker gets its own copy of the state, and its own Random for the game
+            AbstractGameState workerState = state.copy();
+            workerState.setRnd(new Random(seeds.nextLong()));
+            copyCount++;
+            searches.add(() -> {
+                worker.createRootNode(workerState);
+                worker.root.mctsSearch();
+            });
+        }
+        mctsPlayer.runOnWorkers(searches);
+
+        profile = params.profileInterval > 0 ? new SearchProfile(this, params.profileInterval) : null;
+        for (MCTSPlayer worker : workers) {
+            SingleTreeNode workerRoot = worker.root;
+            if (profile != null && workerRoot.profile != null)
+                profile.merge(workerRoot.profile);
+            nVisits += workerRoot.nVisits;
+            fmCallsCount += workerRoot.fmCallsCount;
+            copyCount += workerRoot.copyCount;
+            rolloutActionsTaken += workerRoot.rolloutActionsTaken;
+            nodeClash += workerRoot.nodeClash;
+            lowReward = Math.min(lowReward, workerRoot.lowReward);
+            highReward = Math.max(highReward, workerRoot.highReward);
+            for (Map.Entry<AbstractAction, ActionStats> entry : workerRoot.actionValues.entrySet()) {
+                if (!actionValues.containsKey(entry.getKey()))
+                    actionValues.put(entry.getKey(), new ActionStats(state.getNPlayers()));
+                actionValues.get(entry.getKey()).merge(entry.getValue());
+            }
+        }
+        timeTaken = elapsedTimer.elapsedMillis();
+    }
+
+    /**
+     * The time budget is not shared out, as every worker searches for the same period in parallel.
+     * Any other budget is split evenly, with the remainder going to the lowest-numbered workers.
+     */
+    private int budgetShare(int worker) {
+        if (params.budgetType == BUDGET_TIME)
+            return params.budget;
+        int share = params.budget / workers.length;
+        return worker < params.budget % workers.length ? share + 1 : share;
+    }
+
+    public SingleTreeNode getRoot(int worker) {
+        return workers[worker].root;
+    }
+
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+}
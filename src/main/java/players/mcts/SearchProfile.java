@@ -0,0 +1,159 @@
+package players.mcts;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Profiles where the effort of an MCTS search goes. One search iteration in every MCTSParams.profileInterval
+ * is sampled, and for each phase of a sampled iteration the wall time, the memory allocated by the thread,
+ * and the number of forward model calls and state copies are added up. The phases are:
+ * <ul>
+ *     <li>SELECTION - treePolicy(), so selection and expansion down to the new node</li>
+ *     <li>ROLLOUT - the rollout from the new node (excluding the evaluation of the final state)</li>
+ *     <li>EVALUATION - the heuristic evaluation of the state at the start and the end of the iteration</li>
+ *     <li>BACKUP - backUp() and the MAST update</li>
+ * </ul>
+ * The sampling keeps the overhead low (reading the clock and the allocation counter costs
+ * tens of nanoseconds, which is not negligible for very fast games), while the means per iteration are still good
+ * enough to decide, for example, whether a shorter rollout would buy more iterations.
+ * <p>
+ * A profile is created on the root node for each search when profiling is switched on, and is reported via
+ * MCTSMetrics.SearchProfileStats. It is not thread-safe, and tree-parallel and multi-tree searches are not profiled.
+ * The allocation figures are zero if the JVM cannot measure them.
+ */
+public class SearchProfile {
+
+    public enum Phase {
+        SELECTION, ROLLOUT, EVALUATION, BACKUP
+    }
+
+    private static final com.sun.management.ThreadMXBean threadBean;
+
+    static {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            threadBean = (com.sun.management.ThreadMXBean) bean;
+            threadBean.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            threadBean = null;
+        }
+    }
+
+    private final SingleTreeNode root;
+    private final int interval;
+    private final int nPhases = Phase.values().length;
+    private final long[] nanos = new long[nPhases];
+    private final long[] bytes = new long[nPhases];
+    private final long[] fmCalls = new long[nPhases];
+    private final long[] copies = new long[nPhases];
+    private int iterations, samples;
+    private boolean sampling;
+    // the values at the end of the last lap
+    private long lastNanos, lastBytes;
+    private int lastFmCalls, lastCopies;
+
+    /**
+     * @param root     - the root of the search, which keeps the counts of forward model calls and copies
+     * @param interval - one iteration in every interval is sampled
+     */
+    SearchProfile(SingleTreeNode root, int interval) {
+        if (interval < 1)
+            throw new IllegalArgumentException("Profile interval must be positive");
+        this.root = root;
+        this.interval = interval;
+    }
+
+    /**
+     * Called at the start of each search iteration, to decide whether to sample it
+     */
+    void startIteration() {
+        sampling = iterations++ % interval == 0;
+        if (sampling) {
+            samples++;
+            lastFmCalls = root.fmCallsCount;
+            lastCopies = root.copyCount;
+            lastBytes = allocatedBytes();
+            lastNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Adds everything since the last lap (or the start of the iteration) to the phase, if this iteration is sampled
+     */
+    void lap(Phase phase) {
+        if (!sampling)
+            return;
+        long now = System.nanoTime();
+        long allocated = allocatedBytes();
+        int p = phase.ordinal();
+        nanos[p] += now - lastNanos;
+        bytes[p] += allocated - lastBytes;
+        fmCalls[p] += root.fmCallsCount - lastFmCalls;
+        copies[p] += root.copyCount - lastCopies;
+        lastFmCalls = root.fmCallsCount;
+        lastCopies = root.copyCount;
+        lastBytes = allocatedBytes();  // so that the (small) allocation by the clock calls is not counted
+        lastNanos = System.nanoTime();
+    }
+
+    private static long allocatedBytes() {
+        return threadBean == null ? 0 : threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Adds the samples from another profile (e.g. from one of the workers in a root-parallel search)
+     */
+    void merge(SearchProfile other) {
+        for (int p = 0; p < nPhases; p++) {
+            nanos[p] += other.nanos[p];
+            bytes[p] += other.bytes[p];
+            fmCalls[p] += other.fmCalls[p];
+            copies[p] += other.copies[p];
+        }
+        iterations += other.iterations;
+        samples += other.samples;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    private double perSample(long[] totals, Phase phase) {
+        return samples == 0 ? 0.0 : totals[phase.ordinal()] / (double) samples;
+    }
+
+    /**
+     * @return the mean time in nanoseconds spent in the phase per iteration
+     */
+    public double getMeanNanos(Phase phase) {
+        return perSample(nanos, phase);
+    }
+
+    /**
+     * @return the mean number of bytes allocated in the phase per iteration
+     */
+    public double getMeanBytes(Phase phase) {
+        return perSample(bytes, phase);
+    }
+
+    public double getMeanFMCalls(Phase phase) {
+        return perSample(fmCalls, phase);
+    }
+
+    public double getMeanCopies(Phase phase) {
+        return perSample(copies, phase);
+    }
+
+    /**
+     * @return the proportion of the (profiled) time of an iteration that is spent in the phase
+     */
+    public double getTimeShare(Phase phase) {
+        long total = 0;
+        for (long n : nanos)
+            total += n;
+        return total == 0 ? 0.0 : nanos[phase.ordinal()] / (double) total;
+    }
+}
@@ -34,6 +34,9 @@ public class SingleTreeNode {
     protected int fmCallsCount;
     protected int copyCount;
     protected int paranoidPlayer = -1;
+    // On the root, the player whose information set is used for the determinisations, if this is not the
+    // decisionPlayer (as when pondering during another player's turn)
+    protected int observingPlayer = -1;
     // Action taken to reach this node
     // In vanilla MCTS this will likely be an action taken by some other player (not the decisionPlayer at this node)
     protected AbstractAction actionToReach;
@@ -44,6 +47,8 @@ public class SingleTreeNode {
     // having them on the node reduces verbiage in passing to advance() to check rollout termination in some edge cases
     // (specifically when using SelfOnly trees, with START/END_TURN/ROUND rollout termination conditions
     protected int rolloutDepth, roundAtStartOfRollout, turnAtStartOfRollout, lastActorInRollout;
+    // the actions applied to the node state during a rollout, if undoRollouts is being used
+    List<UndoToken> undoStack;
     List<AbstractAction> actionsFromOpenLoopState = new ArrayList<>();
     Map<AbstractAction, Double> advantagesOfActionsFromOLS = new HashMap<>();
     // Depth of this node
@@ -53,6 +58,12 @@ public class SingleTreeNode {
     protected int round, turn, turnOwner;
     boolean terminalNode;
     double timeTaken;
+    // only on the root: the fraction of params.budget that a search may use (see MCTSParams.ponderTopUp)
+    double budgetFraction = 1.0;
+    // only on the root, and only if params.profileInterval > 0
+    SearchProfile profile;
+    // the pool from which the tree's nodes and statistics are taken, if params.poolNodes is true
+    NodePool pool;
     protected double highReward = Double.NEGATIVE_INFINITY;
     protected double lowReward = Double.POSITIVE_INFINITY;
     protected int nodeClash;
@@ -65,7 +76,7 @@ public class SingleTreeNode {
     // only ever have one position in the array populated: and similarly if we are using a SelfOnly tree).
     Map<AbstractAction, SingleTreeNode[]> children = new LinkedHashMap<>();
     Map<AbstractAction, ActionStats> actionValues = new HashMap<>();
-    List<Map<Object, Pair<Integer, Double>>> MASTStatistics; // a list of one Map per player. Action -> (visits, totValue)
+    MASTTable MASTStatistics; // per player, action -> (visits, totValue). This is kept by the MCTSPlayer for the whole game
     ToDoubleBiFunction<AbstractAction, AbstractGameState> advantageFunction = (a, s) -> advantagesOfActionsFromOLS.getOrDefault(a, 0.0);
     ToDoubleBiFunction<AbstractAction, AbstractGameState> MASTFunction;
     // The total value of all trajectories through this node (one element per player)
@@ -86,10 +97,9 @@ public class SingleTreeNode {
         retValue.params = player.getParameters();
         retValue.forwardModel = player.getForwardModel();
         retValue.rnd = rnd;
+        retValue.pool = player.nodePool;
         // only root node maintains MAST statistics
-        retValue.MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < state.getNPlayers(); i++)
-            retValue.MASTStatistics.add(new HashMap<>());
+        retValue.MASTStatistics = player.getMASTStatistics(state.getNPlayers());
         MASTActionHeuristic MASTHeuristic = new MASTActionHeuristic(retValue.MASTStatistics, retValue.params.MASTActionKey, retValue.params.MASTDefaultValue);
         retValue.MASTFunction = MASTHeuristic::evaluateAction;
         retValue.instantiate(null, null, state);
@@ -110,6 +120,7 @@ public class SingleTreeNode {
         this.params = root.params;
         this.forwardModel = root.forwardModel;
         this.rnd = root.rnd;
+        this.pool = root.pool;
         this.round = state.getRoundCounter();
         this.turn = state.getTurnCounter();
         this.turnOwner = state.getCurrentPlayer();
@@ -160,34 +171,153 @@ public class SingleTreeNode {
             if (actionsFromOpenLoopState.size() != actionsFromOpenLoopState.stream().distinct().count())
                 throw new AssertionError("Duplicate actions found in action list: " +
                         actionsFromOpenLoopState.stream().map(a -> "\t" + a.toString() + "\n").collect(joining()));
+            double[] actionValues = null;
             if (params.expansionPolicy == MAST) {
-                advantagesOfActionsFromOLS = actionsFromOpenLoopState.stream()
-                        .collect(toMap(a -> a, a -> root.MASTFunction.applyAsDouble(a, actionState)));
-            } else {
-                if (params.advantageFunction != null) {
-                    // advantagesOfActionsFromOLS = actionsFromOpenLoopState.stream()
-                    //        .collect(toMap(a -> a, a -> params.advantageFunction.evaluateAction(a, actionState)));
-                    double[] actionValues = params.advantageFunction.evaluateAllActions(actionsFromOpenLoopState, actionState);
-                    advantagesOfActionsFromOLS = new HashMap<>();
-                    for (int i = 0; i < actionsFromOpenLoopState.size(); i++) {
-                        advantagesOfActionsFromOLS.put(actionsFromOpenLoopState.get(i), actionValues[i]);
-                    }
+                actionValues = new double[actionsFromOpenLoopState.size()];
+                for (int i = 0; i < actionValues.length; i++) {
+                    actionValues[i] = root.MASTFunction.applyAsDouble(actionsFromOpenLoopState.get(i), actionState);
                 }
+            } else if (params.advantageFunction != null) {
+                // a single call for all the actions, so that the heuristic can share the state features between them
+                actionValues = params.advantageFunction.evaluateAllActions(actionsFromOpenLoopState, actionState);
             }
-            for (AbstractAction action : actionsFromOpenLoopState) {
-                if (!actionValues.containsKey(action)) {
-                    actionValues.put(action, new ActionStats(actionState.getNPlayers()));
-                    children.put(action.copy(), null); // mark a new node to be expanded
-                    // This *does* rely on a good equals method being implemented for Actions
-                    if (!children.containsKey(action))
-                        throw new AssertionError("We have an action that does not obey the equals/hashcode contract" + action);
+            if (actionValues != null) {
+                advantagesOfActionsFromOLS = new HashMap<>(actionValues.length * 2);
+                for (int i = 0; i < actionValues.length; i++) {
+                    advantagesOfActionsFromOLS.put(actionsFromOpenLoopState.get(i), actionValues[i]);
                 }
             }
+            registerActions(actionsFromOpenLoopState, actionState.getNPlayers());
         } else if (!params.opponentTreePolicy.selfOnlyTree) {
             throw new AssertionError("Expected?");
         }
     }
 
+    /**
+     * Makes sure that we have statistics (and a space for a child node) for each of the actions available
+     */
+    protected void registerActions(List<AbstractAction> actions, int nPlayers) {
+        for (AbstractAction action : actions) {
+            if (!actionValues.containsKey(action))
+                addNewAction(action, nPlayers);
+        }
+    }
+
+    protected void addNewAction(AbstractAction action, int nPlayers) {
+        actionValues.put(action, pool == null ? new ActionStats(nPlayers) : pool.actionStats(nPlayers));
+        children.put(action.copy(), null); // mark a new node to be expanded
+        // This *does* rely on a good equals method being implemented for Actions
+        if (!children.containsKey(action))
+            throw new AssertionError("We have an action that does not obey the equals/hashcode contract" + action);
+    }
+
+    /**
+     * Used to reuse the tree from the last decision (see MCTSParams.reuseTree). This follows the actions taken in the
+     * game (by all players) down the tree from this node, and returns the node reached, or null if the tree does not
+     * go that far.
+     * <p>
+     * In Closed_Loop each action has a single child. Otherwise the child for an action is the one for the player
+     * who acts next, which is the one at which the following action has been tried (if more than one child could be
+     * the one, we give up rather than guess). For the last action it is the player to move now.
+     *
+     * @param actions    - the actions taken since the search from this node
+     * @param nextPlayer - the player to move after the last of these actions
+     */
+    SingleTreeNode descendant(List<AbstractAction> actions, int nextPlayer) {
+        SingleTreeNode node = this;
+        for (int i = 0; i < actions.size(); i++) {
+            SingleTreeNode[] nodeArray = node.children.get(actions.get(i));
+            if (nodeArray == null)
+                return null;
+            SingleTreeNode next = null;
+            if (i == actions.size() - 1 && params.information != Closed_Loop) {
+                next = nodeArray[nextPlayer];
+            } else {
+                AbstractAction following = i == actions.size() - 1 ? null : actions.get(i + 1);
+                for (SingleTreeNode child : nodeArray) {
+                    if (child != null && (following == null || child.children.containsKey(following))) {
+                        if (next != null)
+                            return null;
+                        next = child;
+                    }
+                }
+            }
+            if (next == null)
+                return null;
+            node = next;
+        }
+        return node;
+    }
+
+    /**
+     * Turns this node (found with descendant() from the root of the last search) into the root for a new search from
+     * state, keeping all the statistics in the subtree below it. Everything else is set up as for a new root.
+     */
+    void reRoot(AbstractGameState state, SingleTreeNode oldRoot) {
+        parent = null;
+        actionToReach = null;
+        observingPlayer = -1;
+        MASTStatistics = oldRoot.MASTStatistics;
+        MASTFunction = oldRoot.MASTFunction;
+        lowReward = oldRoot.lowReward;
+        highReward = oldRoot.highReward;
+        fmCallsCount = 0;
+        copyCount = 0;
+        int depthOffset = depth;
+        for (SingleTreeNode node : allNodesInTree()) {
+            node.root = this;
+            node.depth -= depthOffset;
+        }
+        if (params.information != Closed_Loop) {
+            copyCount++;
+            this.state = state.copy();
+        } else {
+            this.state = state;
+        }
+        setActionsFromOpenLoopState(state);
+    }
+
+    /**
+     * Called by NodePool once the node is no longer in the tree. This returns the node's statistics and child arrays
+     * to the pool, and puts it back into the state it had when constructed (apart from the fields that are all set
+     * by instantiate()), keeping the collections so that they can be reused.
+     */
+    protected void recycle(NodePool pool) {
+        for (ActionStats stats : actionValues.values())
+            pool.release(stats);
+        for (SingleTreeNode[] nodeArray : children.values())
+            if (nodeArray != null)
+                pool.release(nodeArray);
+        actionValues.clear();
+        children.clear();
+        advantagesOfActionsFromOLS.clear();
+        actionsFromOpenLoopState = Collections.emptyList();
+        state = null;
+        openLoopState = null;
+        parent = null;
+        root = null;
+        actionToReach = null;
+        undoStack = null;
+        actionsInTree = null;
+        actionsInRollout = null;
+        MASTStatistics = null;
+        MASTFunction = null;
+        profile = null;
+        nVisits = 0;
+        fmCallsCount = 0;
+        copyCount = 0;
+        paranoidPlayer = -1;
+        observingPlayer = -1;
+        rolloutDepth = 0;
+        roundAtStartOfRollout = 0;
+        turnAtStartOfRollout = 0;
+        lastActorInRollout = 0;
+        timeTaken = 0.0;
+        budgetFraction = 1.0;
+        highReward = Double.NEGATIVE_INFINITY;
+        lowReward = Double.POSITIVE_INFINITY;
+    }
+
     protected void initialiseRoot() {
         timeTaken = 0.0;
         nodeClash = 0;
@@ -195,36 +325,34 @@ public class SingleTreeNode {
     }
 
     /**
-     * Performs full MCTS search, using the defined budget limits.
+     * Performs full MCTS search, using the defined budget limits (scaled by budgetFraction).
      */
     public void mctsSearch() {
+        mctsSearch(() -> false, true);
+    }
+
+    /**
+     * Performs MCTS search with no budget, until stop is true after an iteration (as for pondering, where the
+     * search carries on for as long as the other players take to decide).
+     */
+    public void mctsSearch(BooleanSupplier stop) {
+        mctsSearch(stop, false);
+    }
+
+    private void mctsSearch(BooleanSupplier stopEarly, boolean useBudget) {
         initialiseRoot();
+        profile = params.profileInterval > 0 ? new SearchProfile(this, params.profileInterval) : null;
         // Variables for tracking time budget
-        double avgTimeTaken;
-        long remaining;
-        int remainingLimit = params.breakMS;
         ElapsedCpuTimer elapsedTimer = new ElapsedCpuTimer();
         if (params.budgetType == BUDGET_TIME) {
-            elapsedTimer.setMaxTimeMillis(params.budget);
+            elapsedTimer.setMaxTimeMillis(searchBudget());
         }
 
         // Tracking number of iterations for iteration budget
         int numIters = 0;
         boolean stop = false;
         while (!stop) {
-            switch (params.information) {
-                case Closed_Loop:
-                    setActionsFromOpenLoopState(state);
-                    break;
-                case Open_Loop:
-                    setActionsFromOpenLoopState(state.copy());
-                    copyCount++;
-                    break;
-                case Information_Set:
-                    setActionsFromOpenLoopState(state.copy(decisionPlayer));
-                    copyCount++;
-                    break;
-            }
+            resetOpenLoopState();
 
             // New timer for this iteration
             //      ElapsedCpuTimer elapsedTimerIteration = new ElapsedCpuTimer();
@@ -238,25 +366,73 @@ public class SingleTreeNode {
             numIters++;
             //       System.out.printf("MCTS Iteration %d, timeLeft: %d\n", numIters, elapsedTimer.remainingTimeMillis());
             // Check stopping condition
-            PlayerConstants budgetType = params.budgetType;
-            if (budgetType == BUDGET_TIME) {
-                // Time budget
-                remaining = elapsedTimer.remainingTimeMillis();
-                avgTimeTaken = (double) elapsedTimer.elapsedMillis() / numIters;
-                stop = remaining <= 2 * avgTimeTaken || remaining <= remainingLimit;
-            } else if (budgetType == BUDGET_ITERATIONS) {
-                // Iteration budget
-                stop = numIters >= params.budget;
-            } else if (budgetType == BUDGET_FM_CALLS) {
-                // FM calls budget
-                stop = fmCallsCount > params.budget || numIters > params.budget;
-            } else if (budgetType == BUDGET_COPY_CALLS) {
-                stop = copyCount > params.budget || numIters > params.budget;
-            } else if (budgetType == BUDGET_FMANDCOPY_CALLS) {
-                stop = (copyCount + fmCallsCount) > params.budget || numIters > params.budget;
-            }
+            stop = (useBudget && budgetExhausted(numIters, elapsedTimer)) || stopEarly.getAsBoolean();
         }
         timeTaken = elapsedTimer.elapsedMillis();
+        searchComplete();
+    }
+
+    /**
+     * Called on the root once the search has finished, and before the tree is used to pick an action.
+     * Nothing needs to be done for the standard node, as all the statistics are kept up to date in actionValues.
+     */
+    protected void searchComplete() {
+    }
+
+    /**
+     * Sets up the state at the root ready for the next search iteration
+     * (a fresh copy, or a fresh determinisation, unless we are using Closed Loop)
+     */
+    protected void resetOpenLoopState() {
+        switch (params.information) {
+            case Closed_Loop:
+                setActionsFromOpenLoopState(state);
+                break;
+            case Open_Loop:
+                setActionsFromOpenLoopState(state.copy());
+                copyCount++;
+                break;
+            case Information_Set:
+                setActionsFromOpenLoopState(state.copy(observingPlayer == -1 ? decisionPlayer : observingPlayer));
+                copyCount++;
+                break;
+        }
+    }
+
+    /**
+     * @return the budget for a search from this root: params.budget, scaled by budgetFraction (and at least 1)
+     */
+    int searchBudget() {
+        return (int) Math.max(1, Math.round(params.budget * budgetFraction));
+    }
+
+    /**
+     * Checks the stopping condition for the search
+     *
+     * @param numIters     - the number of iterations completed so far
+     * @param elapsedTimer - the timer started at the beginning of the search
+     * @return true if the search budget has been used up
+     */
+    protected boolean budgetExhausted(int numIters, ElapsedCpuTimer elapsedTimer) {
+        PlayerConstants budgetType = params.budgetType;
+        int budget = searchBudget();
+        if (budgetType == BUDGET_TIME) {
+            // Time budget
+            long remaining = elapsedTimer.remainingTimeMillis();
+            double avgTimeTaken = (double) elapsedTimer.elapsedMillis() / numIters;
+            return remaining <= 2 * avgTimeTaken || remaining <= params.breakMS;
+        } else if (budgetType == BUDGET_ITERATIONS) {
+            // Iteration budget
+            return numIters >= budget;
+        } else if (budgetType == BUDGET_FM_CALLS) {
+            // FM calls budget
+            return fmCallsCount > budget || numIters > budget;
+        } else if (budgetType == BUDGET_COPY_CALLS) {
+            return copyCount > budget || numIters > budget;
+        } else if (budgetType == BUDGET_FMANDCOPY_CALLS) {
+            return (copyCount + fmCallsCount) > budget || numIters > budget;
+        }
+        return false;
     }
 
     /**
@@ -264,13 +440,18 @@ public class SingleTreeNode {
      * Its result is purely stored in the tree generated from root
      */
     protected void oneSearchIteration() {
-        double[] startingValues = IntStream.range(0, openLoopState.getNPlayers())
-                .mapToDouble(i -> params.heuristic.evaluateState(openLoopState, i)).toArray();
+        if (profile != null)
+            profile.startIteration();
+        double[] startingValues = params.heuristic.evaluateAllPlayers(openLoopState);
+        if (profile != null)
+            profile.lap(SearchProfile.Phase.EVALUATION);
 
         actionsInTree = new ArrayList<>();
         actionsInRollout = new ArrayList<>();
 
         SingleTreeNode selected = treePolicy();
+        if (profile != null)
+            profile.lap(SearchProfile.Phase.SELECTION);
         if (selected == this && openLoopState.isNotTerminalForPlayer(decisionPlayer) && nVisits > 3 && !(this instanceof MCGSNode))
             throw new AssertionError("We have not expanded or selected a new node");
         // by this point (and really earlier) we should have expanded a new node.
@@ -280,11 +461,15 @@ public class SingleTreeNode {
         // Monte carlo rollout: return value of MC rollout from the newly added node
         int lastActorInTree = actionsInTree.isEmpty() ? decisionPlayer : actionsInTree.get(actionsInTree.size() - 1).a;
         double[] delta = selected.rollout(startingValues, lastActorInTree);
+        if (profile != null)
+            profile.lap(SearchProfile.Phase.ROLLOUT);  // any undo of the rollout after the evaluation
         // Back up the value of the rollout through the tree
         rolloutActionsTaken += actionsInRollout.size();
 
         selected.backUp(delta);
         updateMASTStatistics(actionsInTree, actionsInRollout, delta);
+        if (profile != null)
+            profile.lap(SearchProfile.Phase.BACKUP);
     }
 
     protected void updateMASTStatistics(List<Pair<Integer, AbstractAction>> tree, List<Pair<Integer, AbstractAction>> rollout, double[] value) {
@@ -315,7 +500,7 @@ public class SingleTreeNode {
         return stats == null ? 0 : stats.nVisits;
     }
 
-    private int validVisitsFor(AbstractAction action) {
+    protected int validVisitsFor(AbstractAction action) {
         if (params.information == Closed_Loop)
             return nVisits;
         ActionStats stats = actionValues.get(action);
@@ -332,10 +517,13 @@ public class SingleTreeNode {
     }
 
     public double nodeValue(int playerId) {
-        return actionValues.values().stream().mapToDouble(s -> s.totValue[playerId]).sum() / nVisits;
+        double total = 0.0;
+        for (ActionStats stats : actionValues.values())
+            total += stats.totValue[playerId];
+        return total / nVisits;
     }
 
-    private double actionSquaredValue(AbstractAction action, int playerId) {
+    protected double actionSquaredValue(AbstractAction action, int playerId) {
         ActionStats stats = actionValues.get(action);
         return stats == null ? 0.0 : stats.squaredTotValue[playerId];
     }
@@ -403,7 +591,7 @@ public class SingleTreeNode {
             // It is perfectly possible that a previously expanded action falls out of the considered list
             // depending on the advantage heuristic used.
             // However, we do break ties in favour of already expanded actions
-            allAvailable.sort(Comparator.comparingDouble(a -> -advantagesOfActionsFromOLS.getOrDefault(a, 0.0) - actionValues.get(a).nVisits * 1e-6));
+            allAvailable.sort(Comparator.comparingDouble(a -> -advantagesOfActionsFromOLS.getOrDefault(a, 0.0) - actionVisits(a) * 1e-6));
             return allAvailable.subList(0, actionsToConsider);
         }
         return allAvailable;
@@ -448,7 +636,7 @@ public class SingleTreeNode {
         // It is possible that we are expanding a node because a different player is the next to act
         SingleTreeNode[] newNodeArray = children.get(actionCopy);
         if (newNodeArray == null)
-            newNodeArray = new SingleTreeNode[nextState.getNPlayers()];
+            newNodeArray = pool == null ? new SingleTreeNode[nextState.getNPlayers()] : pool.nodeArray(nextState.getNPlayers());
         newNodeArray[nextPlayer] = tn; // we store this by id of the player who will take their turn next
         children.put(actionCopy, newNodeArray);
         return tn;
@@ -477,7 +665,10 @@ public class SingleTreeNode {
         } else {
             root.actionsInTree.add(new Pair<>(gs.getCurrentPlayer(), act));
         }
-        forwardModel.next(gs, act.copy());
+        if (undoStack != null && gs == state)
+            undoStack.add(forwardModel.nextWithUndo(gs, act.copy()));
+        else
+            forwardModel.next(gs, act.copy());
         root.fmCallsCount++;
         if (params.opponentTreePolicy != MultiTree &&
                 params.opponentTreePolicy.selfOnlyTree &&
@@ -564,7 +755,9 @@ public class SingleTreeNode {
         if (nodeArray == null) return null;
         if (params.information == Closed_Loop) {
             // in this case we have determinism...there should just be a single child node in the array...so we get that
-            return Arrays.stream(nodeArray).filter(Objects::nonNull).findFirst().orElse(null);
+            for (SingleTreeNode node : nodeArray)
+                if (node != null) return node;
+            return null;
         } else {
             //  int nextPlayer = params.opponentTreePolicy.selfOnlyTree ? decisionPlayer : openLoopState.getCurrentPlayer();
             SingleTreeNode nextNode = nodeArray[openLoopState.getCurrentPlayer()];
@@ -579,7 +772,7 @@ public class SingleTreeNode {
         }
     }
 
-    private double untriedActionValue(AbstractAction action) {
+    protected double untriedActionValue(AbstractAction action) {
         double retValue = params.firstPlayUrgency;
         ToDoubleBiFunction<AbstractAction, AbstractGameState> valueFunction = params.expansionPolicy == MAST
                 ? MASTFunction : advantageFunction;
@@ -589,53 +782,62 @@ public class SingleTreeNode {
         return retValue;
     }
 
-    private AbstractAction ucb(List<AbstractAction> availableActions) {
+    protected AbstractAction ucb(List<AbstractAction> availableActions) {
         // Find child with highest UCB value
+        // This is called on every node visit, so it is written to avoid any allocation, and to look up the
+        // statistics for each action just once
         AbstractAction bestAction = null;
         double bestValue = -Double.MAX_VALUE;
+        int ties = 0;
+
+        // These are the same for every action, so we find them once
+        Map<AbstractAction, OMATreeNode.OMAStats> omaStats = null;
+        if (params.opponentTreePolicy == OMA_All || params.opponentTreePolicy == OMA) {
+            OMATreeNode oma = ((OMATreeNode) this).OMAParent.orElse(null);
+            if (oma != null) {
+                // we need to find the action taken from the OMAParent, which is the action to reach the
+                // node just below it on the path
+                SingleTreeNode iteratingNode = this;
+                AbstractAction actionFromOMA;
+                do {
+                    actionFromOMA = iteratingNode.actionToReach;
+                    iteratingNode = iteratingNode.parent;
+                    if (iteratingNode == null)
+                        throw new AssertionError("Should always find OMA node before root");
+                } while (iteratingNode != oma);
+                omaStats = oma.OMAChildren.get(actionFromOMA);
+                if (omaStats == null) {
+                    throw new AssertionError("We have somehow failed to find the OMA node for this action");
+                }
+            }
+        }
+        double nodeValue = params.biasVisits > 0 ? nodeValue(decisionPlayer) : 0.0;
 
-        // shuffle so that ties are broken randomly
-        Collections.shuffle(availableActions, rnd);
-        for (AbstractAction action : availableActions) {
+        for (int i = 0, n = availableActions.size(); i < n; i++) {
+            AbstractAction action = availableActions.get(i);
+            ActionStats actionStats = actionValues.get(action);
             // Find 'UCB' value
             double uctValue = 0;
             // Find child value
-            if (actionValues.get(action) == null || actionValues.get(action).nVisits == 0) {
+            if (actionStats == null || actionStats.nVisits == 0) {
                 uctValue = untriedActionValue(action);
             } else {
-                double hvVal = actionTotValue(action, decisionPlayer);
-                int actionVisits = actionVisits(action);
+                double hvVal = actionStats.totValue[decisionPlayer];
+                int actionVisits = actionStats.nVisits;
                 double childValue = hvVal / (actionVisits + params.noiseEpsilon);
 
                 // consider OMA term
-                if (params.opponentTreePolicy == OMA_All || params.opponentTreePolicy == OMA) {
-                    OMATreeNode oma = ((OMATreeNode) this).OMAParent.orElse(null);
-                    if (oma != null) {
+                if (omaStats != null) {
+                    OMATreeNode.OMAStats stats = omaStats.get(action);
+                    if (stats != null) {
                         double beta = Math.sqrt(params.omaVisits / (double) (params.omaVisits + 3 * actionVisits));
-                        // we need to find the action taken from the OMAParent
-                        SingleTreeNode iteratingNode = this;
-                        List<AbstractAction> actionsTaken = new ArrayList<>();
-                        do {
-                            actionsTaken.add(iteratingNode.actionToReach);
-                            iteratingNode = iteratingNode.parent;
-                            if (iteratingNode == null)
-                                throw new AssertionError("Should always find OMA node before root");
-                        } while (iteratingNode != oma);
-                        Map<AbstractAction, OMATreeNode.OMAStats> tmp = oma.OMAChildren.get(actionsTaken.get(actionsTaken.size() - 1));
-                        if (tmp == null) {
-                            throw new AssertionError("We have somehow failed to find the OMA node for this action");
-                        }
-                        OMATreeNode.OMAStats stats = tmp.get(action);
-                        if (stats != null) {
-                            double omaValue = stats.OMATotValue / stats.OMAVisits;
-                            childValue = (1.0 - beta) * childValue + beta * omaValue;
-                        }
+                        double omaValue = stats.OMATotValue / stats.OMAVisits;
+                        childValue = (1.0 - beta) * childValue + beta * omaValue;
                     }
                 }
 
                 // consider any progressive bias term
                 if (params.biasVisits > 0) {
-                    double nodeValue = nodeValue(decisionPlayer);
                     // nodeValue is the value of the state, V(s), and is used as a baseline when we use an Advantage function later
                     double beta = Math.sqrt(params.biasVisits / (double) (params.biasVisits + 3 * actionVisits));
                     childValue = (1.0 - beta) * childValue + beta * (advantagesOfActionsFromOLS.getOrDefault(action, 0.0) + nodeValue);
@@ -646,7 +848,7 @@ public class SingleTreeNode {
                 }
 
                 // default to standard UCB
-                int effectiveTotalVisits = validVisitsFor(action) + 1;
+                int effectiveTotalVisits = (params.information == Closed_Loop ? nVisits : actionStats.validVisits) + 1;
                 double explorationTerm = params.K * Math.sqrt(Math.log(effectiveTotalVisits) / (actionVisits + params.noiseEpsilon));
                 // unless we are using a variant
                 switch (params.treePolicy) {
@@ -656,13 +858,13 @@ public class SingleTreeNode {
                     case UCB_Tuned:
                         double range = root.highReward - root.lowReward;
                         if (range < 1e-6) range = 1e-6;
-                        double meanSq = actionSquaredValue(action, decisionPlayer) / (actionVisits + params.noiseEpsilon);
+                        double meanSq = actionStats.squaredTotValue[decisionPlayer] / (actionVisits + params.noiseEpsilon);
                         double standardVar = 0.25;
                         if (params.normaliseRewards) {
                             // we also need to standardise the sum of squares to calculate the variance
                             meanSq = (meanSq
                                     + root.lowReward * root.lowReward
-                                    - 2 * root.lowReward * actionTotValue(action, decisionPlayer) / (actionVisits + params.noiseEpsilon)
+                                    - 2 * root.lowReward * hvVal / (actionVisits + params.noiseEpsilon)
                             ) / (range * range);
                         } else {
                             // we need to modify the standard variance as it is not on a 0..1 basis (which is where 0.25 comes from)
@@ -689,6 +891,11 @@ public class SingleTreeNode {
             if (uctValue > bestValue) {
                 bestAction = action;
                 bestValue = uctValue;
+                ties = 1;
+            } else if (uctValue == bestValue && rnd.nextInt(++ties) == 0) {
+                // any exact ties left (for example if noiseEpsilon is zero) are broken uniformly at random,
+                // which is what we used to get by shuffling the list first
+                bestAction = action;
             }
         }
 
@@ -783,8 +990,14 @@ public class SingleTreeNode {
                 // the thinking here is that in openLoop we copy the state right at the root, and then use the forward
                 // model at each action. Hence the current state on the node is the one we have been using up to now.
                 /// Hence we do not need to copy it.
-                rolloutState = state.copy();
-                root.copyCount++;
+                if (params.undoRollouts && forwardModel.supportsUndo() && !params.opponentTreePolicy.selfOnlyTree) {
+                    // we roll out on the node state itself, and undo all the actions afterwards
+                    rolloutState = state;
+                    undoStack = new ArrayList<>();
+                } else {
+                    rolloutState = state.copy();
+                    root.copyCount++;
+                }
             }
 
             AbstractAction next = null;
@@ -796,17 +1009,31 @@ public class SingleTreeNode {
                 AbstractPlayer agent = rolloutState.getCurrentPlayer() == root.decisionPlayer ? params.getRolloutStrategy() : params.getOpponentModel();
                 next = agent.getAction(rolloutState, availableActions);
                 lastActorInRollout = rolloutState.getCurrentPlayer();
+                if (undoStack != null && rolloutState == state && !forwardModel.canUndo(rolloutState, next)) {
+                    // we cannot undo this, so continue the rollout on a copy
+                    rolloutState = state.copy();
+                    root.copyCount++;
+                }
                 advanceState(rolloutState, next, true);
             }
         }
         // Evaluate final state and return normalised score
-        double[] retValue = new double[rolloutState.getNPlayers()];
+        if (root.profile != null)
+            root.profile.lap(SearchProfile.Phase.ROLLOUT);
+        double[] retValue = params.heuristic.evaluateAllPlayers(rolloutState);
+        if (root.profile != null)
+            root.profile.lap(SearchProfile.Phase.EVALUATION);
 
         for (int i = 0; i < retValue.length; i++) {
-            retValue[i] = params.heuristic.evaluateState(rolloutState, i) - startingValues[i];
+            retValue[i] -= startingValues[i];
             if (Double.isNaN(retValue[i]))
                 throw new AssertionError("Illegal heuristic value - should be a number");
         }
+        if (undoStack != null) {
+            for (int i = undoStack.size() - 1; i >= 0; i--)
+                forwardModel.undo(state, undoStack.get(i));
+            undoStack = null;
+        }
         return retValue;
     }
 
@@ -913,7 +1140,7 @@ public class SingleTreeNode {
         // then we update the statistics for the action taken
         for (AbstractAction action : actionsFromOpenLoopState) {
             if (!actionValues.containsKey(action))
-                actionValues.put(action, new ActionStats(result.length));
+                actionValues.put(action, pool == null ? new ActionStats(result.length) : pool.actionStats(result.length));
             actionValues.get(action).validVisits++;
         }
         ActionStats stats = actionValues.get(actionTaken);
@@ -923,15 +1150,25 @@ public class SingleTreeNode {
     }
 
 
+    /**
+     * Used by tree-parallel search to add (or, with negative visits, remove) the virtual loss for a worker
+     * that has selected actionTaken from this node.
+     *
+     * @param visits - the number of virtual visits
+     * @param value  - the value of each virtual visit, for the player deciding at this node
+     */
+    protected void addVirtualLoss(AbstractAction actionTaken, int visits, double value) {
+        ActionStats stats = actionValues.get(actionTaken);
+        stats.nVisits += visits;
+        stats.totValue[decisionPlayer] += visits * value;
+        nVisits += visits;
+    }
+
     protected void MASTBackup(List<Pair<Integer, AbstractAction>> rolloutActions, double[] delta) {
         for (Pair<Integer, AbstractAction> pair : rolloutActions) {
             AbstractAction action = pair.b;
             int player = pair.a;
-            Object actionKey = params.MASTActionKey == null ? action.copy() : params.MASTActionKey.key(action);
-            Pair<Integer, Double> stats = MASTStatistics.get(player).getOrDefault(actionKey, new Pair<>(0, 0.0));
-            stats.a++;  // visits
-            stats.b += delta[player];   // value
-            MASTStatistics.get(player).put(actionKey, stats);
+            MASTStatistics.update(player, MASTTable.keyOf(action, params.MASTActionKey), delta[player]);
         }
     }
 
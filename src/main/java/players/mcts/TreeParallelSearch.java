@@ -0,0 +1,193 @@
+package players.mcts;
+
+import core.AbstractGameState;
+import core.actions.AbstractAction;
+import utilities.ElapsedWallTimer;
+import utilities.Pair;
+
+import java.util.*;
+
+import static players.PlayerConstants.BUDGET_ITERATIONS;
+import static players.PlayerConstants.BUDGET_TIME;
+import static players.mcts.MCTSEnums.Information.Closed_Loop;
+
+/**
+ * Tree-parallel MCTS: all the workers share the one tree, and a virtual loss is added to every node on the path a
+ * worker has selected, so that the other workers are pushed towards different parts of the tree.
+ * <p>
+ * To keep the result reproducible for a fixed seed and number of workers, each round of the search has three phases:
+ * - Selection and expansion are run on the calling thread for each worker in turn, adding the virtual loss as we go.
+ * - The rollouts (which is where most of the time is spent) then run concurrently. Each worker has its own copy of the
+ * state, its own rollout policy and opponent model, and its own Random.
+ * - Finally, the virtual loss is removed and the results are backed up, again one worker at a time in a fixed order.
+ * <p>
+ * This supports OneTree and SelfOnly trees only; the other opponent tree policies keep per-iteration state on the root
+ * that is not safe to share between workers.
+ */
+class TreeParallelSearch {
+
+    final SingleTreeNode root;
+    final MCTSParams params;
+    final MCTSPlayer mctsPlayer;
+    final MCTSPlayer[] workers;
+
+    /**
+     * The details of one worker's iteration that need to be kept between the three phases.
+     */
+    class Iteration {
+        final int worker;
+        final Random rnd;
+        double[] startingValues;
+        SingleTreeNode selected;
+        List<Pair<Integer, AbstractAction>> actionsInTree;
+        int lastActorInTree;
+        // the nodes on the selected path, and the actions that were valid at each when we passed through
+        List<SingleTreeNode> path = new ArrayList<>();
+        List<List<AbstractAction>> validActions = new ArrayList<>();
+        double lossValue;
+        SingleTreeNode roller;
+        double[] delta;
+
+        Iteration(int worker, Random rnd) {
+            this.worker = worker;
+            this.rnd = rnd;
+        }
+    }
+
+    TreeParallelSearch(MCTSPlayer player, SingleTreeNode root, MCTSPlayer[] workers) {
+        if (root.params.opponentTreePolicy != MCTSEnums.OpponentTreePolicy.OneTree &&
+                root.params.opponentTreePolicy != MCTSEnums.OpponentTreePolicy.SelfOnly)
+            throw new AssertionError("Tree-parallel search is not supported for " + root.params.opponentTreePolicy);
+        this.mctsPlayer = player;
+        this.root = root;
+        this.params = root.params;
+        this.workers = workers;
+        for (MCTSPlayer worker : workers) {
+            // MASTTable is safe to share between threads
+            if (worker.getParameters().getRolloutStrategy() instanceof IMASTUser)
+                ((IMASTUser) worker.getParameters().getRolloutStrategy()).setStats(root.MASTStatistics);
+            if (worker.getParameters().getOpponentModel() instanceof IMASTUser)
+                ((IMASTUser) worker.getParameters().getOpponentModel()).setStats(root.MASTStatistics);
+        }
+    }
+
+    void run() {
+        root.initialiseRoot();
+        ElapsedWallTimer elapsedTimer = new ElapsedWallTimer();
+        if (params.budgetType == BUDGET_TIME) {
+            elapsedTimer.setMaxTimeMillis(root.searchBudget());
+        }
+        Random seeds = new Random(root.rnd.nextLong());
+        Random[] workerRnd = new Random[workers.length];
+        for (int w = 0; w < workers.length; w++)
+            workerRnd[w] = new Random(seeds.nextLong());
+
+        int numIters = 0;
+        boolean stop = false;
+        while (!stop) {
+            int batchSize = workers.length;
+            if (params.budgetType == BUDGET_ITERATIONS)
+                batchSize = Math.max(1, Math.min(batchSize, root.searchBudget() - numIters));
+
+            List<Iteration> batch = new ArrayList<>();
+            for (int w = 0; w < batchSize; w++)
+                batch.add(select(new Iteration(w, workerRnd[w])));
+
+            List<Runnable> rollouts = new ArrayList<>();
+            for (Iteration iteration : batch)
+                rollouts.add(() -> rollout(iteration));
+            mctsPlayer.runOnWorkers(rollouts);
+
+            for (Iteration iteration : batch)
+                backUp(iteration);
+
+            numIters += batchSize;
+            stop = root.budgetExhausted(numIters, elapsedTimer);
+        }
+        root.timeTaken = elapsedTimer.elapsedMillis();
+        root.searchComplete();
+    }
+
+    /**
+     * Selection and expansion for one worker. This runs on the calling thread.
+     */
+    private Iteration select(Iteration iteration) {
+        root.resetOpenLoopState();
+        AbstractGameState startState = root.openLoopState;
+        iteration.startingValues = params.heuristic.evaluateAllPlayers(startState);
+
+        root.actionsInTree = new ArrayList<>();
+        root.actionsInRollout = new ArrayList<>();
+        iteration.selected = root.treePolicy();
+        iteration.actionsInTree = root.actionsInTree;
+        iteration.lastActorInTree = iteration.actionsInTree.isEmpty() ? root.decisionPlayer :
+                iteration.actionsInTree.get(iteration.actionsInTree.size() - 1).a;
+
+        // Record the path, and the actions valid at each node on it (as later workers will overwrite these)
+        SingleTreeNode n = root;
+        for (int i = 0; i < iteration.actionsInTree.size(); i++) {
+            iteration.path.add(n);
+            iteration.validActions.add(n.actionsFromOpenLoopState);
+            if (i < iteration.actionsInTree.size() - 1)
+                n = n.children.get(iteration.actionsInTree.get(i).b)[iteration.actionsInTree.get(i + 1).a];
+        }
+        // Each virtual visit counts as the worst result seen so far
+        iteration.lossValue = Double.isInfinite(root.lowReward) ? 0.0 : root.lowReward;
+        addVirtualLoss(iteration, params.virtualLoss);
+
+        // And then set up a detached node to run the rollout, so that this does not touch anything in the shared tree
+        MCTSPlayer worker = workers[iteration.worker];
+        SingleTreeNode roller = new SingleTreeNode();
+        roller.root = roller;
+        roller.params = worker.getParameters();
+        roller.forwardModel = worker.getForwardModel();
+        roller.rnd = iteration.rnd;
+        roller.decisionPlayer = root.decisionPlayer;
+        roller.actionsInTree = new ArrayList<>();
+        roller.actionsInRollout = new ArrayList<>();
+        if (params.information == Closed_Loop) {
+            // rollout() takes its own copy from the node state, so we just need one with the worker's Random
+            roller.state = iteration.selected.state.copy();
+            roller.state.setRnd(iteration.rnd);
+            root.copyCount++;
+        } else {
+            // this state is used only by this iteration
+            iteration.selected.openLoopState.setRnd(iteration.rnd);
+        }
+        roller.openLoopState = iteration.selected.openLoopState;
+        iteration.roller = roller;
+        return iteration;
+    }
+
+    /**
+     * The rollout for one worker. This runs on a worker thread.
+     */
+    private void rollout(Iteration iteration) {
+        iteration.delta = iteration.roller.rollout(iteration.startingValues, iteration.lastActorInTree);
+    }
+
+    /**
+     * Removes the virtual loss for one worker, and backs up the result of its rollout. This runs on the calling thread.
+     */
+    private void backUp(Iteration iteration) {
+        addVirtualLoss(iteration, -params.virtualLoss);
+        for (int i = 0; i < iteration.path.size(); i++)
+            iteration.path.get(i).actionsFromOpenLoopState = iteration.validActions.get(i);
+
+        SingleTreeNode roller = iteration.roller;
+        root.fmCallsCount += roller.fmCallsCount;
+        root.copyCount += roller.copyCount;
+        root.rolloutActionsTaken += roller.actionsInRollout.size();
+        root.actionsInTree = iteration.actionsInTree;
+        root.actionsInRollout = roller.actionsInRollout;
+        iteration.selected.backUp(iteration.delta);
+        root.updateMASTStatistics(iteration.actionsInTree, roller.actionsInRollout, iteration.delta);
+    }
+
+    private void addVirtualLoss(Iteration iteration, int visits) {
+        if (visits == 0) return;
+        for (int i = 0; i < iteration.path.size(); i++) {
+            iteration.path.get(i).addVirtualLoss(iteration.actionsInTree.get(i).b, visits, iteration.lossValue);
+        }
+    }
+}
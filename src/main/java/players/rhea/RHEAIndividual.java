@@ -21,11 +21,19 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
     double discountFactor;            // Discount factor for calculating rewards
     IStateHeuristic heuristic;
     AbstractPlayer rolloutPolicy;
-    private Random gen;               // Random generator
+    Random gen;                       // Random generator (each worker thread has its own in a parallel evaluation)
+    // Closed loop: a state is reused for as long as the actions that led to it are unchanged (so any randomness,
+    // including the moves of the other players, is fixed), and only the part of the individual after the first
+    // changed action is simulated again
+    boolean closedLoop;
+    int validStates;                  // in closed loop, gameStates[0 .. validStates - 1] follow from the actions
+    double[] scores;                  // in closed loop, scores[i] is the heuristic value of gameStates[i + 1]
+    int statesReused;                 // the number of states reused (rather than simulated) by the last evaluation
+    boolean prefixScored;             // true if scores[] is up to date up to the start of the next rollout (see prepareEvaluation)
 
     RHEAIndividual(int L, double discountFactor, AbstractForwardModel fm, AbstractGameState gs,
                    int playerID, Random gen, IStateHeuristic heuristic,
-                   AbstractPlayer rolloutPolicy) {
+                   AbstractPlayer rolloutPolicy, boolean closedLoop) {
         // Initialize
         this.gen = gen;
         this.discountFactor = discountFactor;
@@ -33,9 +41,12 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
         gameStates = new AbstractGameState[L + 1];
         this.heuristic = heuristic;
         this.rolloutPolicy = rolloutPolicy;
+        this.closedLoop = closedLoop;
+        scores = new double[L];
 
         // Rollout with random actions and assign fitness value
         gameStates[0] = gs.copy();
+        validStates = 1;
         rollout(fm, 0, playerID, true);
     }
 
@@ -55,6 +66,43 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
 
         value = I.value;
         gen = I.gen;
+        closedLoop = I.closedLoop;
+        scores = I.scores.clone();
+        validStates = Math.min(I.validStates, length);  // (we only have the states up to length - 1)
+    }
+
+    /**
+     * In closed loop, this is called on a child made by crossover from a copy of p1. The child keeps the states of p1
+     * up to the first action that it does not share with p1 (any states taken from the other parent followed from
+     * different actions).
+     */
+    void keepStatesOf(RHEAIndividual p1) {
+        int sameActions = 0;
+        while (sameActions < actions.length && actions[sameActions] != null && actions[sameActions].equals(p1.actions[sameActions]))
+            sameActions++;
+        validStates = Math.min(p1.validStates, sameActions + 1);
+        System.arraycopy(p1.gameStates, 0, gameStates, 0, validStates);
+    }
+
+    /**
+     * Gets the individual ready to be evaluated from startIndex (as returned by chooseMutation()) on another thread.
+     * Individuals share states (see the copy constructor), and copying or reading a state can change it (see
+     * CopyOnWrite), so this is done on the calling thread, and covers every shared state that the evaluation reads:
+     * the state the rollout starts from is replaced by a copy of its own, and in open loop the states before it are
+     * scored here (in closed loop their scores are already kept).
+     *
+     * @return the number of states copied
+     */
+    int prepareEvaluation(int startIndex, int playerID) {
+        if ((closedLoop && startIndex == actions.length) || gameStates[startIndex] == null)
+            return 0;  // there is nothing to evaluate
+        if (!closedLoop) {
+            for (int i = 0; i < startIndex; i++)
+                scores[i] = heuristic.evaluateState(gameStates[i + 1], playerID);
+            prefixScored = true;
+        }
+        gameStates[startIndex] = gameStates[startIndex].copy();
+        return 1;
     }
 
     /**
@@ -68,19 +116,45 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
      * index of rollout
      */
     public Pair<Integer, Integer> mutate(AbstractForwardModel fm, int playerID, int mutationCount) {
+        return evaluateMutation(fm, chooseMutation(fm, mutationCount), playerID);
+    }
+
+    /**
+     * The first half of mutate(), which changes the actions.
+     *
+     * @return the index from which the individual needs to be evaluated again
+     */
+    int chooseMutation(AbstractForwardModel fm, int mutationCount) {
         // Find index from which to mutate individual, random in range of currently valid length
         int startIndex = actions.length;
         for (int mutation = 0; mutation < mutationCount; mutation++) {
             int position = gen.nextInt(length); // we only consider actions up to the end of the game (which will therefore increase mutation rate towards game end)
             if (gameStates[position] != null) {
                 List<AbstractAction> available = fm.computeAvailableActions(gameStates[position]);
+                AbstractAction oldAction = actions[position];
                 actions[position] = available.get(gen.nextInt(available.size()));
-                if (position < startIndex)
+                if (position < startIndex && !(closedLoop && actions[position].equals(oldAction)))
                     startIndex = position;  // start the rollout from the first mutation
             }
         }
 
+        if (closedLoop)
+            startIndex = Math.min(startIndex, validStates - 1);
+        return startIndex;
+    }
+
+    /**
+     * The second half of mutate(), which evaluates the individual from startIndex (as returned by chooseMutation()).
+     *
+     * @return number of calls to the FM.next() function, and to copy()
+     */
+    Pair<Integer, Integer> evaluateMutation(AbstractForwardModel fm, int startIndex, int playerID) {
         // Perform rollout and return number of FM calls taken.
+        if (closedLoop && startIndex == actions.length) {
+            // every state is still valid, so the value is too
+            statesReused = startIndex;
+            return new Pair<>(0, 0);
+        }
         if (gameStates[startIndex] == null) {
             return new Pair<>(0, 0);
         } else {
@@ -92,6 +166,7 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
      * Performs a rollout with random actions from startIndex to endIndex in the individual, from root game state gs.
      * Starts by repairing the full individual, then mutates it, and finally evaluates it.
      * Evaluates the final state reached and returns the number of calls to the FM.next() function.
+     * In closed loop the rollout starts from the last state that is still valid, if this is before startIndex.
      *
      * @param fm         - forward model
      * @param startIndex - index in individual from which to start rollout
@@ -99,11 +174,36 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
      * @return - number of calls to the FM.next() function
      */
     public Pair<Integer, Integer> rollout(AbstractForwardModel fm, int startIndex, int playerID, boolean repair) {
+        if (closedLoop)
+            startIndex = Math.min(startIndex, validStates - 1);
+        statesReused = startIndex;
+        boolean scored = closedLoop || prefixScored;
+        prefixScored = false;
+        if (startIndex > 0 && !gameStates[startIndex].isNotTerminal()) {
+            // The game is over before any of the actions from startIndex, so they do not matter, and nothing changes.
+            // (Going on would leave the individual with a length of zero, which cannot be mutated.)
+            return new Pair<>(0, 0);
+        }
         length = 0;
         double delta = 0;
         double previousScore = 0;
         int fmCalls = 0, copyCalls = 0;
-        AbstractGameState gs = gameStates[startIndex].copy();
+        // gs is only copied from, so needs no copy of its own (unless we have to move it on to our turn)
+        AbstractGameState gs = gameStates[startIndex];
+        if (gs.isNotTerminal() && gs.getCurrentPlayer() != playerID) {
+            gs = gs.copy();
+            copyCalls++;
+        }
+        // When pondering the first state can be another player's turn, so we fast forward to ours (as we do below
+        // after each of our actions)
+        while (gs.isNotTerminal() && gs.getCurrentPlayer() != playerID) {
+            List<AbstractAction> moves = fm.computeAvailableActions(gs);
+            if (moves.isEmpty()) {
+                throw new AssertionError("No moves found in state " + gs);
+            }
+            fm.next(gs, moves.get(gen.nextInt(moves.size())));
+            fmCalls++;
+        }
 
         // This lot are a local record for use in debugging; Very useful, with no compute overhead for keeping a local copy
         AbstractGameState[] oldGameStates = new AbstractGameState[gameStates.length];
@@ -113,7 +213,7 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
 
         for (int i = 0; i < startIndex; i++) {
             double score;
-            score = heuristic.evaluateState(gameStates[i + 1], playerID);
+            score = scored ? scores[i] : heuristic.evaluateState(gameStates[i + 1], playerID);
             if (Double.isNaN(score))
                 throw new AssertionError("Illegal heuristic value - should be a number");
             delta += Math.pow(discountFactor, i) * (score - previousScore);
@@ -143,8 +243,9 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
                     action = actions[i];
                     nonRepairCount++;
                 }
-                // TODO: Add a closed loop option to not copy the state (expensively) if the action is valid, but jump to the next state stored
-                // TODO: When implemented, this will also need to take account of shiftLeft
+                // We always advance a copy: the stored states may be shared with other individuals (see the copy
+                // constructor), so must never change. In closed loop the states that are still valid have been skipped
+                // already, by starting from validStates - 1 (which shiftPopulation() resets, as the actions move).
                 fm.next(gsCopy, action.copy());
                 fmCalls++;
 
@@ -169,6 +270,7 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
                 score = heuristic.evaluateState(gameStates[i + 1], playerID);
                 if (Double.isNaN(score))
                     throw new AssertionError("Illegal heuristic value - should be a number");
+                scores[i] = score;
                 delta += Math.pow(discountFactor, i) * (score - previousScore);
                 previousScore = score;
 
@@ -180,6 +282,7 @@ public class RHEAIndividual implements Comparable<RHEAIndividual> {
         }
 //        this.value = gs.getScore(playerID);
         this.value = delta;
+        validStates = startIndex + length + 1;
         return new Pair<>(fmCalls, copyCalls);
     }
 
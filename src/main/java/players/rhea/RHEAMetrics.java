@@ -21,6 +21,9 @@ public class RHEAMetrics implements IMetricsCollection {
                 stats.put("iterations", rheaPlayer.numIters);
                 stats.put("fmCalls", rheaPlayer.numIters == 0 ? 0 : rheaPlayer.fmCalls / rheaPlayer.numIters);
                 stats.put("copyCalls", rheaPlayer.numIters == 0 ? 0 : rheaPlayer.copyCalls / rheaPlayer.numIters);
+                stats.put("totalFmCalls", rheaPlayer.fmCalls);
+                stats.put("totalCopyCalls", rheaPlayer.copyCalls);
+                stats.put("statesReused", rheaPlayer.numIters == 0 ? 0 : rheaPlayer.statesReused / rheaPlayer.numIters);
                 stats.put("time", rheaPlayer.timeTaken);
                 stats.put("timePerIteration", rheaPlayer.timePerIteration);
                 stats.put("initTime", rheaPlayer.initTime);
@@ -47,6 +50,9 @@ public class RHEAMetrics implements IMetricsCollection {
             stats.put("iterations", Integer.class);
             stats.put("fmCalls", Integer.class);
             stats.put("copyCalls", Integer.class);
+            stats.put("totalFmCalls", Integer.class);
+            stats.put("totalCopyCalls", Integer.class);
+            stats.put("statesReused", Integer.class);
             stats.put("time", Double.class);
             stats.put("timePerIteration", Double.class);
             stats.put("initTime", Double.class);
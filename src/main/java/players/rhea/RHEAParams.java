@@ -23,6 +23,10 @@ public class RHEAParams extends PlayerParameters
     public boolean shiftLeft;
     public IStateHeuristic heuristic = AbstractGameState::getGameScore;
     public boolean useMAST;
+    public boolean ponder;  // evolve the population while the other players decide
+    public double ponderTopUp = 0.1;  // the fraction of the budget for a decision that follows pondering
+    public boolean closedLoop;  // reuse the states of an individual up to its first changed action (see RHEAIndividual)
+    public int parallelWorkers = 1;  // the number of threads on which the population is evaluated
 
 
     public RHEAParams() {
@@ -38,6 +42,10 @@ public class RHEAParams extends PlayerParameters
         addTunableParameter("mutationCount", 1, Arrays.asList(1, 3, 10));
         addTunableParameter("heuristic", (IStateHeuristic) AbstractGameState::getGameScore);
         addTunableParameter("useMAST", false, Arrays.asList(false, true));
+        addTunableParameter("ponder", false);
+        addTunableParameter("ponderTopUp", 0.1, Arrays.asList(0.0, 0.1, 0.3, 1.0));
+        addTunableParameter("closedLoop", false, Arrays.asList(false, true));
+        addTunableParameter("parallelWorkers", 1);
     }
 
     @Override
@@ -54,6 +62,10 @@ public class RHEAParams extends PlayerParameters
         shiftLeft = (boolean) getParameterValue("shiftLeft");
         mutationCount = (int) getParameterValue("mutationCount");
         useMAST = (boolean) getParameterValue("useMAST");
+        ponder = (boolean) getParameterValue("ponder");
+        ponderTopUp = (double) getParameterValue("ponderTopUp");
+        closedLoop = (boolean) getParameterValue("closedLoop");
+        parallelWorkers = (int) getParameterValue("parallelWorkers");
         heuristic = (IStateHeuristic) getParameterValue("heuristic");
         if (heuristic instanceof TunableParameters) {
             TunableParameters tunableHeuristic = (TunableParameters) heuristic;
@@ -1,22 +1,28 @@
 package players.rhea;
 
+import core.AbstractForwardModel;
 import core.AbstractGameState;
 import core.AbstractPlayer;
+import core.DecoratedForwardModel;
 import core.actions.AbstractAction;
+import players.IPonderingPlayer;
 import players.PlayerConstants;
+import players.Ponderer;
+import players.WorkerPool;
 import players.mcts.MASTPlayer;
+import players.mcts.MASTTable;
 import players.simple.RandomPlayer;
 import utilities.ElapsedCpuTimer;
+import utilities.ElapsedWallTimer;
 import utilities.Pair;
-import utilities.Utils;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.BooleanSupplier;
 
-public class RHEAPlayer extends AbstractPlayer {
+public class RHEAPlayer extends AbstractPlayer implements IPonderingPlayer {
     private static final AbstractPlayer randomPlayer = new RandomPlayer();
     private final Random randomGenerator;
-    List<Map<Object, Pair<Integer, Double>>> MASTStatistics; // a list of one Map per player. Action -> (visits, totValue)
+    MASTTable MASTStatistics; // per player, action -> (visits, totValue)
     protected List<RHEAIndividual> population = new ArrayList<>();
     // Budgets
     protected double timePerIteration = 0, timeTaken = 0, initTime = 0;
@@ -24,7 +30,20 @@ public class RHEAPlayer extends AbstractPlayer {
     protected int fmCalls = 0;
     protected int copyCalls = 0;
     protected int repairCount, nonRepairCount;
+    protected int statesReused;  // states reused in evaluations rather than simulated again (see RHEAIndividual)
     private MASTPlayer mastPlayer;
+    // runs the evolution while other players decide, if params.ponder is true
+    private final Ponderer ponderer = new Ponderer("RHEA ponder");
+    // true if the population has been evolved by pondering since our last decision
+    private boolean pondered;
+    // the fraction of the budget for the current decision (params.ponderTopUp after pondering)
+    private double budgetFraction = 1.0;
+    // for parallel evaluation (params.parallelWorkers > 1): the threads, and the Random, forward model and rollout
+    // policy used by each of them
+    private WorkerPool workerPool;
+    private Random[] workerRandoms;
+    private AbstractForwardModel[] workerModels;
+    private AbstractPlayer[] workerPolicies;
 
     public RHEAPlayer(RHEAParams params) {
         super(params, "RHEAPlayer");
@@ -38,59 +57,58 @@ public class RHEAPlayer extends AbstractPlayer {
     }
     @Override
     public void initializePlayer(AbstractGameState state) {
-        MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < state.getNPlayers(); i++)
-            MASTStatistics.add(new HashMap<>());
+        ponderer.stop();
+        pondered = false;
+        workerModels = null;
+        MASTStatistics = new MASTTable(state.getNPlayers());
         population = new ArrayList<>();
     }
 
     @Override
     public AbstractAction _getAction(AbstractGameState stateObs, List<AbstractAction> possibleActions) {
-        ElapsedCpuTimer timer = new ElapsedCpuTimer();  // New timer for this game tick
-        timer.setMaxTimeMillis(parameters.budget);
+        boolean fromPondering = pondered && !population.isEmpty();
+        budgetFraction = fromPondering ? getParameters().ponderTopUp : 1.0;
+        ElapsedCpuTimer timer = newTimer();  // New timer for this game tick
         numIters = 0;
         fmCalls = 0;
         copyCalls = 0;
         repairCount = 0;
         nonRepairCount = 0;
+        statesReused = 0;
         RHEAParams params = getParameters();
 
         if (params.useMAST) {
             if (MASTStatistics == null) {
-                MASTStatistics = new ArrayList<>();
-                for (int i = 0; i < stateObs.getNPlayers(); i++)
-                    MASTStatistics.add(new HashMap<>());
+                MASTStatistics = new MASTTable(stateObs.getNPlayers());
             } else {
-                MASTStatistics = MASTStatistics.stream()
-                        .map(m -> Utils.decay(m, params.discountFactor))
-                        .collect(Collectors.toList());
+                MASTStatistics.decay(params.discountFactor);
             }
             mastPlayer = new MASTPlayer(null, 1.0, 0.0, System.currentTimeMillis(), 0.0);
             mastPlayer.setStats(MASTStatistics);
         }
+        if (params.parallelWorkers > 1)
+            setUpWorkers();
         // Initialise individuals
-        if (params.shiftLeft && !population.isEmpty()) {
-            population.forEach(i -> i.value = Double.NEGATIVE_INFINITY);  // so that any we don't have time to shift are ignored when picking an action
-            for (RHEAIndividual genome : population) {
-                if (!budgetLeft(timer)) break;
-                System.arraycopy(genome.actions, 1, genome.actions, 0, genome.actions.length - 1);
-                // we shift all actions along, and then rollout with repair
-                genome.gameStates[0] = stateObs.copy();
-                Pair<Integer, Integer> calls = genome.rollout(getForwardModel(), 0, getPlayerID(), true);
-                fmCalls += calls.a;
-                copyCalls += calls.b;
-            }
+        if (fromPondering) {
+            // the population was shifted along when pondering started, so only needs re-evaluating from this state
+            // (all of it, whatever the top-up budget, so that the first action of the best individual is legal)
+            evaluateFrom(stateObs, () -> true);
+        } else if (params.shiftLeft && !population.isEmpty()) {
+            shiftPopulation();
+            evaluateFrom(stateObs, () -> budgetLeft(timer));
         } else {
             population = new ArrayList<>();
             for (int i = 0; i < params.populationSize; ++i) {
                 if (!budgetLeft(timer)) break;
                 population.add(new RHEAIndividual(params.horizon, params.discountFactor, getForwardModel(), stateObs,
-                        getPlayerID(), randomGenerator, params.heuristic, params.useMAST ? mastPlayer : randomPlayer));
+                        getPlayerID(), randomGenerator, params.heuristic, params.useMAST ? mastPlayer : randomPlayer, params.closedLoop));
                 fmCalls += population.get(i).length;
                 copyCalls += population.get(i).length;
             }
         }
 
+        pondered = false;
+
         population.sort(Comparator.naturalOrder());
         initTime = timer.elapsedMillis();
         // Run evolution
@@ -108,19 +126,148 @@ public class RHEAPlayer extends AbstractPlayer {
         return retValue;
     }
 
+    /**
+     * When the evaluation is done on other threads, this thread is mostly idle, and the time budget is for the
+     * elapsed (wall-clock) time instead of the CPU time of this thread.
+     */
+    private ElapsedCpuTimer newTimer() {
+        ElapsedCpuTimer timer = getParameters().parallelWorkers > 1 ? new ElapsedWallTimer() : new ElapsedCpuTimer();
+        timer.setMaxTimeMillis(Math.round(parameters.budget * budgetFraction));
+        return timer;
+    }
+
+    /**
+     * The worker threads are created on first use, and each worker gets its own Random and copy of the forward
+     * model once per game. A DecoratedForwardModel cannot be copied without losing the decorators, but forward models
+     * should be stateless, so the workers then share ours. The rollout policies are set up for each decision.
+     */
+    private void setUpWorkers() {
+        RHEAParams params = getParameters();
+        int nWorkers = params.parallelWorkers;
+        if (workerPool == null || workerPool.size() != nWorkers) {
+            if (workerPool != null)
+                workerPool.shutdown();
+            workerPool = new WorkerPool("RHEA worker", nWorkers);
+            workerModels = null;
+        }
+        if (workerModels == null) {
+            workerRandoms = new Random[nWorkers];
+            workerModels = new AbstractForwardModel[nWorkers];
+            for (int w = 0; w < nWorkers; w++) {
+                workerRandoms[w] = new Random(randomGenerator.nextLong());
+                workerModels[w] = getForwardModel() instanceof DecoratedForwardModel ? getForwardModel() : getForwardModel().copy();
+            }
+        }
+        workerPolicies = new AbstractPlayer[nWorkers];
+        for (int w = 0; w < nWorkers; w++) {
+            if (params.useMAST) {
+                MASTPlayer policy = new MASTPlayer(null, 1.0, 0.0, workerRandoms[w].nextLong(), 0.0);
+                policy.setStats(MASTStatistics);
+                workerPolicies[w] = policy;
+            } else {
+                workerPolicies[w] = new RandomPlayer(workerRandoms[w]);
+            }
+        }
+    }
+
+    /**
+     * Shifts all the actions in each individual along by one, dropping the action we have just taken
+     */
+    private void shiftPopulation() {
+        for (RHEAIndividual genome : population) {
+            System.arraycopy(genome.actions, 1, genome.actions, 0, genome.actions.length - 1);
+            genome.validStates = 1;  // none of the states now follow from the actions
+        }
+    }
+
+    /**
+     * Re-evaluates each individual from the state (with a rollout with repair), for as long as carryOn is true
+     */
+    private void evaluateFrom(AbstractGameState state, BooleanSupplier carryOn) {
+        population.forEach(i -> i.value = Double.NEGATIVE_INFINITY);  // so that any we don't have time to evaluate are ignored when picking an action
+        for (RHEAIndividual genome : population) {
+            if (!carryOn.getAsBoolean()) break;
+            genome.gameStates[0] = state.copy();
+            Pair<Integer, Integer> calls = genome.rollout(getForwardModel(), 0, getPlayerID(), true);
+            fmCalls += calls.a;
+            copyCalls += calls.b;
+        }
+    }
+
+    @Override
+    public boolean ponders() {
+        return getParameters().ponder;
+    }
+
+    /**
+     * Evolves the population from the observation on the ponder thread until stopped (or out of CPU time), with no
+     * budget, so that the evolution carries on for as long as the other players take. The first time after our
+     * decision the population is shifted along (whether shiftLeft is set or not), and it is then kept for the next
+     * decision, which only tops up the evolution, with ponderTopUp of the budget. Nothing is done before our first
+     * decision. As the individuals only hold our own actions, the other players' moves from the observation to our
+     * turn are played out at random in each rollout.
+     */
+    @Override
+    public void startPondering(AbstractGameState observation, long cpuLimitNanos) {
+        if (population.isEmpty())
+            return;
+        ponderer.start(() -> {
+            numIters = 0;
+            fmCalls = 0;
+            copyCalls = 0;
+            statesReused = 0;
+            if (!pondered)
+                shiftPopulation();
+            pondered = true;
+            evaluateFrom(observation, () -> !ponderer.shouldStop());
+            population.sort(Comparator.naturalOrder());
+            while (!ponderer.shouldStop()) {
+                runIteration();
+            }
+        }, cpuLimitNanos);
+    }
+
+    @Override
+    public long stopPondering() {
+        return ponderer.stop();
+    }
+
+    @Override
+    public void finalizePlayer(AbstractGameState state) {
+        // new threads are created if we are used for another game
+        ponderer.shutdown();
+        if (workerPool != null) {
+            workerPool.shutdown();
+            workerPool = null;
+            workerModels = null;
+        }
+    }
+
+    @Override
+    public void setBudget(int budget) {
+        parameters.budget = budget;
+        parameters.setParameterValue("budget", budget);
+    }
+
+    @Override
+    public int getBudget() {
+        return parameters.budget;
+    }
+
     private boolean budgetLeft(ElapsedCpuTimer timer) {
         RHEAParams params = getParameters();
+        long budget = Math.round(params.budget * budgetFraction);
         if (params.budgetType == PlayerConstants.BUDGET_TIME) {
             long remaining = timer.remainingTimeMillis();
             return remaining > params.breakMS;
         } else if (params.budgetType == PlayerConstants.BUDGET_FM_CALLS) {
-            return fmCalls < params.budget;
+            return fmCalls < budget;
         } else if (params.budgetType == PlayerConstants.BUDGET_COPY_CALLS) {
-            return copyCalls < params.budget && numIters < params.budget;
+            return copyCalls < budget && numIters < budget;
         } else if (params.budgetType == PlayerConstants.BUDGET_FMANDCOPY_CALLS) {
-            return (fmCalls + copyCalls) < params.budget;
+            return (fmCalls + copyCalls) < budget;
         } else if (params.budgetType == PlayerConstants.BUDGET_ITERATIONS) {
-            return numIters < params.budget;
+            return numIters < budget;
         }
         throw new AssertionError("This should be unreachable : " + params.budgetType);
     }
@@ -247,17 +394,24 @@ public class RHEAPlayer extends AbstractPlayer {
         for (int i = 0; i < params.childCount; ++i) {
             RHEAIndividual[] parents = selectParents();
             RHEAIndividual child = crossover(parents[0], parents[1]);
+            if (params.closedLoop)
+                child.keepStatesOf(parents[0]);
             population.add(child);
         }
 
-        for (RHEAIndividual individual : population) {
-            Pair<Integer, Integer> calls = individual.mutate(getForwardModel(), getPlayerID(), params.mutationCount);
-            fmCalls += calls.a;
-            copyCalls += calls.b;
-            repairCount += individual.repairCount;
-            nonRepairCount += individual.nonRepairCount;
-            if (params.useMAST)
-                MASTBackup(individual.actions, individual.value, getPlayerID());
+        if (params.parallelWorkers > 1) {
+            mutateInParallel();
+        } else {
+            for (RHEAIndividual individual : population) {
+                Pair<Integer, Integer> calls = individual.mutate(getForwardModel(), getPlayerID(), params.mutationCount);
+                fmCalls += calls.a;
+                copyCalls += calls.b;
+                repairCount += individual.repairCount;
+                nonRepairCount += individual.nonRepairCount;
+                statesReused += individual.statesReused;
+                if (params.useMAST)
+                    MASTBackup(individual.actions, individual.value, getPlayerID());
+            }
         }
 
         //sort
@@ -276,15 +430,63 @@ public class RHEAPlayer extends AbstractPlayer {
     }
 
 
+    /**
+     * Mutates (and so evaluates) the whole population at once on the worker threads, with each worker taking every
+     * nWorkers-th individual. The actions are mutated here, as this reads states that may be shared with individuals
+     * on other workers, and each individual then gets its own copy of the one state its rollout starts from (see
+     * RHEAIndividual.prepareEvaluation()); only the evaluations run on the workers. The budgets and the MAST
+     * statistics are updated once they have all finished.
+     * <p>
+     * Note that only the CPU time of this thread is measured by the ElapsedCpuChessTimer in competition mode, and by
+     * the Ponderer when pondering, so the time used on the worker threads is charged to neither.
+     */
+    private void mutateInParallel() {
+        int mutationCount = getParameters().mutationCount;
+        int nWorkers = workerPool.size();
+        int populationSize = population.size();
+        int[] startIndexOf = new int[populationSize];
+        int[] fmCallsOf = new int[populationSize];
+        int[] copyCallsOf = new int[populationSize];
+        for (int i = 0; i < populationSize; i++) {
+            RHEAIndividual individual = population.get(i);
+            int worker = i % nWorkers;
+            individual.gen = workerRandoms[worker];
+            individual.rolloutPolicy = workerPolicies[worker];
+            startIndexOf[i] = individual.chooseMutation(workerModels[worker], mutationCount);
+            copyCalls += individual.prepareEvaluation(startIndexOf[i], getPlayerID());
+        }
+        List<Runnable> tasks = new ArrayList<>();
+        for (int w = 0; w < nWorkers; w++) {
+            int worker = w;
+            tasks.add(() -> {
+                for (int i = worker; i < populationSize; i += nWorkers) {
+                    RHEAIndividual individual = population.get(i);
+                    Pair<Integer, Integer> calls = individual.evaluateMutation(workerModels[worker], startIndexOf[i], getPlayerID());
+                    fmCallsOf[i] = calls.a;
+                    copyCallsOf[i] = calls.b;
+                }
+            });
+        }
+        workerPool.run(tasks);
+
+        for (int i = 0; i < populationSize; i++) {
+            RHEAIndividual individual = population.get(i);
+            fmCalls += fmCallsOf[i];
+            copyCalls += copyCallsOf[i];
+            repairCount += individual.repairCount;
+            nonRepairCount += individual.nonRepairCount;
+            statesReused += individual.statesReused;
+            if (getParameters().useMAST)
+                MASTBackup(individual.actions, individual.value, getPlayerID());
+        }
+    }
+
     protected void MASTBackup(AbstractAction[] rolloutActions, double delta, int player) {
         for (int i = 0; i < rolloutActions.length; i++) {
             AbstractAction action = rolloutActions[i];
             if (action == null)
                 break;
-            Pair<Integer, Double> stats = MASTStatistics.get(player).getOrDefault(action, new Pair<>(0, 0.0));
-            stats.a++;  // visits
-            stats.b += delta;   // value
-            MASTStatistics.get(player).put(action.copy(), stats);
+            MASTStatistics.update(player, MASTTable.keyOf(action, null), delta);
         }
     }
 
@@ -15,7 +15,7 @@ public class Individual implements Comparable {
     int length;                       // Actual length of individual, <= actions.length
     double discountFactor;            // Discount factor for calculating rewards
 
-    private Random gen;               // Random generator
+    Random gen;                       // Random generator (each worker thread has its own in a parallel evaluation)
     IStateHeuristic heuristic;
 
     Individual(int L, double discountFactor, AbstractForwardModel fm, AbstractGameState gs, int playerID, Random gen, IStateHeuristic heuristic) {
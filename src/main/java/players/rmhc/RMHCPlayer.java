@@ -1,11 +1,16 @@
 package players.rmhc;
 
+import core.AbstractForwardModel;
 import core.AbstractGameState;
 import core.AbstractPlayer;
+import core.DecoratedForwardModel;
 import core.actions.AbstractAction;
 import players.PlayerConstants;
+import players.WorkerPool;
 import utilities.ElapsedCpuTimer;
+import utilities.ElapsedWallTimer;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
@@ -19,6 +24,11 @@ public class RMHCPlayer extends AbstractPlayer {
     private int numIters = 0;
     private int fmCalls = 0;
     private int copyCalls = 0;
+    // for parallel evaluation (params.parallelWorkers > 1): the threads, and the Random and forward model used by
+    // each of them
+    private WorkerPool workerPool;
+    private Random[] workerRandoms;
+    private AbstractForwardModel[] workerModels;
 
     public RMHCPlayer() {
         this(new RMHCParams());
@@ -34,9 +44,27 @@ public class RMHCPlayer extends AbstractPlayer {
         return (RMHCParams) parameters;
     }
 
+    @Override
+    public void initializePlayer(AbstractGameState state) {
+        workerModels = null;
+    }
+
+    @Override
+    public void finalizePlayer(AbstractGameState state) {
+        // a new pool is created if we are used for another game
+        if (workerPool != null) {
+            workerPool.shutdown();
+            workerPool = null;
+            workerModels = null;
+        }
+    }
+
     @Override
     public AbstractAction _getAction(AbstractGameState stateObs, List<AbstractAction> possibleActions) {
-        ElapsedCpuTimer timer = new ElapsedCpuTimer();  // New timer for this game tick
+        // When candidates are evaluated on other threads this thread is mostly idle, so the time budget is for the
+        // elapsed (wall-clock) time instead of the CPU time of this thread
+        ElapsedCpuTimer timer = getParameters().parallelWorkers > 1 ? new ElapsedWallTimer() : new ElapsedCpuTimer();  // New timer for this game tick
+        timer.setMaxTimeMillis(parameters.budget);
         avgTimeTaken = 0;
         acumTimeTaken = 0;
         numIters = 0;
@@ -49,9 +77,14 @@ public class RMHCPlayer extends AbstractPlayer {
         fmCalls += bestIndividual.length;
 
         // Run evolution
+        if (params.parallelWorkers > 1)
+            setUpWorkers();
         boolean keepIterating = true;
         while (keepIterating) {
-            runIteration(stateObs);
+            if (params.parallelWorkers > 1)
+                runParallelIteration();
+            else
+                runIteration(stateObs);
 
             // Check budget depending on budget type
             if (params.budgetType == PlayerConstants.BUDGET_TIME) {
@@ -106,6 +139,63 @@ public class RMHCPlayer extends AbstractPlayer {
         avgTimeTaken = acumTimeTaken / numIters;
     }
 
+    /**
+     * The worker threads are created on first use, and each worker gets its own Random and copy of the forward
+     * model once per game. A DecoratedForwardModel cannot be copied without losing the decorators, but forward models
+     * should be stateless, so the workers then share ours.
+     */
+    private void setUpWorkers() {
+        int nWorkers = getParameters().parallelWorkers;
+        if (workerPool == null || workerPool.size() != nWorkers) {
+            if (workerPool != null)
+                workerPool.shutdown();
+            workerPool = new WorkerPool("RMHC worker", nWorkers);
+            workerModels = null;
+        }
+        if (workerModels == null) {
+            workerRandoms = new Random[nWorkers];
+            workerModels = new AbstractForwardModel[nWorkers];
+            for (int w = 0; w < nWorkers; w++) {
+                workerRandoms[w] = new Random(randomGenerator.nextLong());
+                workerModels[w] = getForwardModel() instanceof DecoratedForwardModel ? getForwardModel() : getForwardModel().copy();
+            }
+        }
+    }
+
+    /**
+     * As runIteration(), but each worker makes and evaluates its own mutation of the best individual at the same
+     * time, and the best of these replaces the current best if it is better. Each candidate counts as an iteration.
+     */
+    private void runParallelIteration() {
+        ElapsedCpuTimer elapsedTimerIteration = new ElapsedWallTimer();
+        int nWorkers = workerPool.size();
+        Individual[] candidates = new Individual[nWorkers];
+        int[] statesUpdated = new int[nWorkers];
+        // the copies are made here, as copying the states of the current best changes them (see CopyOnWrite)
+        for (int w = 0; w < nWorkers; w++) {
+            candidates[w] = new Individual(bestIndividual);
+            candidates[w].gen = workerRandoms[w];
+        }
+        List<Runnable> tasks = new ArrayList<>();
+        for (int w = 0; w < nWorkers; w++) {
+            int worker = w;
+            tasks.add(() -> statesUpdated[worker] = candidates[worker].mutate(workerModels[worker], getPlayerID()));
+        }
+        workerPool.run(tasks);
+
+        for (int w = 0; w < nWorkers; w++) {
+            copyCalls += candidates[w].length + statesUpdated[w];
+            fmCalls += statesUpdated[w];
+            if (candidates[w].value > bestIndividual.value)
+                bestIndividual = candidates[w];
+        }
+
+        // Update budgets
+        numIters += nWorkers;
+        acumTimeTaken += (elapsedTimerIteration.elapsedMillis());
+        avgTimeTaken = acumTimeTaken / ((double) numIters / nWorkers);
+    }
+
 //    public static void main(String[] args){
 //        /* 1. Action controller for GUI interactions. If set to null, running without visuals. */
 //        ActionController ac = new ActionController(); //null;
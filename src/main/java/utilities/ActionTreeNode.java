@@ -3,8 +3,7 @@ package utilities;
 import core.actions.AbstractAction;
 import org.json.simple.JSONObject;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 public class ActionTreeNode {
 
@@ -14,6 +13,64 @@ public class ActionTreeNode {
     List<ActionTreeNode> children;
     int SubNodes;
     ActionTreeNode parent;
+    // The index of the whole tree, once it has been built by the root; and the position of this node in its arrays
+    TreeIndex index;
+    int nodeIndex, leafIndex = -1;
+
+    /**
+     * The structure of an action tree is fixed once it is initialised (see ITreeActionSpace), but its values are
+     * updated for every decision. So the first time the root is asked for its leaves or mask, it puts its nodes (breadth
+     * first) and its leaves into arrays, and keeps the mask of the tree and of the leaves in int arrays which are
+     * updated in place as values are set. Adding a node to the tree discards the index, and it is built again when next
+     * needed.
+     */
+    static final class TreeIndex {
+        final ActionTreeNode[] nodes;  // including the root, at 0
+        final List<ActionTreeNode> leaves;
+        final int[] treeMask;  // the value of each node except the root, as in getActionMask()
+        final int[] leafMask;
+        Map<String, ActionTreeNode> byName;  // the first node (breadth first) with each name; made when first needed
+
+        TreeIndex(ActionTreeNode root) {
+            List<ActionTreeNode> all = new ArrayList<>();
+            List<ActionTreeNode> leafNodes = new ArrayList<>();
+            all.add(root);
+            for (int i = 0; i < all.size(); i++) {
+                ActionTreeNode node = all.get(i);
+                node.index = this;
+                node.nodeIndex = i;
+                node.leafIndex = -1;
+                if (node.children.isEmpty()) {
+                    node.leafIndex = leafNodes.size();
+                    leafNodes.add(node);
+                } else {
+                    all.addAll(node.children);
+                }
+            }
+            nodes = all.toArray(new ActionTreeNode[0]);
+            leaves = Collections.unmodifiableList(leafNodes);
+            treeMask = new int[nodes.length - 1];
+            leafMask = new int[leaves.size()];
+            for (ActionTreeNode node : nodes)
+                update(node);
+        }
+
+        void update(ActionTreeNode node) {
+            if (node.nodeIndex > 0)
+                treeMask[node.nodeIndex - 1] = node.value;
+            if (node.leafIndex >= 0)
+                leafMask[node.leafIndex] = node.value;
+        }
+
+        ActionTreeNode findByName(String name) {
+            if (byName == null) {
+                byName = new HashMap<>();
+                for (ActionTreeNode node : nodes)
+                    byName.putIfAbsent(node.name, node);
+            }
+            return byName.get(name);
+        }
+    }
 
     // Constructors
     public ActionTreeNode() {
@@ -38,14 +95,48 @@ public class ActionTreeNode {
         this.SubNodes = 0;
     }
 
+    // The index of the tree, if this is its root (else null, and the methods below search the sub-tree as before)
+    private TreeIndex rootIndex() {
+        if (parent != null)
+            return null;
+        if (index == null || index.nodes[0] != this)
+            index = new TreeIndex(this);
+        return index;
+    }
+
     // Methods for Flattening
 
     public int[] getActionMask() {
+        TreeIndex idx = rootIndex();
+        if (idx != null)
+            return idx.treeMask.clone();
         List<Integer> vals = this.flattenValues();
         vals.remove(0);
         return vals.stream().mapToInt(i -> i).toArray();
     }
 
+    /**
+     * As getActionMask(), but returns the array that is kept up to date as values change, rather than a copy. It must
+     * not be modified. Only the root of a tree has this.
+     */
+    public int[] getActionMaskBuffer() {
+        TreeIndex idx = rootIndex();
+        if (idx == null)
+            throw new IllegalStateException("Only the root of an action tree has a mask buffer");
+        return idx.treeMask;
+    }
+
+    /**
+     * The values of the leaf nodes (in the order of getLeafNodes()), in the array that is kept up to date as values
+     * change. It must not be modified. Only the root of a tree has this.
+     */
+    public int[] getLeafMaskBuffer() {
+        TreeIndex idx = rootIndex();
+        if (idx == null)
+            throw new IllegalStateException("Only the root of an action tree has a mask buffer");
+        return idx.leafMask;
+    }
+
     public List<String> getActionMaskNames() {
         List<String> vals = this.flattenNames();
         vals.remove(0);
@@ -53,12 +144,16 @@ public class ActionTreeNode {
     }
 
     // Searches the tree breadth first for all leaf nodes and returns them
+    // (for the root of a tree this is the unmodifiable list kept by its index)
     public List<ActionTreeNode> getLeafNodes(){
-        List<ActionTreeNode> nodes = new ArrayList<ActionTreeNode>();
+        TreeIndex idx = rootIndex();
+        if (idx != null)
+            return idx.leaves;
+        Deque<ActionTreeNode> nodes = new ArrayDeque<ActionTreeNode>();
         List<ActionTreeNode> leafNodes = new ArrayList<ActionTreeNode>();
         nodes.add(this);
         while(nodes.size() > 0){
-            ActionTreeNode node = nodes.remove(0);
+            ActionTreeNode node = nodes.poll();
             if(node.children.size() == 0){
                 leafNodes.add(node);
             } else {
@@ -83,10 +178,10 @@ public class ActionTreeNode {
 
     public List<String> flattenNames(){
         List<String> names = new ArrayList<String>();
-        List<ActionTreeNode> nodes = new ArrayList<ActionTreeNode>();
+        Deque<ActionTreeNode> nodes = new ArrayDeque<ActionTreeNode>();
         nodes.add(this);
         while (nodes.size() > 0){
-            ActionTreeNode node = nodes.remove(0);
+            ActionTreeNode node = nodes.poll();
             names.add(node.name);
             nodes.addAll(node.children);
         }
@@ -95,10 +190,10 @@ public class ActionTreeNode {
 
     public List<Integer> flattenValues(){
         List<Integer> values = new ArrayList<Integer>();
-        List<ActionTreeNode> nodes = new ArrayList<ActionTreeNode>();
+        Deque<ActionTreeNode> nodes = new ArrayDeque<ActionTreeNode>();
         nodes.add(this);
         while(nodes.size() > 0){
-            ActionTreeNode node = nodes.remove(0);
+            ActionTreeNode node = nodes.poll();
             values.add(node.value);
             nodes.addAll(node.children);
         }
@@ -107,11 +202,21 @@ public class ActionTreeNode {
 
     // Reset all the nodes in the tree, keeps structure only sets value and action to 0/null
     public void resetTree(){
-        List<ActionTreeNode> nodes = new ArrayList<ActionTreeNode>();
+        TreeIndex idx = rootIndex();
+        if (idx != null) {
+            for (ActionTreeNode node : idx.nodes) {
+                node.value = 0;
+                node.action = null;
+            }
+            Arrays.fill(idx.treeMask, 0);
+            Arrays.fill(idx.leafMask, 0);
+            return;
+        }
+        Deque<ActionTreeNode> nodes = new ArrayDeque<ActionTreeNode>();
         nodes.add(this);
         while(nodes.size() > 0){
-            ActionTreeNode node = nodes.remove(0);
-            node.value = 0;
+            ActionTreeNode node = nodes.poll();
+            node.setValue(0);
             node.action = null;
             nodes.addAll(node.children);
         }
@@ -122,14 +227,21 @@ public class ActionTreeNode {
     }
     // sets the value of the node to 1 if it is found
     public ActionTreeNode findChildrenByName(String name, boolean setAvailable){
-        List<ActionTreeNode> nodes = new ArrayList<ActionTreeNode>();
+        TreeIndex idx = rootIndex();
+        if (idx != null) {
+            ActionTreeNode node = idx.findByName(name);
+            if (node != null && setAvailable)
+                node.setValue(1);
+            return node;
+        }
+        Deque<ActionTreeNode> nodes = new ArrayDeque<ActionTreeNode>();
         nodes.add(this);
         while(nodes.size() > 0){
-            ActionTreeNode node = nodes.remove(0);
+            ActionTreeNode node = nodes.poll();
             nodes.addAll(node.children);
             if (node.name.equals(name)){
                 if(setAvailable){
-                    node.value = 1;
+                    node.setValue(1);
                 }
                 return node;
             }
@@ -158,6 +270,7 @@ public class ActionTreeNode {
     public ActionTreeNode addChild(){
         ActionTreeNode child = new ActionTreeNode();
         this.children.add(child);
+        discardIndex();
         child.parent = this;
         child.updateSubNodes();
         return child;
@@ -166,6 +279,7 @@ public class ActionTreeNode {
     public ActionTreeNode addChild(int value){
         ActionTreeNode child = new ActionTreeNode(value);
         this.children.add(child);
+        discardIndex();
         child.parent = this;
         child.updateSubNodes();
         return child;
@@ -174,11 +288,20 @@ public class ActionTreeNode {
     public ActionTreeNode addChild(int value, String name){
         ActionTreeNode child = new ActionTreeNode(value, name);
         this.children.add(child);
+        discardIndex();
         child.parent = this;
         child.updateSubNodes();
         return child;
     }
 
+    // The structure of the tree has changed, so the index of its root is out of date
+    private void discardIndex(){
+        ActionTreeNode root = this;
+        while (root.parent != null)
+            root = root.parent;
+        root.index = null;
+    }
+
     public void updateSubNodes(){
         if(parent != null){
             parent.setSubNodes(parent.getSubNodes() + 1);
@@ -206,8 +329,8 @@ public class ActionTreeNode {
 
     public AbstractAction getAction() {return action;}
     public void setAction(AbstractAction action) {
-        this.value = 1;
-        this.parent.value = 1;
+        setValue(1);
+        this.parent.setValue(1);
         this.action = action;
     }
     public AbstractAction getActionByVector(int[] vector){
@@ -222,12 +345,16 @@ public class ActionTreeNode {
     }
     public void setValue(int value) {
         this.value = value;
+        if (index != null)
+            index.update(this);
     }
     public String getName() {
         return name;
     }
     public void setName(String name) {
         this.name = name;
+        if (index != null)
+            index.byName = null;
     }
     public List<ActionTreeNode> getChildren() {
         return children;
@@ -45,6 +45,13 @@ public class ElapsedCpuChessTimer extends ElapsedCpuTimer {
         timeRemaining += incrementMilestone;
     }
 
+    /**
+     * Charges time used while the timer was paused (e.g. by a player pondering on another thread)
+     */
+    public void consume(long nanos) {
+        timeRemaining -= nanos;
+    }
+
     public void resume() {
         // Update oldTime to current time
         oldTime = getTime();
@@ -0,0 +1,22 @@
+package utilities;
+
+/**
+ * ElapsedCpuTimer measures the CPU time used by the current thread. When work is farmed out to other threads
+ * the calling thread is mostly idle, and we want to measure elapsed (wall-clock) time instead.
+ */
+public class ElapsedWallTimer extends ElapsedCpuTimer {
+
+    @Override
+    protected long getTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public ElapsedWallTimer copy() {
+        ElapsedWallTimer newTimer = new ElapsedWallTimer();
+        newTimer.maxTime = this.maxTime;
+        newTimer.oldTime = this.oldTime;
+        newTimer.nIters = this.nIters;
+        return newTimer;
+    }
+}
@@ -0,0 +1,117 @@
+package utilities;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of durations (or any non-negative longs) in the style of HdrHistogram: values are counted in buckets
+ * whose width grows with the value, so that any value is recorded to within about 3% (1/SUB_BUCKETS) using a small
+ * fixed amount of memory, and the percentiles (including the extreme tail) can be read off afterwards.
+ * <p>
+ * Values below SUB_BUCKETS are recorded exactly. Above that each power of two is split into SUB_BUCKETS equal
+ * buckets. Recording is lock-free (a few atomic increments), so one histogram can be shared by parallel games.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    public static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // enough buckets for any positive long
+    private static final int N_BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(N_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);  // >= SUB_BITS
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    // the smallest value that is counted in the bucket
+    static long lowestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+    }
+
+    // the largest value that is counted in the bucket
+    static long highestValueIn(int bucket) {
+        return bucket == N_BUCKETS - 1 ? Long.MAX_VALUE : lowestValueIn(bucket + 1) - 1;
+    }
+
+    public void record(long value) {
+        if (value < 0)
+            value = 0;  // nanoTime() differences can very occasionally be negative
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        long currentMax;
+        while (value > (currentMax = max.get()) && !max.compareAndSet(currentMax, value)) {
+            // another thread has updated max, so try again
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0.0 : total.get() / (double) n;
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile - between 0 and 100
+     * @return a value that at least percentile% of the recorded values are less than or equal to (to within the
+     * bucket resolution), or 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long n = count.get();
+        if (n == 0)
+            return 0;
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int b = 0; b < N_BUCKETS; b++) {
+            seen += counts.get(b);
+            if (seen >= target)
+                return Math.min(highestValueIn(b), max.get());
+        }
+        return max.get();
+    }
+
+    /**
+     * Adds all the values recorded in other to this histogram
+     */
+    public void add(LatencyHistogram other) {
+        for (int b = 0; b < N_BUCKETS; b++) {
+            long c = other.counts.get(b);
+            if (c > 0)
+                counts.addAndGet(b, c);
+        }
+        count.addAndGet(other.count.get());
+        total.addAndGet(other.total.get());
+        long otherMax = other.max.get();
+        long currentMax;
+        while (otherMax > (currentMax = max.get()) && !max.compareAndSet(currentMax, otherMax)) {
+            // try again
+        }
+    }
+
+    public void reset() {
+        for (int b = 0; b < N_BUCKETS; b++)
+            counts.set(b, 0);
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+}
@@ -0,0 +1,111 @@
+package utilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A hash map from primitive long keys (such as AbstractGameState.getStateKey()) to objects, for use as a
+ * transposition table. Unlike HashMap&lt;Long, V&gt; this does not box the keys or allocate an entry per mapping.
+ * <p>
+ * This uses open addressing with linear probing. Null values are not allowed (a null value marks an empty slot),
+ * and there is no removal other than clear().
+ */
+public class LongHashMap<V> {
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+
+    public LongHashMap() {
+        this(16);
+    }
+
+    public LongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    private int slot(long key) {
+        // the keys may already be well mixed, but we cannot rely on that
+        long h = key * 0x9e3779b97f4a7c15L;
+        int index = (int) (h ^ (h >>> 32)) & mask;
+        while (values[index] != null && keys[index] != key)
+            index = (index + 1) & mask;
+        return index;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        return (V) values[slot(key)];
+    }
+
+    public boolean containsKey(long key) {
+        return values[slot(key)] != null;
+    }
+
+    /**
+     * @return the previous value for the key, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null)
+            throw new IllegalArgumentException("Null values are not allowed");
+        int index = slot(key);
+        V old = (V) values[index];
+        keys[index] = key;
+        values[index] = value;
+        if (old == null && ++size * 4 > values.length * 3)
+            resize();
+        return old;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int index = slot(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> retValue = new ArrayList<>(size);
+        for (Object v : values)
+            if (v != null)
+                retValue.add((V) v);
+        return retValue;
+    }
+
+    public long[] keys() {
+        long[] retValue = new long[size];
+        int count = 0;
+        for (int i = 0; i < keys.length; i++)
+            if (values[i] != null)
+                retValue[count++] = keys[i];
+        return retValue;
+    }
+}
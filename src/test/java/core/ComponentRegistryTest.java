@@ -0,0 +1,153 @@
+package core;
+
+import core.components.Area;
+import core.components.Card;
+import core.components.Component;
+import core.components.Deck;
+import core.components.Token;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ComponentRegistryTest {
+
+    private Deck<Card> deckOf(int nCards) {
+        Deck<Card> deck = new Deck<>("Test", CoreConstants.VisibilityMode.VISIBLE_TO_ALL);
+        for (int i = 0; i < nCards; i++)
+            deck.add(new Card("Card " + i));
+        return deck;
+    }
+
+    @Test
+    public void findsNestedComponents() {
+        Deck<Card> deck = deckOf(10);
+        ComponentRegistry registry = new ComponentRegistry();
+        assertFalse(registry.isFilled());
+        registry.fill(Collections.singletonList(deck));
+        assertTrue(registry.isFilled());
+        assertEquals(11, registry.size());
+        assertSame(deck, registry.get(deck.getComponentID()));
+        for (Card card : deck.getComponents())
+            assertSame(card, registry.get(card.getComponentID()));
+        assertNull(registry.get(-1));
+    }
+
+    @Test
+    public void copiesUseTheirOwnComponents() {
+        Deck<Card> deck = deckOf(10);
+        ComponentRegistry registry = new ComponentRegistry();
+        registry.fill(Collections.singletonList(deck));
+
+        ComponentRegistry copy = registry.emptyCopy();
+        assertFalse(copy.isFilled());
+        assertNull(copy.get(deck.getComponentID()));
+        Deck<Card> deckCopy = deck.copy();
+        copy.fill(Collections.singletonList(deckCopy));
+        assertSame(deckCopy, copy.get(deck.getComponentID()));
+        assertSame(deck, registry.get(deck.getComponentID()));
+        for (Card card : deckCopy.getComponents())
+            assertSame(card, copy.get(card.getComponentID()));
+    }
+
+    // a copy of a deck that counts how often its contents are searched
+    static class CountingDeck extends Deck<Card> {
+        int searches;
+
+        CountingDeck(Deck<Card> original) {
+            super(original.getComponentName(), original.getOwnerId(), original.getComponentID(),
+                    CoreConstants.VisibilityMode.VISIBLE_TO_ALL);
+            // add() puts each card on top
+            for (int i = original.getSize() - 1; i >= 0; i--)
+                add(original.get(i).copy());
+            searches = 0;
+        }
+
+        @Override
+        public List<Card> getComponents() {
+            searches++;
+            return super.getComponents();
+        }
+    }
+
+    @Test
+    public void copiesOnlySearchWhereTheComponentWas() {
+        Deck<Card> first = deckOf(10);
+        Deck<Card> second = deckOf(10);
+        ComponentRegistry registry = new ComponentRegistry();
+        registry.fill(Arrays.asList(first, second));
+
+        ComponentRegistry copy = registry.emptyCopy();
+        CountingDeck firstCopy = new CountingDeck(first);
+        CountingDeck secondCopy = new CountingDeck(second);
+        List<Component> topLevel = Arrays.asList(firstCopy, secondCopy);
+        Card wanted = second.get(3);
+        Component found = copy.resolve(wanted.getComponentID(), topLevel);
+        assertSame(secondCopy.get(3), found);
+        assertEquals(0, firstCopy.searches);
+        assertEquals(1, secondCopy.searches);
+        assertFalse(copy.isFilled());
+        // and the copy's own component is then found straight away
+        assertSame(found, copy.get(wanted.getComponentID()));
+        assertSame(wanted, registry.get(wanted.getComponentID()));
+        assertSame(firstCopy, copy.resolve(first.getComponentID(), topLevel));
+        assertEquals(0, firstCopy.searches);
+
+        // a component that has moved is not found, so the registry must be filled
+        Card moved = secondCopy.draw();
+        firstCopy.add(moved);
+        assertNull(copy.resolve(moved.getComponentID(), topLevel));
+        copy.fill(topLevel);
+        assertSame(moved, copy.get(moved.getComponentID()));
+        // and copies of the copy then look for it where it is now
+        assertEquals(0, copy.emptyCopy().ownerOf(moved.getComponentID()));
+    }
+
+    @Test
+    public void componentsOutsideTheRange() {
+        Token early = new Token("Early");
+        for (int i = 0; i < 1000; i++)
+            new Token("Unused");
+        List<Component> components = new ArrayList<>();
+        components.add(early);
+        for (int i = 0; i < 10; i++)
+            components.add(new Token("Token " + i));
+        ComponentRegistry registry = new ComponentRegistry();
+        registry.fill(components);
+        for (Component c : components)
+            assertSame(c, registry.get(c.getComponentID()));
+
+        // and one created after setup
+        Token late = new Token("Late");
+        assertNull(registry.get(late.getComponentID()));
+        registry.put(late);
+        assertSame(late, registry.get(late.getComponentID()));
+        assertEquals(12, registry.size());
+    }
+
+    @Test
+    public void refillRemovesOldComponents() {
+        Deck<Card> deck = deckOf(5);
+        ComponentRegistry registry = new ComponentRegistry();
+        registry.fill(Collections.singletonList(deck));
+        Card removed = deck.draw();
+        registry.fill(Collections.singletonList(deck));
+        assertNull(registry.get(removed.getComponentID()));
+        assertEquals(5, registry.size());
+    }
+
+    @Test
+    public void copyIntoArea() {
+        Deck<Card> deck = deckOf(5);
+        ComponentRegistry registry = new ComponentRegistry();
+        registry.fill(Collections.singletonList(deck));
+        Area area = new Area(-1, "All");
+        registry.copyInto(area);
+        assertEquals(6, area.size());
+        assertSame(deck, area.getComponent(deck.getComponentID()));
+    }
+}
@@ -0,0 +1,103 @@
+package core;
+
+import core.components.Card;
+import core.components.Deck;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CopyOnWriteTest {
+
+    private CopyOnWrite<Deck<Card>> deckOf(int nCards) {
+        Deck<Card> deck = new Deck<>("Test", CoreConstants.VisibilityMode.VISIBLE_TO_ALL);
+        for (int i = 0; i < nCards; i++)
+            deck.add(new Card("Card " + i));
+        return new CopyOnWrite<>(deck);
+    }
+
+    @Test
+    public void sharingDoesNotCopy() {
+        CopyOnWrite<Deck<Card>> original = deckOf(5);
+        CopyOnWrite<Deck<Card>> copy = original.share();
+        assertSame(original.peek(), copy.peek());
+        assertTrue(original.isShared());
+        assertTrue(copy.isShared());
+        assertEquals(original, copy);
+    }
+
+    @Test
+    public void writingToCopyDoesNotChangeOriginal() {
+        CopyOnWrite<Deck<Card>> original = deckOf(5);
+        CopyOnWrite<Deck<Card>> copy = original.share();
+        copy.get().draw();
+        assertEquals(4, copy.peek().getSize());
+        assertEquals(5, original.peek().getSize());
+        assertFalse(copy.isShared());
+        assertNotEquals(original, copy);
+    }
+
+    @Test
+    public void writingToOriginalDoesNotChangeCopy() {
+        CopyOnWrite<Deck<Card>> original = deckOf(5);
+        CopyOnWrite<Deck<Card>> copy = original.share();
+        original.get().draw();
+        assertEquals(4, original.peek().getSize());
+        assertEquals(5, copy.peek().getSize());
+        // and the copy still takes its own copy when it is written to
+        Deck<Card> copyDeck = copy.get();
+        copyDeck.draw();
+        assertEquals(4, original.peek().getSize());
+        assertSame(copyDeck, copy.get());
+    }
+
+    @Test
+    public void containsFindsNestedComponents() {
+        CopyOnWrite<Deck<Card>> holder = deckOf(3);
+        Card card = holder.peek().get(1);
+        assertTrue(holder.contains(holder.peek().getComponentID()));
+        assertTrue(holder.contains(card.getComponentID()));
+        assertFalse(holder.contains(-5));
+    }
+
+    @Test
+    public void getComponentByIdTakesAPrivateCopy() {
+        CopyOnWrite<Deck<Card>> original = deckOf(3);
+        Card card = original.peek().get(1);
+        CopyOnWrite<Deck<Card>> copy = original.share();
+
+        Card found = (Card) original.getComponentById(card.getComponentID());
+        assertFalse(original.isShared());
+        assertNotSame(card, found);
+        assertSame(original.peek().get(1), found);
+        // the copy still has the card it shared
+        assertSame(card, copy.peek().get(1));
+        assertNull(original.getComponentById(-5));
+    }
+
+    @Test
+    public void peekComponentByIdDoesNotCopy() {
+        CopyOnWrite<Deck<Card>> original = deckOf(3);
+        Card card = original.peek().get(1);
+        CopyOnWrite<Deck<Card>> copy = original.share();
+
+        assertSame(card, copy.peekComponentById(card.getComponentID()));
+        assertSame(original.peek(), copy.peekComponentById(original.peek().getComponentID()));
+        assertTrue(copy.isShared());
+        assertNull(copy.peekComponentById(-5));
+        // and once the copy has its own deck, the lookup finds its own card
+        Card copied = (Card) copy.getComponentById(card.getComponentID());
+        assertSame(copy.peek().get(1), copied);
+        assertSame(copied, copy.peekComponentById(card.getComponentID()));
+        assertSame(card, original.peekComponentById(card.getComponentID()));
+    }
+
+    @Test
+    public void reindexFindsComponentsAddedLater() {
+        CopyOnWrite<Deck<Card>> holder = deckOf(3);
+        assertTrue(holder.contains(holder.peek().get(0).getComponentID()));
+        Card added = new Card("Added");
+        holder.get().add(added);
+        holder.reindex();
+        assertSame(added, holder.peekComponentById(added.getComponentID()));
+    }
+}
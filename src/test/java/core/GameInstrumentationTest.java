@@ -0,0 +1,65 @@
+package core;
+
+import games.GameType;
+import org.junit.After;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+import utilities.LatencyHistogram;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GameInstrumentationTest {
+
+    GameInstrumentation instrumentation = GameInstrumentation.getInstance();
+
+    @After
+    public void tearDown() {
+        GameInstrumentation.enabled = false;
+        instrumentation.reset();
+    }
+
+    @Test
+    public void nothingIsRecordedByDefault() {
+        instrumentation.reset();
+        Game game = GameType.TicTacToe.createGameInstance(2, 4803);
+        game.getForwardModel().next(game.getGameState(), null);
+        assertEquals(0, instrumentation.getForwardModelCalls());
+        assertNull(instrumentation.getHistogram(GameType.TicTacToe, GameInstrumentation.Phase.NEXT));
+    }
+
+    @Test
+    public void histogramsHandedOutSurviveReset() {
+        LatencyHistogram[][] histograms = instrumentation.getHistograms(GameType.TicTacToe, 2);
+        LatencyHistogram[] next = histograms[GameInstrumentation.Phase.NEXT.ordinal()];
+        next[0].record(1000);
+        next[2].record(1000);
+        assertSame(next[0], instrumentation.getHistogram(GameType.TicTacToe, GameInstrumentation.Phase.NEXT));
+        assertSame(next[2], instrumentation.getHistogram(GameType.TicTacToe, GameInstrumentation.Phase.NEXT, 1));
+
+        instrumentation.reset();
+        assertNull(instrumentation.getHistogram(GameType.TicTacToe, GameInstrumentation.Phase.NEXT));
+        // a Game holding on to the old arrays still records into the histograms that are reported
+        next[0].record(2000);
+        assertEquals(1, instrumentation.getHistogram(GameType.TicTacToe, GameInstrumentation.Phase.NEXT).getCount());
+    }
+
+    @Test
+    public void recordsEachPhaseWhenEnabled() {
+        instrumentation.reset();
+        GameInstrumentation.enabled = true;
+        Game game = GameType.TicTacToe.createGameInstance(2, 4803);
+        game.reset(Arrays.asList(new RandomPlayer(new Random(1)), new RandomPlayer(new Random(2))));
+        game.run();
+        assertEquals(1, instrumentation.getGamesCompleted(GameType.TicTacToe));
+        assertTrue(instrumentation.getForwardModelCalls() > 0);
+        for (GameInstrumentation.Phase phase : GameInstrumentation.Phase.values()) {
+            LatencyHistogram all = instrumentation.getHistogram(GameType.TicTacToe, phase);
+            long byPlayer = instrumentation.getHistogram(GameType.TicTacToe, phase, 0).getCount()
+                    + instrumentation.getHistogram(GameType.TicTacToe, phase, 1).getCount();
+            assertEquals(all.getCount(), byPlayer);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class HistoryLogTest {
+
+    private HistoryLog<String> logOf(String... entries) {
+        HistoryLog<String> log = new HistoryLog<>();
+        for (String entry : entries)
+            log.add(entry);
+        return log;
+    }
+
+    @Test
+    public void copiesShareThePrefixAndDivergeAfterwards() {
+        HistoryLog<String> original = logOf("a", "b", "c");
+        HistoryLog<String> copy = original.copy();
+        assertEquals(Arrays.asList("a", "b", "c"), copy.toList());
+
+        copy.add("d");
+        original.add("x");
+        original.add("y");
+        copy.add("e");
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), copy.toList());
+        assertEquals(Arrays.asList("a", "b", "c", "x", "y"), original.toList());
+    }
+
+    @Test
+    public void copyOfACopy() {
+        HistoryLog<String> original = logOf("a");
+        HistoryLog<String> first = original.copy();
+        first.add("b");
+        HistoryLog<String> second = first.copy();
+        second.add("c");
+        first.add("d");
+        assertEquals(Arrays.asList("a"), original.toList());
+        assertEquals(Arrays.asList("a", "b", "d"), first.toList());
+        assertEquals(Arrays.asList("a", "b", "c"), second.toList());
+    }
+
+    @Test
+    public void truncateThenAdd() {
+        HistoryLog<String> log = logOf("a", "b", "c");
+        log.truncate(1);
+        log.add("z");
+        assertEquals(Arrays.asList("a", "z"), log.toList());
+
+        HistoryLog<String> copy = log.copy();
+        log.truncate(1);
+        log.add("q");
+        assertEquals(Arrays.asList("a", "q"), log.toList());
+        assertEquals(Arrays.asList("a", "z"), copy.toList());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void cannotReadBeyondTheEnd() {
+        HistoryLog<String> original = logOf("a", "b");
+        HistoryLog<String> copy = original.copy();
+        original.add("c");
+        copy.get(2);
+    }
+}
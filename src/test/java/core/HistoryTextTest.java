@@ -0,0 +1,35 @@
+package core;
+
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HistoryTextTest {
+
+    @Test
+    public void copiesDescribeActionsAsRecordActionDoes() {
+        Game game = GameType.TicTacToe.createGameInstance(2, 4803);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        fm.next(state, fm.computeAvailableActions(state).get(0));
+
+        AbstractGameState copy = state.copy();
+        assertFalse(copy.isRecordingHistoryText());
+        int player = copy.getCurrentPlayer();
+        AbstractAction action = fm.computeAvailableActions(copy).get(0);
+        fm.next(copy, action);
+
+        List<String> text = copy.getHistoryAsText();
+        assertEquals(state.getHistoryAsText(), text.subList(0, text.size() - 1));
+        String expected = "Player " + player + " : " + action;
+        assertEquals(expected, text.get(text.size() - 1));
+
+        // and the same text is kept once recording is switched back on
+        copy.setRecordHistoryText(true);
+        assertEquals(text, copy.getHistoryAsText());
+    }
+}
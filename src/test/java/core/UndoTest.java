@@ -0,0 +1,70 @@
+package core;
+
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class UndoTest {
+
+    /**
+     * Plays through a game at random. Before each action we check that applying and then undoing it leaves the
+     * state unchanged, and at the end we undo the whole game in one go and check we are back at the start.
+     */
+    private void checkUndo(GameType gameType, int nPlayers) {
+        Game game = gameType.createGameInstance(nPlayers, 4803);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        assertTrue(fm.supportsUndo());
+        Random rnd = new Random(33);
+
+        AbstractGameState startState = state.copy();
+        int startHistory = state.getHistory().size();
+        List<UndoToken> tokens = new ArrayList<>();
+        while (state.isNotTerminal() && tokens.size() < 300) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            AbstractAction action = actions.get(rnd.nextInt(actions.size()));
+            assertTrue(fm.canUndo(state, action));
+
+            AbstractGameState before = state.copy();
+            int historyBefore = state.getHistoryAsText().size();
+            UndoToken token = fm.nextWithUndo(state, action.copy());
+            assertNotEquals(before, state);
+            fm.undo(state, token);
+            assertEquals(before, state);
+            assertEquals(before.hashCode(), state.hashCode());
+            assertEquals(historyBefore, state.getHistoryAsText().size());
+
+            tokens.add(fm.nextWithUndo(state, action.copy()));
+        }
+        for (int i = tokens.size() - 1; i >= 0; i--)
+            fm.undo(state, tokens.get(i));
+        assertEquals(startState, state);
+        assertEquals(startHistory, state.getHistory().size());
+    }
+
+    @Test
+    public void ticTacToe() {
+        checkUndo(GameType.TicTacToe, 2);
+    }
+
+    @Test
+    public void connect4() {
+        checkUndo(GameType.Connect4, 2);
+    }
+
+    @Test
+    public void dotsAndBoxes() {
+        checkUndo(GameType.DotsAndBoxes, 3);
+    }
+
+    @Test
+    public void chineseCheckers() {
+        checkUndo(GameType.ChineseCheckers, 2);
+    }
+}
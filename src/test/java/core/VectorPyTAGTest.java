@@ -0,0 +1,118 @@
+package core;
+
+import games.GameType;
+import org.junit.Test;
+import players.python.PythonAgent;
+import players.simple.RandomPlayer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class VectorPyTAGTest {
+
+    @Test
+    public void stepsAllEnvironmentsAndResetsFinishedOnes() throws Exception {
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(new PythonAgent());
+        players.add(new RandomPlayer(new Random(42)));
+        int nEnvs = 4;
+        VectorPyTAG envs = new VectorPyTAG(GameType.TicTacToe, null, players, 343, nEnvs, true);
+        envs.reset();
+        int obsSize = envs.getObservationSpace();
+        int actionSpace = envs.getActionSpace();
+        assertEquals(nEnvs * obsSize, envs.getObservations().length);
+        assertEquals(nEnvs * actionSpace, envs.getActionMasks().length);
+
+        Random rnd = new Random(7);
+        int[] actions = new int[nEnvs];
+        int episodes = 0;
+        for (int step = 0; step < 100; step++) {
+            int[] masks = envs.getActionMasks();
+            for (int i = 0; i < nEnvs; i++) {
+                assertEquals(0, envs.getPlayerIDs()[i]);
+                List<Integer> valid = new ArrayList<>();
+                for (int a = 0; a < actionSpace; a++)
+                    if (masks[i * actionSpace + a] == 1)
+                        valid.add(a);
+                // finished games have been reset, so there is always an action to take
+                assertFalse(valid.isEmpty());
+                actions[i] = valid.get(rnd.nextInt(valid.size()));
+            }
+            envs.step(actions);
+            for (int i = 0; i < nEnvs; i++) {
+                if (envs.getDones()[i])
+                    episodes++;
+                assertFalse(envs.getEnv(i).isDone());
+            }
+        }
+        assertTrue(episodes > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void needsOneActionPerEnvironment() throws Exception {
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(new PythonAgent());
+        players.add(new RandomPlayer(new Random(42)));
+        VectorPyTAG envs = new VectorPyTAG(GameType.TicTacToe, null, players, 343, 2, true);
+        envs.reset();
+        envs.step(new int[1]);
+    }
+
+    @Test
+    public void rewardIsForThePlayerWhoActed() throws Exception {
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(new PythonAgent());
+        players.add(new RandomPlayer(new Random(42)));
+        VectorPyTAG envs = new VectorPyTAG(GameType.TicTacToe, null, players, 343, 1, true);
+        // a single environment with the same seed and players plays the same games, and is not reset at the end
+        List<AbstractPlayer> mirrorPlayers = new ArrayList<>();
+        mirrorPlayers.add(new PythonAgent());
+        mirrorPlayers.add(new RandomPlayer(new Random(42)));
+        PyTAG mirror = new PyTAG(GameType.TicTacToe, null, mirrorPlayers, 343, true);
+        envs.reset();
+        mirror.reset();
+
+        Random rnd = new Random(11);
+        int losses = 0;
+        for (int step = 0; step < 200; step++) {
+            int action = mirror.sampleRNDAction(mirror.getActionMask(), rnd);
+            assertArrayEquals(mirror.getActionMask(), envs.getActionMasks());
+            envs.step(new int[]{action});
+            mirror.step(action);
+            assertEquals(mirror.isDone(), envs.getDones()[0]);
+            if (mirror.isDone()) {
+                // when the random player ends the game, it is the current player, but the reward is still ours
+                double ourResult = mirror.getPlayerResults()[0].value;
+                assertEquals(ourResult, envs.getRewards()[0], 0.0);
+                if (ourResult < 0)
+                    losses++;
+                mirror.reset();
+            }
+        }
+        assertTrue(losses > 0);
+    }
+
+    @Test
+    public void observationsMatchThoseOfEachEnvironment() throws Exception {
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(new PythonAgent());
+        players.add(new RandomPlayer(new Random(42)));
+        VectorPyTAG envs = new VectorPyTAG(GameType.TicTacToe, null, players, 343, 3, true);
+        envs.reset();
+        int obsSize = envs.getObservationSpace();
+        int[] actions = new int[3];
+        for (int step = 0; step < 20; step++) {
+            for (int i = 0; i < 3; i++) {
+                double[] expected = envs.getEnv(i).getObservationVector();
+                double[] written = Arrays.copyOfRange(envs.getObservations(), i * obsSize, (i + 1) * obsSize);
+                assertArrayEquals(expected, written, 0.0);
+                actions[i] = envs.getEnv(i).sampleRNDAction(envs.getEnv(i).getActionMask(), new Random(step));
+            }
+            envs.step(actions);
+        }
+    }
+}
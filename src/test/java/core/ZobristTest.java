@@ -0,0 +1,116 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.actions.SetGridValueAction;
+import core.components.Card;
+import core.components.Counter;
+import core.components.Deck;
+import core.components.GridBoard;
+import core.components.Token;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static core.CoreConstants.VisibilityMode.VISIBLE_TO_ALL;
+import static org.junit.Assert.*;
+
+public class ZobristTest {
+
+    private void play(AbstractGameState state, AbstractForwardModel fm, int... cells) {
+        for (int cell : cells) {
+            AbstractAction move = fm.computeAvailableActions(state).stream()
+                    .filter(a -> ((SetGridValueAction<?>) a).getX() == cell % 3 && ((SetGridValueAction<?>) a).getY() == cell / 3)
+                    .findFirst().orElseThrow(() -> new AssertionError("No move to cell " + cell));
+            fm.next(state, move);
+        }
+    }
+
+    @Test
+    public void transpositionsInTicTacToeHaveTheSameKey() {
+        Game game = GameType.TicTacToe.createGameInstance(2, 123);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState start = game.getGameState();
+        assertEquals(start.getStateKey(), start.copy().getStateKey());
+
+        AbstractGameState first = start.copy();
+        play(first, fm, 0, 4, 8, 1);
+        AbstractGameState second = start.copy();
+        play(second, fm, 8, 1, 0, 4);
+        AbstractGameState different = start.copy();
+        play(different, fm, 0, 4, 1, 8);
+
+        assertEquals(first, second);
+        assertEquals(first.getStateKey(), second.getStateKey());
+        assertNotEquals(first.getStateKey(), different.getStateKey());
+        assertNotEquals(first.getStateKey(), start.getStateKey());
+    }
+
+    @Test
+    public void gridBoardHashIsUpdatedInPlace() {
+        Token x = new Token("x");
+        Token o = new Token("o");
+        Token empty = new Token(".");
+        GridBoard<Token> board = new GridBoard<>(3, 3, empty);
+        long emptyHash = board.getZobristHash();
+
+        GridBoard<Token> other = board.copy();
+        board.setElement(0, 0, x);
+        board.setElement(2, 1, o);
+        other.setElement(2, 1, o);
+        assertNotEquals(board.getZobristHash(), other.getZobristHash());
+        other.setElement(0, 0, x);
+        assertEquals(board.getZobristHash(), other.getZobristHash());
+
+        // the same elements in different cells are a different board
+        other.setElement(0, 0, o);
+        other.setElement(2, 1, x);
+        assertNotEquals(board.getZobristHash(), other.getZobristHash());
+
+        board.setElement(0, 0, empty);
+        board.setElement(2, 1, empty);
+        assertEquals(emptyHash, board.getZobristHash());
+    }
+
+    @Test
+    public void deckHashDependsOnContentsNotOrder() {
+        Deck<Card> deck = new Deck<>("Test", VISIBLE_TO_ALL);
+        for (int i = 0; i < 10; i++)
+            deck.add(new Card("Card " + i));
+        long fullHash = deck.getZobristHash();
+
+        Deck<Card> copy = deck.copy();
+        assertEquals(fullHash, copy.getZobristHash());
+        copy.shuffle(new Random(42));
+        assertEquals(fullHash, copy.getZobristHash());
+
+        Card drawn = copy.draw();
+        assertNotEquals(fullHash, copy.getZobristHash());
+        copy.add(drawn, 5);
+        assertEquals(fullHash, copy.getZobristHash());
+
+        // changes made through the list returned by getComponents() are also tracked
+        Card removed = copy.getComponents().remove(3);
+        assertNotEquals(fullHash, copy.getZobristHash());
+        copy.getComponents().add(removed);
+        assertEquals(fullHash, copy.getZobristHash());
+        copy.getComponents().removeIf(c -> c.getComponentID() == removed.getComponentID());
+        copy.add(removed);
+        assertEquals(fullHash, copy.getZobristHash());
+
+        copy.clear();
+        assertEquals(Zobrist.key(copy.getComponentID(), 0), copy.getZobristHash());
+    }
+
+    @Test
+    public void counterHashFollowsValue() {
+        Counter counter = new Counter(0, 0, 10, "Test");
+        long zero = counter.getZobristHash();
+        counter.increment(3);
+        assertNotEquals(zero, counter.getZobristHash());
+        Counter copy = counter.copy();
+        assertEquals(counter.getZobristHash(), copy.getZobristHash());
+        counter.decrement(3);
+        assertEquals(zero, counter.getZobristHash());
+    }
+}
@@ -0,0 +1,103 @@
+package evaluation.loggers;
+
+import evaluation.loggers.FeatureDataWriter.ColumnType;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class FeatureDataTest {
+
+    private static final String[] columns = {"GameID", "Player", "Score", "Feature"};
+    private static final ColumnType[] types = {ColumnType.INT, ColumnType.INT, ColumnType.DOUBLE, ColumnType.DOUBLE};
+
+    private double[] row(int i) {
+        return new double[]{i / 10, i % 3, i * 0.1, Math.sqrt(i)};
+    }
+
+    private File writeRows(int nRows) throws IOException {
+        File file = File.createTempFile("features", ".data");
+        file.deleteOnExit();
+        // a small chunk size, so that we have several chunks plus a part chunk from processDataAndNotFinish()
+        FeatureDataWriter writer = new FeatureDataWriter(file.getPath(), 16);
+        writer.setColumns(columns, types);
+        for (int i = 0; i < nRows; i++) {
+            writer.write(row(i));
+            if (i == 20)
+                writer.processDataAndNotFinish();
+        }
+        writer.processDataAndFinish();
+        return file;
+    }
+
+    @Test
+    public void rowsAreReadBackExactly() throws IOException {
+        File file = writeRows(100);
+        assertTrue(FeatureDataReader.isFeatureDataFile(file.getPath()));
+        for (boolean mapped : new boolean[]{false, true}) {
+            try (FeatureDataReader reader = new FeatureDataReader(file.getPath(), mapped)) {
+                assertArrayEquals(columns, reader.getColumns());
+                assertArrayEquals(types, reader.getColumnTypes());
+                double[] values = new double[columns.length];
+                int count = 0;
+                while (reader.next(values)) {
+                    assertArrayEquals(row(count), values, 0.0);
+                    count++;
+                }
+                assertEquals(100, count);
+            }
+        }
+    }
+
+    @Test
+    public void columnsAreReadByChunk() throws IOException {
+        File file = writeRows(40);
+        try (FeatureDataReader reader = new FeatureDataReader(file.getPath())) {
+            int total = 0;
+            while (reader.nextChunk()) {
+                double[] feature = reader.column(3);
+                for (int r = 0; r < reader.chunkRows(); r++)
+                    assertEquals(Math.sqrt(total + r), feature[r], 0.0);
+                total += reader.chunkRows();
+            }
+            assertEquals(40, total);
+        }
+    }
+
+    @Test
+    public void recordInfersColumnsAndExportsAsText() throws IOException {
+        File file = File.createTempFile("features", ".data");
+        file.deleteOnExit();
+        FeatureDataWriter writer = new FeatureDataWriter(file.getPath());
+        for (int i = 0; i < 3; i++) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("Turn", i);
+            data.put("Value", i + 0.5);
+            data.put("Ignored", "text");
+            writer.record(data);
+        }
+        writer.processDataAndFinish();
+
+        File tsv = File.createTempFile("features", ".tsv");
+        tsv.deleteOnExit();
+        FeatureDataReader.exportTSV(file.getPath(), tsv.getPath());
+        List<String> lines = Files.readAllLines(tsv.toPath());
+        assertEquals(4, lines.size());
+        assertEquals("Turn\tValue\tIgnored", lines.get(0));
+        assertEquals("2\t2.5\tNaN", lines.get(3));
+    }
+
+    @Test
+    public void textFilesAreNotFeatureData() throws IOException {
+        File file = File.createTempFile("features", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), "GameID\tPlayer\n1\t0\n".getBytes());
+        assertFalse(FeatureDataReader.isFeatureDataFile(file.getPath()));
+    }
+}
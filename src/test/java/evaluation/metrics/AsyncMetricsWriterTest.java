@@ -0,0 +1,95 @@
+package evaluation.metrics;
+
+import core.Game;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class AsyncMetricsWriterTest {
+
+    // records the data it is given, optionally slowly
+    static class ListLogger implements IDataLogger {
+        final List<Object> data = Collections.synchronizedList(new ArrayList<>());
+        final long delayMillis;
+
+        ListLogger(long delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public void init(Game game, int nPlayersPerGame, Set<String> playerNames) {
+        }
+
+        @Override
+        public void addData(String columnName, Object datum) {
+            if (datum == null)
+                throw new IllegalArgumentException("No data for " + columnName);
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            }
+            data.add(datum);
+        }
+
+        @Override
+        public IDataProcessor getDefaultProcessor() {
+            return null;
+        }
+
+        @Override
+        public IDataLogger copy() {
+            return this;
+        }
+
+        @Override
+        public IDataLogger emptyCopy() {
+            return this;
+        }
+
+        @Override
+        public IDataLogger create() {
+            return this;
+        }
+    }
+
+    private MetricRecord record(IDataLogger logger, Object value) {
+        Map<String, Object> records = new LinkedHashMap<>();
+        records.put("Value", value);
+        return new MetricRecord(logger, new String[]{"Default"}, new Object[]{"D"}, records);
+    }
+
+    @Test
+    public void allRecordsAreWrittenInOrderByFlush() {
+        ListLogger logger = new ListLogger(1);
+        // with a tiny queue, add() has to wait for the writer
+        AsyncMetricsWriter writer = new AsyncMetricsWriter(3, 1);
+        for (int i = 0; i < 50; i++)
+            writer.add(record(logger, i));
+        writer.flush();
+        assertEquals(100, logger.data.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals("D", logger.data.get(2 * i));
+            assertEquals(i, logger.data.get(2 * i + 1));
+        }
+        writer.close();
+    }
+
+    @Test
+    public void errorsAreReportedOnFlush() {
+        ListLogger logger = new ListLogger(0);
+        AsyncMetricsWriter writer = new AsyncMetricsWriter();
+        writer.add(record(logger, 1));
+        writer.add(record(logger, null));
+        try {
+            writer.flush();
+            fail("Expected the error from the writer thread");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package evaluation.optimisation;
+
+import evaluation.RunArg;
+import core.AbstractPlayer;
+import games.GameType;
+import org.junit.Test;
+import players.heuristics.WinOnlyHeuristic;
+import players.rmhc.RMHCParams;
+import players.simple.RandomPlayer;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class ParallelNTBEATest {
+
+    /**
+     * Scores settings by how close they are to a fixed point, plus noise. As in GameEvaluator, the seed for each
+     * evaluation is drawn in order on the calling thread, and the evaluations of a batch run on the executor.
+     */
+    static class StubEvaluator extends GameEvaluator {
+        StubEvaluator(NTBEA ntbea, long seed) {
+            super(GameType.TicTacToe, ntbea.params.searchSpace, null, 2, new ArrayList<>(), seed,
+                    new WinOnlyHeuristic(), null, true);
+        }
+
+        private static double score(int[] settings, long seed) {
+            double retValue = new Random(seed).nextGaussian() * 0.1;
+            for (int i = 0; i < settings.length; i++)
+                retValue -= Math.abs(settings[i] - 1);
+            return retValue;
+        }
+
+        @Override
+        public double evaluate(int[] settings) {
+            return score(settings, rnd.nextLong());
+        }
+
+        @Override
+        public double[] evaluate(List<int[]> settings, ExecutorService executor) {
+            List<Future<Double>> results = new ArrayList<>();
+            for (int[] setting : settings) {
+                long seed = rnd.nextLong();
+                results.add(executor.submit(() -> score(setting, seed)));
+            }
+            double[] retValue = new double[settings.size()];
+            try {
+                for (int i = 0; i < retValue.length; i++)
+                    retValue[i] = results.get(i).get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new RuntimeException(e);
+            }
+            return retValue;
+        }
+    }
+
+    private static File searchSpaceFile() throws IOException {
+        File searchSpace = File.createTempFile("searchSpace", ".json");
+        searchSpace.deleteOnExit();
+        try (FileWriter writer = new FileWriter(searchSpace)) {
+            writer.write("{\"class\" : \"players.rmhc.RMHCParams\", \"horizon\" : [1, 2, 3, 4], " +
+                    "\"discountFactor\" : [0.5, 0.8, 0.9, 1.0], \"budget\" : [10, 20, 40]}");
+        }
+        return searchSpace;
+    }
+
+    private NTBEA runNTBEA(File searchSpace, File log) {
+        String[] args = {"game=TicTacToe", "nPlayers=2", "searchSpace=" + searchSpace.getPath(),
+                "iterations=40", "repeats=2", "evalGames=6", "matchups=0", "opponent=random",
+                "nThreads=3", "seed=317", "output=" + log.getName(), "destDir=" + log.getParent()};
+        Map<RunArg, Object> config = RunArg.parseConfig(args, RunArg.Usage.ParameterSearch, false);
+        NTBEA ntbea = new NTBEA(new NTBEAParameters(config), GameType.TicTacToe, 2);
+        ntbea.evaluator = new StubEvaluator(ntbea, 517);
+        ntbea.run();
+        return ntbea;
+    }
+
+    @Test
+    public void parallelResultsAreDeterministic() throws IOException {
+        File searchSpace = searchSpaceFile();
+        File log = File.createTempFile("NTBEA", ".log");
+        log.deleteOnExit();
+        NTBEA first = runNTBEA(searchSpace, log);
+        NTBEA second = runNTBEA(searchSpace, log);
+        assertEquals(2, first.winnerSettings.size());
+        for (int i = 0; i < first.winnerSettings.size(); i++)
+            assertArrayEquals(first.winnerSettings.get(i), second.winnerSettings.get(i));
+        assertArrayEquals(first.bestResult.b, second.bestResult.b);
+        assertEquals(first.bestResult.a.a, second.bestResult.a.a, 1e-12);
+    }
+
+    private static GameEvaluator realEvaluator(ITPSearchSpace searchSpace) {
+        // each evaluator has its own opponent, as copies of it draw from its Random
+        List<AbstractPlayer> opponents = Collections.singletonList(new RandomPlayer(new Random(5)));
+        return new GameEvaluator(GameType.TicTacToe, searchSpace, null, 2, opponents, 517,
+                new WinOnlyHeuristic(), null, true);
+    }
+
+    @Test
+    public void gameEvaluatorBatchMatchesOneAtATime() throws IOException {
+        // the search space is shared, so both evaluators give their RMHC players the same default random seed
+        ITPSearchSpace searchSpace = new ITPSearchSpace(new RMHCParams(), searchSpaceFile().getPath());
+        Random rnd = new Random(23);
+        List<int[]> settings = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            int[] setting = new int[searchSpace.nDims()];
+            for (int d = 0; d < setting.length; d++)
+                setting[d] = rnd.nextInt(searchSpace.nValues(d));
+            settings.add(setting);
+        }
+
+        GameEvaluator sequential = realEvaluator(searchSpace);
+        double[] expected = new double[settings.size()];
+        for (int i = 0; i < expected.length; i++)
+            expected[i] = sequential.evaluate(settings.get(i));
+
+        // and in two batches, so that the player index and seeds carry on from one batch to the next
+        GameEvaluator parallel = realEvaluator(searchSpace);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            double[] first = parallel.evaluate(settings.subList(0, 5), executor);
+            double[] second = parallel.evaluate(settings.subList(5, settings.size()), executor);
+            for (int i = 0; i < expected.length; i++)
+                assertEquals("Setting " + i, expected[i], i < 5 ? first[i] : second[i - 5], 0.0);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(sequential.nEvals(), parallel.nEvals());
+    }
+}
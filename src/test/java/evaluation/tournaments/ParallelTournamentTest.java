@@ -0,0 +1,51 @@
+package evaluation.tournaments;
+
+import core.AbstractPlayer;
+import evaluation.RunArg;
+import games.GameType;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static evaluation.tournaments.AbstractTournament.TournamentMode.NO_SELF_PLAY;
+import static org.junit.Assert.*;
+
+public class ParallelTournamentTest {
+
+    private RoundRobinTournament runTournament(int nThreads, boolean random) {
+        List<AbstractPlayer> agents = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            agents.add(new RandomPlayer(new Random(89 + i)));
+        Map<RunArg, Object> config = new HashMap<>();
+        config.put(RunArg.matchups, 12);
+        config.put(RunArg.nThreads, nThreads);
+        RoundRobinTournament tournament = random ?
+                new RandomRRTournament(agents, GameType.TicTacToe, 2, null, NO_SELF_PLAY, config) :
+                new RoundRobinTournament(agents, GameType.TicTacToe, 2, null, NO_SELF_PLAY, config);
+        tournament.setVerbose(false);
+        tournament.setRandomSeed(4031);
+        tournament.run();
+        return tournament;
+    }
+
+    @Test
+    public void parallelTournamentPlaysEveryGame() {
+        RoundRobinTournament serial = runTournament(1, false);
+        RoundRobinTournament parallel = runTournament(4, false);
+        assertArrayEquals(serial.nGamesPlayed, parallel.nGamesPlayed);
+        // 6 ordered pairs of agents, with 12 games each
+        assertEquals(6 * 12 * 2, Arrays.stream(parallel.nGamesPlayed).sum());
+    }
+
+    @Test
+    public void parallelTournamentIsReproducible() {
+        for (boolean random : new boolean[]{false, true}) {
+            RoundRobinTournament first = runTournament(4, random);
+            RoundRobinTournament second = runTournament(4, random);
+            assertArrayEquals(first.nGamesPlayed, second.nGamesPlayed);
+            assertArrayEquals(first.pointsPerPlayer, second.pointsPerPlayer, 1e-9);
+            assertArrayEquals(first.rankPerPlayer, second.rankPerPlayer, 1e-9);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package evaluation.tournaments;
+
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import evaluation.RunArg;
+import evaluation.listeners.IGameListener;
+import evaluation.metrics.Event;
+import games.GameType;
+import org.junit.Test;
+import players.simple.FirstActionPlayer;
+
+import java.util.*;
+
+import static evaluation.metrics.Event.GameEvent.*;
+import static evaluation.tournaments.AbstractTournament.TournamentMode.NO_SELF_PLAY;
+import static org.junit.Assert.*;
+
+public class WorkerListenerTest {
+
+    static class RecordingListener implements IGameListener {
+        final List<Event> events = new ArrayList<>();
+        final List<Game> games = new ArrayList<>();
+        Game game;
+
+        @Override
+        public void onEvent(Event event) {
+            events.add(event);
+            games.add(game);
+        }
+
+        @Override
+        public void report() {
+        }
+
+        @Override
+        public void setGame(Game game) {
+            this.game = game;
+        }
+
+        @Override
+        public Game getGame() {
+            return game;
+        }
+    }
+
+    @Test
+    public void eventsArePassedOnLiveWithTheirGame() {
+        RecordingListener recorder = new RecordingListener();
+        Game game1 = GameType.TicTacToe.createGameInstance(2, 1);
+        Game game2 = GameType.TicTacToe.createGameInstance(2, 2);
+        RoundRobinTournament.WorkerListener worker1 = new RoundRobinTournament.WorkerListener(recorder);
+        RoundRobinTournament.WorkerListener worker2 = new RoundRobinTournament.WorkerListener(recorder);
+        worker1.setGame(game1);
+        worker2.setGame(game2);
+        AbstractGameState state1 = game1.getGameState();
+        AbstractGameState state2 = game2.getGameState();
+
+        worker1.onEvent(Event.createEvent(ABOUT_TO_START, state1));
+        worker2.onEvent(Event.createEvent(ABOUT_TO_START, state2));
+        worker1.onEvent(Event.createEvent(ACTION_TAKEN, state1, 0));
+        worker2.onEvent(Event.createEvent(GAME_OVER, state2));
+        Game[] expected = {game1, game2, game1, game2};
+        assertEquals(4, recorder.events.size());
+        for (int i = 0; i < 4; i++) {
+            assertSame(expected[i], recorder.games.get(i));
+            // the state is not copied
+            assertSame(expected[i].getGameState(), recorder.events.get(i).state);
+        }
+        assertNull(recorder.game);
+    }
+
+    /**
+     * At each ACTION_TAKEN, records the number of actions so far in the game and the time taken by the last one,
+     * read from the Game, as GameMetrics.ComputationTimes does.
+     */
+    static class ActionTimesListener implements IGameListener {
+        final Map<Game, List<Integer>> actions = new HashMap<>();
+        final Map<Game, List<Double>> nextTimes = new HashMap<>();
+        final List<List<Integer>> actionsByGame = new ArrayList<>();
+        final List<List<Double>> nextTimesByGame = new ArrayList<>();
+        Game game;
+
+        @Override
+        public void onEvent(Event event) {
+            if (event.type == ACTION_TAKEN) {
+                actions.computeIfAbsent(game, g -> new ArrayList<>()).add(game.getActionSpaceSize().size());
+                nextTimes.computeIfAbsent(game, g -> new ArrayList<>()).add(game.getNextTime());
+            } else if (event.type == GAME_OVER) {
+                actionsByGame.add(actions.remove(game));
+                nextTimesByGame.add(nextTimes.remove(game));
+            }
+        }
+
+        @Override
+        public void report() {
+        }
+
+        @Override
+        public void setGame(Game game) {
+            this.game = game;
+        }
+
+        @Override
+        public Game getGame() {
+            return game;
+        }
+    }
+
+    // every game is the same, whoever plays it and on whichever thread
+    static class FirstAction extends FirstActionPlayer {
+        final int id;
+
+        FirstAction(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public String toString() {
+            return "FirstAction-" + id;
+        }
+
+        @Override
+        public FirstAction copy() {
+            return new FirstAction(id);
+        }
+    }
+
+    private ActionTimesListener runTournament(int nThreads) {
+        List<AbstractPlayer> agents = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            agents.add(new FirstAction(i));
+        Map<RunArg, Object> config = new HashMap<>();
+        config.put(RunArg.matchups, 4);
+        config.put(RunArg.nThreads, nThreads);
+        RoundRobinTournament tournament = new RoundRobinTournament(agents, GameType.TicTacToe, 2, null, NO_SELF_PLAY, config);
+        tournament.setVerbose(false);
+        tournament.setRandomSeed(4031);
+        ActionTimesListener listener = new ActionTimesListener();
+        tournament.addListener(listener);
+        tournament.run();
+        return listener;
+    }
+
+    @Test
+    public void perActionMetricsAreTheSameInParallel() {
+        ActionTimesListener sequential = runTournament(1);
+        ActionTimesListener parallel = runTournament(4);
+        assertEquals(6 * 4, sequential.actionsByGame.size());
+        assertEquals(sequential.actionsByGame, parallel.actionsByGame);
+        for (List<Integer> actions : parallel.actionsByGame) {
+            for (int i = 0; i < actions.size(); i++)
+                assertEquals(i + 1, (int) actions.get(i));
+        }
+        // the time is that of each action in turn, and not only of the last one in the game
+        for (List<Double> nextTimes : parallel.nextTimesByGame)
+            assertTrue(new HashSet<>(nextTimes).size() > 1);
+    }
+}
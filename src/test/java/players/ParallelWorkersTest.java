@@ -0,0 +1,115 @@
+package players;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import core.actions.SetGridValueAction;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.rhea.RHEAParams;
+import players.rhea.RHEAPlayer;
+import players.rmhc.RMHCParams;
+import players.rmhc.RMHCPlayer;
+import players.simple.RandomPlayer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ParallelWorkersTest {
+
+    Game game;
+    AbstractForwardModel fm;
+
+    @Before
+    public void setup() {
+        game = GameType.TicTacToe.createGameInstance(2, 4803);
+        fm = game.getForwardModel();
+    }
+
+    private void play(int x, int y) {
+        AbstractGameState state = game.getGameState();
+        for (AbstractAction action : fm.computeAvailableActions(state)) {
+            SetGridValueAction<?> move = (SetGridValueAction<?>) action;
+            if (move.getX() == x && move.getY() == y) {
+                fm.next(state, action);
+                return;
+            }
+        }
+        throw new AssertionError("No move to " + x + ", " + y);
+    }
+
+    // Player 0 can win by playing at (2, 0), and will lose to (2, 1) if it does not
+    private AbstractAction decide(AbstractPlayer player) {
+        game.reset(Arrays.asList(player, new RandomPlayer(new Random(5))));
+        play(0, 0);
+        play(0, 1);
+        play(1, 0);
+        play(1, 1);
+        AbstractGameState state = game.getGameState();
+        AbstractAction retValue = player.getAction(state.copy(0), fm.computeAvailableActions(state));
+        player.finalizePlayer(state);
+        return retValue;
+    }
+
+    private void checkWins(AbstractAction action) {
+        SetGridValueAction<?> move = (SetGridValueAction<?>) action;
+        assertEquals(2, move.getX());
+        assertEquals(0, move.getY());
+    }
+
+    private RHEAPlayer rhea(int workers) {
+        RHEAParams params = new RHEAParams();
+        params.setRandomSeed(317);
+        params.horizon = 1;
+        params.budgetType = PlayerConstants.BUDGET_FM_CALLS;
+        params.budget = 1000;
+        params.parallelWorkers = workers;
+        return new RHEAPlayer(params);
+    }
+
+    private RMHCPlayer rmhc(int workers) {
+        RMHCParams params = new RMHCParams();
+        params.setRandomSeed(317);
+        params.horizon = 1;
+        params.budgetType = PlayerConstants.BUDGET_FM_CALLS;
+        params.budget = 500;
+        params.parallelWorkers = workers;
+        return new RMHCPlayer(params);
+    }
+
+    @Test
+    public void rheaFindsTheSameWinInParallel() {
+        AbstractAction sequential = decide(rhea(1));
+        checkWins(sequential);
+        AbstractAction parallel = decide(rhea(3));
+        assertEquals(sequential, parallel);
+        // and the workers are given their own Randoms, so a parallel search is repeatable
+        assertEquals(parallel, decide(rhea(3)));
+    }
+
+    @Test
+    public void rmhcFindsTheSameWinInParallel() {
+        AbstractAction sequential = decide(rmhc(1));
+        checkWins(sequential);
+        AbstractAction parallel = decide(rmhc(3));
+        assertEquals(sequential, parallel);
+        assertEquals(parallel, decide(rmhc(3)));
+    }
+
+    @Test
+    public void playersCanBeUsedAgainAfterFinalize() {
+        RHEAPlayer rhea = rhea(2);
+        RMHCPlayer rmhc = rmhc(2);
+        // the worker pools are shut down at the end of each game, and new ones made for the next
+        for (int i = 0; i < 2; i++) {
+            checkWins(decide(rhea));
+            checkWins(decide(rmhc));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package players;
+
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import games.GameType;
+import org.junit.Test;
+import players.mcts.MCTSParams;
+import players.mcts.MCTSPlayer;
+import players.rhea.RHEAParams;
+import players.rhea.RHEAPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PondererTest {
+
+    @Test
+    public void stopEndsTheSearch() {
+        Ponderer ponderer = new Ponderer("Test ponder");
+        AtomicInteger iterations = new AtomicInteger();
+        ponderer.start(() -> {
+            while (!ponderer.shouldStop())
+                iterations.incrementAndGet();
+        }, Long.MAX_VALUE);
+        assertTrue(ponderer.isRunning());
+        long cpu = ponderer.stop();
+        assertFalse(ponderer.isRunning());
+        int finalCount = iterations.get();
+        assertTrue(cpu >= 0);
+        assertEquals(finalCount, iterations.get());
+        // the time is only reported once
+        assertEquals(0, ponderer.stop());
+        ponderer.shutdown();
+    }
+
+    private Runnable busySearch(Ponderer ponderer, CountDownLatch finished) {
+        return () -> {
+            while (!ponderer.shouldStop()) {
+                // busy
+            }
+            finished.countDown();
+        };
+    }
+
+    @Test
+    public void searchStopsAtCpuLimit() throws InterruptedException {
+        Ponderer ponderer = new Ponderer("Test ponder");
+        long limit = 50_000_000;  // 50ms
+        CountDownLatch finished = new CountDownLatch(1);
+        ponderer.start(busySearch(ponderer, finished), limit);
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertTrue(ponderer.stop() >= limit);
+        ponderer.shutdown();
+    }
+
+    @Test
+    public void limitIsSharedByRestarts() throws InterruptedException {
+        Ponderer ponderer = new Ponderer("Test ponder");
+        long limit = 50_000_000;
+        CountDownLatch finished = new CountDownLatch(1);
+        ponderer.start(busySearch(ponderer, finished), limit);
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        // the first search used all of the time, so the second is not started
+        ponderer.start(busySearch(ponderer, new CountDownLatch(1)), limit);
+        assertFalse(ponderer.isRunning());
+        assertTrue(ponderer.stop() >= limit);
+        ponderer.shutdown();
+    }
+
+    private MCTSParams mctsParams() {
+        MCTSParams mctsParams = new MCTSParams();
+        mctsParams.setRandomSeed(391);
+        mctsParams.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        mctsParams.budget = 200;
+        mctsParams.ponder = true;
+        return mctsParams;
+    }
+
+    private RHEAParams rheaParams() {
+        RHEAParams rheaParams = new RHEAParams();
+        rheaParams.setRandomSeed(8201);
+        rheaParams.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        rheaParams.budget = 20;
+        rheaParams.ponder = true;
+        return rheaParams;
+    }
+
+    @Test
+    public void gameWithPonderingPlayers() {
+        MCTSPlayer mctsPlayer = new MCTSPlayer(mctsParams());
+        RHEAPlayer rheaPlayer = new RHEAPlayer(rheaParams());
+        assertTrue(mctsPlayer.ponders());
+        assertTrue(rheaPlayer.ponders());
+
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        players.add(rheaPlayer);
+        Game game = GameType.TicTacToe.createGameInstance(2);
+        game.reset(players);
+        game.run();
+        assertFalse(game.getGameState().isNotTerminal());
+        // the players have stopped pondering at the end of the game
+        assertEquals(0, mctsPlayer.stopPondering());
+        assertEquals(0, rheaPlayer.stopPondering());
+    }
+
+    @Test
+    public void noPonderingFromHistoryInCompetitionMode() {
+        AtomicInteger mctsPonders = new AtomicInteger();
+        AtomicInteger rheaPonders = new AtomicInteger();
+        MCTSPlayer mctsPlayer = new MCTSPlayer(mctsParams()) {
+            @Override
+            public void startPondering(AbstractGameState observation, long cpuLimitNanos) {
+                mctsPonders.incrementAndGet();
+                super.startPondering(observation, cpuLimitNanos);
+            }
+        };
+        RHEAPlayer rheaPlayer = new RHEAPlayer(rheaParams()) {
+            @Override
+            public void startPondering(AbstractGameState observation, long cpuLimitNanos) {
+                rheaPonders.incrementAndGet();
+                super.startPondering(observation, cpuLimitNanos);
+            }
+        };
+
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        players.add(rheaPlayer);
+        Game game = GameType.TicTacToe.createGameInstance(2);
+        game.reset(players);
+        game.getGameState().coreGameParameters.competitionMode = true;
+        game.run();
+        assertFalse(game.getGameState().isNotTerminal());
+        // MCTS could not reuse its pondering without the history, but RHEA can
+        assertEquals(0, mctsPonders.get());
+        assertTrue(rheaPonders.get() > 0);
+    }
+}
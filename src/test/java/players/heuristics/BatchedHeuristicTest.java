@@ -0,0 +1,157 @@
+package players.heuristics;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import core.interfaces.IActionFeatureVector;
+import core.interfaces.IStateFeatureVector;
+import core.interfaces.IStateHeuristic;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class BatchedHeuristicTest {
+
+    // the root splits on the action feature, so actions at either end of the list get different values
+    private static final String tree = "DecisionTreeRegressionModel: uid=dtr_3c8f, depth=2, numNodes=7, numFeatures=3\n" +
+            "  If (feature 2 <= 1.5)\n" +
+            "   If (feature 0 <= 100.0)\n" +
+            "    Predict: 0.1\n" +
+            "   Else (feature 0 > 100.0)\n" +
+            "    Predict: 0.2\n" +
+            "  Else (feature 2 > 1.5)\n" +
+            "   If (feature 1 in {0.0,2.0})\n" +
+            "    Predict: -3.0E-4\n" +
+            "   Else (feature 1 not in {0.0,2.0})\n" +
+            "    Predict: 0.4\n";
+
+    AbstractGameState state;
+    List<AbstractAction> actions;
+
+    // the number of turns so far, and the current player
+    IStateFeatureVector stateFeatures = new IStateFeatureVector() {
+        @Override
+        public double[] featureVector(AbstractGameState state, int playerID) {
+            return new double[]{state.getTurnCounter(), playerID};
+        }
+
+        @Override
+        public String[] names() {
+            return new String[]{"TURN", "PLAYER"};
+        }
+    };
+
+    // the position of the action in the list
+    IActionFeatureVector actionFeatures = new IActionFeatureVector() {
+        @Override
+        public double[] featureVector(AbstractAction action, AbstractGameState state, int playerID) {
+            return new double[]{actions.indexOf(action)};
+        }
+
+        @Override
+        public String[] names() {
+            return new String[]{"INDEX"};
+        }
+    };
+
+    @Before
+    public void setup() {
+        Game game = GameType.TicTacToe.createGameInstance(2, 4803);
+        state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        for (int i = 0; i < 3; i++)
+            fm.next(state, fm.computeAvailableActions(state).get(0));
+        actions = fm.computeAvailableActions(state);
+    }
+
+    @Test
+    public void decisionTreeActionsMatchOneAtATime() {
+        DecisionTreeActionHeuristic heuristic = new DecisionTreeActionHeuristic(stateFeatures, actionFeatures, null);
+        heuristic.drModel = DecisionTree.parse(tree, null);
+        double[] batched = heuristic.evaluateAllActions(actions, state);
+        assertEquals(actions.size(), batched.length);
+        for (int i = 0; i < actions.size(); i++)
+            assertEquals(heuristic.evaluateAction(actions.get(i), state), batched[i], 0.0);
+        // the prediction depends on the action, so a stale action feature in the shared buffer would show up
+        assertNotEquals(batched[0], batched[actions.size() - 1], 0.0);
+        // and callers are given a fresh array each time
+        assertNotSame(batched, heuristic.evaluateAllActions(actions, state));
+    }
+
+    @Test
+    public void allPlayersMatchOneAtATime() {
+        IStateHeuristic heuristic = (gs, playerId) -> gs.getTurnCounter() * 10 + playerId;
+        double[] batched = heuristic.evaluateAllPlayers(state);
+        assertEquals(state.getNPlayers(), batched.length);
+        for (int p = 0; p < batched.length; p++)
+            assertEquals(heuristic.evaluateState(state, p), batched[p], 0.0);
+        assertNotSame(batched, heuristic.evaluateAllPlayers(state));
+    }
+
+    // writes a coefficients file in the format read by AbstractStateHeuristic and GLMActionHeuristic
+    private static String coefficientsFile(String[] names, double... coefficients) throws IOException {
+        File file = File.createTempFile("coefficients", ".txt");
+        file.deleteOnExit();
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("BIAS\t" + String.join("\t", names) + "\n");
+            writer.write(Arrays.stream(coefficients).mapToObj(String::valueOf).collect(Collectors.joining("\t")) + "\n");
+        }
+        return file.getPath();
+    }
+
+    private static void checkAllPlayers(IStateHeuristic heuristic, AbstractGameState gs) {
+        // the batched call comes first, so that it cannot rely on anything set up by evaluateState()
+        double[] batched = heuristic.evaluateAllPlayers(gs);
+        assertEquals(gs.getNPlayers(), batched.length);
+        for (int p = 0; p < batched.length; p++)
+            assertEquals(heuristic.getClass().getSimpleName(), heuristic.evaluateState(gs, p), batched[p], 0.0);
+    }
+
+    @Test
+    public void stateModelsMatchOneAtATime() throws IOException {
+        String file = coefficientsFile(stateFeatures.names(), 0.25, 0.1, -0.3);
+        IStateHeuristic defaultHeuristic = AbstractGameState::getGameScore;
+        List<IStateHeuristic> heuristics = Arrays.asList(
+                new LinearStateHeuristic(stateFeatures, file, defaultHeuristic),
+                new LinearStateWinHeuristic(stateFeatures, file, defaultHeuristic),
+                new LinearStateOrdHeuristic(stateFeatures, file, defaultHeuristic),
+                new LinearStateBonusHeuristic(stateFeatures, file, defaultHeuristic),
+                new LogisticStateHeuristic(stateFeatures, file, defaultHeuristic),
+                new LogisticStateWinHeuristic(stateFeatures, file, defaultHeuristic),
+                new LogisticStateOrdHeuristic(stateFeatures, file, defaultHeuristic));
+
+        // and a state at the end of the game, where the subclasses have their own values
+        Game game = GameType.TicTacToe.createGameInstance(2, 4803);
+        AbstractGameState finished = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        while (finished.isNotTerminal())
+            fm.next(finished, fm.computeAvailableActions(finished).get(0));
+
+        for (IStateHeuristic heuristic : heuristics) {
+            checkAllPlayers(heuristic, state);
+            checkAllPlayers(heuristic, finished);
+        }
+    }
+
+    @Test
+    public void linearActionsMatchOneAtATime() throws IOException {
+        String[] names = {"TURN", "PLAYER", "INDEX"};
+        LinearActionHeuristic heuristic = new LinearActionHeuristic(stateFeatures, actionFeatures,
+                coefficientsFile(names, 0.5, 0.1, 0.2, -0.7));
+        double[] batched = heuristic.evaluateAllActions(actions, state);
+        assertEquals(actions.size(), batched.length);
+        for (int i = 0; i < actions.size(); i++)
+            assertEquals(heuristic.evaluateAction(actions.get(i), state), batched[i], 0.0);
+        assertNotEquals(batched[0], batched[actions.size() - 1], 0.0);
+    }
+}
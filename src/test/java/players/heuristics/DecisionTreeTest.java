@@ -0,0 +1,62 @@
+package players.heuristics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DecisionTreeTest {
+
+    // in the format of DecisionTreeRegressionModel.toDebugString()
+    private static final String debugString = "DecisionTreeRegressionModel: uid=dtr_3c8f, depth=2, numNodes=7, numFeatures=3\n" +
+            "  If (feature 0 <= 1.5)\n" +
+            "   If (feature 2 <= -0.25)\n" +
+            "    Predict: 0.1\n" +
+            "   Else (feature 2 > -0.25)\n" +
+            "    Predict: 0.2\n" +
+            "  Else (feature 0 > 1.5)\n" +
+            "   If (feature 1 in {0.0,2.0})\n" +
+            "    Predict: -3.0E-4\n" +
+            "   Else (feature 1 not in {0.0,2.0})\n" +
+            "    Predict: 0.4\n";
+
+    private void checkPredictions(DecisionTree tree) {
+        assertEquals(7, tree.nNodes());
+        assertEquals(2, tree.depth());
+        assertEquals(0.1, tree.predict(new double[]{1.5, 5.0, -0.25}), 1e-12);
+        assertEquals(0.2, tree.predict(new double[]{0.0, 5.0, 0.0}), 1e-12);
+        assertEquals(-3.0e-4, tree.predict(new double[]{2.0, 2.0, 0.0}), 1e-12);
+        assertEquals(0.4, tree.predict(new double[]{2.0, 1.0, 0.0}), 1e-12);
+    }
+
+    @Test
+    public void parsesSparkDebugString() {
+        checkPredictions(DecisionTree.parse(debugString, null));
+    }
+
+    @Test
+    public void parsesDescriptionWithFeatureNames() {
+        String[] names = {"SCORE", "PHASE", "SCORE_DIFF"};
+        String description = debugString;
+        for (int i = names.length - 1; i >= 0; i--)
+            description = description.replace("feature " + i, names[i]);
+        checkPredictions(DecisionTree.parse(description, names));
+    }
+
+    @Test
+    public void jsonRoundTrip() {
+        DecisionTree tree = DecisionTree.parse(debugString, null);
+        checkPredictions(DecisionTree.fromJSON(tree.toJSON()));
+    }
+
+    @Test
+    public void singleLeaf() {
+        DecisionTree tree = DecisionTree.parse("DecisionTreeRegressionModel: uid=dtr_1, depth=0, numNodes=1, numFeatures=2\n  Predict: 0.75\n", null);
+        assertEquals(1, tree.nNodes());
+        assertEquals(0.75, tree.predict(new double[]{1.0, 2.0}), 1e-12);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownFeatureNameIsRejected() {
+        DecisionTree.parse(debugString.replace("feature 1", "MYSTERY"), new String[]{"A", "B", "C"});
+    }
+}
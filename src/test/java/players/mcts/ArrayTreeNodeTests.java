@@ -0,0 +1,88 @@
+package players.mcts;
+
+import core.*;
+import core.actions.*;
+import games.GameType;
+import games.dominion.DominionForwardModel;
+import games.dominion.DominionGameState;
+import games.dominion.DominionParameters;
+import org.junit.*;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ArrayTreeNodeTests {
+
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams();
+        params.setRandomSeed(9332);
+        params.treePolicy = MCTSEnums.TreePolicy.UCB;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
+        params.information = MCTSEnums.Information.Information_Set;
+        params.maxTreeDepth = 50;
+        params.rolloutLength = 10;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        params.selectionPolicy = MCTSEnums.SelectionPolicy.SIMPLE;
+        params.K = 1.0;
+        params.arrayNodes = true;
+    }
+
+    private SingleTreeNode search() {
+        TestMCTSPlayer mctsPlayer = new TestMCTSPlayer(params, null);
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        players.add(new RandomPlayer(new Random(3023)));
+        players.add(new RandomPlayer(new Random(244)));
+        DominionParameters dp = new DominionParameters();
+        dp.setRandomSeed(330245);
+        Game game = new Game(GameType.Dominion, players, new DominionForwardModel(), new DominionGameState(dp, players.size()));
+        AbstractGameState state = game.getGameState();
+        mctsPlayer._getAction(state, game.getForwardModel().computeAvailableActions(state));
+        return mctsPlayer.getRoot(0);
+    }
+
+    @Test
+    public void actionStatsMatchArraysAfterSearch() {
+        SingleTreeNode root = search();
+        assertTrue(root instanceof ArrayTreeNode);
+        assertEquals(200, root.getVisits());
+        for (SingleTreeNode node : root.allNodesInTree()) {
+            assertTrue(node instanceof ArrayTreeNode);
+            for (AbstractAction action : node.actionValues.keySet()) {
+                ActionStats stats = node.actionValues.get(action);
+                assertEquals(node.actionVisits(action), stats.nVisits);
+                assertEquals(node.actionTotValue(action, 0), stats.totValue[0], 1e-9);
+            }
+            if (node.getDepth() == 0)
+                assertEquals(node.getVisits(), Arrays.stream(node.actionVisits()).sum());
+        }
+    }
+
+    @Test
+    public void ucbTunedAndAlphaGo() {
+        for (MCTSEnums.TreePolicy policy : Arrays.asList(MCTSEnums.TreePolicy.UCB_Tuned, MCTSEnums.TreePolicy.AlphaGo)) {
+            setup();
+            params.treePolicy = policy;
+            SingleTreeNode root = search();
+            assertEquals(200, root.getVisits());
+            assertEquals(200, root.actionValues.values().stream().mapToInt(s -> s.nVisits).sum());
+        }
+    }
+
+    @Test
+    public void treeParallelWithArrayNodes() {
+        params.parallelMode = MCTSEnums.ParallelMode.TREE;
+        params.parallelWorkers = 4;
+        SingleTreeNode root = search();
+        assertEquals(200, root.getVisits());
+        for (SingleTreeNode node : root.allNodesInTree())
+            assertEquals(node.getVisits(), node.actionValues.values().stream().mapToInt(s -> s.nVisits).sum());
+    }
+}
@@ -0,0 +1,57 @@
+package players.mcts;
+
+import core.Zobrist;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class MASTTableTest {
+
+    @Test
+    public void concurrentUpdatesAreNotLost() throws Exception {
+        MASTTable table = new MASTTable(2, 1024);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 20000; i++)
+                    table.update(i % 2, Zobrist.key(i % 100), 0.5);
+            }));
+        }
+        for (Future<?> f : futures)
+            f.get();
+        executor.shutdown();
+
+        for (int k = 0; k < 100; k++) {
+            long key = Zobrist.key(k);
+            assertEquals(8 * 200, table.getVisits(k % 2, key));
+            assertEquals(8 * 100, table.getTotalValue(k % 2, key), 1e-9);
+            assertEquals(0, table.getVisits(1 - k % 2, key));
+        }
+    }
+
+    @Test
+    public void decayKeepsTheMean() {
+        MASTTable table = new MASTTable(1);
+        long key = Zobrist.key(42);
+        assertEquals(-1.0, table.getMean(0, key, -1.0), 1e-9);
+        for (int i = 0; i < 10; i++)
+            table.update(0, key, i);
+        assertEquals(4.5, table.getMean(0, key, -1.0), 1e-9);
+
+        table.decay(0.5);
+        assertEquals(5, table.getVisits(0, key));
+        assertEquals(4.5, table.getMean(0, key, -1.0), 1e-9);
+
+        table.decay(1.0);
+        assertEquals(5, table.getVisits(0, key));
+        table.clear();
+        assertEquals(0, table.getVisits(0, key));
+    }
+}
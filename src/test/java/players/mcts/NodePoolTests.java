@@ -0,0 +1,109 @@
+package players.mcts;
+
+import core.AbstractPlayer;
+import core.Game;
+import games.GameType;
+import games.tictactoe.TicTacToeGameParameters;
+import org.junit.*;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class NodePoolTests {
+
+    TestMCTSPlayer mctsPlayer;
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams();
+        params.setRandomSeed(9332);
+        params.treePolicy = MCTSEnums.TreePolicy.UCB;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
+        params.information = MCTSEnums.Information.Information_Set;
+        params.maxTreeDepth = 20;
+        params.rolloutLength = 10;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 500;
+        params.K = 1.0;
+        params.poolNodes = true;
+    }
+
+    public Game createTicTacToe(MCTSParams params) {
+        mctsPlayer = new TestMCTSPlayer(params, null);
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        players.add(new RandomPlayer(new Random(3023)));
+        TicTacToeGameParameters gameParams = new TicTacToeGameParameters();
+        gameParams.gridSize = 4;
+        Game game = GameType.TicTacToe.createGameInstance(2, gameParams);
+        game.reset(players);
+        return game;
+    }
+
+    private void checkTree(SingleTreeNode root) {
+        NodePool pool = mctsPlayer.nodePool;
+        List<SingleTreeNode> nodes = root.allNodesInTree();
+        assertEquals(nodes.size(), pool.getNodesInUse());
+        assertEquals(500, root.getVisits());
+        for (SingleTreeNode node : nodes) {
+            // a recycled node must have been completely reset before reuse
+            assertSame(root, node.root);
+            assertTrue(node.getVisits() <= root.getVisits());
+            assertEquals(node == root ? 0 : node.getParent().getDepth() + 1, node.getDepth());
+        }
+    }
+
+    @Test
+    public void nodesAreRecycled() {
+        Game game = createTicTacToe(params);
+        game.oneAction();
+        NodePool pool = mctsPlayer.nodePool;
+        SingleTreeNode firstRoot = mctsPlayer.getRoot(0);
+        int firstTreeSize = firstRoot.allNodesInTree().size();
+        assertEquals(0, pool.getNodesFromPool());
+        assertEquals(firstTreeSize, pool.getNewNodes());
+        assertEquals(0, pool.getFreeNodes());
+        assertEquals(1.0, pool.getOccupancy(), 1e-9);
+        checkTree(firstRoot);
+
+        game.oneAction();  // the random player
+        game.oneAction();
+        SingleTreeNode secondRoot = mctsPlayer.getRoot(0);
+        assertNotSame(firstRoot, secondRoot);
+        checkTree(secondRoot);
+        int secondTreeSize = secondRoot.allNodesInTree().size();
+        // all the nodes of the first tree were available for the second, so new ones are only needed if it is larger
+        assertEquals(Math.min(firstTreeSize, secondTreeSize), pool.getNodesFromPool());
+        assertEquals(Math.max(0, secondTreeSize - firstTreeSize), pool.getNewNodes());
+        assertEquals(Math.max(0, firstTreeSize - secondTreeSize), pool.getFreeNodes());
+    }
+
+    @Test
+    public void pooledWithReuse() {
+        params.reuseTree = true;
+        params.information = MCTSEnums.Information.Closed_Loop;
+        Game game = createTicTacToe(params);
+        game.oneAction();
+        game.oneAction();
+        game.oneAction();
+        assertTrue(mctsPlayer.rootReused);
+        SingleTreeNode root = mctsPlayer.getRoot(0);
+        List<SingleTreeNode> nodes = root.allNodesInTree();
+        assertEquals(nodes.size(), mctsPlayer.nodePool.getNodesInUse());
+        for (SingleTreeNode node : nodes)
+            assertSame(root, node.root);
+    }
+
+    @Test
+    public void noPoolByDefault() {
+        params.poolNodes = false;
+        Game game = createTicTacToe(params);
+        game.oneAction();
+        assertNull(mctsPlayer.nodePool);
+        assertNull(mctsPlayer.getRoot(0).pool);
+    }
+}
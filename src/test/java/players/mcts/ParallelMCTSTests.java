@@ -0,0 +1,107 @@
+package players.mcts;
+
+import core.*;
+import core.actions.*;
+import games.GameType;
+import games.dominion.DominionForwardModel;
+import games.dominion.DominionGameState;
+import games.dominion.DominionParameters;
+import org.junit.*;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ParallelMCTSTests {
+
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        // default Parameter settings for later changes
+        params = new MCTSParams();
+        params.setRandomSeed(9332);
+        params.treePolicy = MCTSEnums.TreePolicy.UCB;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
+        params.information = MCTSEnums.Information.Information_Set;
+        params.maxTreeDepth = 50;
+        params.rolloutLength = 10;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        params.selectionPolicy = MCTSEnums.SelectionPolicy.SIMPLE;
+        params.K = 1.0;
+        params.parallelWorkers = 4;
+    }
+
+    public Game createGame(TestMCTSPlayer mctsPlayer) {
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        players.add(new RandomPlayer(new Random(3023)));
+        players.add(new RandomPlayer(new Random(244)));
+        DominionParameters dp = new DominionParameters();
+        dp.setRandomSeed(330245);
+        return new Game(GameType.Dominion, players, new DominionForwardModel(), new DominionGameState(dp, players.size()));
+    }
+
+    @Test
+    public void rootParallelMergesAllWorkers() {
+        params.parallelMode = MCTSEnums.ParallelMode.ROOT;
+        TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+        Game game = createGame(player);
+        AbstractGameState state = game.getGameState();
+        player._getAction(state, game.getForwardModel().computeAvailableActions(state));
+
+        RootParallelNode root = (RootParallelNode) player.getRoot(0);
+        assertEquals(4, root.getWorkerCount());
+        assertEquals(200, root.getVisits());
+        int mergedVisits = root.actionValues.values().stream().mapToInt(s -> s.nVisits).sum();
+        assertEquals(200, mergedVisits);
+        for (int w = 0; w < root.getWorkerCount(); w++)
+            assertEquals(50, root.getRoot(w).getVisits());
+    }
+
+    @Test
+    public void treeParallelSharesOneTree() {
+        params.parallelMode = MCTSEnums.ParallelMode.TREE;
+        TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+        Game game = createGame(player);
+        AbstractGameState state = game.getGameState();
+        player._getAction(state, game.getForwardModel().computeAvailableActions(state));
+
+        SingleTreeNode root = player.getRoot(0);
+        assertEquals(200, root.getVisits());
+        // all the virtual loss must have been removed again
+        for (SingleTreeNode node : root.allNodesInTree())
+            assertEquals(node.getVisits(), node.actionValues.values().stream().mapToInt(s -> s.nVisits).sum());
+    }
+
+    @Test
+    public void rootParallelIsReproducible() {
+        checkReproducible(MCTSEnums.ParallelMode.ROOT);
+    }
+
+    @Test
+    public void treeParallelIsReproducible() {
+        checkReproducible(MCTSEnums.ParallelMode.TREE);
+    }
+
+    private void checkReproducible(MCTSEnums.ParallelMode mode) {
+        Map<AbstractAction, Integer> firstVisits = null;
+        for (int run = 0; run < 2; run++) {
+            setup();  // fresh parameters (and hence fresh rollout policies) for each run
+            params.parallelMode = mode;
+            TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+            Game game = createGame(player);
+            AbstractGameState state = game.getGameState();
+            player._getAction(state, game.getForwardModel().computeAvailableActions(state));
+            Map<AbstractAction, Integer> visits = new HashMap<>();
+            player.getRoot(0).actionValues.forEach((a, s) -> visits.put(a, s.nVisits));
+            if (firstVisits == null)
+                firstVisits = visits;
+            else
+                assertEquals(firstVisits, visits);
+        }
+    }
+}
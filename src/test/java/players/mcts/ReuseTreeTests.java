@@ -0,0 +1,121 @@
+package players.mcts;
+
+import core.AbstractPlayer;
+import core.actions.AbstractAction;
+import core.Game;
+import games.GameType;
+import games.tictactoe.TicTacToeGameParameters;
+import org.junit.*;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ReuseTreeTests {
+
+    TestMCTSPlayer mctsPlayer;
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams();
+        params.setRandomSeed(9332);
+        params.treePolicy = MCTSEnums.TreePolicy.UCB;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
+        params.maxTreeDepth = 20;
+        params.rolloutLength = 10;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        // enough that every reply to our first move has been expanded
+        params.budget = 1000;
+        params.K = 1.0;
+        params.reuseTree = true;
+    }
+
+    public Game createTicTacToe(MCTSParams params) {
+        mctsPlayer = new TestMCTSPlayer(params, null);
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        players.add(new RandomPlayer(new Random(3023)));
+        TicTacToeGameParameters gameParams = new TicTacToeGameParameters();
+        gameParams.gridSize = 4;
+        Game game = GameType.TicTacToe.createGameInstance(2, gameParams);
+        game.reset(players);
+        return game;
+    }
+
+    private void secondDecisionReusesTree() {
+        Game game = createTicTacToe(params);
+        game.oneAction();
+        SingleTreeNode firstRoot = mctsPlayer.getRoot(0);
+        assertEquals(1000, firstRoot.getVisits());
+        assertFalse(mctsPlayer.rootReused);
+
+        game.oneAction();  // the random player
+        SingleTreeNode expected = firstRoot.descendant(game.getGameState().getHistory(), 0);
+        assertNotNull(expected);
+        int visitsBefore = expected.getVisits();
+        assertTrue(visitsBefore > 0);
+
+        game.oneAction();
+        SingleTreeNode root = mctsPlayer.getRoot(0);
+        assertTrue(mctsPlayer.rootReused);
+        assertSame(expected, root);
+        assertEquals(visitsBefore + 1000, root.getVisits());
+        assertNull(root.getParent());
+        for (SingleTreeNode node : root.allNodesInTree()) {
+            assertSame(root, node.root);
+            assertEquals(node.getParent() == null ? 0 : node.getParent().getDepth() + 1, node.getDepth());
+        }
+    }
+
+    @Test
+    public void closedLoop() {
+        params.information = MCTSEnums.Information.Closed_Loop;
+        secondDecisionReusesTree();
+    }
+
+    @Test
+    public void informationSet() {
+        params.information = MCTSEnums.Information.Information_Set;
+        secondDecisionReusesTree();
+    }
+
+    @Test
+    public void noReuseByDefault() {
+        params.reuseTree = false;
+        Game game = createTicTacToe(params);
+        game.oneAction();
+        game.oneAction();
+        game.oneAction();
+        assertFalse(mctsPlayer.rootReused);
+        assertEquals(1000, mctsPlayer.getRoot(0).getVisits());
+    }
+
+    @Test
+    public void ponderingCarriesOnAndTheDecisionTopsUp() throws InterruptedException {
+        params.ponder = true;
+        params.budget = 100;
+        Game game = createTicTacToe(params);
+        game.oneAction();
+        // we ponder while the other player decides, for as long as that takes
+        Thread.sleep(500);
+        game.oneAction();  // the random player
+        mctsPlayer.stopPondering();
+        assertTrue(mctsPlayer.lastSearchRoot.getVisits() > 10 * params.budget);
+
+        List<AbstractAction> history = game.getGameState().getHistory();
+        SingleTreeNode expected = mctsPlayer.lastSearchRoot.descendant(history.subList(mctsPlayer.lastSearchHistory, history.size()), 0);
+        assertNotNull(expected);
+        int visitsBefore = expected.getVisits();
+
+        // and the decision only adds ponderTopUp of the budget to the pondered subtree
+        game.oneAction();
+        SingleTreeNode root = mctsPlayer.getRoot(0);
+        assertTrue(mctsPlayer.rootReused);
+        assertSame(expected, root);
+        assertEquals(visitsBefore + 10, root.getVisits());
+        mctsPlayer.stopPondering();
+    }
+}
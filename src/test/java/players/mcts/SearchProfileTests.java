@@ -0,0 +1,83 @@
+package players.mcts;
+
+import core.*;
+import games.GameType;
+import games.dominion.DominionForwardModel;
+import games.dominion.DominionGameState;
+import games.dominion.DominionParameters;
+import org.junit.*;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static players.mcts.SearchProfile.Phase.*;
+
+public class SearchProfileTests {
+
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams();
+        params.setRandomSeed(9332);
+        params.information = MCTSEnums.Information.Information_Set;
+        params.maxTreeDepth = 50;
+        params.rolloutLength = 10;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        params.profileInterval = 10;
+    }
+
+    private SingleTreeNode search() {
+        TestMCTSPlayer player = new TestMCTSPlayer(params, null);
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(player);
+        players.add(new RandomPlayer(new Random(3023)));
+        players.add(new RandomPlayer(new Random(244)));
+        DominionParameters dp = new DominionParameters();
+        dp.setRandomSeed(330245);
+        Game game = new Game(GameType.Dominion, players, new DominionForwardModel(), new DominionGameState(dp, players.size()));
+        AbstractGameState state = game.getGameState();
+        player._getAction(state, game.getForwardModel().computeAvailableActions(state));
+        return player.getRoot(0);
+    }
+
+    @Test
+    public void noProfileByDefault() {
+        params.profileInterval = 0;
+        assertNull(search().profile);
+    }
+
+    @Test
+    public void phasesAreProfiled() {
+        SingleTreeNode root = search();
+        SearchProfile profile = root.profile;
+        assertEquals(200, profile.getIterations());
+        assertEquals(20, profile.getSamples());
+
+        // the rollouts use the forward model, and the evaluation and backup do not
+        assertTrue(profile.getMeanFMCalls(ROLLOUT) > 0.0);
+        assertEquals(0.0, profile.getMeanFMCalls(EVALUATION), 1e-9);
+        assertEquals(0.0, profile.getMeanFMCalls(BACKUP), 1e-9);
+        double sampledFMCalls = 0.0, share = 0.0;
+        for (SearchProfile.Phase phase : SearchProfile.Phase.values()) {
+            sampledFMCalls += profile.getMeanFMCalls(phase) * profile.getSamples();
+            share += profile.getTimeShare(phase);
+            assertTrue(profile.getMeanNanos(phase) >= 0.0);
+        }
+        assertTrue(sampledFMCalls <= root.fmCallsCount);
+        assertEquals(1.0, share, 1e-9);
+    }
+
+    @Test
+    public void rootParallelProfilesAreMerged() {
+        params.parallelMode = MCTSEnums.ParallelMode.ROOT;
+        params.parallelWorkers = 4;
+        SingleTreeNode root = search();
+        // each worker runs 50 iterations, and samples 5 of them
+        assertEquals(200, root.profile.getIterations());
+        assertEquals(20, root.profile.getSamples());
+    }
+}
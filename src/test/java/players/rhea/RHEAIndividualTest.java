@@ -0,0 +1,153 @@
+package players.rhea;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.interfaces.IStateHeuristic;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RHEAIndividualTest {
+
+    AbstractGameState state;
+    AbstractForwardModel fm;
+    // the game tick makes the value of each state different
+    IStateHeuristic heuristic = (gs, playerId) -> gs.getHeuristicScore(playerId) + 0.01 * gs.getGameTick();
+
+    @Before
+    public void setup() {
+        Game game = GameType.TicTacToe.createGameInstance(2, 4803);
+        state = game.getGameState();
+        fm = game.getForwardModel();
+    }
+
+    private RHEAIndividual individual(boolean closedLoop, long seed) {
+        return new RHEAIndividual(4, 0.9, fm, state, 0, new Random(seed), heuristic,
+                new RandomPlayer(new Random(seed)), closedLoop);
+    }
+
+    @Test
+    public void reusedStatesGiveTheSameValueAsAFreshRollout() {
+        // the same seed gives the same actions and states, and then the same random moves from index 2
+        RHEAIndividual closed = individual(true, 23);
+        RHEAIndividual open = individual(false, 23);
+        assertEquals(open.value, closed.value, 0.0);
+
+        closed.rollout(fm, 2, 0, true);
+        open.rollout(fm, 2, 0, true);
+        assertEquals(2, closed.statesReused);
+        assertEquals(open.length, closed.length);
+        assertEquals(open.value, closed.value, 0.0);
+
+        // and the value is that of the states the individual now holds, evaluated from scratch
+        double expected = 0, previousScore = 0;
+        for (int i = 0; i < closed.validStates - 1; i++) {
+            double score = heuristic.evaluateState(closed.gameStates[i + 1], 0);
+            expected += Math.pow(0.9, i) * (score - previousScore);
+            previousScore = score;
+        }
+        assertEquals(expected, closed.value, 1e-12);
+    }
+
+    @Test
+    public void storedStatesAreNeverChanged() {
+        RHEAIndividual parent = individual(true, 47);
+        List<AbstractGameState> stored = new ArrayList<>();
+        List<AbstractGameState> snapshots = new ArrayList<>();
+        for (int i = 0; i < parent.validStates; i++) {
+            stored.add(parent.gameStates[i]);
+            snapshots.add(parent.gameStates[i].copy());
+        }
+
+        // children share the parent's states, and then re-simulate from them
+        for (int n = 0; n < 20; n++) {
+            RHEAIndividual child = new RHEAIndividual(parent);
+            child.mutate(fm, 0, 1);
+            child.rollout(fm, n % 3, 0, true);
+        }
+        parent.rollout(fm, 1, 0, true);
+
+        for (int i = 0; i < stored.size(); i++) {
+            // any action applied to a state would show up in its tick and history
+            assertEquals(snapshots.get(i).getGameTick(), stored.get(i).getGameTick());
+            assertEquals(snapshots.get(i).getHistory(), stored.get(i).getHistory());
+            assertEquals(snapshots.get(i).getCurrentPlayer(), stored.get(i).getCurrentPlayer());
+        }
+    }
+
+    @Test
+    public void gameEndingInsideTheHorizon() {
+        // with three cells left, the game is over after at most two of our moves, well inside the horizon of 4
+        for (int i = 0; i < 6; i++)
+            fm.next(state, fm.computeAvailableActions(state).get(0));
+        assertEquals(0, state.getCurrentPlayer());
+        RHEAIndividual individual = individual(true, 59);
+
+        for (int n = 0; n < 50; n++) {
+            int last = individual.validStates - 1;
+            assertTrue(last < 4);
+            assertFalse(individual.gameStates[last].isNotTerminal());
+            // a mutation that leaves every action before the end of the game as it was changes nothing
+            double value = individual.value;
+            int length = individual.length;
+            individual.rollout(fm, last, 0, true);
+            assertEquals(value, individual.value, 0.0);
+            assertEquals(length, individual.length);
+            // and the individual can still be mutated, as can copies of it
+            RHEAIndividual child = new RHEAIndividual(individual);
+            child.mutate(fm, 0, 1);
+            assertTrue(child.length > 0);
+            individual.mutate(fm, 0, 1);
+            assertTrue(individual.length > 0);
+        }
+    }
+
+    private void preparedEvaluationMatchesMutate(boolean closedLoop) {
+        RHEAIndividual parent = individual(closedLoop, 71);
+        for (int seed = 0; seed < 20; seed++) {
+            // two children of the same parent, with the same Randoms, make the same mutations
+            RHEAIndividual child = new RHEAIndividual(parent);
+            RHEAIndividual prepared = new RHEAIndividual(parent);
+            child.gen = new Random(seed);
+            prepared.gen = new Random(seed);
+            child.rolloutPolicy = new RandomPlayer(new Random(seed));
+            prepared.rolloutPolicy = new RandomPlayer(new Random(seed));
+
+            child.mutate(fm, 0, 1);
+            int startIndex = prepared.chooseMutation(fm, 1);
+            int copies = prepared.prepareEvaluation(startIndex, 0);
+            if (closedLoop && startIndex == prepared.actions.length) {
+                assertEquals(0, copies);  // the mutation changed nothing
+            } else {
+                // only the state the rollout starts from is copied; the others are still shared with the parent
+                assertEquals(1, copies);
+                assertNotSame(parent.gameStates[startIndex], prepared.gameStates[startIndex]);
+                for (int i = 0; i < startIndex; i++)
+                    assertSame(parent.gameStates[i], prepared.gameStates[i]);
+            }
+            prepared.evaluateMutation(fm, startIndex, 0);
+
+            assertArrayEquals(child.actions, prepared.actions);
+            assertEquals(child.length, prepared.length);
+            assertEquals(child.value, prepared.value, 1e-12);
+        }
+    }
+
+    @Test
+    public void preparedEvaluationMatchesMutateInOpenLoop() {
+        preparedEvaluationMatchesMutate(false);
+    }
+
+    @Test
+    public void preparedEvaluationMatchesMutateInClosedLoop() {
+        preparedEvaluationMatchesMutate(true);
+    }
+}
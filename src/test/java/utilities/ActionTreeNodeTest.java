@@ -0,0 +1,79 @@
+package utilities;
+
+import core.actions.DoNothing;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ActionTreeNodeTest {
+
+    // a TicTacToe-like tree: 3 x nodes, each with 3 y nodes
+    private ActionTreeNode grid() {
+        ActionTreeNode root = new ActionTreeNode(0, "root");
+        for (int x = 0; x < 3; x++) {
+            ActionTreeNode xNode = root.addChild(0, "X" + x);
+            for (int y = 0; y < 3; y++)
+                xNode.addChild(0, "X" + x + "Y" + y);
+        }
+        return root;
+    }
+
+    @Test
+    public void masksAreUpdatedInPlace() {
+        ActionTreeNode root = grid();
+        int[] leafMask = root.getLeafMaskBuffer();
+        int[] treeMask = root.getActionMaskBuffer();
+        assertEquals(9, leafMask.length);
+        assertEquals(12, treeMask.length);
+
+        root.findChildrenByName("X1Y2").setAction(new DoNothing());
+        assertSame(leafMask, root.getLeafMaskBuffer());
+        assertArrayEquals(new int[]{0, 0, 0, 0, 0, 1, 0, 0, 0}, leafMask);
+        // the parent is made available too
+        assertArrayEquals(new int[]{0, 1, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0}, treeMask);
+        assertArrayEquals(treeMask, root.getActionMask());
+
+        root.resetTree();
+        assertArrayEquals(new int[9], leafMask);
+        assertArrayEquals(new int[12], treeMask);
+        assertNull(root.findChildrenByName("X1Y2").getAction());
+    }
+
+    @Test
+    public void masksMatchTheValues() {
+        ActionTreeNode root = grid();
+        root.findChildrenByName("X0", true);
+        root.getChildren().get(2).getChildren().get(0).setValue(1);
+        List<Integer> values = root.flattenValues();
+        values.remove(0);
+        int[] mask = root.getActionMask();
+        for (int i = 0; i < mask.length; i++)
+            assertEquals((int) values.get(i), mask[i]);
+        List<ActionTreeNode> leaves = root.getLeafNodes();
+        for (int i = 0; i < leaves.size(); i++)
+            assertEquals(leaves.get(i).getValue(), root.getLeafMaskBuffer()[i]);
+    }
+
+    @Test
+    public void addingNodesRebuildsTheIndex() {
+        ActionTreeNode root = grid();
+        assertEquals(9, root.getLeafNodes().size());
+        ActionTreeNode extra = root.getChildren().get(0).addChild(0, "X0Y3");
+        assertEquals(10, root.getLeafNodes().size());
+        extra.setValue(1);
+        assertEquals(1, root.getLeafMaskBuffer()[3]);
+        assertSame(extra, root.findChildrenByName("X0Y3"));
+    }
+
+    @Test
+    public void subTreesAreSearchedAsBefore() {
+        ActionTreeNode root = grid();
+        ActionTreeNode x2 = root.findChildrenByName("X2");
+        assertSame(x2.getChildren().get(1), x2.findChildrenByName("X2Y1"));
+        assertNull(x2.findChildrenByName("X0Y0"));
+        assertEquals(3, x2.getLeafNodes().size());
+        assertEquals(3, x2.getActionMask().length);
+    }
+}
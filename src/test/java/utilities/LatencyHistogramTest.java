@@ -0,0 +1,78 @@
+package utilities;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void smallValuesAreExact() {
+        for (long v = 0; v < LatencyHistogram.SUB_BUCKETS; v++) {
+            int bucket = LatencyHistogram.bucketOf(v);
+            assertEquals(v, LatencyHistogram.lowestValueIn(bucket));
+            assertEquals(v, LatencyHistogram.highestValueIn(bucket));
+        }
+    }
+
+    @Test
+    public void bucketsContainTheirValues() {
+        Random rnd = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            long v = rnd.nextLong() >>> (1 + rnd.nextInt(63));
+            int bucket = LatencyHistogram.bucketOf(v);
+            long low = LatencyHistogram.lowestValueIn(bucket);
+            long high = LatencyHistogram.highestValueIn(bucket);
+            assertTrue(low <= v && v <= high);
+            // the relative width of a bucket is at most 1/SUB_BUCKETS
+            assertTrue((high - low) <= low / LatencyHistogram.SUB_BUCKETS + 1);
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueIn(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void bucketsAreContiguous() {
+        for (int b = 0; b < LatencyHistogram.bucketOf(Long.MAX_VALUE); b++) {
+            assertEquals(LatencyHistogram.highestValueIn(b) + 1, LatencyHistogram.lowestValueIn(b + 1));
+            assertEquals(b, LatencyHistogram.bucketOf(LatencyHistogram.lowestValueIn(b)));
+        }
+    }
+
+    @Test
+    public void percentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.getValueAtPercentile(50));
+        for (long v = 1; v <= 10000; v++)
+            h.record(v * 1000);
+        assertEquals(10000, h.getCount());
+        assertEquals(5000.5 * 1000, h.getMean(), 1e-6);
+        assertEquals(10000 * 1000, h.getMax());
+        double tolerance = 1.0 / LatencyHistogram.SUB_BUCKETS;
+        assertEquals(5000 * 1000, h.getValueAtPercentile(50), 5000 * 1000 * tolerance);
+        assertEquals(9900 * 1000, h.getValueAtPercentile(99), 9900 * 1000 * tolerance);
+        assertEquals(9990 * 1000, h.getValueAtPercentile(99.9), 9990 * 1000 * tolerance);
+        assertEquals(10000 * 1000, h.getValueAtPercentile(100));
+        // a percentile is never below the true value
+        assertTrue(h.getValueAtPercentile(50) >= 5000 * 1000);
+    }
+
+    @Test
+    public void addAndReset() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        a.record(10);
+        a.record(-5);  // recorded as zero
+        b.record(1000);
+        a.add(b);
+        assertEquals(3, a.getCount());
+        assertEquals(1000, a.getMax());
+        assertEquals(0, a.getValueAtPercentile(1));
+        assertEquals(10, a.getValueAtPercentile(50));
+        a.reset();
+        assertEquals(0, a.getCount());
+        assertEquals(0, a.getMax());
+        assertEquals(0.0, a.getMean(), 1e-9);
+    }
+}